@@ -9,6 +9,8 @@ import Language from './Language';
 
 export type Player = {
   user: User,
+  code?: string,
+  language?: string,
   submissions: Submission[],
   solved: boolean[],
   color: Color,
@@ -24,6 +26,42 @@ export type Game = {
   gameEnded: boolean,
 };
 
+// The current state of a player whose state changed since the last update.
+export type PlayerDelta = {
+  userId: string,
+  user: User,
+  code: string,
+  language: string,
+  solved: boolean[],
+  color: Color,
+  fromSubmission: number,
+  submissions: Submission[],
+};
+
+/**
+ * The changes to a game since the previous update, holding only the fields
+ * that changed. When game is set, it replaces the whole game. Versions are
+ * consecutive, so a client that misses one fetches a fresh snapshot.
+ */
+export type GameDelta = {
+  roomId: string,
+  version: number,
+  game: Game | null,
+  room: Room | null,
+  gameTimer: GameTimer | null,
+  players: PlayerDelta[],
+  leaderboard: string[] | null,
+  playAgain: boolean | null,
+  allSolved: boolean | null,
+  gameEnded: boolean | null,
+};
+
+// The full state of a game, and the version of the last update sent before it.
+export type GameSnapshot = {
+  version: number,
+  game: Game,
+};
+
 export type StartGameParams = {
   initiator: User,
 };
@@ -94,6 +132,7 @@ const basePath = '/api/v1';
 const routes = {
   startGame: (roomId: string) => `${basePath}/rooms/${roomId}/start`,
   getGame: (roomId: string) => `${basePath}/games/${roomId}`,
+  getGameSnapshot: (roomId: string) => `${basePath}/games/${roomId}/snapshot`,
   runCode: (roomId: string) => `${basePath}/games/${roomId}/run-code`,
   submitSolution: (roomId: string) => `${basePath}/games/${roomId}/submission`,
   endGame: (roomId: string) => `${basePath}/games/${roomId}/game-over`,
@@ -114,6 +153,13 @@ export const getGame = (roomId: string):
     throw axiosErrorHandler(err);
   });
 
+export const getGameSnapshot = (roomId: string):
+  Promise<GameSnapshot> => axios.get<GameSnapshot>(routes.getGameSnapshot(roomId))
+  .then((res) => res.data)
+  .catch((err) => {
+    throw axiosErrorHandler(err);
+  });
+
 export const runSolution = (roomId: string, params: RunSolutionParams):
   Promise<Submission> => axios.post<Submission>(routes.runCode(roomId), params)
   .then((res) => res.data)
@@ -141,3 +187,52 @@ export const manuallyEndGame = (roomId: string, params: EndGameParams):
   .catch((err) => {
     throw axiosErrorHandler(err);
   });
+
+const applyPlayerDelta = (player: Player | undefined, delta: PlayerDelta): Player => ({
+  ...player,
+  user: delta.user,
+  code: delta.code,
+  language: delta.language,
+  solved: delta.solved,
+  color: delta.color,
+  submissions: (player ? player.submissions.slice(0, delta.fromSubmission) : [])
+    .concat(delta.submissions),
+});
+
+/**
+ * Apply the changes of one update to the game it follows.
+ *
+ * @param game The game as of the previous update
+ * @param delta The changes sent since then
+ */
+export const applyGameDelta = (game: Game, delta: GameDelta): Game => {
+  if (delta.game) {
+    return delta.game;
+  }
+
+  const players = game.players.map((player) => {
+    const playerDelta = delta.players.find((p) => p.userId === player.user.userId);
+    return playerDelta ? applyPlayerDelta(player, playerDelta) : player;
+  });
+  delta.players.forEach((playerDelta) => {
+    if (!players.some((player) => player.user.userId === playerDelta.userId)) {
+      players.push(applyPlayerDelta(undefined, playerDelta));
+    }
+  });
+
+  // The leaderboard lists the user IDs of all players, in order.
+  const ranked = delta.leaderboard
+    ? delta.leaderboard.map((userId) => players.find((player) => player.user.userId === userId))
+      .filter((player): player is Player => player !== undefined)
+    : players;
+
+  return {
+    ...game,
+    room: delta.room !== null ? delta.room : game.room,
+    gameTimer: delta.gameTimer !== null ? delta.gameTimer : game.gameTimer,
+    players: ranked,
+    playAgain: delta.playAgain !== null ? delta.playAgain : game.playAgain,
+    allSolved: delta.allSolved !== null ? delta.allSolved : game.allSolved,
+    gameEnded: delta.gameEnded !== null ? delta.gameEnded : game.gameEnded,
+  };
+};
@@ -11,6 +11,7 @@ export const routes = (roomId?: string, userId?: string) => ({
   connect: `${basePath}/join-room-endpoint`,
   subscribe_lobby: `${basePath}/${roomId}/subscribe-lobby`,
   subscribe_game: `${basePath}/${roomId}/subscribe-game`,
+  subscribe_game_delta: `${basePath}/${roomId}/subscribe-game-delta`,
   subscribe_notification: `${basePath}/${roomId}/subscribe-notification`,
   subscribe_player: `${basePath}/${roomId}/subscribe-player/${userId}`,
 });
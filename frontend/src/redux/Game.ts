@@ -1,5 +1,8 @@
 import { createAsyncThunk, createSlice, PayloadAction } from '@reduxjs/toolkit';
-import { Game, getGame } from '../api/Game';
+import {
+  applyGameDelta, Game, GameDelta, GameSnapshot, getGame, getGameSnapshot,
+} from '../api/Game';
+import { RootState } from './Store';
 
 const initialState = null as Game | null;
 
@@ -10,6 +13,43 @@ export const fetchGame = createAsyncThunk<Game, string>(
     .catch((err) => thunkApi.rejectWithValue(err)),
 );
 
+export const fetchGameSnapshot = createAsyncThunk<GameSnapshot, string>(
+  'games/fetchSnapshot',
+  async (roomId, thunkApi) => getGameSnapshot(roomId)
+    .then((res) => res)
+    .catch((err) => thunkApi.rejectWithValue(err)),
+);
+
+/**
+ * Apply an update received by socket to the current game. If an update was
+ * missed, or there is no game to apply it to, a fresh snapshot is fetched
+ * instead. Resolves to null if the game already holds the update.
+ */
+export const receiveGameDelta = createAsyncThunk<GameSnapshot | null, GameDelta>(
+  'games/receiveDelta',
+  async (delta, thunkApi) => {
+    const { game, gameVersion } = thunkApi.getState() as RootState;
+
+    if (delta.game) {
+      return { version: delta.version, game: delta.game };
+    }
+    if (game && gameVersion && delta.version <= gameVersion) {
+      return null;
+    }
+    if (game && gameVersion && delta.version === gameVersion + 1) {
+      return { version: delta.version, game: applyGameDelta(game, delta) };
+    }
+
+    return getGameSnapshot(delta.roomId)
+      .then((snapshot) => {
+        // Other updates may have been applied while the snapshot was fetched.
+        const state = thunkApi.getState() as RootState;
+        return snapshot.version > state.gameVersion ? snapshot : null;
+      })
+      .catch((err) => thunkApi.rejectWithValue(err));
+  },
+);
+
 const gameSlice = createSlice({
   name: 'game',
   initialState,
@@ -22,8 +62,28 @@ const gameSlice = createSlice({
   extraReducers: (builder) => {
     builder.addCase(fetchGame.fulfilled, (state,
       action) => action.payload);
+    builder.addCase(fetchGameSnapshot.fulfilled, (state,
+      action) => action.payload.game);
+    builder.addCase(receiveGameDelta.fulfilled, (state,
+      action) => (action.payload ? action.payload.game : state));
+  },
+});
+
+// The version of the last socket update held by the game, or 0 if unknown.
+const gameVersionSlice = createSlice({
+  name: 'gameVersion',
+  initialState: 0,
+  reducers: {},
+  extraReducers: (builder) => {
+    builder.addCase(gameSlice.actions.setGame, () => 0);
+    builder.addCase(fetchGame.fulfilled, () => 0);
+    builder.addCase(fetchGameSnapshot.fulfilled, (state,
+      action) => action.payload.version);
+    builder.addCase(receiveGameDelta.fulfilled, (state,
+      action) => (action.payload ? action.payload.version : state));
   },
 });
 
 export const { setGame } = gameSlice.actions;
+export const gameVersionReducer = gameVersionSlice.reducer;
 export default gameSlice.reducer;
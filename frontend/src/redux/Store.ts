@@ -1,6 +1,6 @@
 import { configureStore } from '@reduxjs/toolkit';
 import roomReducer from './Room';
-import gameReducer from './Game';
+import gameReducer, { gameVersionReducer } from './Game';
 import userReducer from './User';
 import accountReducer from './Account';
 import problemReducer from './Problem';
@@ -9,6 +9,7 @@ const store = configureStore({
   reducer: {
     room: roomReducer,
     game: gameReducer,
+    gameVersion: gameVersionReducer,
     currentUser: userReducer,
     account: accountReducer,
     problem: problemReducer,
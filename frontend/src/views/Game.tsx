@@ -14,7 +14,7 @@ import { checkLocationState, leaveRoom } from '../util/Utility';
 import Loading from '../components/core/Loading';
 import { User } from '../api/User';
 import { Difficulty } from '../api/Difficulty';
-import { Game, manuallyEndGame } from '../api/Game';
+import { Game, GameDelta, manuallyEndGame } from '../api/Game';
 import GameTimerContainer from '../components/game/GameTimerContainer';
 import { GameTimer } from '../api/GameTimer';
 import { TextButton, DangerButton } from '../components/core/Button';
@@ -22,7 +22,7 @@ import {
   connect, routes, subscribe,
 } from '../api/Socket';
 import { useAppDispatch, useAppSelector } from '../util/Hook';
-import { fetchGame, setGame } from '../redux/Game';
+import { fetchGameSnapshot, receiveGameDelta } from '../redux/Game';
 import { setCurrentUser } from '../redux/User';
 import PlayerGameView from '../components/game/PlayerGameView';
 import SpectatorGameView from '../components/game/SpectatorGameView';
@@ -110,18 +110,20 @@ function GamePage() {
   // Re-subscribe in order to get the correct subscription callback.
   const subscribePrimary = useCallback((roomIdParam: string, userId: string) => {
     const subscribeUserCallback = (result: Message) => {
-      const updatedGame: Game = JSON.parse(result.body);
-      dispatch(setGame(updatedGame));
+      const delta: GameDelta = JSON.parse(result.body);
+      dispatch(receiveGameDelta(delta))
+        .then(unwrapResult)
+        .catch((err) => setError(err.message));
     };
 
     // Connect to the socket if not already
     connect(userId).then(() => {
       // Subscribe to the main Game channel to receive Game updates.
       if (!gameSocket) {
-        subscribe(routes(roomIdParam).subscribe_game, subscribeUserCallback)
+        subscribe(routes(roomIdParam).subscribe_game_delta, subscribeUserCallback)
           .then((subscription) => {
             setGameSocket(subscription);
-            dispatch(fetchGame(roomIdParam))
+            dispatch(fetchGameSnapshot(roomIdParam))
               .then(unwrapResult)
               .catch((err) => setError(err.message));
           }).catch((err) => {
@@ -145,7 +147,7 @@ function GamePage() {
   useEffect(() => {
     if (checkLocationState(location, 'roomId', 'currentUser')) {
       if (!game || game?.room.roomId !== location.state.roomId) {
-        dispatch(fetchGame(location.state.roomId))
+        dispatch(fetchGameSnapshot(location.state.roomId))
           .then(unwrapResult)
           .catch((err) => setError(err.message));
       }
@@ -5,7 +5,7 @@ import { useLocation, useHistory } from 'react-router-dom';
 import { Message } from 'stompjs';
 import { unwrapResult } from '@reduxjs/toolkit';
 import { LargeText, MainHeaderText } from '../components/core/Text';
-import { Game, Player, playAgain } from '../api/Game';
+import { GameDelta, Player, playAgain } from '../api/Game';
 import { checkLocationState, leaveRoom } from '../util/Utility';
 import { errorHandler } from '../api/Error';
 import { TextButton, PrimaryButton, SecondaryRedButton } from '../components/core/Button';
@@ -21,7 +21,7 @@ import ResultsTable from '../components/results/ResultsTable';
 import Modal from '../components/core/Modal';
 import FeedbackPopup from '../components/results/FeedbackPopup';
 import { useAppDispatch, useAppSelector, useMousePosition } from '../util/Hook';
-import { fetchGame, setGame } from '../redux/Game';
+import { fetchGameSnapshot, receiveGameDelta } from '../redux/Game';
 import { setCurrentUser } from '../redux/User';
 import { setRoom } from '../redux/Room';
 import PreviewCodeContent from '../components/results/PreviewCodeContent';
@@ -145,7 +145,7 @@ function GameResultsPage() {
   useEffect(() => {
     if (checkLocationState(location, 'roomId', 'currentUser')) {
       if (!game || game?.room.roomId !== location.state.roomId) {
-        dispatch(fetchGame(location.state.roomId))
+        dispatch(fetchGameSnapshot(location.state.roomId))
           .then(unwrapResult)
           .catch((err) => setError(err.message));
       }
@@ -162,16 +162,18 @@ function GameResultsPage() {
   useEffect(() => {
     if (!connected && roomId && currentUser?.userId) {
       const subscribeCallback = (result: Message) => {
-        const updatedGame: Game = JSON.parse(result.body);
-        dispatch(setGame(updatedGame));
+        const delta: GameDelta = JSON.parse(result.body);
+        dispatch(receiveGameDelta(delta))
+          .then(unwrapResult)
+          .catch((err) => setError(err.message));
       };
 
       connect(currentUser!.userId!).then(() => {
-        subscribe(routes(roomId).subscribe_game, subscribeCallback)
+        subscribe(routes(roomId).subscribe_game_delta, subscribeCallback)
           .then(() => {
             setLoading(false);
             setConnected(true);
-            dispatch(fetchGame(roomId))
+            dispatch(fetchGameSnapshot(roomId))
               .then(unwrapResult)
               .catch((err) => setError(err.message));
           })
@@ -0,0 +1,34 @@
+package com.codejoust.main.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * The message broker behind the socket subscriptions, bound from the
+ * broker.* entries in application.properties. By default each node keeps its
+ * own subscriptions in memory; with relay on, every node relays them to one
+ * external STOMP broker, so updates published by any node reach subscribers
+ * connected to every other.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "broker")
+public class BrokerProperties {
+
+    // Whether to relay to an external STOMP broker rather than use the in-memory one.
+    private boolean relay = false;
+
+    // Address of the external broker's STOMP port.
+    private String relayHost = "localhost";
+    private int relayPort = 61613;
+
+    // Credentials of the connections made for each client, and of the node's shared connection.
+    private String clientLogin = "guest";
+    private String clientPasscode = "guest";
+    private String systemLogin = "guest";
+    private String systemPasscode = "guest";
+}
@@ -0,0 +1,23 @@
+package com.codejoust.main.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the in-process cache of rooms and their users, bound from the
+ * cache.* entries in application.properties.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+
+    private boolean enabled = true;
+
+    // The most rooms cached; the least recently used are dropped first.
+    private int maxRooms = 1000;
+}
@@ -0,0 +1,39 @@
+package com.codejoust.main.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * The nodes live games are sharded across, bound from the cluster.* entries in
+ * application.properties. With no nodes listed, this node serves every room.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "cluster")
+public class ClusterProperties {
+
+    // The base URL other nodes reach this node at, which must be one of the nodes.
+    private String self = "";
+
+    // The base URLs of every node, this one included.
+    private List<String> nodes = new ArrayList<>();
+
+    // Points each node is placed at on the hash ring.
+    private int virtualNodes = 128;
+
+    // How often other nodes are checked, to move rooms off nodes that are down and back once they recover.
+    private long healthCheckMillis = 5000;
+
+    // Room and user IDs are dealt out to the nodes in blocks of this many, so no two nodes hand out the same ID.
+    private int idBlockSize = 1000;
+
+    private int connectTimeoutMillis = 2000;
+    private int readTimeoutMillis = 30000;
+}
@@ -0,0 +1,29 @@
+package com.codejoust.main.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the journal live games are saved to, so they can be recovered
+ * after a restart, bound from the journal.* entries in application.properties.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "journal")
+public class JournalProperties {
+
+    private boolean enabled = false;
+
+    // The directory holding the journal file; each node needs its own.
+    private String directory = "journal";
+
+    // How often changed games are written to the journal.
+    private long flushMillis = 1000;
+
+    // Entries appended before the journal is rewritten with only the latest state of each game.
+    private int compactAfter = 1000;
+}
@@ -0,0 +1,29 @@
+package com.codejoust.main.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits on how quickly code may be submitted or run, bound from the
+ * ratelimit.* entries in application.properties.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "ratelimit")
+public class RateLimitProperties {
+
+    // Sustained requests per second, and the burst allowed above that, for a whole room.
+    private double roomPerSecond = 5;
+    private int roomBurst = 20;
+
+    // Sustained requests per second, and the burst allowed above that, for a single player.
+    private double userPerSecond = 1;
+    private int userBurst = 5;
+
+    // Longest a request may be queued before it is rejected instead.
+    private long maxWaitMillis = 5000;
+}
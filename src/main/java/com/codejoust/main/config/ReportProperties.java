@@ -0,0 +1,35 @@
+package com.codejoust.main.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the writer saving submissions and game reports to the
+ * database, bound from the report.* entries in application.properties.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "report")
+public class ReportProperties {
+
+    private boolean enabled = true;
+
+    // How often queued submissions and reports are written.
+    private long flushMillis = 1000;
+
+    // The most entries written in one transaction.
+    private int batchSize = 100;
+
+    // The most entries waiting to be written; more are dropped rather than slowing down submissions.
+    private int maxQueued = 10000;
+
+    // How many times a batch that fails to write is tried before it is dropped.
+    private int maxAttempts = 5;
+
+    // How long to wait before trying a failed batch again, doubled after each further failure.
+    private long retryMillis = 1000;
+}
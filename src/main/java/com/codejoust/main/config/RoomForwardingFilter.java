@@ -0,0 +1,149 @@
+package com.codejoust.main.config;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.codejoust.main.controller.v1.BaseRestController;
+import com.codejoust.main.exception.GameError;
+import com.codejoust.main.service.ClusterClient;
+import com.codejoust.main.service.RoomShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Forwards requests about a room to the node owning it, when that is another
+ * node, and relays the owner's response. The request thread is released
+ * while the owner answers.
+ *
+ * A room whose game is on some node is owned by that node regardless of the
+ * ring, so games in progress when the rooms are rebalanced finish where they
+ * started. A failed forward is only reported to the client; whether the
+ * owner is down is left to the router's health check.
+ */
+@Log4j2
+@Component
+public class RoomForwardingFilter extends OncePerRequestFilter {
+
+    // Marks a forwarded request, which is always served by the node it reaches.
+    public static final String FORWARDED_HEADER = "X-CodeJoust-Forwarded";
+
+    private static final Pattern ROOM_PATH = Pattern.compile(
+        "^" + Pattern.quote(BaseRestController.BASE_URL) + "/(?:games|rooms)/([^/]+)(?:/.*)?$");
+
+    // Hop-by-hop and recomputed headers, which are not copied.
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+        "host", "connection", "content-length", "transfer-encoding", "keep-alive", "upgrade");
+
+    private final RoomShardRouter router;
+    private final ClusterClient clusterClient;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public RoomForwardingFilter(RoomShardRouter router, ClusterClient clusterClient,
+                                ObjectMapper objectMapper) {
+        this.router = router;
+        this.clusterClient = clusterClient;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        Matcher matcher = ROOM_PATH.matcher(request.getRequestURI());
+        if (!matcher.matches() || request.getHeader(FORWARDED_HEADER) != null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String roomId = matcher.group(1);
+        if (router.isLocal(roomId)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String owner = router.getOwner(roomId);
+        HttpUriRequest forwarded = toForwardedRequest(request, owner);
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(0);
+
+        clusterClient.execute(forwarded).whenComplete((ownerResponse, error) -> {
+            HttpServletResponse out = (HttpServletResponse) asyncContext.getResponse();
+            try {
+                if (error != null) {
+                    log.warn("Failed to forward {} to {}: {}", request.getRequestURI(), owner, error.getMessage());
+                    writeError(out, GameError.OWNER_UNAVAILABLE);
+                } else {
+                    copyResponse(ownerResponse, out);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to relay the response for {}:", request.getRequestURI(), e);
+            } finally {
+                asyncContext.complete();
+            }
+        });
+    }
+
+    private HttpUriRequest toForwardedRequest(HttpServletRequest request, String owner) throws IOException {
+        String query = request.getQueryString() != null ? "?" + request.getQueryString() : "";
+        RequestBuilder builder = RequestBuilder.create(request.getMethod())
+            .setUri(owner + request.getRequestURI() + query)
+            .setHeader(FORWARDED_HEADER, router.getSelf());
+
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!SKIPPED_HEADERS.contains(name.toLowerCase())) {
+                for (String value : Collections.list(request.getHeaders(name))) {
+                    builder.addHeader(name, value);
+                }
+            }
+        }
+
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        if (body.length > 0) {
+            builder.setEntity(new ByteArrayEntity(body));
+        }
+
+        return builder.build();
+    }
+
+    private void copyResponse(HttpResponse ownerResponse, HttpServletResponse out) throws IOException {
+        out.setStatus(ownerResponse.getStatusLine().getStatusCode());
+        for (Header header : ownerResponse.getAllHeaders()) {
+            if (!SKIPPED_HEADERS.contains(header.getName().toLowerCase())) {
+                out.addHeader(header.getName(), header.getValue());
+            }
+        }
+
+        if (ownerResponse.getEntity() != null) {
+            out.getOutputStream().write(EntityUtils.toByteArray(ownerResponse.getEntity()));
+        }
+    }
+
+    private void writeError(HttpServletResponse out, GameError error) throws IOException {
+        out.setStatus(error.getStatus().value());
+        out.setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(out.getOutputStream(), error.getResponse());
+    }
+}
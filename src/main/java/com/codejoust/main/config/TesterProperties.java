@@ -0,0 +1,49 @@
+package com.codejoust.main.config;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Connection settings for the tester service, bound from the tester.*
+ * entries in application.properties. Defaults apply to any entry not set.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "tester")
+public class TesterProperties {
+
+    private String url = "http://localhost:8080";
+
+    // Maximum number of concurrent tester requests, and of requests waiting for one.
+    private int maxInFlight = 16;
+    private int maxQueued = 256;
+
+    // Connection pool limits, across all routes and to a single tester host.
+    private int maxConnections = 16;
+    private int maxConnectionsPerRoute = 16;
+
+    private int connectTimeoutMillis = 2000;
+    private int readTimeoutMillis = 30000;
+
+    // Maximum wait for a pooled connection once a request has been sent.
+    private int connectionRequestTimeoutMillis = 5000;
+
+    // Idle connections are reused for up to this long, unless the tester says otherwise.
+    private long keepAliveMillis = 30000;
+
+    // How often to close expired connections and those idle longer than keepAliveMillis.
+    private long idleEvictionMillis = 10000;
+
+    // Threads tester responses are handled on, off the connections' I/O threads.
+    private int callbackThreads = 4;
+
+    // Longest a run or submission request waits for its response, queueing included.
+    private long responseTimeoutMillis = 60000;
+
+    // Maximum number of tester responses kept for identical repeat requests.
+    private int cacheMaxEntries = 1000;
+}
@@ -2,6 +2,7 @@ package com.codejoust.main.config;
 
 import com.codejoust.main.controller.v1.BaseRestController;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
@@ -15,14 +16,36 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public static final String SOCKET_LOBBY = BaseRestController.BASE_SOCKET_URL + "/%s/subscribe-lobby";
 
     public static final String SOCKET_GAME = BaseRestController.BASE_SOCKET_URL + "/%s/subscribe-game";
+
+    public static final String SOCKET_GAME_DELTA = BaseRestController.BASE_SOCKET_URL + "/%s/subscribe-game-delta";
     
     public static final String NOTIFICATION_SOCKET_PATH = BaseRestController.BASE_SOCKET_URL + "/%s/subscribe-notification";
 
+    private final BrokerProperties brokerProperties;
+
+    @Autowired
+    public WebSocketConfig(BrokerProperties brokerProperties) {
+        this.brokerProperties = brokerProperties;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Sets the base URL for message subscription and sending, respectively.
-        config.enableSimpleBroker(BaseRestController.BASE_SOCKET_URL);
+        if (brokerProperties.isRelay()) {
+            config.enableStompBrokerRelay(BaseRestController.BASE_SOCKET_URL)
+                .setRelayHost(brokerProperties.getRelayHost())
+                .setRelayPort(brokerProperties.getRelayPort())
+                .setClientLogin(brokerProperties.getClientLogin())
+                .setClientPasscode(brokerProperties.getClientPasscode())
+                .setSystemLogin(brokerProperties.getSystemLogin())
+                .setSystemPasscode(brokerProperties.getSystemPasscode());
+        } else {
+            config.enableSimpleBroker(BaseRestController.BASE_SOCKET_URL);
+        }
         config.setApplicationDestinationPrefixes(BaseRestController.BASE_SOCKET_URL);
+
+        // Deliver each client's messages in the order sent, as game updates build on the last.
+        config.setPreservePublishOrder(true);
     }
 
     @Override
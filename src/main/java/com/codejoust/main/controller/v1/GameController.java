@@ -1,14 +1,24 @@
 package com.codejoust.main.controller.v1;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.codejoust.main.config.TesterProperties;
 import com.codejoust.main.dto.game.EndGameRequest;
 import com.codejoust.main.dto.game.GameDto;
 import com.codejoust.main.dto.game.GameNotificationDto;
 import com.codejoust.main.dto.game.GameNotificationRequest;
+import com.codejoust.main.dto.game.GameSnapshotDto;
+import com.codejoust.main.dto.game.GameTimerRequest;
 import com.codejoust.main.dto.game.PlayAgainRequest;
+import com.codejoust.main.dto.game.ProblemStatisticsDto;
 import com.codejoust.main.dto.game.StartGameRequest;
 import com.codejoust.main.dto.game.SubmissionDto;
 import com.codejoust.main.dto.game.SubmissionRequest;
 import com.codejoust.main.dto.room.RoomDto;
+import com.codejoust.main.exception.GameError;
+import com.codejoust.main.exception.api.ApiException;
 import com.codejoust.main.service.GameManagementService;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,17 +27,22 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 public class GameController extends BaseRestController {
 
     private final GameManagementService service;
+    private final long responseTimeoutMillis;
 
     @Autowired
-    public GameController(GameManagementService service) {
+    public GameController(GameManagementService service, TesterProperties testerProperties) {
         this.service = service;
+        this.responseTimeoutMillis = testerProperties.getResponseTimeoutMillis();
     }
 
     @GetMapping("/games/{roomId}")
@@ -35,6 +50,17 @@ public class GameController extends BaseRestController {
         return new ResponseEntity<>(service.getGameDtoFromRoomId(roomId), HttpStatus.OK);
     }
 
+    @GetMapping("/games/{roomId}/snapshot")
+    public ResponseEntity<GameSnapshotDto> getGameSnapshot(@PathVariable String roomId) {
+        return new ResponseEntity<>(service.getGameSnapshot(roomId), HttpStatus.OK);
+    }
+
+    @GetMapping("/games/{roomId}/statistics")
+    public ResponseEntity<List<ProblemStatisticsDto>> getProblemStatistics(@PathVariable String roomId,
+                                                                           @RequestParam String userId) {
+        return new ResponseEntity<>(service.getProblemStatistics(roomId, userId), HttpStatus.OK);
+    }
+
     @PostMapping("/rooms/{roomId}/start")
     public ResponseEntity<RoomDto> startGame(@PathVariable String roomId,
                                              @RequestBody StartGameRequest request) {
@@ -47,15 +73,15 @@ public class GameController extends BaseRestController {
     }
     
     @PostMapping("/games/{roomId}/run-code")
-    public ResponseEntity<SubmissionDto> runCode(@PathVariable String roomId,
-                                                        @RequestBody SubmissionRequest request) {
-        return new ResponseEntity<>(service.runCode(roomId, request), HttpStatus.OK);
+    public DeferredResult<ResponseEntity<SubmissionDto>> runCode(@PathVariable String roomId,
+                                                                 @RequestBody SubmissionRequest request) {
+        return toDeferredResult(service.runCode(roomId, request));
     }
     
     @PostMapping("/games/{roomId}/submission")
-    public ResponseEntity<SubmissionDto> submitSolution(@PathVariable String roomId,
-                                                        @RequestBody SubmissionRequest request) {
-        return new ResponseEntity<>(service.submitSolution(roomId, request), HttpStatus.OK);
+    public DeferredResult<ResponseEntity<SubmissionDto>> submitSolution(@PathVariable String roomId,
+                                                                        @RequestBody SubmissionRequest request) {
+        return toDeferredResult(service.submitSolution(roomId, request));
     }
 
     @PostMapping("/games/{roomId}/game-over")
@@ -64,9 +90,52 @@ public class GameController extends BaseRestController {
         return new ResponseEntity<>(service.manuallyEndGame(roomId, request), HttpStatus.OK);
     }
 
+    @PostMapping("/games/{roomId}/timer/pause")
+    public ResponseEntity<GameDto> pauseGameTimer(@PathVariable String roomId,
+                                                  @RequestBody GameTimerRequest request) {
+        return new ResponseEntity<>(service.pauseGameTimer(roomId, request), HttpStatus.OK);
+    }
+
+    @PostMapping("/games/{roomId}/timer/resume")
+    public ResponseEntity<GameDto> resumeGameTimer(@PathVariable String roomId,
+                                                   @RequestBody GameTimerRequest request) {
+        return new ResponseEntity<>(service.resumeGameTimer(roomId, request), HttpStatus.OK);
+    }
+
+    @PutMapping("/games/{roomId}/timer")
+    public ResponseEntity<GameDto> changeGameTimer(@PathVariable String roomId,
+                                                   @RequestBody GameTimerRequest request) {
+        return new ResponseEntity<>(service.changeGameTimer(roomId, request), HttpStatus.OK);
+    }
+
     @PostMapping("/games/{roomId}/restart")
     public ResponseEntity<RoomDto> playAgain(@PathVariable String roomId,
                                                         @RequestBody PlayAgainRequest request) {
         return new ResponseEntity<>(service.playAgain(roomId, request), HttpStatus.OK);
     }
+
+    /**
+     * Respond once the future completes, freeing the request thread meanwhile,
+     * or fail once it takes too long. The future is then cancelled, so that a
+     * request the user is told to try again is not also carried out later.
+     */
+    private <T> DeferredResult<ResponseEntity<T>> toDeferredResult(CompletableFuture<T> future) {
+        DeferredResult<ResponseEntity<T>> result = new DeferredResult<>(responseTimeoutMillis);
+        result.onTimeout(() -> {
+            result.setErrorResult(new ApiException(GameError.TESTER_TIMEOUT));
+            future.cancel(false);
+        });
+        future.whenComplete((body, error) -> {
+            if (future.isCancelled()) {
+                return;
+            } else if (error instanceof CompletionException && error.getCause() != null) {
+                result.setErrorResult(error.getCause());
+            } else if (error != null) {
+                result.setErrorResult(error);
+            } else {
+                result.setResult(new ResponseEntity<>(body, HttpStatus.OK));
+            }
+        });
+        return result;
+    }
 }
@@ -20,6 +20,8 @@ import com.codejoust.main.dto.problem.CreateProblemRequest;
 import com.codejoust.main.dto.problem.CreateProblemTagRequest;
 import com.codejoust.main.dto.problem.CreateTestCaseRequest;
 import com.codejoust.main.dto.problem.ProblemDto;
+import com.codejoust.main.dto.problem.ProblemPageDto;
+import com.codejoust.main.dto.problem.ProblemPageRequest;
 import com.codejoust.main.dto.problem.ProblemTagDto;
 import com.codejoust.main.dto.problem.ProblemTestCaseDto;
 import com.codejoust.main.model.report.CodeLanguage;
@@ -69,6 +71,11 @@ public class ProblemController extends BaseRestController {
         return new ResponseEntity<>(service.getAllProblems(verified, token), HttpStatus.OK);
     }
 
+    @GetMapping("/problems/summaries")
+    public ResponseEntity<ProblemPageDto> getProblemPage(ProblemPageRequest request, @RequestHeader (name="Authorization", required = false) String token) {
+        return new ResponseEntity<>(service.getProblemPage(request, token), HttpStatus.OK);
+    }
+
     @GetMapping("/problems/{problemId}/default-code")
     public ResponseEntity<Map<CodeLanguage, String>> getDefaultCode(@PathVariable String problemId) {
         // Note: slight security issue in that anyone can access this for any problem
@@ -1,7 +1,15 @@
 package com.codejoust.main.controller.v1;
 
 import java.time.Instant;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import com.codejoust.main.dao.RoomCache;
+import com.codejoust.main.dto.room.RoomCacheStatsDto;
+import com.codejoust.main.service.GameRegistry;
+import com.codejoust.main.service.RoomShardRouter;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,8 +18,45 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class UtilityController extends BaseRestController {
 
+    private final RoomShardRouter router;
+    private final GameRegistry gameRegistry;
+    private final RoomCache roomCache;
+
+    @Autowired
+    public UtilityController(RoomShardRouter router, GameRegistry gameRegistry, RoomCache roomCache) {
+        this.router = router;
+        this.gameRegistry = gameRegistry;
+        this.roomCache = roomCache;
+    }
+
     @GetMapping("/get-instant")
     public ResponseEntity<Instant> getInstant() {
         return new ResponseEntity<>(Instant.now(), HttpStatus.OK);
     }
+
+    // The nodes this node sees as up.
+    @GetMapping("/cluster/nodes")
+    public ResponseEntity<Set<String>> getClusterNodes() {
+        return new ResponseEntity<>(router.getNodes(), HttpStatus.OK);
+    }
+
+    // The rooms with games on this node; other nodes call this to check it is up, and keep these rooms here.
+    @GetMapping("/cluster/games")
+    public ResponseEntity<Set<String>> getClusterGames() {
+        Set<String> roomIds = gameRegistry.getGames().stream()
+            .map(game -> game.getRoom().getRoomId())
+            .collect(Collectors.toSet());
+        return new ResponseEntity<>(roomIds, HttpStatus.OK);
+    }
+
+    // The rooms cached on this node, and how many reads the cache answered.
+    @GetMapping("/cache/rooms")
+    public ResponseEntity<RoomCacheStatsDto> getRoomCacheStats() {
+        RoomCacheStatsDto statsDto = new RoomCacheStatsDto();
+        statsDto.setEnabled(roomCache.isEnabled());
+        statsDto.setSize(roomCache.size());
+        statsDto.setHits(roomCache.getHits());
+        statsDto.setMisses(roomCache.getMisses());
+        return new ResponseEntity<>(statsDto, HttpStatus.OK);
+    }
 }
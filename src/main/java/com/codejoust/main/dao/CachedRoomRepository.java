@@ -0,0 +1,17 @@
+package com.codejoust.main.dao;
+
+import com.codejoust.main.model.Room;
+
+/**
+ * The room repository's reads by room ID, saves and deletes, which go
+ * through the room cache.
+ */
+public interface CachedRoomRepository {
+
+    // The room with the host and users loaded in the same query, or null if none
+    Room findRoomByRoomId(String roomId);
+
+    <S extends Room> S save(S room);
+
+    void delete(Room room);
+}
@@ -0,0 +1,100 @@
+package com.codejoust.main.dao;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import com.codejoust.main.model.Room;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class CachedRoomRepositoryImpl implements CachedRoomRepository {
+
+    private static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final RoomCache cache;
+
+    @Autowired
+    public CachedRoomRepositoryImpl(EntityManager entityManager, TransactionTemplate transactionTemplate,
+                                    RoomCache cache) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Room findRoomByRoomId(String roomId) {
+        Room room = cache.get(roomId);
+        if (room != null) {
+            // A transaction gets the room it already holds, as it would from the database.
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                return entityManager.find(Room.class, room.getId(), lobbyGraph());
+            }
+
+            return room;
+        }
+
+        if (!cache.isCacheable()) {
+            return load(roomId);
+        }
+
+        long start = cache.startLoad();
+        try {
+            room = load(roomId);
+            return room;
+        } finally {
+            cache.finishLoad(room, start);
+        }
+    }
+
+    @Override
+    public <S extends Room> S save(S room) {
+        S saved = transactionTemplate.execute(status -> {
+            if (room.getId() == null) {
+                entityManager.persist(room);
+                return room;
+            }
+
+            return entityManager.merge(room);
+        });
+
+        cache.afterWrite(saved.getRoomId(), () -> cache.put(saved));
+        return saved;
+    }
+
+    @Override
+    public void delete(Room room) {
+        if (room.getId() == null) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // The room may already have been deleted.
+            if (entityManager.find(Room.class, room.getId()) != null) {
+                entityManager.remove(entityManager.contains(room) ? room : entityManager.merge(room));
+            }
+        });
+
+        cache.afterWrite(room.getRoomId(), () -> cache.evict(room.getRoomId()));
+    }
+
+    // Load the room by the lobby graph, with the host and users in the same query.
+    private Room load(String roomId) {
+        List<Room> rooms = entityManager
+            .createQuery("select r from Room r where r.roomId = :roomId", Room.class)
+            .setParameter("roomId", roomId)
+            .setHint(LOAD_GRAPH, entityManager.getEntityGraph("Room.lobby"))
+            .getResultList();
+
+        return rooms.isEmpty() ? null : rooms.get(0);
+    }
+
+    private Map<String, Object> lobbyGraph() {
+        return Map.of(LOAD_GRAPH, entityManager.getEntityGraph("Room.lobby"));
+    }
+}
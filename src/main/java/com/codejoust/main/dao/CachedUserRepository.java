@@ -0,0 +1,18 @@
+package com.codejoust.main.dao;
+
+import com.codejoust.main.model.User;
+
+/**
+ * The user repository's reads by user and session ID, saves and deletes,
+ * which go through the room cache.
+ */
+public interface CachedUserRepository {
+
+    User findUserByUserId(String userId);
+
+    User findUserBySessionId(String sessionId);
+
+    <S extends User> S save(S user);
+
+    void delete(User user);
+}
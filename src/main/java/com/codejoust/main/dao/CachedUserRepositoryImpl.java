@@ -0,0 +1,115 @@
+package com.codejoust.main.dao;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import com.codejoust.main.model.User;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class CachedUserRepositoryImpl implements CachedUserRepository {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final RoomCache cache;
+
+    @Autowired
+    public CachedUserRepositoryImpl(EntityManager entityManager, TransactionTemplate transactionTemplate,
+                                    RoomCache cache) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.cache = cache;
+    }
+
+    @Override
+    public User findUserByUserId(String userId) {
+        return resolve(cache.getUser(userId), "userId", userId);
+    }
+
+    @Override
+    public User findUserBySessionId(String sessionId) {
+        return resolve(cache.getUserBySessionId(sessionId), "sessionId", sessionId);
+    }
+
+    @Override
+    public <S extends User> S save(S user) {
+        S saved = transactionTemplate.execute(status -> {
+            if (user.getId() == null) {
+                entityManager.persist(user);
+                return user;
+            }
+
+            return entityManager.merge(user);
+        });
+
+        cache.afterWrite(getRoomId(saved), () -> cache.updateUser(saved));
+        return saved;
+    }
+
+    @Override
+    public void delete(User user) {
+        if (user.getId() == null) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // The user may already have been deleted.
+            if (entityManager.find(User.class, user.getId()) != null) {
+                entityManager.remove(entityManager.contains(user) ? user : entityManager.merge(user));
+            }
+        });
+
+        String roomId = getRoomId(user);
+        cache.afterWrite(roomId, () -> cache.evict(roomId));
+    }
+
+    // Return the cached user, or else load them by the given field.
+    private User resolve(User cached, String field, String value) {
+        if (cached == null) {
+            return load(field, value);
+        }
+
+        // A transaction gets the user it already holds, as it would from the database.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return entityManager.find(User.class, cached.getId());
+        }
+
+        return cached;
+    }
+
+    // Load the user by the given field, caching their room if possible.
+    private User load(String field, String value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (!cache.isCacheable()) {
+            return query(field, value);
+        }
+
+        long start = cache.startLoad();
+        User user = null;
+        try {
+            user = query(field, value);
+            return user;
+        } finally {
+            cache.finishLoad(user == null ? null : user.getRoom(), start);
+        }
+    }
+
+    private User query(String field, String value) {
+        List<User> users = entityManager
+            .createQuery("select u from User u where u." + field + " = :value", User.class)
+            .setParameter("value", value)
+            .getResultList();
+
+        return users.isEmpty() ? null : users.get(0);
+    }
+
+    private static String getRoomId(User user) {
+        return user.getRoom() == null ? null : user.getRoom().getRoomId();
+    }
+}
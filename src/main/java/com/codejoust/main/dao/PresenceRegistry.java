@@ -0,0 +1,124 @@
+package com.codejoust.main.dao;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.codejoust.main.config.ClusterProperties;
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * The users connected to this node by socket, held in memory rather than
+ * written to the database on every connection and disconnection.
+ *
+ * Each user loaded, or read from the room cache, is given their session ID
+ * from here, which User.getConnectedSessionId reads in place of the saved
+ * one. It is not persisted, so loading a user never writes their row, and
+ * their column is never read back while the registry is on.
+ *
+ * Another node may hold a user's connection, so the registry is off when
+ * the cluster lists several nodes, or socket.presence is false, and
+ * connections are saved as before.
+ */
+@Log4j2
+@Component
+public class PresenceRegistry {
+
+    private final boolean enabled;
+
+    // The user and room of each connected session, by session ID.
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+    // The current session of each connected user, by user ID.
+    private final Map<String, String> sessionIds = new ConcurrentHashMap<>();
+
+    @Getter
+    @AllArgsConstructor
+    public static class Connection {
+        private final String userId;
+        private final String roomId;
+    }
+
+    @Autowired
+    public PresenceRegistry(@Value("${socket.presence:true}") boolean presence,
+                            ClusterProperties clusterProperties) {
+        boolean clustered = clusterProperties.getNodes().size() > 1;
+        this.enabled = presence && !clustered;
+        if (presence && clustered) {
+            log.info("Saving socket connections, as they may be held by any of {} nodes",
+                clusterProperties.getNodes().size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Register a session of the user, replacing any they held before.
+     *
+     * @param sessionId The ID of the socket session.
+     * @param userId The ID of the user connecting.
+     * @param roomId The ID of the user's room.
+     */
+    public void connect(String sessionId, String userId, String roomId) {
+        connections.put(sessionId, new Connection(userId, roomId));
+        sessionIds.put(userId, sessionId);
+    }
+
+    /**
+     * Drop a session.
+     *
+     * @param sessionId The ID of the socket session.
+     * @return The user and room of the session, or null if the session is
+     * unknown or its user has connected again since, so is still connected.
+     */
+    public Connection disconnect(String sessionId) {
+        Connection connection = connections.remove(sessionId);
+        if (connection == null || !sessionIds.remove(connection.getUserId(), sessionId)) {
+            return null;
+        }
+
+        return connection;
+    }
+
+    // Treat the user as disconnected until they connect again; their open session is left to close.
+    public void disconnectUser(String userId) {
+        sessionIds.remove(userId);
+    }
+
+    // The user's current session ID, or null if they are not connected.
+    public String getSessionId(String userId) {
+        return userId == null ? null : sessionIds.get(userId);
+    }
+
+    // The number of sessions open.
+    public int getConnections() {
+        return connections.size();
+    }
+
+    // Give the user their current session ID, read in place of the saved one.
+    public void apply(User user) {
+        if (enabled && user != null) {
+            user.setPresence(getSessionId(user.getUserId()));
+        }
+    }
+
+    // Give the room's host and users their current session IDs.
+    public void apply(Room room) {
+        if (!enabled || room == null) {
+            return;
+        }
+
+        apply(room.getHost());
+        room.getUsers().forEach(this::apply);
+    }
+}
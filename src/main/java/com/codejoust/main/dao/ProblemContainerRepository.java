@@ -0,0 +1,19 @@
+package com.codejoust.main.dao;
+
+import com.codejoust.main.model.problem.Problem;
+import com.codejoust.main.model.problem.ProblemContainer;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ProblemContainerRepository extends CrudRepository<ProblemContainer, Integer> {
+
+    // Detach the game reports' containers from a problem about to be deleted, keeping their counts.
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProblemContainer c SET c.problem = NULL WHERE c.problem = :problem")
+    int clearProblem(@Param("problem") Problem problem);
+}
@@ -1,7 +1,14 @@
 package com.codejoust.main.dao;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.codejoust.main.model.problem.Problem;
@@ -11,10 +18,41 @@ import com.codejoust.main.model.problem.ProblemDifficulty;
 // CRUD refers Create, Read, Update, Delete
 public interface ProblemRepository extends CrudRepository<Problem, Integer> {
 
+    // Matches problems by each filter given, leaving out those that are null. The owner is
+    // joined explicitly, as p.owner.uid would inner join it and leave out problems without one.
+    String SUMMARY_FILTER = "FROM Problem p LEFT JOIN p.owner o "
+        + "WHERE (:verified IS NULL OR p.verified = :verified) "
+        + "AND (:difficulty IS NULL OR p.difficulty = :difficulty) "
+        + "AND (:ownerUid IS NULL OR o.uid = :ownerUid) "
+        + "AND (:tagId IS NULL OR EXISTS "
+        + "(SELECT q.id FROM Problem q JOIN q.problemTags t WHERE q = p AND t.tagId = :tagId))";
+
+    @EntityGraph(value = "Problem.detail", type = EntityGraphType.LOAD)
     Problem findProblemByProblemId(String problemId);
-    List<Problem> findAllByDifficultyAndVerified(ProblemDifficulty difficulty, Boolean verified);
+
+    // The problems with the given IDs, as needed to start a game with them.
+    @EntityGraph(value = "Problem.detail", type = EntityGraphType.LOAD)
+    List<Problem> findDistinctByIdIn(Collection<Integer> ids);
     List<Problem> findAllByVerified(Boolean verified);
     List<Problem> findByProblemTags_TagId(String tagId);
     @Override
     List<Problem> findAll();
+
+    // The IDs of the verified problems of the given difficulty, or of any difficulty if null.
+    @Query("SELECT p.id FROM Problem p WHERE p.verified = true "
+        + "AND (:difficulty IS NULL OR p.difficulty = :difficulty)")
+    List<Integer> findVerifiedIds(@Param("difficulty") ProblemDifficulty difficulty);
+
+    @Query(value = "SELECT p.id AS id, p.problemId AS problemId, p.name AS name, "
+        + "p.difficulty AS difficulty, p.verified AS verified " + SUMMARY_FILTER,
+        countQuery = "SELECT COUNT(p) " + SUMMARY_FILTER)
+    Page<ProblemSummary> findSummaries(@Param("verified") Boolean verified,
+                                       @Param("difficulty") ProblemDifficulty difficulty,
+                                       @Param("ownerUid") String ownerUid,
+                                       @Param("tagId") String tagId,
+                                       Pageable pageable);
+
+    @Query("SELECT p.id AS problemId, t.tagId AS tagId, t.name AS name "
+        + "FROM Problem p JOIN p.problemTags t WHERE p.id IN :ids")
+    List<ProblemTagSummary> findTagSummaries(@Param("ids") Collection<Integer> ids);
 }
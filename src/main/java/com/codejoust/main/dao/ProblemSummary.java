@@ -0,0 +1,16 @@
+package com.codejoust.main.dao;
+
+import com.codejoust.main.model.problem.ProblemDifficulty;
+
+/**
+ * The columns of a problem shown in problem listings, selected without
+ * loading the problem's test cases, inputs, tags or owner.
+ */
+public interface ProblemSummary {
+
+    Integer getId();
+    String getProblemId();
+    String getName();
+    ProblemDifficulty getDifficulty();
+    Boolean getVerified();
+}
@@ -0,0 +1,9 @@
+package com.codejoust.main.dao;
+
+// A tag of a problem in a problem listing, with the database ID of its problem.
+public interface ProblemTagSummary {
+
+    Integer getProblemId();
+    String getTagId();
+    String getName();
+}
@@ -0,0 +1,326 @@
+package com.codejoust.main.dao;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.codejoust.main.config.CacheProperties;
+import com.codejoust.main.config.ClusterProperties;
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+import com.codejoust.main.model.problem.Problem;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Bounded, least-recently-used cache of rooms and their users, read through
+ * by RoomRepository and UserRepository and written through by their saves.
+ *
+ * The cached rooms are never handed out: each read returns a detached copy,
+ * so a request may change its room and fail before saving it without
+ * affecting other requests. Saves made in a transaction are written again
+ * once it commits, or evicted if it rolls back, and rooms read in a
+ * transaction are not cached, as they may hold its uncommitted changes.
+ *
+ * Only one node may write a room for its cache to stay correct, so the cache
+ * is off when the cluster lists several nodes.
+ */
+@Log4j2
+@Component
+public class RoomCache {
+
+    private final boolean enabled;
+    private final int maxRooms;
+    private final PresenceRegistry presence;
+
+    // The cached rooms by room ID, least recently used first.
+    private final LinkedHashMap<String, Room> rooms = new LinkedHashMap<>(16, 0.75f, true);
+
+    // The room ID of each cached user, by user ID, and the user ID of each connected user, by session ID.
+    private final Map<String, String> roomIds = new HashMap<>();
+    private final Map<String, String> userIds = new HashMap<>();
+
+    /*
+     * Reads from the database in progress, and when each room was written
+     * since the oldest of them began, so that a read that began before a
+     * write cannot cache the room as it was before it.
+     */
+    private long writes;
+    private long clearedAt;
+    private int loading;
+    private final Map<String, Long> writtenAt = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public RoomCache(CacheProperties properties, ClusterProperties clusterProperties,
+                     PresenceRegistry presence) {
+        boolean clustered = clusterProperties.getNodes().size() > 1;
+        if (properties.isEnabled() && clustered) {
+            log.info("Not caching rooms, as they may be written by any of {} nodes", clusterProperties.getNodes().size());
+        }
+
+        this.enabled = properties.isEnabled() && !clustered;
+        this.maxRooms = properties.getMaxRooms();
+        this.presence = presence;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Whether a room read from the database now may be cached.
+    public boolean isCacheable() {
+        return enabled && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    // A copy of the cached room, or null if it is not cached.
+    public Room get(String roomId) {
+        if (!enabled || roomId == null) {
+            return null;
+        }
+
+        Room room;
+        synchronized (this) {
+            Room cached = rooms.get(roomId);
+            room = cached == null ? null : cached.copy();
+        }
+
+        count(room != null);
+        presence.apply(room);
+        return room;
+    }
+
+    // The cached user, in a copy of their room, or null if their room is not cached.
+    public User getUser(String userId) {
+        if (!enabled || userId == null) {
+            return null;
+        }
+
+        User user = null;
+        synchronized (this) {
+            String roomId = roomIds.get(userId);
+            Room cached = roomId == null ? null : rooms.get(roomId);
+            if (cached != null) {
+                user = cached.copy().getUserByUserId(userId);
+            }
+        }
+
+        count(user != null);
+        if (user != null) {
+            presence.apply(user.getRoom());
+        }
+        return user;
+    }
+
+    // The cached user connected with the session, in a copy of their room, or null if not cached.
+    public User getUserBySessionId(String sessionId) {
+        if (!enabled || sessionId == null) {
+            return null;
+        }
+
+        String userId;
+        synchronized (this) {
+            userId = userIds.get(sessionId);
+        }
+
+        if (userId == null) {
+            count(false);
+            return null;
+        }
+
+        return getUser(userId);
+    }
+
+    /**
+     * Begin reading a room from the database, to be cached once read.
+     *
+     * @return The point the read began at, to be passed to finishLoad.
+     */
+    public synchronized long startLoad() {
+        loading++;
+        return writes;
+    }
+
+    /**
+     * Cache a room read from the database, unless it has been written since
+     * the read began.
+     *
+     * @param room The room read, or null if none was found or the read failed.
+     * @param start The point the read began at, as returned by startLoad.
+     */
+    public synchronized void finishLoad(Room room, long start) {
+        loading--;
+        if (room != null && start >= clearedAt && writtenAt.getOrDefault(room.getRoomId(), 0L) <= start) {
+            store(room.copy());
+        }
+
+        if (loading == 0) {
+            writtenAt.clear();
+        }
+    }
+
+    /**
+     * Write a change to a room through to the cache once it is saved. In a
+     * transaction, the change is written at once, so the rest of the
+     * transaction sees it, and again once it commits; if it rolls back, the
+     * room is evicted instead.
+     *
+     * @param roomId The ID of the room changed, or null if none.
+     * @param writeThrough Writes the change to the cache.
+     */
+    public void afterWrite(String roomId, Runnable writeThrough) {
+        if (!enabled || roomId == null) {
+            return;
+        }
+
+        writeThrough.run();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                    writeThrough.run();
+                } else {
+                    evict(roomId);
+                }
+            }
+        });
+    }
+
+    // Cache a copy of a room just saved.
+    public synchronized void put(Room room) {
+        written(room.getRoomId());
+        store(room.copy());
+    }
+
+    // Update the cached copy of a user just saved, in their room if it is cached.
+    public synchronized void updateUser(User user) {
+        if (user.getRoom() == null) {
+            return;
+        }
+
+        String roomId = user.getRoom().getRoomId();
+        written(roomId);
+
+        Room cached = rooms.get(roomId);
+        if (cached == null) {
+            return;
+        }
+
+        User cachedUser = cached.getUserByUserId(user.getUserId());
+        if (cachedUser == null) {
+            remove(roomId);
+            return;
+        }
+
+        if (cachedUser.getSessionId() != null) {
+            userIds.remove(cachedUser.getSessionId(), cachedUser.getUserId());
+        }
+
+        cachedUser.setNickname(user.getNickname());
+        cachedUser.setSpectator(user.getSpectator());
+        cachedUser.setSessionId(user.getSessionId());
+        cachedUser.setAccount(user.getAccount());
+
+        if (cachedUser.getSessionId() != null) {
+            userIds.put(cachedUser.getSessionId(), cachedUser.getUserId());
+        }
+    }
+
+    public synchronized void evict(String roomId) {
+        written(roomId);
+        remove(roomId);
+    }
+
+    // Evict the rooms that selected the problem, e.g. after it is edited.
+    public synchronized void evictProblem(String problemId) {
+        clearedAt = ++writes;
+
+        Iterator<Room> iterator = rooms.values().iterator();
+        while (iterator.hasNext()) {
+            Room room = iterator.next();
+            for (Problem problem : room.getProblems()) {
+                if (problemId.equals(problem.getProblemId())) {
+                    iterator.remove();
+                    unindex(room);
+                    break;
+                }
+            }
+        }
+    }
+
+    // The number of reads answered from the cache.
+    public long getHits() {
+        return hits.sum();
+    }
+
+    // The number of reads not answered from the cache.
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public synchronized int size() {
+        return rooms.size();
+    }
+
+    private void count(boolean hit) {
+        if (hit) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+    }
+
+    private void written(String roomId) {
+        writes++;
+        if (loading > 0) {
+            writtenAt.put(roomId, writes);
+        }
+    }
+
+    private void store(Room room) {
+        remove(room.getRoomId());
+        rooms.put(room.getRoomId(), room);
+        for (User user : room.getUsers()) {
+            roomIds.put(user.getUserId(), room.getRoomId());
+            if (user.getSessionId() != null) {
+                userIds.put(user.getSessionId(), user.getUserId());
+            }
+        }
+
+        if (rooms.size() > maxRooms) {
+            Iterator<Room> eldest = rooms.values().iterator();
+            unindex(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    private void remove(String roomId) {
+        Room room = rooms.remove(roomId);
+        if (room != null) {
+            unindex(room);
+        }
+    }
+
+    private void unindex(Room room) {
+        for (User user : room.getUsers()) {
+            roomIds.remove(user.getUserId(), room.getRoomId());
+            if (user.getSessionId() != null) {
+                userIds.remove(user.getSessionId(), user.getUserId());
+            }
+        }
+    }
+}
@@ -1,11 +1,22 @@
 package com.codejoust.main.dao;
 
+import java.util.List;
+
 import com.codejoust.main.model.Room;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
-public interface RoomRepository extends CrudRepository<Room, Integer> {
+public interface RoomRepository extends CrudRepository<Room, Integer>, CachedRoomRepository {
+
+    // Saved and deleted through the room cache, by CachedRoomRepositoryImpl
+    @Override
+    <S extends Room> S save(S room);
+
+    @Override
+    void delete(Room room);
 
-    // Auto generated by CrudRepository
-    Room findRoomByRoomId(String roomId);
+    // The room IDs in use, loaded into the ID allocator at startup
+    @Query("select r.roomId from Room r")
+    List<String> findAllRoomIds();
 }
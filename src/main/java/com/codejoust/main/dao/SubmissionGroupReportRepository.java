@@ -0,0 +1,12 @@
+package com.codejoust.main.dao;
+
+import java.util.List;
+
+import com.codejoust.main.model.report.SubmissionGroupReport;
+
+import org.springframework.data.repository.CrudRepository;
+
+public interface SubmissionGroupReportRepository extends CrudRepository<SubmissionGroupReport, Integer> {
+
+    List<SubmissionGroupReport> findAllByGameReportId(String gameReportId);
+}
@@ -0,0 +1,8 @@
+package com.codejoust.main.dao;
+
+import com.codejoust.main.model.report.SubmissionReport;
+
+import org.springframework.data.repository.CrudRepository;
+
+public interface SubmissionReportRepository extends CrudRepository<SubmissionReport, Integer> {
+}
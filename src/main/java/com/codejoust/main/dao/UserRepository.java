@@ -1,12 +1,22 @@
 package com.codejoust.main.dao;
 
+import java.util.List;
+
 import com.codejoust.main.model.User;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
-public interface UserRepository extends CrudRepository<User, Integer> {
+public interface UserRepository extends CrudRepository<User, Integer>, CachedUserRepository {
+
+    // Saved and deleted through the room cache, by CachedUserRepositoryImpl
+    @Override
+    <S extends User> S save(S user);
+
+    @Override
+    void delete(User user);
 
-    // Auto generated by CrudRepository
-    User findUserByUserId(String userId);
-    User findUserBySessionId(String sessionId);
+    // The user IDs in use, loaded into the ID allocator at startup
+    @Query("select u.userId from User u")
+    List<String> findAllUserIds();
 }
@@ -16,4 +16,14 @@ public class AccountMapper {
 
         return mapper.map(entity, AccountDto.class);
     }
+
+    public static AccountUidDto toUidDto(Account entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        AccountUidDto accountUidDto = new AccountUidDto();
+        accountUidDto.setUid(entity.getUid());
+        return accountUidDto;
+    }
 }
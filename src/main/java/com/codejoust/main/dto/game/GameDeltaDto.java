@@ -0,0 +1,32 @@
+package com.codejoust.main.dto.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.codejoust.main.dto.room.RoomDto;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The changes to a game since the previous update sent for its room. Only the
+ * fields that changed are set; when game is set, it replaces the whole state.
+ * Updates carry consecutive versions, and a client that misses one should
+ * fetch a fresh snapshot.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+public class GameDeltaDto {
+    private String roomId;
+    private long version;
+    private GameDto game;
+    private RoomDto room;
+    private GameTimerDto gameTimer;
+    private List<PlayerDeltaDto> players = new ArrayList<>();
+    private List<String> leaderboard;
+    private Boolean playAgain;
+    private Boolean allSolved;
+    private Boolean gameEnded;
+}
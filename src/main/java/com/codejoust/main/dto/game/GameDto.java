@@ -1,5 +1,6 @@
 package com.codejoust.main.dto.game;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -21,4 +22,9 @@ public class GameDto {
     private Boolean playAgain = false;
     private Boolean allSolved;
     private Boolean gameEnded;
+
+    // The order in which the game was mapped, so an update mapped earlier but sent later can be dropped (0 if unknown).
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private long version;
 }
@@ -1,21 +1,16 @@
 package com.codejoust.main.dto.game;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.convention.MatchingStrategies;
-
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.codejoust.main.dto.problem.ProblemDto;
 import com.codejoust.main.dto.problem.ProblemMapper;
 import com.codejoust.main.dto.problem.ProblemTestCaseDto;
 import com.codejoust.main.dto.room.RoomMapper;
 import com.codejoust.main.game_object.Game;
+import com.codejoust.main.game_object.GameStatistics.ProblemStatistics;
 import com.codejoust.main.game_object.Player;
 import com.codejoust.main.game_object.Submission;
 import com.codejoust.main.model.Room;
@@ -26,35 +21,77 @@ import com.codejoust.main.util.Utility;
 
 public class GameMapper {
 
-    private static final ModelMapper mapper = new ModelMapper();
+    // Numbers each mapping of any game, so later mappings of a room always carry higher versions.
+    private static final AtomicLong versions = new AtomicLong();
 
     protected GameMapper() {}
 
-    // Removes the correct output for non-hidden testcases and output and input for hidden testcases
     public static GameDto toDto(Game game) {
         if (game == null) {
             return null;
         }
 
+        // Taken before the game is read, so a mapping with a later version sees every change made before it.
         GameDto gameDto = new GameDto();
+        gameDto.setVersion(versions.incrementAndGet());
         gameDto.setRoom(RoomMapper.toDto(game.getRoom()));
         gameDto.setGameTimer(GameTimerMapper.toDto(game.getGameTimer()));
         gameDto.setPlayAgain(game.getPlayAgain());
         gameDto.setGameEnded(game.getGameEnded());
 
-        // Set loose matching to allow flattening of variables in DTO objects
-        mapper.getConfiguration().setMatchingStrategy(MatchingStrategies.LOOSE);
-
+        // Players are already held in leaderboard order
         List<PlayerDto> players = gameDto.getPlayers();
-        game.getPlayers().values().forEach(player -> players.add(mapper.map(player, PlayerDto.class)));
-        sortLeaderboard(players);
+        game.getLeaderboard().getRanking().forEach(player -> players.add(PlayerMapper.toDto(player)));
+
+        // Reuse the problems cached when the game was created, if present
+        List<ProblemDto> problems = game.getClientProblems();
+        gameDto.setProblems(problems != null ? problems : toClientProblemDtos(game.getProblems()));
+        gameDto.setAllSolved(game.getAllSolved());
+
+        return gameDto;
+    }
+
+    // The live statistics of each of the game's problems, from its running sums.
+    public static List<ProblemStatisticsDto> toStatisticsDtos(Game game) {
+        List<ProblemStatisticsDto> statisticsDtos = new ArrayList<>();
+
+        for (int i = 0; i < game.getProblems().size(); i++) {
+            Problem problem = game.getProblems().get(i);
+            ProblemStatistics statistics = game.getStatistics().get(i);
+
+            ProblemStatisticsDto statisticsDto = new ProblemStatisticsDto();
+            statisticsDto.setProblemIndex(i);
+            statisticsDto.setProblemId(problem.getProblemId());
+            statisticsDto.setName(problem.getName());
+            statisticsDto.setUserSolvedCount(statistics.getUserSolvedCount());
+            statisticsDto.setAttemptedCount(statistics.getAttemptedCount());
+            statisticsDto.setTestCaseCount(problem.getTestCases().size());
+            statisticsDto.setAverageTestCasesPassed(statistics.getAverageTestCasesPassed());
+            statisticsDto.setAverageAttemptCount(statistics.getAverageAttemptCount());
+            statisticsDtos.add(statisticsDto);
+        }
+
+        return statisticsDtos;
+    }
 
-        List<ProblemDto> problems = new ArrayList<>();
-        ProblemDto problemDto;
+    // Build and cache the client and tester views of the game's problems.
+    public static void cacheProblemDtos(Game game) {
+        game.setClientProblems(toClientProblemDtos(game.getProblems()));
 
+        List<ProblemDto> testerProblems = new ArrayList<>();
         for (Problem problem : game.getProblems()) {
-            problemDto = ProblemMapper.toDto(problem);
-            
+            testerProblems.add(toTesterProblemDto(problem));
+        }
+        game.setTesterProblems(Collections.unmodifiableList(testerProblems));
+    }
+
+    // Removes the correct output for non-hidden testcases and output and input for hidden testcases
+    private static List<ProblemDto> toClientProblemDtos(List<Problem> problems) {
+        List<ProblemDto> problemDtos = new ArrayList<>();
+
+        for (Problem problem : problems) {
+            ProblemDto problemDto = ProblemMapper.toDto(problem);
+
             for (ProblemTestCaseDto testcase : problemDto.getTestCases()) {
                 if (testcase.isHidden()) {
                     testcase.setInput("");
@@ -63,13 +100,21 @@ public class GameMapper {
                 testcase.setOutput("");
             }
 
-            problems.add(problemDto);
+            problemDtos.add(problemDto);
         }
 
-        gameDto.setProblems(problems);
-        gameDto.setAllSolved(game.getAllSolved());
+        return Collections.unmodifiableList(problemDtos);
+    }
 
-        return gameDto;
+    // Clears fields irrelevant to the tester service
+    public static ProblemDto toTesterProblemDto(Problem problem) {
+        ProblemDto problemDto = ProblemMapper.toDto(problem);
+        problemDto.setProblemId(null);
+        problemDto.setName(null);
+        problemDto.setDescription(null);
+        problemDto.setDifficulty(null);
+
+        return problemDto;
     }
 
     public static Game fromRoom(Room room) {
@@ -82,7 +127,6 @@ public class GameMapper {
 
         // Create players and assign colors in random order.
         int index = 0;
-        Map<String, Player> players = game.getPlayers();
         List<Color> colorList = new ArrayList<>(Utility.COLOR_LIST);
         Collections.shuffle(colorList);
 
@@ -92,7 +136,7 @@ public class GameMapper {
                 Player player = PlayerMapper.playerFromUser(user);
                 player.setColor(colorList.get(index));
                 player.setSolved(new boolean[room.getNumProblems()]);
-                players.put(user.getUserId(), player);
+                game.addPlayer(user.getUserId(), player);
                 index = (index + 1) % colorList.size();
             }
         }
@@ -106,90 +150,21 @@ public class GameMapper {
             return null;
         }
 
-        List<SubmissionResultDto> testCases = new ArrayList<>();
-
-        if (submission.getResults() != null) {
-            for (int i = 0; i < submission.getResults().size(); i++) {
-                SubmissionResultDto testCase = mapper.map(submission.getResults().get(i), SubmissionResultDto.class);
-                testCase.setCorrectOutput("");
-
-                if (testCase.isHidden()) {
-                    testCase.setInput("");
-                    testCase.setConsole("");
-                    testCase.setUserOutput("");
-                }
-
-                testCases.add(testCase);
-            }
-        }
-
-
-        mapper.getConfiguration().setMatchingStrategy(MatchingStrategies.LOOSE);
-        SubmissionDto submissionDto = mapper.map(submission, SubmissionDto.class);
-        submissionDto.setResults(testCases);
-
-        return submissionDto;
-    }
-
-    // Sort by numCorrect followed by startTime
-    public static void sortLeaderboard(List<PlayerDto> players) {
-        players.sort((player1, player2) -> {
-            List<SubmissionDto> submissions1 = player1.getSubmissions();
-            List<SubmissionDto> submissions2 = player2.getSubmissions();
-
-            // Players who haven't submitted yet are sorted last
-            if (submissions1.isEmpty()) {
-                return 1;
-            } else if (submissions2.isEmpty()) {
-                return -1;
-            }
-
-            int score1 = getScore(submissions1);
-            int score2 = getScore(submissions2);
-
-            // If both have the same numCorrect, whoever submits earlier is first
-            if (score1 == score2) {
-                Instant time1 = getTime(submissions1);
-                Instant time2 = getTime(submissions2);
-
-                // If neither has submitted correctly, oh well (if one is null, the other must be as well)
-                if (time1 == null || time2 == null) {
-                    return 0;
-                }
-
-                return time1.compareTo(time2);
-            }
-
-            // Whoever has higher numCorrect is first
-            return score2 - score1;
-        });
-    }
-
-    // Get total number of problems solved
-    private static int getScore(List<SubmissionDto> submissions) {
-        Set<Integer> set = new HashSet<>();
-        for (SubmissionDto submission : submissions) {
-            if (submission.getNumCorrect().equals(submission.getNumTestCases())) {
-                set.add(submission.getProblemIndex());
-            }
+        SubmissionDto submissionDto = SubmissionMapper.toDto(submission);
+        if (submissionDto.getResults() == null) {
+            submissionDto.setResults(new ArrayList<>());
         }
 
-        return set.size();
-    }
-
-    // Get time of latest correct solution, or null if none exists
-    private static Instant getTime(List<SubmissionDto> submissions) {
-        Set<Integer> set = new HashSet<>();
-        Instant instant = null;
+        for (SubmissionResultDto testCase : submissionDto.getResults()) {
+            testCase.setCorrectOutput("");
 
-        for (SubmissionDto submission : submissions) {
-            if (submission.getNumCorrect().equals(submission.getNumTestCases())
-                    && !set.contains(submission.getProblemIndex())) {
-                set.add(submission.getProblemIndex());
-                instant = submission.getStartTime();
+            if (testCase.isHidden()) {
+                testCase.setInput("");
+                testCase.setConsole("");
+                testCase.setUserOutput("");
             }
         }
 
-        return instant;
+        return submissionDto;
     }
 }
@@ -0,0 +1,46 @@
+package com.codejoust.main.dto.game;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.codejoust.main.util.InstantDeserializer;
+import com.codejoust.main.util.InstantSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The state of a live game as saved to the journal, from which the game can
+ * be rebuilt after a restart. The room and problems are referenced by ID and
+ * loaded again from the database.
+ */
+@Getter
+@Setter
+public class GameRecordDto {
+    private String roomId;
+    private String gameReportId;
+
+    // Set on the entry written when the game is removed.
+    private boolean removed;
+
+    // Set on an entry holding only the code of the players listed, which applies to the game's previous entry.
+    private boolean codeOnly;
+
+    private List<String> problemIds = new ArrayList<>();
+
+    // The players, in leaderboard order.
+    private List<PlayerRecordDto> players = new ArrayList<>();
+
+    private GameTimerDto gameTimer;
+
+    @JsonSerialize(using = InstantSerializer.class)
+    @JsonDeserialize(using = InstantDeserializer.class)
+    private Instant timerPausedAt;
+
+    private Boolean playAgain;
+    private Boolean allSolved;
+    private Boolean gameEnded;
+}
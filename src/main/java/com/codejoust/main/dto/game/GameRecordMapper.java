@@ -0,0 +1,155 @@
+package com.codejoust.main.dto.game;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.codejoust.main.game_object.Game;
+import com.codejoust.main.game_object.GameTimer;
+import com.codejoust.main.game_object.Player;
+import com.codejoust.main.game_object.PlayerCode;
+import com.codejoust.main.game_object.Submission;
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+import com.codejoust.main.model.problem.Problem;
+
+public class GameRecordMapper {
+
+    protected GameRecordMapper() {}
+
+    public static GameRecordDto toRecord(Game game) {
+        if (game == null) {
+            return null;
+        }
+
+        GameRecordDto record = new GameRecordDto();
+        record.setRoomId(game.getRoom().getRoomId());
+        record.setGameReportId(game.getGameReportId());
+        game.getProblems().forEach(problem -> record.getProblemIds().add(problem.getProblemId()));
+
+        // Saved in leaderboard order, so players with equal standings are restored in the same order
+        List<PlayerRecordDto> players = record.getPlayers();
+        game.getLeaderboard().getRanking().forEach(player -> players.add(toRecord(player)));
+
+        GameTimer gameTimer = game.getGameTimer();
+        if (gameTimer != null) {
+            record.setGameTimer(GameTimerMapper.toDto(gameTimer));
+            record.setTimerPausedAt(gameTimer.getPausedAt());
+        }
+
+        record.setPlayAgain(game.getPlayAgain());
+        record.setAllSolved(game.getAllSolved());
+        record.setGameEnded(game.getGameEnded());
+        return record;
+    }
+
+    // The entry marking a removed game, so that it is not recovered.
+    public static GameRecordDto removedRecord(String roomId) {
+        GameRecordDto record = new GameRecordDto();
+        record.setRoomId(roomId);
+        record.setRemoved(true);
+        return record;
+    }
+
+    // The entry holding the latest code of the given players, by user ID.
+    public static GameRecordDto codeRecord(String roomId, Map<String, PlayerCode> playerCodes) {
+        GameRecordDto record = new GameRecordDto();
+        record.setRoomId(roomId);
+        record.setCodeOnly(true);
+        playerCodes.forEach((userId, playerCode) -> {
+            PlayerRecordDto playerRecord = new PlayerRecordDto();
+            playerRecord.setUserId(userId);
+            playerRecord.setCode(playerCode.getCode());
+            playerRecord.setLanguage(playerCode.getLanguage());
+            record.getPlayers().add(playerRecord);
+        });
+        return record;
+    }
+
+    // Apply the code held by a code-only entry to the game's previous entry.
+    public static void applyCode(GameRecordDto record, GameRecordDto codeRecord) {
+        for (PlayerRecordDto codePlayer : codeRecord.getPlayers()) {
+            for (PlayerRecordDto player : record.getPlayers()) {
+                if (player.getUserId().equals(codePlayer.getUserId())) {
+                    player.setCode(codePlayer.getCode());
+                    player.setLanguage(codePlayer.getLanguage());
+                }
+            }
+        }
+    }
+
+    public static PlayerRecordDto toRecord(Player player) {
+        PlayerRecordDto record = new PlayerRecordDto();
+        record.setUserId(player.getUser().getUserId());
+        if (player.getPlayerCode() != null) {
+            record.setCode(player.getPlayerCode().getCode());
+            record.setLanguage(player.getPlayerCode().getLanguage());
+        }
+
+        for (Submission submission : player.getSubmissions()) {
+            record.getSubmissions().add(SubmissionMapper.toDto(submission));
+        }
+
+        if (player.getSolved() != null) {
+            record.setSolved(Arrays.copyOf(player.getSolved(), player.getSolved().length));
+        }
+
+        record.setColor(player.getColor());
+        return record;
+    }
+
+    /**
+     * Rebuild a game from its record. The timer's tasks are not scheduled;
+     * the caller does so from the timer's saved end time.
+     *
+     * @param record The saved game.
+     * @param room The game's room, as now in the database.
+     * @param problems The game's problems, in the saved order.
+     * @return The game, without the players who have since left the room.
+     */
+    public static Game toGame(GameRecordDto record, Room room, List<Problem> problems) {
+        Game game = new Game();
+        game.setRoom(room);
+        if (record.getGameReportId() != null) {
+            game.setGameReportId(record.getGameReportId());
+        }
+        game.getProblems().addAll(problems);
+
+        for (PlayerRecordDto playerRecord : record.getPlayers()) {
+            User user = room.getUserByUserId(playerRecord.getUserId());
+            if (user != null) {
+                game.addPlayer(user.getUserId(), toPlayer(playerRecord, user));
+            }
+        }
+
+        GameTimerDto timerDto = record.getGameTimer();
+        if (timerDto != null) {
+            GameTimer gameTimer = new GameTimer(timerDto.getDuration());
+            gameTimer.setStartTime(timerDto.getStartTime());
+            gameTimer.setEndTime(timerDto.getEndTime());
+            gameTimer.setTimeUp(timerDto.isTimeUp());
+            gameTimer.setPausedAt(record.getTimerPausedAt());
+            game.setGameTimer(gameTimer);
+        }
+
+        game.setPlayAgain(Boolean.TRUE.equals(record.getPlayAgain()));
+        game.setAllSolved(Boolean.TRUE.equals(record.getAllSolved()));
+        game.setGameEnded(Boolean.TRUE.equals(record.getGameEnded()));
+        return game;
+    }
+
+    private static Player toPlayer(PlayerRecordDto record, User user) {
+        Player player = PlayerMapper.playerFromUser(user);
+        if (record.getCode() != null || record.getLanguage() != null) {
+            player.setPlayerCode(new PlayerCode(record.getCode(), record.getLanguage()));
+        }
+
+        for (SubmissionDto submissionDto : record.getSubmissions()) {
+            player.getSubmissions().add(SubmissionMapper.fromDto(submissionDto));
+        }
+
+        player.setSolved(record.getSolved());
+        player.setColor(record.getColor());
+        return player;
+    }
+}
@@ -0,0 +1,17 @@
+package com.codejoust.main.dto.game;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The full state of a game, and the version of the last update sent before
+ * it was taken. Updates with a later version apply on top of it.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+public class GameSnapshotDto {
+    private long version;
+    private GameDto game;
+}
@@ -0,0 +1,14 @@
+package com.codejoust.main.dto.game;
+
+import com.codejoust.main.dto.user.UserDto;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class GameTimerRequest {
+    private UserDto initiator;
+
+    // Seconds to add to the timer, or remove if negative; only used to change it.
+    private Long seconds;
+}
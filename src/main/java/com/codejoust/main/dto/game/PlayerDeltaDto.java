@@ -0,0 +1,31 @@
+package com.codejoust.main.dto.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.codejoust.main.dto.user.UserDto;
+import com.codejoust.main.model.report.CodeLanguage;
+import com.codejoust.main.util.Color;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The current state of one player whose state changed. Submissions holds
+ * only the submissions from index fromSubmission onward, replacing any the
+ * client already has from that index.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+public class PlayerDeltaDto {
+    private String userId;
+    private UserDto user;
+    private String code;
+    private CodeLanguage language;
+    private boolean[] solved;
+    private Color color;
+    private int fromSubmission;
+    private List<SubmissionDto> submissions = new ArrayList<>();
+}
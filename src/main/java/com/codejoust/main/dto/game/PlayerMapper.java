@@ -1,6 +1,11 @@
 package com.codejoust.main.dto.game;
 
+import java.util.Arrays;
+import java.util.List;
+
+import com.codejoust.main.dto.user.UserMapper;
 import com.codejoust.main.game_object.Player;
+import com.codejoust.main.game_object.Submission;
 import com.codejoust.main.model.User;
 
 
@@ -18,4 +23,30 @@ public class PlayerMapper {
 
         return player;
     }
+
+    // Mapped by hand, as every player is mapped for every game update.
+    public static PlayerDto toDto(Player player) {
+        if (player == null) {
+            return null;
+        }
+
+        PlayerDto playerDto = new PlayerDto();
+        playerDto.setUser(UserMapper.toDto(player.getUser()));
+        if (player.getPlayerCode() != null) {
+            playerDto.setCode(player.getPlayerCode().getCode());
+            playerDto.setLanguage(player.getPlayerCode().getLanguage());
+        }
+
+        List<SubmissionDto> submissions = playerDto.getSubmissions();
+        for (Submission submission : player.getSubmissions()) {
+            submissions.add(SubmissionMapper.toDto(submission));
+        }
+
+        if (player.getSolved() != null) {
+            playerDto.setSolved(Arrays.copyOf(player.getSolved(), player.getSolved().length));
+        }
+
+        playerDto.setColor(player.getColor());
+        return playerDto;
+    }
 }
@@ -0,0 +1,24 @@
+package com.codejoust.main.dto.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.codejoust.main.model.report.CodeLanguage;
+import com.codejoust.main.util.Color;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class PlayerRecordDto {
+    private String userId;
+    private String code;
+    private CodeLanguage language;
+
+    // The submissions in full, including the correct output of each test case.
+    private List<SubmissionDto> submissions = new ArrayList<>();
+
+    private boolean[] solved;
+    private Color color;
+}
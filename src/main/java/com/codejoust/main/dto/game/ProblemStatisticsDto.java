@@ -0,0 +1,23 @@
+package com.codejoust.main.dto.game;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * How the players of a live game are doing on one of its problems. The
+ * averages are over the players who have submitted to it.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+public class ProblemStatisticsDto {
+    private int problemIndex;
+    private String problemId;
+    private String name;
+    private int userSolvedCount;
+    private int attemptedCount;
+    private int testCaseCount;
+    private double averageTestCasesPassed;
+    private double averageAttemptCount;
+}
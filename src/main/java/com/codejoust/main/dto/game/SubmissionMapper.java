@@ -1,6 +1,11 @@
 package com.codejoust.main.dto.game;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.codejoust.main.dto.problem.ProblemTestCaseDto;
+import com.codejoust.main.game_object.PlayerCode;
+import com.codejoust.main.game_object.Submission;
 import com.codejoust.main.game_object.SubmissionResult;
 
 import org.modelmapper.ModelMapper;
@@ -29,4 +34,95 @@ public class SubmissionMapper {
         submissionResult.setInput(testCaseDto.getInput());
         return submissionResult;
     }
+
+    // Mapped by hand, as every submission is mapped for every game update.
+    public static SubmissionDto toDto(Submission submission) {
+        if (submission == null) {
+            return null;
+        }
+
+        SubmissionDto submissionDto = new SubmissionDto();
+        if (submission.getPlayerCode() != null) {
+            submissionDto.setCode(submission.getPlayerCode().getCode());
+            submissionDto.setLanguage(submission.getPlayerCode().getLanguage());
+        }
+
+        submissionDto.setProblemIndex(submission.getProblemIndex());
+        submissionDto.setNumCorrect(submission.getNumCorrect());
+        submissionDto.setNumTestCases(submission.getNumTestCases());
+        submissionDto.setRuntime(submission.getRuntime());
+        submissionDto.setCompilationError(submission.getCompilationError());
+        submissionDto.setStartTime(submission.getStartTime());
+
+        if (submission.getResults() != null) {
+            List<SubmissionResultDto> results = new ArrayList<>(submission.getResults().size());
+            for (SubmissionResult result : submission.getResults()) {
+                results.add(toResultDto(result));
+            }
+            submissionDto.setResults(results);
+        }
+
+        return submissionDto;
+    }
+
+    // Rebuild a submission from its full DTO, such as one saved to the game journal.
+    public static Submission fromDto(SubmissionDto submissionDto) {
+        if (submissionDto == null) {
+            return null;
+        }
+
+        Submission submission = new Submission();
+        if (submissionDto.getCode() != null || submissionDto.getLanguage() != null) {
+            submission.setPlayerCode(new PlayerCode(submissionDto.getCode(), submissionDto.getLanguage()));
+        }
+
+        submission.setProblemIndex(submissionDto.getProblemIndex());
+        submission.setNumCorrect(submissionDto.getNumCorrect());
+        submission.setNumTestCases(submissionDto.getNumTestCases());
+        submission.setRuntime(submissionDto.getRuntime());
+        submission.setCompilationError(submissionDto.getCompilationError());
+        submission.setStartTime(submissionDto.getStartTime());
+
+        if (submissionDto.getResults() != null) {
+            List<SubmissionResult> results = new ArrayList<>(submissionDto.getResults().size());
+            for (SubmissionResultDto resultDto : submissionDto.getResults()) {
+                results.add(fromResultDto(resultDto));
+            }
+            submission.setResults(results);
+        }
+
+        return submission;
+    }
+
+    public static SubmissionResult fromResultDto(SubmissionResultDto resultDto) {
+        if (resultDto == null) {
+            return null;
+        }
+
+        SubmissionResult result = new SubmissionResult();
+        result.setConsole(resultDto.getConsole());
+        result.setUserOutput(resultDto.getUserOutput());
+        result.setError(resultDto.getError());
+        result.setInput(resultDto.getInput());
+        result.setCorrectOutput(resultDto.getCorrectOutput());
+        result.setHidden(resultDto.isHidden());
+        result.setCorrect(resultDto.isCorrect());
+        return result;
+    }
+
+    public static SubmissionResultDto toResultDto(SubmissionResult result) {
+        if (result == null) {
+            return null;
+        }
+
+        SubmissionResultDto resultDto = new SubmissionResultDto();
+        resultDto.setConsole(result.getConsole());
+        resultDto.setUserOutput(result.getUserOutput());
+        resultDto.setError(result.getError());
+        resultDto.setInput(result.getInput());
+        resultDto.setCorrectOutput(result.getCorrectOutput());
+        resultDto.setHidden(result.isHidden());
+        resultDto.setCorrect(result.isCorrect());
+        return resultDto;
+    }
 }
@@ -1,5 +1,11 @@
 package com.codejoust.main.dto.problem;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.codejoust.main.dao.ProblemSummary;
+import com.codejoust.main.dao.ProblemTagSummary;
+import com.codejoust.main.dto.account.AccountMapper;
 import com.codejoust.main.model.problem.Problem;
 import com.codejoust.main.model.problem.ProblemInput;
 import com.codejoust.main.model.problem.ProblemTag;
@@ -13,12 +19,38 @@ public class ProblemMapper {
 
     private static final ModelMapper mapper = new ModelMapper();
 
+    // Mapped by hand, as the game's problems are mapped for every game update.
     public static ProblemDto toDto(Problem entity) {
         if (entity == null) {
             return null;
         }
-        
-        return mapper.map(entity, ProblemDto.class);
+
+        ProblemDto problemDto = new ProblemDto();
+        problemDto.setProblemId(entity.getProblemId());
+        problemDto.setName(entity.getName());
+        problemDto.setOwner(AccountMapper.toUidDto(entity.getOwner()));
+        problemDto.setDescription(entity.getDescription());
+        problemDto.setVerified(entity.getVerified());
+        problemDto.setDifficulty(entity.getDifficulty());
+        problemDto.setOutputType(entity.getOutputType());
+
+        List<ProblemTestCaseDto> testCases = problemDto.getTestCases();
+        for (ProblemTestCase testCase : entity.getTestCases()) {
+            testCases.add(toTestCaseDto(testCase));
+        }
+
+        List<ProblemTagDto> problemTags = problemDto.getProblemTags();
+        for (ProblemTag problemTag : entity.getProblemTags()) {
+            problemTags.add(toProblemTagDto(problemTag));
+        }
+
+        List<ProblemInputDto> problemInputs = new ArrayList<>();
+        for (ProblemInput problemInput : entity.getProblemInputs()) {
+            problemInputs.add(toProblemInputDto(problemInput));
+        }
+        problemDto.setProblemInputs(problemInputs);
+
+        return problemDto;
     }
 
     public static ProblemTestCaseDto toTestCaseDto(ProblemTestCase entity) {
@@ -26,7 +58,12 @@ public class ProblemMapper {
             return null;
         }
 
-        return mapper.map(entity, ProblemTestCaseDto.class);
+        ProblemTestCaseDto testCaseDto = new ProblemTestCaseDto();
+        testCaseDto.setInput(entity.getInput());
+        testCaseDto.setOutput(entity.getOutput());
+        testCaseDto.setHidden(Boolean.TRUE.equals(entity.getHidden()));
+        testCaseDto.setExplanation(entity.getExplanation());
+        return testCaseDto;
     }
 
     public static ProblemInputDto toProblemInputDto(ProblemInput entity) {
@@ -34,7 +71,7 @@ public class ProblemMapper {
             return null;
         }
 
-        return mapper.map(entity, ProblemInputDto.class);
+        return new ProblemInputDto(entity.getName(), entity.getType());
     }
 
     public static ProblemInput toProblemInputEntity(ProblemInputDto dto) {
@@ -49,7 +86,31 @@ public class ProblemMapper {
         if (entity == null) {
             return null;
         }
-        
-        return mapper.map(entity, ProblemTagDto.class);
+
+        ProblemTagDto problemTagDto = new ProblemTagDto();
+        problemTagDto.setTagId(entity.getTagId());
+        problemTagDto.setName(entity.getName());
+        return problemTagDto;
+    }
+
+    public static ProblemSummaryDto toSummaryDto(ProblemSummary summary, List<ProblemTagSummary> tags) {
+        if (summary == null) {
+            return null;
+        }
+
+        ProblemSummaryDto summaryDto = new ProblemSummaryDto();
+        summaryDto.setProblemId(summary.getProblemId());
+        summaryDto.setName(summary.getName());
+        summaryDto.setDifficulty(summary.getDifficulty());
+        summaryDto.setVerified(summary.getVerified());
+
+        for (ProblemTagSummary tag : tags) {
+            ProblemTagDto problemTagDto = new ProblemTagDto();
+            problemTagDto.setTagId(tag.getTagId());
+            problemTagDto.setName(tag.getName());
+            summaryDto.getProblemTags().add(problemTagDto);
+        }
+
+        return summaryDto;
     }
 }
@@ -0,0 +1,24 @@
+package com.codejoust.main.dto.problem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One page of a problem listing. The next page is requested with the
+ * same filters and nextPage, which is null on the last page.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+public class ProblemPageDto {
+    private List<ProblemSummaryDto> problems = new ArrayList<>();
+    private int page;
+    private int size;
+    private long totalProblems;
+    private int totalPages;
+    private Integer nextPage;
+}
@@ -0,0 +1,27 @@
+package com.codejoust.main.dto.problem;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The filters, sort and page of a problem listing, bound from the query
+ * parameters. The filters left null match every problem.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+public class ProblemPageRequest {
+    private Boolean verified;
+    private String difficulty;
+    private String tagId;
+
+    // The UID of the account that owns the problems.
+    private String owner;
+
+    // Either name or created, prefixed with a minus sign to sort in descending order.
+    private String sort = "name";
+
+    private int page = 0;
+    private int size = 20;
+}
@@ -0,0 +1,21 @@
+package com.codejoust.main.dto.problem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.codejoust.main.model.problem.ProblemDifficulty;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+public class ProblemSummaryDto {
+    private String problemId;
+    private String name;
+    private ProblemDifficulty difficulty;
+    private Boolean verified;
+    private List<ProblemTagDto> problemTags = new ArrayList<>();
+}
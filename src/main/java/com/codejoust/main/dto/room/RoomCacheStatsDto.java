@@ -0,0 +1,18 @@
+package com.codejoust.main.dto.room;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * How well the room cache of this node is doing, since it started.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+public class RoomCacheStatsDto {
+    private boolean enabled;
+    private int size;
+    private long hits;
+    private long misses;
+}
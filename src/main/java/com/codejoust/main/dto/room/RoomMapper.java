@@ -3,28 +3,50 @@ package com.codejoust.main.dto.room;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.codejoust.main.dto.problem.SelectableProblemDto;
 import com.codejoust.main.dto.user.UserDto;
+import com.codejoust.main.dto.user.UserMapper;
 import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+import com.codejoust.main.model.problem.Problem;
 
-import org.modelmapper.ModelMapper;
-
+/**
+ * Mapped by hand rather than with ModelMapper, as rooms are mapped for
+ * every room and game update sent out.
+ */
 public class RoomMapper {
 
     protected RoomMapper() {}
 
-    private static final ModelMapper mapper = new ModelMapper();
-
     public static RoomDto toDto(Room entity) {
         if (entity == null) {
             return null;
         }
-        RoomDto roomDto = mapper.map(entity, RoomDto.class);
+
+        RoomDto roomDto = new RoomDto();
+        roomDto.setRoomId(entity.getRoomId());
+        roomDto.setHost(UserMapper.toDto(entity.getHost()));
+        roomDto.setActive(Boolean.TRUE.equals(entity.getActive()));
+        roomDto.setDifficulty(entity.getDifficulty());
+        roomDto.setDuration(entity.getDuration() != null ? entity.getDuration() : 0);
+        roomDto.setSize(entity.getSize() != null ? entity.getSize() : 0);
+        roomDto.setNumProblems(entity.getNumProblems() != null ? entity.getNumProblems() : 0);
+
+        List<SelectableProblemDto> problems = new ArrayList<>();
+        for (Problem problem : entity.getProblems()) {
+            problems.add(toSelectableProblemDto(problem));
+        }
+        roomDto.setProblems(problems);
 
         // Separate users into active and inactive ones, spectator list.
+        List<UserDto> users = new ArrayList<>();
         List<UserDto> activeUsers = new ArrayList<>();
         List<UserDto> inactiveUsers = new ArrayList<>();
         List<UserDto> spectators = new ArrayList<>();
-        for (UserDto userDto : roomDto.getUsers()) {
+        for (User user : entity.getUsers()) {
+            UserDto userDto = UserMapper.toDto(user);
+            users.add(userDto);
+
             if (userDto.getSessionId() != null) {
                 activeUsers.add(userDto);
             } else {
@@ -35,10 +57,20 @@ public class RoomMapper {
                 spectators.add(userDto);
             }
         }
+        roomDto.setUsers(users);
         roomDto.setActiveUsers(activeUsers);
         roomDto.setInactiveUsers(inactiveUsers);
         roomDto.setSpectators(spectators);
 
         return roomDto;
     }
+
+    // Tags are not sent with the room's problems.
+    private static SelectableProblemDto toSelectableProblemDto(Problem problem) {
+        SelectableProblemDto problemDto = new SelectableProblemDto();
+        problemDto.setProblemId(problem.getProblemId());
+        problemDto.setName(problem.getName());
+        problemDto.setDifficulty(problem.getDifficulty());
+        return problemDto;
+    }
 }
@@ -1,5 +1,6 @@
 package com.codejoust.main.dto.user;
 
+import com.codejoust.main.dto.account.AccountMapper;
 import com.codejoust.main.model.User;
 
 import org.modelmapper.ModelMapper;
@@ -15,7 +16,14 @@ public class UserMapper {
         if (entity == null) {
             return null;
         }
-        return mapper.map(entity, UserDto.class);
+        // Mapped by hand, as users are mapped for every room and game update.
+        UserDto userDto = new UserDto();
+        userDto.setUserId(entity.getUserId());
+        userDto.setNickname(entity.getNickname());
+        userDto.setSpectator(entity.getSpectator());
+        userDto.setSessionId(entity.getConnectedSessionId());
+        userDto.setAccount(AccountMapper.toUidDto(entity.getAccount()));
+        return userDto;
     }
 
     public static User toEntity(UserDto dto) {
@@ -14,11 +14,16 @@ public enum GameError implements ApiError {
     BAD_SETTING(HttpStatus.BAD_REQUEST, "An invalid game setting was provided."),
     EMPTY_FIELD(HttpStatus.BAD_REQUEST, "Please ensure a value is provided for each required field."),
     GAME_NOT_OVER(HttpStatus.FORBIDDEN, "You may not perform this action because the game is not over."),
+    GAME_PAUSED(HttpStatus.FORBIDDEN, "Code cannot be run or submitted while the game is paused."),
     INVALID_PERMISSIONS(HttpStatus.FORBIDDEN, "You do not have permission to perform this action."),
     NOT_FOUND(HttpStatus.NOT_FOUND, "A game could not be found with the given id."),
     NOTIFICATION_REQUIRES_INITIATOR(HttpStatus.BAD_REQUEST, "The request action could not be completed because an initiator is required for this notification."),
     NOTIFICATION_REQUIRES_CONTENT(HttpStatus.BAD_REQUEST, "The request action could not be completed because content is required for this notification."),
+    OWNER_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "The server hosting this game could not be reached; please try again shortly."),
+    TESTER_BUSY(HttpStatus.SERVICE_UNAVAILABLE, "The tester service is handling too many requests; please try again shortly."),
     TESTER_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "An internal error occurred connecting to the tester service."),
+    TESTER_TIMEOUT(HttpStatus.GATEWAY_TIMEOUT, "The tester service took too long to respond; please try again shortly."),
+    TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "Code is being run or submitted too quickly; please wait a moment and try again."),
     USER_NOT_IN_GAME(HttpStatus.BAD_REQUEST, "The requested action could not be completed because the user is not in the game.");
 
     private final HttpStatus status;
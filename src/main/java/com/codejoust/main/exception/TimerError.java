@@ -10,7 +10,10 @@ import org.springframework.http.HttpStatus;
 @Getter
 public enum TimerError implements ApiError {
 
+    ALREADY_PAUSED(HttpStatus.BAD_REQUEST, "The game timer is already paused."),
+    GAME_OVER(HttpStatus.FORBIDDEN, "The game timer cannot be changed because the game is over."),
     INVALID_DURATION(HttpStatus.BAD_REQUEST, "Please enter a valid duration between 1-60 minutes."),
+    NOT_PAUSED(HttpStatus.BAD_REQUEST, "The game timer is not paused."),
     NULL_SETTING(HttpStatus.BAD_REQUEST, "The game, associated game timer, room, room ID, and socket service must not be null.");
 
     private final HttpStatus status;
@@ -7,7 +7,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.codejoust.main.dto.problem.ProblemDto;
 import com.codejoust.main.model.Room;
 import com.codejoust.main.model.problem.Problem;
 
@@ -17,18 +20,46 @@ public class Game {
 
     private Room room;
 
+    // The ID of the report saved for this game, with which its submissions are saved.
+    private String gameReportId = UUID.randomUUID().toString();
+
+    // Whether the report of this game has been queued to be saved, which happens once it ends.
+    private final AtomicBoolean reported = new AtomicBoolean(false);
+
     private List<Problem> problems = new ArrayList<>();
 
+    /**
+     * The views of the problems sent to clients and to the tester, built once
+     * when the game is created since problems do not change during a game.
+     * These are shared, and must not be modified.
+     */
+    private List<ProblemDto> clientProblems;
+
+    private List<ProblemDto> testerProblems;
+
     // Map from userId to associated player object
     private Map<String, Player> players = new HashMap<>();
 
+    // The players in leaderboard order, updated as submissions are recorded
+    private final Leaderboard leaderboard = new Leaderboard();
+
+    // How the players are doing on each problem, updated as submissions are recorded
+    private final GameStatistics statistics = new GameStatistics();
+
     private GameTimer gameTimer;
 
-    private Boolean playAgain = false;
+    private volatile Boolean playAgain = false;
 
     // Boolean to hold whether all users have solved the problem.
-    private Boolean allSolved = false;
+    private volatile Boolean allSolved = false;
 
     // Boolean to hold whether the host ended the game early
-    private Boolean gameEnded = false;
+    private volatile Boolean gameEnded = false;
+
+    // Add a player to the game, its leaderboard and its statistics.
+    public void addPlayer(String userId, Player player) {
+        players.put(userId, player);
+        leaderboard.add(player);
+        statistics.add(player);
+    }
 }
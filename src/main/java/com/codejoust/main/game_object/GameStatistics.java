@@ -0,0 +1,131 @@
+package com.codejoust.main.game_object;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * How the players are doing on each problem of a game, kept as running sums
+ * updated in O(1) as submissions are recorded, so that live statistics and
+ * the game's report never rescan the submissions.
+ *
+ * The averages are over the players who submitted to a problem, using each
+ * player's best submission for the test cases passed.
+ */
+public class GameStatistics {
+
+    private final List<Counts> problems = new ArrayList<>();
+
+    // Players are compared by identity, as their equality changes with each submission.
+    private final Map<Player, Boolean> players = new IdentityHashMap<>();
+
+    // Add a player, counting the submissions they already have.
+    public synchronized void add(Player player) {
+        if (players.put(player, true) != null) {
+            return;
+        }
+
+        for (Submission submission : player.getSubmissions()) {
+            countsOf(submission.getProblemIndex()).record(player, submission);
+        }
+    }
+
+    // Count a submission of a player's after it is recorded.
+    public synchronized void record(Player player, Submission submission) {
+        if (players.containsKey(player)) {
+            countsOf(submission.getProblemIndex()).record(player, submission);
+        }
+    }
+
+    // The statistics of the problem at the given index so far.
+    public synchronized ProblemStatistics get(int problemIndex) {
+        if (problemIndex >= problems.size()) {
+            return new ProblemStatistics(0, 0, 0, 0);
+        }
+
+        Counts counts = problems.get(problemIndex);
+        return new ProblemStatistics(counts.solvedCount, counts.attemptedCount,
+            counts.attemptCount, counts.testCasesPassed);
+    }
+
+    private Counts countsOf(int problemIndex) {
+        while (problems.size() <= problemIndex) {
+            problems.add(new Counts());
+        }
+
+        return problems.get(problemIndex);
+    }
+
+    /**
+     * The running sums of one problem. Each player's best submission so far
+     * is kept, so that a better one only adds the difference.
+     */
+    private static class Counts {
+
+        private int solvedCount;
+        private int attemptedCount;
+        private int attemptCount;
+        private int testCasesPassed;
+
+        // The most test cases each player has passed, and whether they have solved it.
+        private final Map<Player, int[]> best = new IdentityHashMap<>();
+        private final Map<Player, Boolean> solved = new IdentityHashMap<>();
+
+        void record(Player player, Submission submission) {
+            attemptCount++;
+
+            int[] playerBest = best.get(player);
+            if (playerBest == null) {
+                playerBest = new int[1];
+                best.put(player, playerBest);
+                attemptedCount++;
+            }
+
+            int numCorrect = submission.getNumCorrect() == null ? 0 : submission.getNumCorrect();
+            if (numCorrect > playerBest[0]) {
+                testCasesPassed += numCorrect - playerBest[0];
+                playerBest[0] = numCorrect;
+            }
+
+            boolean correct = submission.getNumCorrect() != null
+                && submission.getNumCorrect().equals(submission.getNumTestCases());
+            if (correct && solved.put(player, true) == null) {
+                solvedCount++;
+            }
+        }
+    }
+
+    @Getter
+    public static class ProblemStatistics {
+
+        // The number of players who solved the problem.
+        private final int userSolvedCount;
+
+        // The number of players who submitted to the problem.
+        private final int attemptedCount;
+
+        // The number of submissions to the problem.
+        private final int attemptCount;
+
+        // The sum of each player's most test cases passed.
+        private final int testCasesPassed;
+
+        ProblemStatistics(int userSolvedCount, int attemptedCount, int attemptCount, int testCasesPassed) {
+            this.userSolvedCount = userSolvedCount;
+            this.attemptedCount = attemptedCount;
+            this.attemptCount = attemptCount;
+            this.testCasesPassed = testCasesPassed;
+        }
+
+        public double getAverageAttemptCount() {
+            return attemptedCount == 0 ? 0.0 : (double) attemptCount / attemptedCount;
+        }
+
+        public double getAverageTestCasesPassed() {
+            return attemptedCount == 0 ? 0.0 : (double) testCasesPassed / attemptedCount;
+        }
+    }
+}
@@ -4,10 +4,11 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.codejoust.main.util.TimingWheel;
 
 /**
  * The Timer class handles the timing for the Game.
@@ -39,22 +40,51 @@ public class GameTimer {
 
     private Instant endTime;
 
-    private boolean timeUp = false;
+    private volatile boolean timeUp = false;
+
+    // The time the timer was paused, or null if it is running; read without the room's lock.
+    private volatile Instant pausedAt;
 
-    private Timer timer;
+    // Handles to the scheduled end game and time left notification tasks.
+    private volatile TimingWheel.Timeout endGameTask;
 
-    private List<Timer> notificationTimers = new ArrayList<>();
+    private List<TimingWheel.Timeout> notificationTasks = new CopyOnWriteArrayList<>();
 
     /**
-     * Instantiate the GameTimer class, and schedule the end game task after
-     * timer ends.
+     * Instantiate the GameTimer class. The end game task is scheduled
+     * separately, and its handle stored on the timer.
      * 
      * @param duration The duration, in seconds, until the timer ends.
      */
     public GameTimer(Long duration) {
         this.duration = duration;
         this.endTime = this.startTime.plusSeconds(duration);
-        this.timer = new Timer();
+    }
+
+    /**
+     * Cancel the end game and notification tasks, if they have not yet run.
+     * An end game task already handed to run is not stopped here, but finds
+     * it is no longer the timer's endGameTask and does nothing.
+     */
+    public void cancelTasks() {
+        // Read once, as submissions that end the game may cancel it concurrently.
+        TimingWheel.Timeout task = endGameTask;
+        endGameTask = null;
+        if (task != null) {
+            task.cancel();
+        }
+
+        for (TimingWheel.Timeout notificationTask : notificationTasks) {
+            notificationTask.cancel();
+        }
+        notificationTasks.clear();
+    }
+
+    // The seconds left until the timer ends, rounded up.
+    public long getSecondsLeft(Instant now) {
+        Instant current = pausedAt != null ? pausedAt : now;
+        long millisLeft = endTime.toEpochMilli() - current.toEpochMilli();
+        return Math.max(0, (millisLeft + 999) / 1000);
     }
 
 }
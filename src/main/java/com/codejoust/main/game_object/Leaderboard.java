@@ -0,0 +1,116 @@
+package com.codejoust.main.game_object;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * The players of a game in leaderboard order, kept sorted as submissions are
+ * recorded rather than re-sorted for every update sent out.
+ *
+ * Players are ranked by the number of problems solved, then by who first
+ * solved their latest problem earliest. Players who have not submitted yet
+ * are ranked last, and remaining ties go to whoever joined first.
+ */
+public class Leaderboard {
+
+    private static final Comparator<Standing> ORDER = Comparator
+        .comparing((Standing standing) -> !standing.submitted)
+        .thenComparing(standing -> -standing.solvedCount)
+        .thenComparing(standing -> standing.lastSolveTime, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparingLong(standing -> standing.joinOrder);
+
+    private final NavigableSet<Standing> ranking = new TreeSet<>(ORDER);
+
+    // Players are compared by identity, as their equality changes with each submission.
+    private final Map<Player, Standing> standings = new IdentityHashMap<>();
+
+    private long joined = 0;
+
+    // Add a player, ranked by the submissions they already have.
+    public synchronized void add(Player player) {
+        if (standings.containsKey(player)) {
+            return;
+        }
+
+        Standing standing = new Standing(player, joined++);
+        for (Submission submission : player.getSubmissions()) {
+            standing = standing.with(submission);
+        }
+
+        standings.put(player, standing);
+        ranking.add(standing);
+    }
+
+    // Re-rank a player after a submission of theirs is recorded, in O(log n).
+    public synchronized void record(Player player, Submission submission) {
+        Standing standing = standings.get(player);
+        if (standing == null) {
+            return;
+        }
+
+        ranking.remove(standing);
+        standing = standing.with(submission);
+        standings.put(player, standing);
+        ranking.add(standing);
+    }
+
+    // The players, from first to last place.
+    public synchronized List<Player> getRanking() {
+        List<Player> players = new ArrayList<>(ranking.size());
+        for (Standing standing : ranking) {
+            players.add(standing.player);
+        }
+
+        return players;
+    }
+
+    /**
+     * A player's place in the ranking. Each recorded submission replaces the
+     * standing, so that the sorted set is never changed underneath.
+     */
+    private static class Standing {
+
+        private final Player player;
+        private final long joinOrder;
+        private final boolean submitted;
+        private final int solvedCount;
+        private final Instant lastSolveTime;
+
+        // The problems solved so far, shared by all of a player's standings.
+        private final BitSet solved;
+
+        Standing(Player player, long joinOrder) {
+            this(player, joinOrder, false, 0, null, new BitSet());
+        }
+
+        private Standing(Player player, long joinOrder, boolean submitted,
+                         int solvedCount, Instant lastSolveTime, BitSet solved) {
+            this.player = player;
+            this.joinOrder = joinOrder;
+            this.submitted = submitted;
+            this.solvedCount = solvedCount;
+            this.lastSolveTime = lastSolveTime;
+            this.solved = solved;
+        }
+
+        // Only the first correct submission for each problem counts.
+        Standing with(Submission submission) {
+            boolean correct = submission.getNumCorrect() != null
+                && submission.getNumCorrect().equals(submission.getNumTestCases());
+
+            if (!correct || solved.get(submission.getProblemIndex())) {
+                return new Standing(player, joinOrder, true, solvedCount, lastSolveTime, solved);
+            }
+
+            solved.set(submission.getProblemIndex());
+            return new Standing(player, joinOrder, true, solvedCount + 1, submission.getStartTime(), solved);
+        }
+    }
+}
@@ -4,8 +4,8 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.codejoust.main.model.User;
 import com.codejoust.main.util.Color;
@@ -21,8 +21,11 @@ public class Player {
     // Updated field to hold the user's current-language code.
     private PlayerCode playerCode;
 
-    // Submissions in order of first-to-last submitted.
-    private List<Submission> submissions = new ArrayList<>();
+    /**
+     * Submissions in order of first-to-last submitted. Copy-on-write so that
+     * the list can be read for socket updates while a submission is added.
+     */
+    private List<Submission> submissions = new CopyOnWriteArrayList<>();
 
     /**
      * Solved variable if the user has successfully solved the problem,
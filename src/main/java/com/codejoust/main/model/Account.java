@@ -41,18 +41,22 @@ public class Account {
     @EqualsAndHashCode.Include
     private String uid;
 
-    @OneToMany(mappedBy = "owner", fetch = FetchType.EAGER)
+    /**
+     * The account's problems, tags and game reports are loaded only when
+     * read, as accounts are loaded with every user and problem.
+     */
+    @OneToMany(mappedBy = "owner", fetch = FetchType.LAZY)
     @Setter(AccessLevel.PRIVATE)
     @Fetch(value = FetchMode.SUBSELECT)
     private List<Problem> problems = new ArrayList<>();
 
-    @OneToMany(mappedBy = "owner", fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "owner", fetch = FetchType.LAZY)
     @Setter(AccessLevel.PRIVATE)
     @Fetch(value = FetchMode.SUBSELECT)
     private List<ProblemTag> problemTags = new ArrayList<>();
 
     // List of tags associated with this problem
-    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH}, fetch = FetchType.EAGER)
+    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH}, fetch = FetchType.LAZY)
     @Setter(AccessLevel.PRIVATE)
     @JoinColumn(name = "game_report_id")
     @Fetch(value = FetchMode.SUBSELECT)
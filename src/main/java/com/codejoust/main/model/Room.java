@@ -8,6 +8,7 @@ import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
@@ -16,6 +17,9 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 
@@ -23,14 +27,24 @@ import com.codejoust.main.game_object.GameTimer;
 import com.codejoust.main.model.problem.Problem;
 import com.codejoust.main.model.problem.ProblemDifficulty;
 import com.codejoust.main.service.RoomService;
+import com.codejoust.main.util.UniqueIdListener;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * The lobby graph loads the host and users with their accounts in one
+ * query, rather than one query per user for their account.
+ */
 @Entity
+@EntityListeners(UniqueIdListener.class)
 @Getter
 @Setter
+@NamedEntityGraph(name = "Room.lobby", attributeNodes = {
+    @NamedAttributeNode(value = "host", subgraph = "user"),
+    @NamedAttributeNode(value = "users", subgraph = "user")
+}, subgraphs = @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("account")))
 public class Room {
 
     @Id
@@ -71,6 +85,39 @@ public class Room {
     @Fetch(FetchMode.SUBSELECT)
     private List<Problem> problems = new ArrayList<>();
 
+    /**
+     * A detached copy of this room and its users, sharing their accounts and
+     * the selected problems, so that the copy can be changed and saved
+     * without changing this room.
+     */
+    public Room copy() {
+        Room room = new Room();
+        room.id = id;
+        room.roomId = roomId;
+        room.createdDateTime = createdDateTime;
+        room.active = active;
+        room.difficulty = difficulty;
+        room.duration = duration;
+        room.numProblems = numProblems;
+        room.size = size;
+        room.problems = new ArrayList<>(problems);
+
+        for (User user : users) {
+            User userCopy = user.copy();
+            room.addUser(userCopy);
+            if (user == host || host != null && user.getId() != null && user.getId().equals(host.getId())) {
+                room.host = userCopy;
+            }
+        }
+
+        // A host no longer in the room is kept as is.
+        if (room.host == null) {
+            room.host = host;
+        }
+
+        return room;
+    }
+
     public void addUser(User user) {
         users.add(user);
         user.setRoom(this);
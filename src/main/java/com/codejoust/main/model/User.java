@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -11,8 +12,11 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
+import javax.persistence.Transient;
 
 import com.codejoust.main.model.report.SubmissionGroupReport;
+import com.codejoust.main.util.PresenceListener;
+import com.codejoust.main.util.UniqueIdListener;
 
 import org.hibernate.annotations.Fetch;
 import org.hibernate.annotations.FetchMode;
@@ -24,6 +28,7 @@ import lombok.Setter;
 
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Entity
+@EntityListeners({UniqueIdListener.class, PresenceListener.class})
 @Getter
 @Setter
 public class User {
@@ -43,10 +48,27 @@ public class User {
     private Boolean spectator = false;
     /**
      * The session ID of the user connection, auto-generated by sockets. If
-     * this is null, then the user is not connected to the room.
+     * this is null, then the user is not connected to the room. Only kept
+     * up to date while the PresenceRegistry is off, so who is connected is
+     * read with getConnectedSessionId.
      */
     private String sessionId;
 
+    /**
+     * The session ID held by the PresenceRegistry, set when the user is
+     * loaded while it is on. It is never saved, so loading a user does not
+     * change their row.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String presenceSessionId;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean presenceApplied;
+
     // This column holds the primary key of the account
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "account_table_id")
@@ -58,9 +80,38 @@ public class User {
     private Room room;
 
     // Thie list holds the submission group associated with the current room
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany(fetch = FetchType.LAZY)
     @Setter(AccessLevel.PRIVATE)
     @Fetch(value = FetchMode.SUBSELECT)
     @JoinColumn(name = "submission_group_reports_table_id")
     private List<SubmissionGroupReport> submissionGroupReports = new ArrayList<>();
+
+    /**
+     * A copy of this user, sharing their account and submission groups, and
+     * not yet in a room.
+     */
+    public User copy() {
+        User user = new User();
+        user.id = id;
+        user.userId = userId;
+        user.nickname = nickname;
+        user.spectator = spectator;
+        user.sessionId = sessionId;
+        user.presenceSessionId = presenceSessionId;
+        user.presenceApplied = presenceApplied;
+        user.account = account;
+        user.submissionGroupReports = submissionGroupReports;
+        return user;
+    }
+
+    // Set the session ID of the user's connection as held by the PresenceRegistry.
+    public void setPresence(String sessionId) {
+        presenceSessionId = sessionId;
+        presenceApplied = true;
+    }
+
+    // The session ID of the user's connection, or null if they are not connected.
+    public String getConnectedSessionId() {
+        return presenceApplied ? presenceSessionId : sessionId;
+    }
 }
@@ -13,6 +13,8 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.ManyToMany;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 
 import com.codejoust.main.model.Account;
 
@@ -27,10 +29,18 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * The detail graph loads the owner and test cases with the problem in one
+ * query; the inputs and tags are then each loaded for all problems at once.
+ */
 @Entity // This tells Hibernate to make a table out of this class
 @Getter
 @Setter
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@NamedEntityGraph(name = "Problem.detail", attributeNodes = {
+    @NamedAttributeNode("owner"),
+    @NamedAttributeNode("testCases")
+})
 public class Problem {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -58,6 +68,7 @@ public class Problem {
      */
     @OneToMany(mappedBy = "problem", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     @Setter(AccessLevel.PRIVATE)
+    @Fetch(value = FetchMode.SUBSELECT)
     private List<ProblemTestCase> testCases = new ArrayList<>();
 
     @Enumerated(EnumType.STRING)
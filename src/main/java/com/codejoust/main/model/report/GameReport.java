@@ -45,7 +45,7 @@ public class GameReport {
     @JoinColumn(name = "problem_containers_table_id")
     private List<ProblemContainer> problemContainers = new ArrayList<>();
 
-    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH}, fetch = FetchType.EAGER)
+    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH}, fetch = FetchType.LAZY)
     @Setter(AccessLevel.PRIVATE)
     @JoinColumn(name = "users_table_id")
     @Fetch(value = FetchMode.SUBSELECT)
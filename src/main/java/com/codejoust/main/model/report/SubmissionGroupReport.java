@@ -31,6 +31,9 @@ public class SubmissionGroupReport {
 
     private String gameReportId;
 
+    // The user whose submissions these are.
+    private String userId;
+
     @OneToMany(fetch = FetchType.EAGER)
     @Setter(AccessLevel.PRIVATE)
     @Fetch(value = FetchMode.SUBSELECT)
@@ -8,6 +8,7 @@ import com.codejoust.main.exception.api.ApiException;
 import com.codejoust.main.model.Account;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AccountService {
@@ -21,6 +22,8 @@ public class AccountService {
         this.repository = repository;
     }
 
+    // Read in one transaction, as the account's problems and tags are loaded lazily.
+    @Transactional(readOnly = true)
     public AccountDto getAccount(String uid, String token) {
         String verifiedUid = service.verifyToken(token);
 
@@ -0,0 +1,114 @@
+package com.codejoust.main.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.PreDestroy;
+
+import com.codejoust.main.config.ClusterProperties;
+import com.codejoust.main.controller.v1.BaseRestController;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Non-blocking HTTP client for requests between the nodes of the cluster.
+ */
+@Log4j2
+@Component
+public class ClusterClient {
+
+    public static final String GAMES_PATH = BaseRestController.BASE_URL + "/cluster/games";
+
+    private static final TypeReference<Set<String>> ROOM_IDS = new TypeReference<>() {};
+
+    private final CloseableHttpAsyncClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ClusterClient(ClusterProperties properties, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(properties.getConnectTimeoutMillis())
+            .setSocketTimeout(properties.getReadTimeoutMillis())
+            .setConnectionRequestTimeout(properties.getConnectTimeoutMillis())
+            .build();
+
+        this.httpClient = HttpAsyncClients.custom()
+            .setDefaultRequestConfig(requestConfig)
+            .setMaxConnTotal(64)
+            .setMaxConnPerRoute(32)
+            .build();
+        this.httpClient.start();
+    }
+
+    /**
+     * Send the request without blocking the caller.
+     *
+     * @param request The request, addressed to another node.
+     * @return A future completed with the response, or exceptionally if the
+     * node could not be reached.
+     */
+    public CompletableFuture<HttpResponse> execute(HttpUriRequest request) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        httpClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(HttpResponse response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                future.completeExceptionally(new IOException("The request to another node was cancelled."));
+            }
+        });
+        return future;
+    }
+
+    // The rooms with games on the node, completing with null rather than exceptionally if it does not answer.
+    public CompletableFuture<Set<String>> getGames(String node) {
+        return execute(new HttpGet(node + GAMES_PATH))
+            .thenApply(response -> {
+                if (response.getStatusLine().getStatusCode() != HttpStatus.OK.value()) {
+                    return null;
+                }
+
+                try {
+                    return objectMapper.readValue(EntityUtils.toByteArray(response.getEntity()), ROOM_IDS);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })
+            .exceptionally(e -> null);
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the cluster client:", e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.codejoust.main.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import com.codejoust.main.dto.game.GameDeltaDto;
+import com.codejoust.main.dto.game.GameDto;
+import com.codejoust.main.dto.game.GameTimerDto;
+import com.codejoust.main.dto.game.PlayerDeltaDto;
+import com.codejoust.main.dto.game.PlayerDto;
+import com.codejoust.main.dto.game.SubmissionDto;
+import com.codejoust.main.dto.problem.ProblemDto;
+import com.codejoust.main.dto.room.RoomDto;
+import com.codejoust.main.dto.user.UserDto;
+import com.codejoust.main.model.report.CodeLanguage;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the last game update sent for each room, so that each new update
+ * is sent as the changes since then rather than the whole game.
+ */
+@Component
+public class GameDeltaTracker {
+
+    private final Map<String, Broadcast> broadcasts = new ConcurrentHashMap<>();
+
+    /**
+     * Work out the changes since the last update for the game's room, and
+     * hand them to the publisher. Updates for one room are numbered and
+     * published one at a time, in the order they are computed. A game mapped
+     * before the last one published is older than it, so it is dropped
+     * rather than rolling the room back.
+     *
+     * @param gameDto The current state of the game.
+     * @param publisher Sends the changes to the room.
+     * @return Whether the update was published.
+     */
+    public boolean publish(GameDto gameDto, Consumer<GameDeltaDto> publisher) {
+        String roomId = gameDto.getRoom().getRoomId();
+        Broadcast broadcast = broadcasts.computeIfAbsent(roomId, id -> new Broadcast());
+
+        synchronized (broadcast) {
+            if (gameDto.getVersion() != 0 && gameDto.getVersion() < broadcast.gameVersion) {
+                return false;
+            }
+            broadcast.gameVersion = Math.max(broadcast.gameVersion, gameDto.getVersion());
+
+            GameDeltaDto delta = broadcast.diff(gameDto);
+            delta.setRoomId(roomId);
+            delta.setVersion(++broadcast.version);
+            publisher.accept(delta);
+            return true;
+        }
+    }
+
+    // The version of the last update sent for the room, or 0 if none was.
+    public long getVersion(String roomId) {
+        Broadcast broadcast = broadcasts.get(roomId);
+        if (broadcast == null) {
+            return 0;
+        }
+
+        synchronized (broadcast) {
+            return broadcast.version;
+        }
+    }
+
+    // Forget the room's game; the next update sent for the room is a full snapshot.
+    public void remove(String roomId) {
+        broadcasts.remove(roomId);
+    }
+
+    /**
+     * The state last sent for one room. The DTOs kept are freshly mapped for
+     * each update and never changed afterward, so they are kept as is.
+     */
+    private static class Broadcast {
+
+        private long version = 0;
+        private long gameVersion = 0;
+        private List<ProblemDto> problems;
+        private RoomDto room;
+        private GameTimerDto gameTimer;
+        private Boolean playAgain;
+        private Boolean allSolved;
+        private Boolean gameEnded;
+        private List<String> leaderboard;
+        private Map<String, PlayerState> players = new HashMap<>();
+
+        GameDeltaDto diff(GameDto gameDto) {
+            GameDeltaDto delta = new GameDeltaDto();
+
+            // A new game, or one whose problems changed, is sent whole.
+            if (problems == null || !sameProblems(gameDto.getProblems())) {
+                delta.setGame(gameDto);
+            }
+
+            if (delta.getGame() == null) {
+                if (!Objects.equals(room, gameDto.getRoom())) {
+                    delta.setRoom(gameDto.getRoom());
+                }
+                if (!Objects.equals(gameTimer, gameDto.getGameTimer())) {
+                    delta.setGameTimer(gameDto.getGameTimer());
+                }
+                if (!Objects.equals(playAgain, gameDto.getPlayAgain())) {
+                    delta.setPlayAgain(gameDto.getPlayAgain());
+                }
+                if (!Objects.equals(allSolved, gameDto.getAllSolved())) {
+                    delta.setAllSolved(gameDto.getAllSolved());
+                }
+                if (!Objects.equals(gameEnded, gameDto.getGameEnded())) {
+                    delta.setGameEnded(gameDto.getGameEnded());
+                }
+            }
+
+            List<String> ranking = new ArrayList<>(gameDto.getPlayers().size());
+            Map<String, PlayerState> states = new HashMap<>();
+            for (PlayerDto playerDto : gameDto.getPlayers()) {
+                String userId = playerDto.getUser() != null ? playerDto.getUser().getUserId() : null;
+                ranking.add(userId);
+
+                PlayerState previous = players.get(userId);
+                PlayerState current = new PlayerState(playerDto);
+                states.put(userId, current);
+
+                if (delta.getGame() == null) {
+                    PlayerDeltaDto playerDelta = current.diff(userId, playerDto, previous);
+                    if (playerDelta != null) {
+                        delta.getPlayers().add(playerDelta);
+                    }
+                }
+            }
+
+            if (delta.getGame() == null && !ranking.equals(leaderboard)) {
+                delta.setLeaderboard(ranking);
+            }
+
+            problems = gameDto.getProblems();
+            room = gameDto.getRoom();
+            gameTimer = gameDto.getGameTimer();
+            playAgain = gameDto.getPlayAgain();
+            allSolved = gameDto.getAllSolved();
+            gameEnded = gameDto.getGameEnded();
+            leaderboard = ranking;
+            players = states;
+            return delta;
+        }
+
+        // Cached problem views are the same list each time; anything else is compared.
+        private boolean sameProblems(List<ProblemDto> current) {
+            return problems == current || Objects.equals(problems, current);
+        }
+    }
+
+    /**
+     * What was last sent of one player. Submissions are only ever appended,
+     * so only their number is kept.
+     */
+    private static class PlayerState {
+
+        private final UserDto user;
+        private final String code;
+        private final CodeLanguage language;
+        private final boolean[] solved;
+        private final int numSubmissions;
+
+        PlayerState(PlayerDto playerDto) {
+            this.user = playerDto.getUser();
+            this.code = playerDto.getCode();
+            this.language = playerDto.getLanguage();
+            this.solved = playerDto.getSolved();
+            this.numSubmissions = playerDto.getSubmissions().size();
+        }
+
+        // The changes since the previous state, or null if there are none.
+        PlayerDeltaDto diff(String userId, PlayerDto playerDto, PlayerState previous) {
+            int fromSubmission = previous != null && previous.numSubmissions <= numSubmissions
+                ? previous.numSubmissions : 0;
+
+            if (previous != null
+                && fromSubmission == numSubmissions
+                && Objects.equals(previous.user, user)
+                && Objects.equals(previous.code, code)
+                && previous.language == language
+                && Arrays.equals(previous.solved, solved)) {
+                return null;
+            }
+
+            PlayerDeltaDto playerDelta = new PlayerDeltaDto();
+            playerDelta.setUserId(userId);
+            playerDelta.setUser(user);
+            playerDelta.setCode(code);
+            playerDelta.setLanguage(language);
+            playerDelta.setSolved(solved);
+            playerDelta.setColor(playerDto.getColor());
+            playerDelta.setFromSubmission(fromSubmission);
+
+            List<SubmissionDto> submissions = playerDto.getSubmissions();
+            playerDelta.setSubmissions(new ArrayList<>(submissions.subList(fromSubmission, numSubmissions)));
+            return playerDelta;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.codejoust.main.service;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import com.codejoust.main.config.JournalProperties;
+import com.codejoust.main.dto.game.GameRecordDto;
+import com.codejoust.main.dto.game.GameRecordMapper;
+import com.codejoust.main.game_object.Game;
+import com.codejoust.main.game_object.PlayerCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Saves live games to an append-only file on this node, one JSON line per
+ * entry, so they can be recovered after a restart or crash.
+ *
+ * Changes to a game's state mark it as changed, and the latest state of the
+ * changed games is appended and synced to disk every journal.flushMillis, so
+ * a burst of changes is written once. A player's code changes far more often,
+ * so only the latest code of the players who changed it is appended. Games
+ * are read under their room's lock. Once enough entries have been appended,
+ * the file is rewritten with one entry per game in progress.
+ */
+@Log4j2
+@Component
+public class GameJournal {
+
+    protected static final String FILE_NAME = "games.jsonl";
+
+    // Marks a removed game among the changed games.
+    private static final Game REMOVED = new Game();
+
+    private final JournalProperties properties;
+    private final GameRegistry gameRegistry;
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final ScheduledExecutorService flusher;
+
+    // The games changed since the last flush, by room ID.
+    private final Map<String, Game> changed = new ConcurrentHashMap<>();
+
+    // The code changed since the last flush, by room ID and then user ID.
+    private final Map<String, Map<String, PlayerCode>> changedCode = new ConcurrentHashMap<>();
+
+    private FileOutputStream out;
+    private int appended = 0;
+
+    @Autowired
+    public GameJournal(JournalProperties properties, GameRegistry gameRegistry, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.gameRegistry = gameRegistry;
+        this.objectMapper = objectMapper;
+        this.file = Paths.get(properties.getDirectory(), FILE_NAME).toAbsolutePath();
+
+        if (!properties.isEnabled()) {
+            this.flusher = null;
+            return;
+        }
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-journal-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushMillis();
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // Save the game's latest state with the next flush.
+    public void record(Game game) {
+        if (isEnabled()) {
+            changed.put(game.getRoom().getRoomId(), game);
+        }
+    }
+
+    // Save the player's latest code with the next flush, without the rest of the game.
+    public void recordCode(String roomId, String userId, PlayerCode playerCode) {
+        if (isEnabled()) {
+            // Changed within compute, so a flush taking the room's code never misses a change.
+            changedCode.compute(roomId, (id, playerCodes) -> {
+                Map<String, PlayerCode> codes = playerCodes != null ? playerCodes : new HashMap<>();
+                codes.put(userId, playerCode);
+                return codes;
+            });
+        }
+    }
+
+    // Mark the room's game as removed with the next flush, so it is not recovered.
+    public void remove(String roomId) {
+        if (isEnabled()) {
+            changed.put(roomId, REMOVED);
+        }
+    }
+
+    /**
+     * Read the latest saved state of each game not since removed.
+     *
+     * @return The saved games, in the order they were first saved. A line
+     * cut short by a crash is skipped.
+     */
+    public synchronized List<GameRecordDto> readLatest() {
+        if (!isEnabled() || !Files.exists(file)) {
+            return new ArrayList<>();
+        }
+
+        Map<String, GameRecordDto> latest = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                GameRecordDto record;
+                try {
+                    record = objectMapper.readValue(line, GameRecordDto.class);
+                } catch (JsonProcessingException e) {
+                    log.warn("Skipping an unreadable game journal entry: {}", e.getOriginalMessage());
+                    continue;
+                }
+
+                if (record.isRemoved()) {
+                    latest.remove(record.getRoomId());
+                } else if (record.isCodeOnly()) {
+                    GameRecordDto previous = latest.get(record.getRoomId());
+                    if (previous != null) {
+                        GameRecordMapper.applyCode(previous, record);
+                    }
+                } else {
+                    latest.put(record.getRoomId(), record);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read the game journal {}:", file, e);
+        }
+
+        return new ArrayList<>(latest.values());
+    }
+
+    // Append the latest state of the changed games, then the changed code of the others, and sync it to disk.
+    public synchronized void flush() throws IOException {
+        if (!isEnabled() || (changed.isEmpty() && changedCode.isEmpty())) {
+            return;
+        }
+
+        StringBuilder lines = new StringBuilder();
+        for (String roomId : new ArrayList<>(changed.keySet())) {
+            Game game = changed.remove(roomId);
+
+            // The game's entry holds its latest code, as it is read after the code is taken.
+            changedCode.remove(roomId);
+            GameRecordDto record = game == REMOVED
+                ? GameRecordMapper.removedRecord(roomId)
+                : toRecord(game);
+            lines.append(objectMapper.writeValueAsString(record)).append('\n');
+            appended++;
+        }
+
+        for (String roomId : new ArrayList<>(changedCode.keySet())) {
+            Map<String, PlayerCode> playerCodes = changedCode.remove(roomId);
+            GameRecordDto record = GameRecordMapper.codeRecord(roomId, playerCodes);
+            lines.append(objectMapper.writeValueAsString(record)).append('\n');
+            appended++;
+        }
+
+        FileOutputStream stream = open();
+        stream.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+        stream.getChannel().force(false);
+
+        if (appended >= properties.getCompactAfter()) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrite the journal with one entry per game in progress. The new file
+     * replaces the old one only once complete, so a crash meanwhile leaves
+     * the old one in place.
+     */
+    public synchronized void compact() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+
+        close();
+        Files.createDirectories(file.getParent());
+        Path compacted = file.resolveSibling(FILE_NAME + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(compacted.toFile())) {
+            for (Game game : gameRegistry.getGames()) {
+                String line = objectMapper.writeValueAsString(toRecord(game)) + '\n';
+                stream.write(line.getBytes(StandardCharsets.UTF_8));
+            }
+            stream.getChannel().force(false);
+        }
+
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        appended = 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+
+        flusher.shutdownNow();
+        flushQuietly();
+        synchronized (this) {
+            close();
+        }
+    }
+
+    // Read the game under its room's lock, so it is not saved halfway through a change.
+    private GameRecordDto toRecord(Game game) {
+        return gameRegistry.withLock(game.getRoom().getRoomId(), () -> GameRecordMapper.toRecord(game));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to write the game journal {}:", file, e);
+        }
+    }
+
+    private FileOutputStream open() throws IOException {
+        if (out == null) {
+            Files.createDirectories(file.getParent());
+            out = new FileOutputStream(file.toFile(), true);
+        }
+
+        return out;
+    }
+
+    private void close() {
+        if (out == null) {
+            return;
+        }
+
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the game journal {}:", file, e);
+        }
+        out = null;
+    }
+}
@@ -1,16 +1,29 @@
 package com.codejoust.main.service;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Timer;
-
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.codejoust.main.dao.PresenceRegistry;
 import com.codejoust.main.dao.RoomRepository;
 import com.codejoust.main.dto.game.EndGameRequest;
 import com.codejoust.main.dto.game.GameDto;
 import com.codejoust.main.dto.game.GameMapper;
 import com.codejoust.main.dto.game.GameNotificationDto;
+import com.codejoust.main.dto.game.GameRecordDto;
+import com.codejoust.main.dto.game.GameRecordMapper;
+import com.codejoust.main.dto.game.GameSnapshotDto;
+import com.codejoust.main.dto.game.GameTimerRequest;
 import com.codejoust.main.dto.game.PlayAgainRequest;
+import com.codejoust.main.dto.game.ProblemStatisticsDto;
 import com.codejoust.main.dto.game.StartGameRequest;
 import com.codejoust.main.dto.game.SubmissionDto;
 import com.codejoust.main.dto.game.SubmissionRequest;
@@ -20,6 +33,7 @@ import com.codejoust.main.dto.user.UserMapper;
 import com.codejoust.main.exception.GameError;
 import com.codejoust.main.exception.ProblemError;
 import com.codejoust.main.exception.RoomError;
+import com.codejoust.main.exception.TimerError;
 import com.codejoust.main.exception.api.ApiException;
 import com.codejoust.main.game_object.Game;
 import com.codejoust.main.game_object.GameTimer;
@@ -29,39 +43,63 @@ import com.codejoust.main.model.Room;
 import com.codejoust.main.model.User;
 import com.codejoust.main.model.problem.Problem;
 import com.codejoust.main.util.EndGameTimerTask;
+import com.codejoust.main.util.TimingWheel;
 import com.codejoust.main.util.Utility;
 
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 @Log4j2
 @Service
 public class GameManagementService {
 
+    // How long a game that is over is kept for its results before it is removed (0 keeps it until replaced).
+    @Value("${game.retainEndedMillis:3600000}")
+    private long retainEndedMillis;
+
     private final RoomRepository repository;
     private final SocketService socketService;
     private final LiveGameService liveGameService;
     private final NotificationService notificationService;
     private final SubmitService submitService;
     private final ProblemService problemService;
-    private final Map<String, Game> currentGameMap;
+    private final GameRegistry gameRegistry;
+    private final SubmissionRateLimiter rateLimiter;
+    private final GameScheduler scheduler;
+    private final GameUpdateCoalescer updateCoalescer;
+    private final GameJournal journal;
+    private final GameReportService reportService;
+    private final PresenceRegistry presence;
 
     @Autowired
     protected GameManagementService(RoomRepository repository, SocketService socketService,
                                     LiveGameService liveGameService, NotificationService notificationService,
-                                    SubmitService submitService, ProblemService problemService) {
+                                    SubmitService submitService, ProblemService problemService,
+                                    GameRegistry gameRegistry, SubmissionRateLimiter rateLimiter,
+                                    GameScheduler scheduler, GameUpdateCoalescer updateCoalescer,
+                                    GameJournal journal, GameReportService reportService,
+                                    PresenceRegistry presence) {
         this.repository = repository;
         this.socketService = socketService;
         this.liveGameService = liveGameService;
         this.notificationService = notificationService;
         this.submitService = submitService;
         this.problemService = problemService;
-        currentGameMap = new HashMap<>();
+        this.gameRegistry = gameRegistry;
+        this.rateLimiter = rateLimiter;
+        this.scheduler = scheduler;
+        this.updateCoalescer = updateCoalescer;
+        this.journal = journal;
+        this.reportService = reportService;
+        this.presence = presence;
     }
 
     protected Game getGameFromRoomId(String roomId) {
-        Game game = currentGameMap.get(roomId);
+        Game game = gameRegistry.get(roomId);
         if (game == null) {
             throw new ApiException(GameError.NOT_FOUND);
         }
@@ -70,13 +108,89 @@ public class GameManagementService {
     }
 
     protected void removeGame(String roomId) {
-        currentGameMap.remove(roomId);
+        clearGame(roomId, gameRegistry.remove(roomId));
+    }
+
+    /**
+     * Remove a game that is over, unless another game has since replaced it,
+     * sending its room back to the lobby. It is then no longer recovered.
+     *
+     * @param game The game to remove.
+     */
+    protected void removeEndedGame(Game game) {
+        String roomId = game.getRoom().getRoomId();
+
+        // Held throughout, so a game started meanwhile is neither removed nor forgotten by the journal.
+        gameRegistry.withLock(roomId, () -> {
+            if (!gameRegistry.remove(roomId, game)) {
+                return;
+            }
+
+            Room room = repository.findRoomByRoomId(roomId);
+            if (room != null && room.getActive()) {
+                room.setActive(false);
+                repository.save(room);
+            }
+            clearGame(roomId, game);
+        });
+    }
+
+    // Remove the game once its players have had time to see the results.
+    private void scheduleRemoval(Game game) {
+        if (retainEndedMillis > 0) {
+            scheduler.schedule(() -> {
+                try {
+                    removeEndedGame(game);
+                } catch (Exception e) {
+                    log.error("Failed to remove the ended game of room {}:", game.getRoom().getRoomId(), e);
+                }
+            }, retainEndedMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void clearGame(String roomId, Game game) {
+        // Make sure no timers of a removed game can still fire.
+        if (game != null && game.getGameTimer() != null) {
+            handleEndGame(game);
+        }
+
+        updateCoalescer.cancel(roomId);
+        socketService.clearGameUpdates(roomId);
+        journal.remove(roomId);
     }
 
     public GameDto getGameDtoFromRoomId(String roomId) {
         return GameMapper.toDto(getGameFromRoomId(roomId));
     }
 
+    // The game, for clients to catch up with after missing a socket update
+    public GameSnapshotDto getGameSnapshot(String roomId) {
+        Game game = getGameFromRoomId(roomId);
+
+        // Read the version first, so updates sent meanwhile are reapplied rather than skipped.
+        GameSnapshotDto snapshotDto = new GameSnapshotDto();
+        snapshotDto.setVersion(socketService.getGameVersion(roomId));
+        snapshotDto.setGame(GameMapper.toDto(game));
+        return snapshotDto;
+    }
+
+    // The live statistics of each problem, which only the host may see
+    public List<ProblemStatisticsDto> getProblemStatistics(String roomId, String userId) {
+        Game game = getGameFromRoomId(roomId);
+
+        // Get up to date room using repository, as the host may have changed
+        Room room = repository.findRoomByRoomId(roomId);
+        if (room == null) {
+            throw new ApiException(RoomError.NOT_FOUND);
+        }
+
+        if (userId == null || room.getHost() == null || !userId.equals(room.getHost().getUserId())) {
+            throw new ApiException(GameError.INVALID_PERMISSIONS);
+        }
+
+        return GameMapper.toStatisticsDtos(game);
+    }
+
     // When host starts the game, redirect everyone and initialize the game state
     public RoomDto startGame(String roomId, StartGameRequest request) {
         Room room = repository.findRoomByRoomId(roomId);
@@ -122,8 +236,12 @@ public class GameManagementService {
             throw new ApiException(GameError.INVALID_PERMISSIONS);
         }
 
-        // Set all users to be disconnected
-        room.getUsers().forEach((user) -> user.setSessionId(null));
+        // Set all users to be disconnected, until they connect again
+        room.getUsers().forEach((user) -> {
+            user.setSessionId(null);
+            presence.disconnectUser(user.getUserId());
+            presence.apply(user);
+        });
 
         // Change room to be no longer active
         room.setActive(false);
@@ -131,6 +249,7 @@ public class GameManagementService {
 
         // Notify users to play again
         game.setPlayAgain(true);
+        journal.record(game);
         socketService.sendSocketUpdate(GameMapper.toDto(game));
 
         return RoomMapper.toDto(room);
@@ -155,9 +274,104 @@ public class GameManagementService {
             }
         }
 
+        // Problems do not change during the game, so map them only once.
+        GameMapper.cacheProblemDtos(game);
+
         setStartGameTimer(game, time);
-        currentGameMap.put(room.getRoomId(), game);
+
+        // Replace any previous game for this room, and stop its timers.
+        Game previousGame = gameRegistry.put(room.getRoomId(), game);
+        if (previousGame != null && previousGame.getGameTimer() != null) {
+            handleEndGame(previousGame);
+        }
+
         notificationService.scheduleTimeLeftNotifications(game, time);
+        journal.record(game);
+    }
+
+    /**
+     * Restore the games saved to the journal before this node last stopped,
+     * once the application is ready. Their timers are rebuilt from the saved
+     * end time, so time keeps running while the node is down.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverGames() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+
+        List<GameRecordDto> records = journal.readLatest();
+        int recovered = 0;
+        for (GameRecordDto record : records) {
+            try {
+                if (recoverGame(record)) {
+                    recovered++;
+                }
+            } catch (Exception e) {
+                log.error("Failed to recover the game of room {}:", record.getRoomId(), e);
+            }
+        }
+
+        // Start the journal afresh from the recovered games.
+        try {
+            journal.compact();
+        } catch (IOException e) {
+            log.error("Failed to compact the game journal:", e);
+        }
+
+        log.info("Recovered {} of {} saved games", recovered, records.size());
+    }
+
+    // Restore a saved game, returning whether it was still needed and could be restored.
+    protected boolean recoverGame(GameRecordDto record) {
+        Room room = repository.findRoomByRoomId(record.getRoomId());
+
+        // Games whose room was since deleted, or went back to the lobby, are not needed.
+        if (room == null || !room.getActive() || gameRegistry.get(room.getRoomId()) != null) {
+            return false;
+        }
+
+        List<Problem> problems = new ArrayList<>();
+        for (String problemId : record.getProblemIds()) {
+            Problem problem = problemService.getProblemEntity(problemId);
+            if (problem == null) {
+                // The game cannot continue, so send the room back to the lobby.
+                log.warn("Problem {} of the game of room {} no longer exists", problemId, room.getRoomId());
+                room.setActive(false);
+                repository.save(room);
+                return false;
+            }
+
+            problems.add(problem);
+        }
+
+        Game game = GameRecordMapper.toGame(record, room, problems);
+        GameMapper.cacheProblemDtos(game);
+
+        // The report of a game that was already over was saved before.
+        if (isGameOver(game)) {
+            game.getReported().set(true);
+        }
+
+        // Schedule the end of a running game from its saved end time, or end it if that has passed.
+        GameTimer gameTimer = game.getGameTimer();
+        if (gameTimer != null && gameTimer.getPausedAt() == null && !isGameOver(game)) {
+            Instant now = Instant.now();
+            long millisLeft = gameTimer.getEndTime().toEpochMilli() - now.toEpochMilli();
+            if (millisLeft <= 0) {
+                gameTimer.setTimeUp(true);
+                reportService.reportGameEnd(game);
+            } else {
+                scheduleEndGame(game, millisLeft, TimeUnit.MILLISECONDS);
+                notificationService.scheduleTimeLeftNotifications(game, gameTimer.getSecondsLeft(now));
+            }
+        }
+
+        gameRegistry.put(room.getRoomId(), game);
+        if (isGameOver(game)) {
+            scheduleRemoval(game);
+        }
+        return true;
     }
 
     // Set and start the Game Timer.
@@ -166,12 +380,149 @@ public class GameManagementService {
         game.setGameTimer(gameTimer);
 
         // Schedule the game to end after <duration> seconds.
+        scheduleEndGame(game, duration, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Schedule the game's time to run out after the given delay, and its
+     * report to be saved then. The task runs under the room's lock, and does
+     * nothing if the timer was paused or rescheduled since, as a task handed
+     * to run in the wheel's last tick can no longer be cancelled.
+     */
+    private void scheduleEndGame(Game game, long delay, TimeUnit unit) {
+        String roomId = game.getRoom().getRoomId();
+        GameTimer gameTimer = game.getGameTimer();
         EndGameTimerTask endGameTimerTask = new EndGameTimerTask(socketService, game);
-        gameTimer.getTimer().schedule(endGameTimerTask, duration * 1000);
+        AtomicReference<TimingWheel.Timeout> endGameTask = new AtomicReference<>();
+
+        // Scheduled under the lock, so the task cannot check itself before its handle is stored.
+        gameRegistry.withLock(roomId, () -> {
+            endGameTask.set(scheduler.schedule(() -> gameRegistry.withLock(roomId, () -> {
+                if (gameTimer.getEndGameTask() != endGameTask.get() || gameTimer.getPausedAt() != null) {
+                    return;
+                }
+
+                endGameTimerTask.run();
+                reportService.reportGameEnd(game);
+                journal.record(game);
+                scheduleRemoval(game);
+            }), delay, unit));
+            gameTimer.setEndGameTask(endGameTask.get());
+        });
+    }
+
+    // Pause the game timer, holding back the end game and time left notifications.
+    public GameDto pauseGameTimer(String roomId, GameTimerRequest request) {
+        Game game = getGameFromRoomId(roomId);
+        validateHost(game, request);
+
+        GameDto gameDto = gameRegistry.withLock(game.getRoom().getRoomId(), () -> {
+            GameTimer gameTimer = validateTimerChange(game);
+            if (gameTimer.getPausedAt() != null) {
+                throw new ApiException(TimerError.ALREADY_PAUSED);
+            }
+
+            gameTimer.cancelTasks();
+            gameTimer.setPausedAt(Instant.now());
+            journal.record(game);
+            return GameMapper.toDto(game);
+        });
+
+        socketService.sendSocketUpdate(gameDto);
+        return gameDto;
+    }
+
+    // Resume a paused game timer, pushing back its end by the time spent paused.
+    public GameDto resumeGameTimer(String roomId, GameTimerRequest request) {
+        Game game = getGameFromRoomId(roomId);
+        validateHost(game, request);
+
+        GameDto gameDto = gameRegistry.withLock(game.getRoom().getRoomId(), () -> {
+            GameTimer gameTimer = validateTimerChange(game);
+            if (gameTimer.getPausedAt() == null) {
+                throw new ApiException(TimerError.NOT_PAUSED);
+            }
+
+            long secondsLeft = gameTimer.getSecondsLeft(Instant.now());
+            gameTimer.setPausedAt(null);
+            rescheduleGameTimer(game, secondsLeft);
+            journal.record(game);
+            return GameMapper.toDto(game);
+        });
+
+        socketService.sendSocketUpdate(gameDto);
+        return gameDto;
+    }
+
+    // Add the requested seconds to the game timer, or remove them if negative.
+    public GameDto changeGameTimer(String roomId, GameTimerRequest request) {
+        Game game = getGameFromRoomId(roomId);
+        validateHost(game, request);
+
+        if (request.getSeconds() == null) {
+            throw new ApiException(GameError.EMPTY_FIELD);
+        }
+        long seconds = request.getSeconds();
+
+        GameDto gameDto = gameRegistry.withLock(game.getRoom().getRoomId(), () -> {
+            GameTimer gameTimer = validateTimerChange(game);
+            long secondsLeft = Math.max(0, gameTimer.getSecondsLeft(Instant.now()) + seconds);
+            gameTimer.setDuration(Math.max(0, gameTimer.getDuration() + seconds));
+
+            // A paused timer is only rescheduled once resumed.
+            if (gameTimer.getPausedAt() != null) {
+                gameTimer.setEndTime(gameTimer.getPausedAt().plusSeconds(secondsLeft));
+            } else {
+                rescheduleGameTimer(game, secondsLeft);
+            }
+
+            journal.record(game);
+            return GameMapper.toDto(game);
+        });
+
+        socketService.sendSocketUpdate(gameDto);
+        return gameDto;
+    }
+
+    // Only the host may change the game timer.
+    private void validateHost(Game game, GameTimerRequest request) {
+        User initiator = UserMapper.toEntity(request.getInitiator());
+        if (!game.getRoom().getHost().equals(initiator)) {
+            throw new ApiException(GameError.INVALID_PERMISSIONS);
+        }
+    }
+
+    // Code is not run or submitted while the game timer is paused.
+    private void validateNotPaused(Game game) {
+        if (game.getGameTimer() != null && game.getGameTimer().getPausedAt() != null) {
+            throw new ApiException(GameError.GAME_PAUSED);
+        }
+    }
+
+    private GameTimer validateTimerChange(Game game) {
+        if (game.getGameTimer() == null) {
+            throw new ApiException(TimerError.NULL_SETTING);
+        }
+
+        if (isGameOver(game)) {
+            throw new ApiException(TimerError.GAME_OVER);
+        }
+
+        return game.getGameTimer();
+    }
+
+    // Replace the timer's tasks with ones for a game ending in the given number of seconds.
+    private void rescheduleGameTimer(Game game, long secondsLeft) {
+        GameTimer gameTimer = game.getGameTimer();
+        gameTimer.cancelTasks();
+        gameTimer.setEndTime(Instant.now().plusSeconds(secondsLeft));
+
+        scheduleEndGame(game, secondsLeft, TimeUnit.SECONDS);
+        notificationService.scheduleTimeLeftNotifications(game, secondsLeft);
     }
 
     // Test the submission, return the results, and send a socket update
-    public SubmissionDto runCode(String roomId, SubmissionRequest request) {
+    public CompletableFuture<SubmissionDto> runCode(String roomId, SubmissionRequest request) {
         Game game = getGameFromRoomId(roomId);
 
         if (request.getInitiator() == null || request.getCode() == null || request.getLanguage() == null || request.getInput() == null) {
@@ -187,11 +538,18 @@ public class GameManagementService {
             throw new ApiException(GameError.INVALID_PERMISSIONS);
         }
 
-        return submitService.runCode(game, request);
+        validateNotPaused(game);
+
+        // Requests queued by the rate limiter are checked again, as the game may have been paused meanwhile.
+        long delayNanos = rateLimiter.acquire(roomId, initiatorUserId);
+        return afterDelay(delayNanos, () -> {
+            validateNotPaused(game);
+            return submitService.runCode(game, request);
+        });
     }
 
     // Test the submission, return the results, and send a socket update
-    public SubmissionDto submitSolution(String roomId, SubmissionRequest request) {
+    public CompletableFuture<SubmissionDto> submitSolution(String roomId, SubmissionRequest request) {
         Game game = getGameFromRoomId(roomId);
 
         if (request.getInitiator() == null || request.getCode() == null || request.getLanguage() == null) {
@@ -207,16 +565,54 @@ public class GameManagementService {
             throw new ApiException(GameError.INVALID_PERMISSIONS);
         }
 
-        SubmissionDto submissionDto = submitService.submitSolution(game, request);
+        validateNotPaused(game);
 
-        if (isGameOver(game)) {
-            handleEndGame(game);
+        // Completed with the submission, or cancelled by the caller once it stops waiting, e.g. when its response times out.
+        CompletableFuture<SubmissionDto> result = new CompletableFuture<>();
+
+        long delayNanos = rateLimiter.acquire(roomId, initiatorUserId);
+        afterDelay(delayNanos, () -> {
+            // A submission given up on while held back by the rate limiter is not sent.
+            if (result.isCancelled()) {
+                throw new CancellationException();
+            }
+
+            validateNotPaused(game);
+            return submitService.submitSolution(game, request, result);
+        }).thenApply(submissionDto -> {
+            journal.record(game);
+
+            // Send socket update with latest leaderboard info, batched with others unless the game is over
+            if (isGameOver(game)) {
+                handleEndGame(game);
+                reportService.reportGameEnd(game);
+                scheduleRemoval(game);
+                updateCoalescer.cancel(roomId);
+                socketService.sendSocketUpdate(GameMapper.toDto(game));
+            } else {
+                updateCoalescer.requestUpdate(game);
+            }
+
+            return submissionDto;
+        }).whenComplete((submissionDto, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(submissionDto);
+            }
+        });
+
+        return result;
+    }
+
+    // Make the call once the rate limiter's delay has passed, without holding a thread meanwhile.
+    private <T> CompletableFuture<T> afterDelay(long delayNanos, Supplier<CompletableFuture<T>> call) {
+        if (delayNanos <= 0) {
+            return call.get();
         }
 
-        // Send socket update with latest leaderboard info
-        socketService.sendSocketUpdate(GameMapper.toDto(game));
-        
-        return submissionDto;
+        return CompletableFuture.supplyAsync(call, CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS))
+            .thenCompose(Function.identity());
     }
 
     // Send a notification through a socket update.
@@ -264,6 +660,7 @@ public class GameManagementService {
         }
 
         liveGameService.updateCode(game.getPlayers().get(userId), playerCode);
+        journal.recordCode(roomId, userId, playerCode);
     }
 
     public GameDto manuallyEndGame(String roomId, EndGameRequest request) {
@@ -276,6 +673,10 @@ public class GameManagementService {
 
         game.setGameEnded(true);
         handleEndGame(game);
+        reportService.reportGameEnd(game);
+        scheduleRemoval(game);
+        updateCoalescer.cancel(roomId);
+        journal.record(game);
 
         GameDto gameDto = GameMapper.toDto(game);
         socketService.sendSocketUpdate(gameDto);
@@ -284,13 +685,8 @@ public class GameManagementService {
     }
 
     protected void handleEndGame(Game game) {
-        // Cancel all previously scheduled timers
-        GameTimer gameTimer = game.getGameTimer();
-        gameTimer.getTimer().cancel();
-
-        for (Timer timer : gameTimer.getNotificationTimers()) {
-            timer.cancel();
-        }
+        // Cancel all previously scheduled timer tasks
+        game.getGameTimer().cancelTasks();
     }
 
     protected boolean isGameOver(Game game) {
@@ -299,16 +695,33 @@ public class GameManagementService {
 
     // Update people's socket active status
     public void conditionallyUpdateSocketInfo(Room room, User user) {
-        Game game = currentGameMap.get(room.getRoomId());
+        conditionallyUpdateSocketInfo(room, Collections.singletonList(user));
+    }
 
-        if (game != null) {
-            Player player = game.getPlayers().get(user.getUserId());
-            if (player != null) {
-                log.info("Updating socket info for game {}", room.getRoomId());
-                game.setRoom(room);
-                player.setUser(user);
-                socketService.sendSocketUpdate(GameMapper.toDto(game));
+    // Update the socket active status of several people at once, sending one update
+    public void conditionallyUpdateSocketInfo(Room room, List<User> users) {
+        Game game = gameRegistry.get(room.getRoomId());
+        if (game == null) {
+            return;
+        }
+
+        List<User> playerUsers = new ArrayList<>();
+        for (User user : users) {
+            if (game.getPlayers().containsKey(user.getUserId())) {
+                playerUsers.add(user);
             }
         }
+
+        if (!playerUsers.isEmpty()) {
+            log.info("Updating socket info for game {}", room.getRoomId());
+            GameDto gameDto = gameRegistry.withLock(room.getRoomId(), () -> {
+                game.setRoom(room);
+                for (User user : playerUsers) {
+                    game.getPlayers().get(user.getUserId()).setUser(user);
+                }
+                return GameMapper.toDto(game);
+            });
+            socketService.sendSocketUpdate(gameDto);
+        }
     }
 }
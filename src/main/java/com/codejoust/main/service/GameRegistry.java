@@ -0,0 +1,116 @@
+package com.codejoust.main.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.codejoust.main.game_object.Game;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds every game currently in progress, keyed by room ID.
+ *
+ * Lookups are lock-free. Compound updates to a single game (recording a
+ * submission, replacing a game on restart, updating socket info) are
+ * serialized on one of a fixed number of lock stripes chosen by room ID, so
+ * two rooms only ever contend if they happen to share a stripe.
+ */
+@Component
+public class GameRegistry {
+
+    // Number of lock stripes; must be a power of two.
+    protected static final int STRIPE_COUNT = 64;
+
+    private final Map<String, Game> games = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPE_COUNT];
+
+    public GameRegistry() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Get the game for the given room, or null if none exists.
+    public Game get(String roomId) {
+        if (roomId == null) {
+            return null;
+        }
+
+        return games.get(roomId);
+    }
+
+    /**
+     * Atomically register a game for the given room, replacing any game
+     * already registered for it (e.g. when the host plays again).
+     *
+     * @param roomId The room the game belongs to.
+     * @param game The new game.
+     * @return The game previously registered for the room, or null.
+     */
+    public Game put(String roomId, Game game) {
+        return withLock(roomId, () -> games.put(roomId, game));
+    }
+
+    // Atomically remove the game for the given room, returning it if present.
+    public Game remove(String roomId) {
+        if (roomId == null) {
+            return null;
+        }
+
+        return withLock(roomId, () -> games.remove(roomId));
+    }
+
+    // Remove the game for the given room only if it is still the given game.
+    public boolean remove(String roomId, Game game) {
+        if (roomId == null || game == null) {
+            return false;
+        }
+
+        return withLock(roomId, () -> games.remove(roomId, game));
+    }
+
+    /**
+     * Run the action while holding the lock stripe of the given room. The
+     * lock is reentrant, so actions may call back into the registry.
+     *
+     * @param roomId The room whose stripe should be held.
+     * @param action The action to run.
+     * @return The result of the action.
+     */
+    public <T> T withLock(String roomId, Supplier<T> action) {
+        ReentrantLock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void withLock(String roomId, Runnable action) {
+        withLock(roomId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    // A weakly consistent, read-only view of all games in progress.
+    public Collection<Game> getGames() {
+        return Collections.unmodifiableCollection(games.values());
+    }
+
+    protected ReentrantLock lockFor(String roomId) {
+        // Spread the hash bits so that similar room IDs use different stripes.
+        int hash = roomId == null ? 0 : roomId.hashCode();
+        hash ^= (hash >>> 16);
+        return stripes[hash & (STRIPE_COUNT - 1)];
+    }
+}
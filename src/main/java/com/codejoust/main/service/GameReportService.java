@@ -0,0 +1,395 @@
+package com.codejoust.main.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.codejoust.main.config.ReportProperties;
+import com.codejoust.main.dao.GameReportRepository;
+import com.codejoust.main.dao.ProblemContainerRepository;
+import com.codejoust.main.dao.ProblemRepository;
+import com.codejoust.main.dao.SubmissionGroupReportRepository;
+import com.codejoust.main.dao.SubmissionReportRepository;
+import com.codejoust.main.game_object.Game;
+import com.codejoust.main.game_object.GameStatistics.ProblemStatistics;
+import com.codejoust.main.game_object.GameTimer;
+import com.codejoust.main.game_object.Player;
+import com.codejoust.main.game_object.Submission;
+import com.codejoust.main.model.problem.Problem;
+import com.codejoust.main.model.problem.ProblemContainer;
+import com.codejoust.main.model.report.GameEndType;
+import com.codejoust.main.model.report.GameReport;
+import com.codejoust.main.model.report.SubmissionGroupReport;
+import com.codejoust.main.model.report.SubmissionReport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Saves each game's submissions and, once it ends, its report, without
+ * slowing down the requests that produce them: these only queue an entry,
+ * and a single writer thread saves the queued entries every
+ * report.flushMillis, in batches of up to report.batchSize per transaction.
+ * Hibernate's JDBC batching (hibernate.jdbc.batch_size) then sends each
+ * batch's inserts in a few round trips.
+ *
+ * Submissions are saved in one group per player and game, tagged with the
+ * game's report ID and the user ID, so that users and rooms can still be
+ * deleted once their games are over.
+ *
+ * A batch that fails to save is saved again one entry at a time, and only
+ * the entries that fail alone are kept and tried again with a later flush,
+ * waiting report.retryMillis and then twice as long each time, until they
+ * have been tried report.maxAttempts times; only then are they dropped.
+ * Entries kept count toward report.maxQueued.
+ */
+@Log4j2
+@Service
+public class GameReportService {
+
+    private final ReportProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final SubmissionReportRepository submissionReportRepository;
+    private final SubmissionGroupReportRepository groupReportRepository;
+    private final GameReportRepository gameReportRepository;
+    private final ProblemContainerRepository problemContainerRepository;
+    private final ProblemRepository problemRepository;
+    private final BlockingQueue<Object> queue;
+    private final ScheduledExecutorService writer;
+
+    // The IDs of the groups saved so far, by game report ID then user ID; only used by the writer.
+    private final Map<String, Map<String, Integer>> groupIds = new HashMap<>();
+
+    // The batches that failed to save, waiting to be tried again; only used by the writer.
+    private final Deque<FailedBatch> retries = new ArrayDeque<>();
+
+    // The number of entries in those batches.
+    private volatile int retrying = 0;
+
+    @Autowired
+    public GameReportService(ReportProperties properties, TransactionTemplate transactionTemplate,
+                             SubmissionReportRepository submissionReportRepository,
+                             SubmissionGroupReportRepository groupReportRepository,
+                             GameReportRepository gameReportRepository,
+                             ProblemContainerRepository problemContainerRepository,
+                             ProblemRepository problemRepository) {
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.submissionReportRepository = submissionReportRepository;
+        this.groupReportRepository = groupReportRepository;
+        this.gameReportRepository = gameReportRepository;
+        this.problemContainerRepository = problemContainerRepository;
+        this.problemRepository = problemRepository;
+        this.queue = new LinkedBlockingQueue<>(properties.getMaxQueued());
+
+        if (!properties.isEnabled()) {
+            this.writer = null;
+            return;
+        }
+
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-report-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushMillis();
+        this.writer.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Queue the player's submission to be saved.
+    public void recordSubmission(Game game, Player player, Submission submission) {
+        enqueue(new SubmissionEntry(game.getGameReportId(), player.getUser().getUserId(), submission));
+    }
+
+    // Queue the report of a game that has ended to be saved, unless it already was.
+    public void reportGameEnd(Game game) {
+        if (game.getReported().compareAndSet(false, true)) {
+            enqueue(new GameEndEntry(game, getGameEndType(game)));
+        }
+    }
+
+    // The number of entries waiting to be saved, including those to be tried again.
+    public int getPending() {
+        return queue.size() + retrying;
+    }
+
+    /**
+     * Try again the failed batches whose wait is over, then save all queued
+     * entries, in batches of up to report.batchSize. A batch that fails to
+     * save is split into its entries, and only those failing alone are kept
+     * for a later flush, so one bad entry cannot hold back the rest.
+     */
+    public synchronized void flush() {
+        retry(false);
+
+        List<Object> batch = new ArrayList<>(properties.getBatchSize());
+        while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            saveOrSplit(batch, 1);
+
+            batch = new ArrayList<>(properties.getBatchSize());
+        }
+    }
+
+    // Save what is left once the application stops, while the database can still be reached.
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+
+        writer.shutdownNow();
+        flushQuietly();
+        synchronized (this) {
+            retry(true);
+        }
+    }
+
+    // Save the batch in one transaction, returning whether it was saved.
+    private boolean save(List<Object> batch) {
+        Map<String, Map<String, Integer>> savedGroupIds = new HashMap<>();
+        Set<String> endedGameReportIds = new HashSet<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch, savedGroupIds, endedGameReportIds));
+        } catch (Exception e) {
+            log.warn("Failed to save {} submissions and game reports:", batch.size(), e);
+            return false;
+        }
+
+        // Only remember the groups once saved, and forget those of games that have ended.
+        savedGroupIds.forEach((gameReportId, ids) ->
+            groupIds.computeIfAbsent(gameReportId, id -> new HashMap<>()).putAll(ids));
+        groupIds.keySet().removeAll(endedGameReportIds);
+        return true;
+    }
+
+    // Save the batch, or failing that each of its entries alone, keeping those that fail for a later flush.
+    private void saveOrSplit(List<Object> batch, int attempts) {
+        if (save(batch)) {
+            return;
+        }
+
+        if (batch.size() == 1) {
+            keepForRetry(batch, attempts);
+            return;
+        }
+
+        for (Object entry : batch) {
+            List<Object> single = new ArrayList<>(1);
+            single.add(entry);
+            if (!save(single)) {
+                keepForRetry(single, attempts);
+            }
+        }
+    }
+
+    // Try again the failed batches whose wait is over, or all of them.
+    private void retry(boolean all) {
+        long now = System.nanoTime();
+        List<FailedBatch> due = new ArrayList<>();
+        retries.removeIf(failed -> {
+            if (all || now - failed.retryAt >= 0) {
+                due.add(failed);
+                retrying -= failed.entries.size();
+                return true;
+            }
+            return false;
+        });
+
+        for (FailedBatch failed : due) {
+            saveOrSplit(failed.entries, failed.attempts + 1);
+        }
+    }
+
+    // Keep a batch that failed to save for a later flush, unless it was tried enough times or too many are waiting.
+    private void keepForRetry(List<Object> batch, int attempts) {
+        if (attempts >= properties.getMaxAttempts()) {
+            log.error("Dropping {} submissions and game reports, which failed to save {} times", batch.size(), attempts);
+            return;
+        }
+
+        if (getPending() + batch.size() > properties.getMaxQueued()) {
+            log.error("Dropping {} submissions and game reports that failed to save, as {} are already waiting",
+                batch.size(), getPending());
+            return;
+        }
+
+        long waitMillis = properties.getRetryMillis() << Math.min(attempts - 1, 20);
+        retries.add(new FailedBatch(batch, attempts, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis)));
+        retrying += batch.size();
+    }
+
+    private void enqueue(Object entry) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        if (!queue.offer(entry)) {
+            log.warn("Dropping a game report entry, as {} are already waiting to be saved", properties.getMaxQueued());
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to save the queued game reports:", e);
+        }
+    }
+
+    private void write(List<Object> batch, Map<String, Map<String, Integer>> savedGroupIds,
+                       Set<String> endedGameReportIds) {
+        Map<String, SubmissionGroupReport> groups = new HashMap<>();
+
+        for (Object entry : batch) {
+            if (entry instanceof SubmissionEntry) {
+                SubmissionEntry submissionEntry = (SubmissionEntry) entry;
+                SubmissionGroupReport group = groups.computeIfAbsent(
+                    submissionEntry.gameReportId + "/" + submissionEntry.userId,
+                    key -> getGroup(submissionEntry.gameReportId, submissionEntry.userId, savedGroupIds));
+
+                SubmissionReport submissionReport = toSubmissionReport(submissionEntry.submission);
+                submissionReportRepository.save(submissionReport);
+                group.getSubmissionReports().add(submissionReport);
+            } else {
+                GameEndEntry gameEndEntry = (GameEndEntry) entry;
+                gameReportRepository.save(toGameReport(gameEndEntry.game, gameEndEntry.gameEndType));
+                endedGameReportIds.add(gameEndEntry.game.getGameReportId());
+            }
+        }
+    }
+
+    // Get the player's group of submissions for the game, saving a new one if it has none yet.
+    private SubmissionGroupReport getGroup(String gameReportId, String userId,
+                                           Map<String, Map<String, Integer>> savedGroupIds) {
+        Integer groupId = groupIds.getOrDefault(gameReportId, Map.of()).get(userId);
+        if (groupId != null) {
+            SubmissionGroupReport group = groupReportRepository.findById(groupId).orElse(null);
+            if (group != null) {
+                return group;
+            }
+        }
+
+        SubmissionGroupReport group = new SubmissionGroupReport();
+        group.setGameReportId(gameReportId);
+        group.setUserId(userId);
+        groupReportRepository.save(group);
+        savedGroupIds.computeIfAbsent(gameReportId, id -> new HashMap<>()).put(userId, group.getId());
+        return group;
+    }
+
+    private SubmissionReport toSubmissionReport(Submission submission) {
+        SubmissionReport submissionReport = new SubmissionReport();
+        if (submission.getPlayerCode() != null) {
+            submissionReport.setCode(submission.getPlayerCode().getCode());
+            submissionReport.setLanguage(submission.getPlayerCode().getLanguage());
+        }
+
+        submissionReport.setStartTime(submission.getStartTime());
+        submissionReport.setNumCorrect(submission.getNumCorrect());
+        submissionReport.setNumTestCases(submission.getNumTestCases());
+        submissionReport.setRuntime(submission.getRuntime());
+        return submissionReport;
+    }
+
+    private GameReport toGameReport(Game game, GameEndType gameEndType) {
+        GameReport gameReport = new GameReport();
+        gameReport.setGameReportId(game.getGameReportId());
+        gameReport.setGameEndType(gameEndType);
+
+        GameTimer gameTimer = game.getGameTimer();
+        if (gameTimer != null) {
+            gameReport.setCreatedDateTime(gameTimer.getStartTime());
+            gameReport.setDuration(gameTimer.getDuration());
+        }
+
+        for (int i = 0; i < game.getProblems().size(); i++) {
+            ProblemContainer problemContainer = toProblemContainer(game, i);
+
+            // The problem may have been deleted since the game ended.
+            Problem problem = problemContainer.getProblem();
+            if (problem != null && !problemRepository.existsById(problem.getId())) {
+                problemContainer.setProblem(null);
+            }
+
+            problemContainerRepository.save(problemContainer);
+            gameReport.getProblemContainers().add(problemContainer);
+        }
+
+        return gameReport;
+    }
+
+    // Build a problem's report from the game's running statistics, without rescanning submissions.
+    protected static ProblemContainer toProblemContainer(Game game, int problemIndex) {
+        ProblemStatistics statistics = game.getStatistics().get(problemIndex);
+        Problem problem = game.getProblems().get(problemIndex);
+        ProblemContainer problemContainer = new ProblemContainer();
+
+        // Problems not saved to the database cannot be referenced.
+        if (problem.getId() != null) {
+            problemContainer.setProblem(problem);
+        }
+
+        problemContainer.setUserSolvedCount(statistics.getUserSolvedCount());
+        problemContainer.setTestCaseCount(problem.getTestCases().size());
+        problemContainer.setAverageAttemptCount(statistics.getAverageAttemptCount());
+        problemContainer.setAverageTestCasesPassed(statistics.getAverageTestCasesPassed());
+        return problemContainer;
+    }
+
+    protected static GameEndType getGameEndType(Game game) {
+        if (game.getGameEnded()) {
+            return GameEndType.MANUAL_END;
+        }
+
+        return game.getAllSolved() ? GameEndType.ALL_SOLVED : GameEndType.TIME_UP;
+    }
+
+    private static class SubmissionEntry {
+        private final String gameReportId;
+        private final String userId;
+        private final Submission submission;
+
+        SubmissionEntry(String gameReportId, String userId, Submission submission) {
+            this.gameReportId = gameReportId;
+            this.userId = userId;
+            this.submission = submission;
+        }
+    }
+
+    private static class FailedBatch {
+        private final List<Object> entries;
+        private final int attempts;
+        private final long retryAt;
+
+        FailedBatch(List<Object> entries, int attempts, long retryAt) {
+            this.entries = entries;
+            this.attempts = attempts;
+            this.retryAt = retryAt;
+        }
+    }
+
+    private static class GameEndEntry {
+        private final Game game;
+        private final GameEndType gameEndType;
+
+        GameEndEntry(Game game, GameEndType gameEndType) {
+            this.game = game;
+            this.gameEndType = gameEndType;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.codejoust.main.service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import com.codejoust.main.util.TimingWheel;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the delayed tasks of every game (ending the game, time left
+ * notifications) from one timing wheel, whose due tasks are run on a small,
+ * shared pool of threads. Tasks run up to one tick (scheduler.tickMillis)
+ * late, and should be short and non-blocking.
+ */
+@Component
+public class GameScheduler {
+
+    private final ExecutorService workers;
+    private final TimingWheel wheel;
+
+    @Autowired
+    public GameScheduler(@Value("${scheduler.poolSize:2}") int poolSize,
+                         @Value("${scheduler.tickMillis:1000}") long tickMillis,
+                         @Value("${scheduler.ticksPerWheel:512}") int ticksPerWheel) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "game-scheduler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.wheel = new TimingWheel("game-scheduler-tick", tickMillis, TimeUnit.MILLISECONDS, ticksPerWheel, workers);
+    }
+
+    /**
+     * Run the task once after the given delay.
+     *
+     * @param task The task to run.
+     * @param delay The delay before running the task.
+     * @param unit The unit of the delay.
+     * @return A handle with which the task can be cancelled.
+     */
+    public TimingWheel.Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return wheel.schedule(task, delay, unit);
+    }
+
+    // The number of tasks waiting to run.
+    public int getQueueSize() {
+        return wheel.getPending();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        workers.shutdownNow();
+    }
+}
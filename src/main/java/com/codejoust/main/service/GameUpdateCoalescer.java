@@ -0,0 +1,101 @@
+package com.codejoust.main.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import com.codejoust.main.dto.game.GameMapper;
+import com.codejoust.main.game_object.Game;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Batches the game updates of each room, so that a burst of submissions sends
+ * one update per window (socket.coalesceMillis) rather than one each. The game
+ * is mapped under its room's lock when the update is sent, so it is always the
+ * latest state; should an update sent straight away overtake it, the older
+ * one is dropped by the socket service.
+ */
+@Log4j2
+@Component
+public class GameUpdateCoalescer {
+
+    private final SocketService socketService;
+    private final GameRegistry gameRegistry;
+    private final long windowMillis;
+    private final ScheduledExecutorService flusher;
+
+    // The games of the rooms with an update waiting to be sent.
+    private final Map<String, Game> dirty = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GameUpdateCoalescer(SocketService socketService, GameRegistry gameRegistry,
+                               @Value("${socket.coalesceMillis:100}") long windowMillis) {
+        this.socketService = socketService;
+        this.gameRegistry = gameRegistry;
+        this.windowMillis = windowMillis;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-update-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Send an update of the game once the current window ends, together with
+     * any other updates requested for its room meanwhile.
+     *
+     * @param game The game that changed.
+     */
+    public void requestUpdate(Game game) {
+        if (windowMillis <= 0) {
+            send(game);
+            return;
+        }
+
+        String roomId = game.getRoom().getRoomId();
+        if (dirty.put(roomId, game) == null) {
+            flusher.schedule(() -> flush(roomId), windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Drop the room's waiting update, when an update is sent straight away instead or the game is removed.
+    // An update already being sent is not stopped, but is dropped if the other was mapped after it.
+    public void cancel(String roomId) {
+        dirty.remove(roomId);
+    }
+
+    // The number of rooms with an update waiting to be sent.
+    public int getPending() {
+        return dirty.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    private void flush(String roomId) {
+        Game game = dirty.remove(roomId);
+        if (game != null) {
+            send(game);
+        }
+    }
+
+    private void send(Game game) {
+        try {
+            String roomId = game.getRoom().getRoomId();
+            socketService.sendSocketUpdate(gameRegistry.withLock(roomId, () -> GameMapper.toDto(game)));
+        } catch (Exception e) {
+            log.error("Failed to send the game update for room {}:", game.getRoom().getRoomId(), e);
+        }
+    }
+}
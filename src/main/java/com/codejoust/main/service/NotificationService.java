@@ -1,12 +1,13 @@
 package com.codejoust.main.service;
 
-import java.util.Timer;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 
 import com.codejoust.main.dto.game.GameNotificationDto;
 import com.codejoust.main.game_object.Game;
 import com.codejoust.main.game_object.GameTimer;
 import com.codejoust.main.util.NotificationTimerTask;
+import com.codejoust.main.util.TimingWheel;
 
 import org.springframework.stereotype.Service;
 
@@ -17,9 +18,11 @@ import org.springframework.stereotype.Service;
 public class NotificationService {
 
     private final SocketService socketService;
+    private final GameScheduler scheduler;
 
-    protected NotificationService(SocketService socketService) {
+    protected NotificationService(SocketService socketService, GameScheduler scheduler) {
         this.socketService = socketService;
+        this.scheduler = scheduler;
     }
     
     // Send a notification through a socket update.
@@ -32,13 +35,12 @@ public class NotificationService {
         // Create notifications for different "time left" milestones.
         for (Entry<Long, String> timeLeft : GameTimer.TIME_LEFT_DURATION_CONTENT.entrySet()) {
             if (timeLeft.getKey() < time) {
-                Timer timer = new Timer();
                 NotificationTimerTask notificationTimerTask =
                         new NotificationTimerTask(socketService, game.getRoom().getRoomId(), timeLeft.getValue());
-                timer.schedule(notificationTimerTask, (time - timeLeft.getKey()) * 1000);
+                TimingWheel.Timeout task = scheduler.schedule(notificationTimerTask, time - timeLeft.getKey(), TimeUnit.SECONDS);
 
-                // Add timer to GameTimer list to keep track of
-                game.getGameTimer().getNotificationTimers().add(timer);
+                // Add task to GameTimer list to keep track of
+                game.getGameTimer().getNotificationTasks().add(task);
             }
         }
     }
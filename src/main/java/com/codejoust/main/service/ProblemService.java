@@ -1,8 +1,12 @@
 package com.codejoust.main.service;
 
 import com.codejoust.main.dao.AccountRepository;
+import com.codejoust.main.dao.ProblemContainerRepository;
 import com.codejoust.main.dao.ProblemRepository;
+import com.codejoust.main.dao.ProblemSummary;
 import com.codejoust.main.dao.ProblemTagRepository;
+import com.codejoust.main.dao.ProblemTagSummary;
+import com.codejoust.main.dao.RoomCache;
 import com.codejoust.main.dto.account.AccountRole;
 import com.codejoust.main.dto.problem.CreateProblemRequest;
 import com.codejoust.main.dto.problem.CreateProblemTagRequest;
@@ -10,6 +14,8 @@ import com.codejoust.main.dto.problem.CreateTestCaseRequest;
 import com.codejoust.main.dto.problem.ProblemDto;
 import com.codejoust.main.dto.problem.ProblemInputDto;
 import com.codejoust.main.dto.problem.ProblemMapper;
+import com.codejoust.main.dto.problem.ProblemPageDto;
+import com.codejoust.main.dto.problem.ProblemPageRequest;
 import com.codejoust.main.dto.problem.ProblemTagDto;
 import com.codejoust.main.dto.problem.ProblemTestCaseDto;
 import com.codejoust.main.exception.AccountError;
@@ -29,10 +35,15 @@ import com.google.gson.Gson;
 
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -43,12 +54,18 @@ import java.util.stream.Collectors;
 @Log4j2
 @Service
 public class ProblemService {
+
+    // The most problems listed on one page.
+    public static final int MAX_PAGE_SIZE = 100;
     
     private final FirebaseService service;
     private final ProblemRepository problemRepository;
     private final ProblemTagRepository problemTagRepository;
     private final AccountRepository accountRepository;
     private final List<DefaultCodeGeneratorService> defaultCodeGeneratorServiceList;
+    private final TesterResultCache testerResultCache;
+    private final RoomCache roomCache;
+    private final ProblemContainerRepository problemContainerRepository;
     private final Random random = new Random();
     private final Gson gson = new Gson();
 
@@ -57,13 +74,19 @@ public class ProblemService {
         ProblemRepository problemRepository,
         ProblemTagRepository problemTagRepository,
         AccountRepository accountRepository,
-        List<DefaultCodeGeneratorService> defaultCodeGeneratorServiceList) {
+        List<DefaultCodeGeneratorService> defaultCodeGeneratorServiceList,
+        TesterResultCache testerResultCache,
+        RoomCache roomCache,
+        ProblemContainerRepository problemContainerRepository) {
 
         this.service = service;
         this.problemRepository = problemRepository;
         this.problemTagRepository = problemTagRepository;
         this.accountRepository = accountRepository;
         this.defaultCodeGeneratorServiceList = defaultCodeGeneratorServiceList;
+        this.testerResultCache = testerResultCache;
+        this.roomCache = roomCache;
+        this.problemContainerRepository = problemContainerRepository;
     }
 
     public ProblemDto createProblem(CreateProblemRequest request, String token) {
@@ -213,6 +236,8 @@ public class ProblemService {
         }
 
         problemRepository.save(problem);
+        testerResultCache.invalidate(problemId);
+        roomCache.evictProblem(problemId);
 
         return ProblemMapper.toDto(problem);
     }
@@ -243,7 +268,12 @@ public class ProblemService {
         }
 
         service.verifyTokenMatchesUid(token, problem.getOwner().getUid());
+
+        // Reports of games played with the problem keep their counts, without it.
+        problemContainerRepository.clearProblem(problem);
         problemRepository.delete(problem);
+        testerResultCache.invalidate(problemId);
+        roomCache.evictProblem(problemId);
 
         return ProblemMapper.toDto(problem);
     }
@@ -260,6 +290,74 @@ public class ProblemService {
         return problems;
     }
 
+    /**
+     * Get one page of the problems matching the request's filters. Only the
+     * columns shown in the listing are selected, and the tags of the page's
+     * problems are fetched in one more query.
+     *
+     * @param request The filters, sort and page; only verified problems may
+     * be listed without an admin account.
+     */
+    public ProblemPageDto getProblemPage(ProblemPageRequest request, String token) {
+        if (!Boolean.TRUE.equals(request.getVerified())) {
+            service.verifyAdminAccount(token);
+        }
+
+        if (request.getPage() < 0 || request.getSize() < 1 || request.getSize() > MAX_PAGE_SIZE) {
+            throw new ApiException(ProblemError.INVALID_PAGE_REQUEST);
+        }
+
+        ProblemDifficulty difficulty = request.getDifficulty() == null
+            ? null : ProblemDifficulty.fromString(request.getDifficulty());
+
+        // Ties are broken by creation order, so that pages do not overlap.
+        Sort sort = getProblemSort(request.getSort()).and(Sort.by("id"));
+        Page<ProblemSummary> summaries = problemRepository.findSummaries(request.getVerified(), difficulty,
+            request.getOwner(), request.getTagId(), PageRequest.of(request.getPage(), request.getSize(), sort));
+
+        Map<Integer, List<ProblemTagSummary>> tags = new HashMap<>();
+        List<Integer> ids = summaries.map(ProblemSummary::getId).getContent();
+        if (!ids.isEmpty()) {
+            for (ProblemTagSummary tag : problemRepository.findTagSummaries(ids)) {
+                tags.computeIfAbsent(tag.getProblemId(), id -> new ArrayList<>()).add(tag);
+            }
+        }
+
+        ProblemPageDto pageDto = new ProblemPageDto();
+        for (ProblemSummary summary : summaries) {
+            pageDto.getProblems().add(ProblemMapper.toSummaryDto(summary,
+                tags.getOrDefault(summary.getId(), new ArrayList<>())));
+        }
+
+        pageDto.setPage(request.getPage());
+        pageDto.setSize(request.getSize());
+        pageDto.setTotalProblems(summaries.getTotalElements());
+        pageDto.setTotalPages(summaries.getTotalPages());
+        pageDto.setNextPage(summaries.hasNext() ? request.getPage() + 1 : null);
+        return pageDto;
+    }
+
+    private Sort getProblemSort(String sort) {
+        if (sort == null) {
+            return Sort.by("name");
+        }
+
+        boolean descending = sort.startsWith("-");
+        String property;
+        switch (descending ? sort.substring(1) : sort) {
+            case "name":
+                property = "name";
+                break;
+            case "created":
+                property = "id";
+                break;
+            default:
+                throw new ApiException(ProblemError.INVALID_PAGE_REQUEST);
+        }
+
+        return descending ? Sort.by(property).descending() : Sort.by(property);
+    }
+
     /**
      * Get a list of random problems with the provided parameters.
      * 
@@ -275,35 +373,37 @@ public class ProblemService {
             throw new ApiException(ProblemError.INVALID_NUMBER_REQUEST);
         }
 
-        List<Problem> problems;
+        // Only the IDs are loaded to choose from, and then only the chosen problems.
+        List<Integer> ids;
         if (difficulty == ProblemDifficulty.RANDOM) {
-            problems = problemRepository.findAllByVerified(true);
+            ids = problemRepository.findVerifiedIds(null);
             log.info("Fetching random problems");
         } else {
-            problems = problemRepository.findAllByDifficultyAndVerified(difficulty, true);
+            ids = problemRepository.findVerifiedIds(difficulty);
             log.info("Fetching problems for difficulty {}", difficulty);
         }
-        log.info(problems);
 
-        if (problems == null) {
+        if (ids == null) {
             throw new ApiException(ProblemError.INTERNAL_ERROR);
         }
 
         // If the user wants more problems than exists, throw an error
-        if (numProblems > problems.size()) {
+        if (numProblems > ids.size()) {
             throw new ApiException(ProblemError.NOT_ENOUGH_FOUND);
         }
 
-        // Get numProblem random integers used to map to problems.
-        Set<Integer> randomIntegers = new HashSet<>();
-        while (randomIntegers.size() < numProblems) {
-            randomIntegers.add(random.nextInt(problems.size()));
+        // Move numProblems randomly chosen IDs to the front, as in a partial shuffle.
+        List<Integer> chosenIds = new ArrayList<>(ids);
+        for (int i = 0; i < numProblems; i++) {
+            Collections.swap(chosenIds, i, i + random.nextInt(chosenIds.size() - i));
         }
+        chosenIds = chosenIds.subList(0, numProblems);
+
+        List<Problem> chosenProblems = problemRepository.findDistinctByIdIn(chosenIds);
 
-        // Get the numProblem problems mapped to those integers.
-        List<Problem> chosenProblems = new ArrayList<>();
-        for (Integer i : randomIntegers) {
-            chosenProblems.add(problems.get(i));
+        // A problem deleted meanwhile leaves too few to start with.
+        if (chosenProblems.size() < numProblems) {
+            throw new ApiException(ProblemError.NOT_ENOUGH_FOUND);
         }
 
         return chosenProblems;
@@ -344,6 +444,8 @@ public class ProblemService {
 
         problem.addTestCase(testCase);
         problemRepository.save(problem);
+        testerResultCache.invalidate(problemId);
+        roomCache.evictProblem(problemId);
 
         return ProblemMapper.toTestCaseDto(testCase);
     }
@@ -467,6 +569,7 @@ public class ProblemService {
         for (Problem problem : problems) {
             problem.removeProblemTag(problemTag);
             problemRepository.save(problem);
+            roomCache.evictProblem(problem.getProblemId());
         }
 
         // Remove the problem tag from the database.
@@ -93,21 +93,29 @@ public class RoomService {
         }
 
         // Add userId if not already present.
+        String userId = null;
         if (user.getUserId() == null) {
-            user.setUserId(utility.generateUniqueId(UserService.USER_ID_LENGTH, Utility.USER_ID_KEY));
+            userId = utility.generateUniqueId(UserService.USER_ID_LENGTH, Utility.USER_ID_KEY);
+            user.setUserId(userId);
         }
 
-        // Set the account associated with the host, if any.
-        if (token == null) {
-            user.setAccount(null);
-        } else {
-            String uid = firebaseService.verifyToken(token);
-            user.setAccount(accountRepository.findAccountByUid(uid));
-        }
+        try {
+            // Set the account associated with the host, if any.
+            if (token == null) {
+                user.setAccount(null);
+            } else {
+                String uid = firebaseService.verifyToken(token);
+                user.setAccount(accountRepository.findAccountByUid(uid));
+            }
 
-        // Add the user to the room.
-        room.addUser(user);
-        repository.save(room);
+            // Add the user to the room.
+            room.addUser(user);
+            repository.save(room);
+        } catch (RuntimeException e) {
+            // Free the generated ID, as the user was not saved with it.
+            utility.cancelId(userId, Utility.USER_ID_KEY);
+            throw e;
+        }
 
         RoomDto roomDto = RoomMapper.toDto(room);
 
@@ -133,11 +141,6 @@ public class RoomService {
             throw new ApiException(UserError.INVALID_USER);
         }
 
-        // Create user ID for the host if not already present.
-        if (host.getUserId() == null) {
-            host.setUserId(utility.generateUniqueId(UserService.USER_ID_LENGTH, Utility.USER_ID_KEY));
-        }
-
         // Set the account associated with the host, if any.
         if (token == null) {
             host.setAccount(null);
@@ -146,11 +149,25 @@ public class RoomService {
             host.setAccount(accountRepository.findAccountByUid(uid));
         }
 
+        // Create user ID for the host if not already present.
+        String hostId = null;
+        if (host.getUserId() == null) {
+            hostId = utility.generateUniqueId(UserService.USER_ID_LENGTH, Utility.USER_ID_KEY);
+            host.setUserId(hostId);
+        }
+
         Room room = new Room();
-        room.setRoomId(utility.generateUniqueId(RoomService.ROOM_ID_LENGTH, Utility.ROOM_ID_KEY));
-        room.setHost(host);
-        room.addUser(host);
-        repository.save(room);
+        try {
+            room.setRoomId(utility.generateUniqueId(RoomService.ROOM_ID_LENGTH, Utility.ROOM_ID_KEY));
+            room.setHost(host);
+            room.addUser(host);
+            repository.save(room);
+        } catch (RuntimeException e) {
+            // Free the generated IDs, as the room and host were not saved with them.
+            utility.cancelId(hostId, Utility.USER_ID_KEY);
+            utility.cancelId(room.getRoomId(), Utility.ROOM_ID_KEY);
+            throw e;
+        }
 
         return RoomMapper.toDto(room);
     }
@@ -249,7 +266,7 @@ public class RoomService {
         User newHost = room.getEquivalentUser(proposedNewHost);
 
         // Return error if the proposed new host is currently inactive
-        if (newHost.getSessionId() == null) {
+        if (newHost.getConnectedSessionId() == null) {
             throw new ApiException(RoomError.INACTIVE_USER);
         }
 
@@ -276,7 +293,7 @@ public class RoomService {
 
             // Get the first active non-host user, if one exists.
             for (User roomUser : room.getUsers()) {
-                if (roomUser.getSessionId() != null && !roomUser.equals(room.getHost())) {
+                if (roomUser.getConnectedSessionId() != null && !roomUser.equals(room.getHost())) {
                     request.setNewHost(UserMapper.toDto(roomUser));
                     break;
                 }
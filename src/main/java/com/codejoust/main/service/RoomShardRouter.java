@@ -0,0 +1,161 @@
+package com.codejoust.main.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import com.codejoust.main.config.ClusterProperties;
+import com.codejoust.main.util.ConsistentHashRing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Decides which node owns each room, by consistent hashing of the room ID
+ * over the nodes that are up. Live games are only kept on their room's owner,
+ * and requests for a room reaching another node are forwarded there.
+ *
+ * The other nodes are checked periodically, and only these checks change
+ * which nodes are up: a node that stops answering is taken off the ring, so
+ * its rooms move to the remaining nodes, and put back once it answers again.
+ * Each answer lists the rooms with games on that node, which stay pinned to
+ * it whatever the ring says, so games in progress are never stranded when
+ * the rooms are rebalanced. With no nodes configured, every room is local.
+ */
+@Log4j2
+@Component
+public class RoomShardRouter {
+
+    private final String self;
+    private final ConsistentHashRing<String> ring;
+    private final ClusterClient clusterClient;
+    private final GameRegistry gameRegistry;
+    private final ScheduledExecutorService checker;
+
+    // The node holding the game of each room with a game on another node, by room ID.
+    private final Map<String, String> pinned = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RoomShardRouter(ClusterProperties properties, ClusterClient clusterClient, GameRegistry gameRegistry) {
+        this.self = properties.getSelf();
+        this.ring = new ConsistentHashRing<>(properties.getVirtualNodes());
+        this.clusterClient = clusterClient;
+        this.gameRegistry = gameRegistry;
+
+        if (properties.getNodes().isEmpty()) {
+            this.checker = null;
+            return;
+        }
+
+        if (!properties.getNodes().contains(self)) {
+            throw new IllegalStateException("This node (cluster.self) must be one of cluster.nodes.");
+        }
+
+        // Every node starts on the ring, and is taken off if it turns out to be down.
+        properties.getNodes().forEach(ring::add);
+
+        this.checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getHealthCheckMillis();
+        this.checker.scheduleWithFixedDelay(() -> checkNodes(properties), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Whether the room's game is kept on this node.
+    public boolean isLocal(String roomId) {
+        String owner = getOwner(roomId);
+        return owner == null || owner.equals(self);
+    }
+
+    // The base URL of the node owning the room, or null if not clustered.
+    public String getOwner(String roomId) {
+        if (checker == null) {
+            return null;
+        }
+
+        // A room with a game stays on the node holding it.
+        if (gameRegistry.get(roomId) != null) {
+            return self;
+        }
+        String owner = pinned.get(roomId);
+        return owner != null ? owner : ring.get(roomId);
+    }
+
+    // The base URL of this node.
+    public String getSelf() {
+        return self;
+    }
+
+    // The nodes currently up, this one included.
+    public Set<String> getNodes() {
+        return ring.getNodes();
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+    }
+
+    private void checkNodes(ClusterProperties properties) {
+        Map<String, CompletableFuture<Set<String>>> answers = new HashMap<>();
+        for (String node : properties.getNodes()) {
+            if (!node.equals(self)) {
+                answers.put(node, clusterClient.getGames(node));
+            }
+        }
+
+        CompletableFuture.allOf(answers.values().toArray(new CompletableFuture[0]))
+            .thenRun(() -> applyChecks(answers));
+    }
+
+    /**
+     * Pin the rooms with games on each node that answered, before changing
+     * the ring, so that no game in progress moves with it. A node that is
+     * down keeps its pins until it answers again, as its games come back
+     * with it.
+     */
+    private void applyChecks(Map<String, CompletableFuture<Set<String>>> answers) {
+        answers.forEach((node, answer) -> {
+            Set<String> roomIds = answer.join();
+            if (roomIds != null) {
+                pinned.entrySet().removeIf(entry -> entry.getValue().equals(node) && !roomIds.contains(entry.getKey()));
+                roomIds.forEach(roomId -> pinned.put(roomId, node));
+            }
+        });
+
+        answers.forEach((node, answer) -> {
+            if (answer.join() == null) {
+                markDown(node);
+            } else {
+                markUp(node);
+            }
+        });
+    }
+
+    // Take a node that failed to answer off the ring, until a later check finds it up.
+    private void markDown(String node) {
+        if (ring.remove(node)) {
+            log.warn("Node {} is down; its rooms without games move to the remaining nodes", node);
+        }
+    }
+
+    private void markUp(String node) {
+        if (ring.add(node)) {
+            log.info("Node {} is up; it takes back its share of rooms without games", node);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.codejoust.main.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Encodes socket payloads to JSON once per broadcast, straight to the bytes
+ * the broker hands to every subscriber, and counts the bytes encoded and the
+ * time taken.
+ */
+@Log4j2
+@Component
+public class SocketPayloadEncoder {
+
+    private final ObjectMapper objectMapper;
+
+    private final LongAdder broadcasts = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+
+    @Autowired
+    public SocketPayloadEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Encode the payload into a message ready to be sent to a destination.
+     *
+     * @param payload The DTO to send.
+     * @return A JSON message, whose destination is set when it is sent.
+     */
+    public Message<byte[]> encode(Object payload) {
+        long start = System.nanoTime();
+        byte[] encoded;
+        try {
+            encoded = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new MessageConversionException("Could not encode the socket payload.", e);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        broadcasts.increment();
+        bytes.add(encoded.length);
+        encodeNanos.add(elapsed);
+        log.debug("Encoded {} of {} bytes in {} us", payload.getClass().getSimpleName(), encoded.length, elapsed / 1000);
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(encoded, accessor.getMessageHeaders());
+    }
+
+    // The number of payloads encoded.
+    public long getBroadcasts() {
+        return broadcasts.sum();
+    }
+
+    // The total size of the payloads encoded, in bytes.
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    // The total time spent encoding payloads, in nanoseconds.
+    public long getEncodeNanos() {
+        return encodeNanos.sum();
+    }
+}
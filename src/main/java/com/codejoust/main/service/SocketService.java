@@ -6,35 +6,65 @@ import com.codejoust.main.dto.game.GameNotificationDto;
 import com.codejoust.main.dto.room.RoomDto;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
 public class SocketService {
 
+    // Whether to also send the whole game, for clients not reading the changes.
+    @Value("${socket.fullGameUpdates:false}")
+    private Boolean fullGameUpdates;
+
     private final SimpMessagingTemplate template;
+    private final GameDeltaTracker deltaTracker;
+    private final SocketPayloadEncoder encoder;
 
     @Autowired
-    public SocketService(SimpMessagingTemplate template) {
+    public SocketService(SimpMessagingTemplate template, GameDeltaTracker deltaTracker,
+                         SocketPayloadEncoder encoder) {
         this.template = template;
+        this.deltaTracker = deltaTracker;
+        this.encoder = encoder;
     }
 
     // Send updates about new users to the client through sockets
     public void sendSocketUpdate(RoomDto roomDto) {
         String socketPath = String.format(WebSocketConfig.SOCKET_LOBBY, roomDto.getRoomId());
-        template.convertAndSend(socketPath, roomDto);
+        send(socketPath, roomDto);
     }
 
-    // Send updates about new game status to the client through sockets
+    // Send updates about new game status to the client through sockets, as the changes since the last update
     public void sendSocketUpdate(GameDto gameDto) {
-        String socketPath = String.format(WebSocketConfig.SOCKET_GAME, gameDto.getRoom().getRoomId());
-        template.convertAndSend(socketPath, gameDto);
+        String roomId = gameDto.getRoom().getRoomId();
+        String deltaPath = String.format(WebSocketConfig.SOCKET_GAME_DELTA, roomId);
+        boolean published = deltaTracker.publish(gameDto, delta -> send(deltaPath, delta));
+
+        if (published && Boolean.TRUE.equals(fullGameUpdates)) {
+            send(String.format(WebSocketConfig.SOCKET_GAME, roomId), gameDto);
+        }
     }
 
     // Send updates about new game status to the client through sockets
     public void sendSocketUpdate(String roomId, GameNotificationDto notificationDto) {
         String socketPath = String.format(WebSocketConfig.NOTIFICATION_SOCKET_PATH, roomId);
-        template.convertAndSend(socketPath, notificationDto);
+        send(socketPath, notificationDto);
+    }
+
+    // The version of the last game update sent to the room
+    public long getGameVersion(String roomId) {
+        return deltaTracker.getVersion(roomId);
     }
-    
+
+    // Forget the last game update sent to the room, once its game is removed
+    public void clearGameUpdates(String roomId) {
+        deltaTracker.remove(roomId);
+    }
+
+    // Encode the payload once; the broker shares the encoded bytes between all subscribers
+    private void send(String socketPath, Object payload) {
+        template.send(socketPath, encoder.encode(payload));
+    }
+
 }
@@ -0,0 +1,155 @@
+package com.codejoust.main.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codejoust.main.config.RateLimitProperties;
+import com.codejoust.main.exception.GameError;
+import com.codejoust.main.exception.api.ApiException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token-bucket limiter on requests that reach the tester, applied both per
+ * room and per player.
+ *
+ * A request within both budgets proceeds immediately. A request over budget
+ * is delayed until both buckets have a token, so queued requests run in
+ * arrival order. Each bucket is charged at its own next free slot: a player
+ * queued behind their own budget takes one room token per request, but does
+ * not push the room's next slot out to when they run, so they only delay
+ * themselves. If the wait would exceed the maximum, the request is rejected
+ * with GameError.TOO_MANY_REQUESTS without using up any budget.
+ */
+@Component
+public class SubmissionRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final BucketConfig roomConfig;
+    private final BucketConfig userConfig;
+    private final long maxWaitNanos;
+
+    private final Map<String, Bucket> roomBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> userBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep;
+
+    @Autowired
+    public SubmissionRateLimiter(RateLimitProperties properties) {
+        this.roomConfig = new BucketConfig(properties.getRoomPerSecond(), properties.getRoomBurst());
+        this.userConfig = new BucketConfig(properties.getUserPerSecond(), properties.getUserBurst());
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMaxWaitMillis());
+        this.lastSweep = new AtomicLong(nanoTime());
+    }
+
+    /**
+     * Reserve a request for the given player in the given room.
+     *
+     * @param roomId The room the request is made in.
+     * @param userId The player making the request.
+     * @return How long the request must wait before proceeding, in nanoseconds.
+     * @throws ApiException If the request would have to wait too long.
+     */
+    public long acquire(String roomId, String userId) {
+        long now = nanoTime();
+        sweepIfDue(now);
+
+        while (true) {
+            Bucket room = roomBuckets.computeIfAbsent(roomId, key -> new Bucket(roomConfig, now));
+            Bucket user = userBuckets.computeIfAbsent(userId, key -> new Bucket(userConfig, now));
+
+            // Room buckets are always locked before user buckets.
+            synchronized (room) {
+                synchronized (user) {
+                    // A bucket removed by a concurrent sweep must not be used.
+                    if (room.retired || user.retired) {
+                        continue;
+                    }
+
+                    long roomWait = room.waitNanos(now);
+                    long wait = Math.max(roomWait, user.waitNanos(now));
+                    if (wait > maxWaitNanos) {
+                        throw new ApiException(GameError.TOO_MANY_REQUESTS);
+                    }
+
+                    room.reserve(now + roomWait);
+                    user.reserve(now + wait);
+                    return wait;
+                }
+            }
+        }
+    }
+
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    protected int size() {
+        return roomBuckets.size() + userBuckets.size();
+    }
+
+    // Periodically drop full buckets, which behave the same as new ones.
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+
+        sweep(roomBuckets, now);
+        sweep(userBuckets, now);
+    }
+
+    private void sweep(Map<String, Bucket> buckets, long now) {
+        buckets.forEach((key, bucket) -> {
+            synchronized (bucket) {
+                if (bucket.isFull(now)) {
+                    bucket.retired = true;
+                    buckets.remove(key, bucket);
+                }
+            }
+        });
+    }
+
+    private static class BucketConfig {
+        // Time to earn one token, and the head start a full bucket allows.
+        private final long intervalNanos;
+        private final long burstNanos;
+
+        BucketConfig(double perSecond, int burst) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+            this.burstNanos = intervalNanos * Math.max(burst - 1, 0);
+        }
+    }
+
+    /**
+     * Token bucket kept as the time at which it would next be empty
+     * (the generic cell rate algorithm). Guarded by its own monitor.
+     */
+    private static class Bucket {
+        private final BucketConfig config;
+        private long emptyAt;
+        private boolean retired = false;
+
+        Bucket(BucketConfig config, long now) {
+            this.config = config;
+            this.emptyAt = now;
+        }
+
+        // Time until a token is available.
+        long waitNanos(long now) {
+            return Math.max(0, emptyAt - config.burstNanos - now);
+        }
+
+        // Take a token at the given time, which must be no earlier than now + waitNanos(now).
+        void reserve(long at) {
+            emptyAt = Math.max(emptyAt, at) + config.intervalNanos;
+        }
+
+        boolean isFull(long now) {
+            return emptyAt <= now;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.codejoust.main.service;
 
-import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import com.codejoust.main.dto.game.GameMapper;
 import com.codejoust.main.dto.game.SubmissionDto;
@@ -13,11 +15,8 @@ import com.codejoust.main.dto.game.TesterRequest;
 import com.codejoust.main.dto.game.TesterResponse;
 import com.codejoust.main.dto.game.TesterResult;
 import com.codejoust.main.dto.problem.ProblemDto;
-import com.codejoust.main.dto.problem.ProblemMapper;
 import com.codejoust.main.dto.problem.ProblemTestCaseDto;
 import com.codejoust.main.exception.GameError;
-import com.codejoust.main.exception.TesterError;
-import com.codejoust.main.exception.api.ApiErrorResponse;
 import com.codejoust.main.exception.api.ApiException;
 import com.codejoust.main.game_object.Game;
 import com.codejoust.main.game_object.Player;
@@ -25,17 +24,10 @@ import com.codejoust.main.game_object.PlayerCode;
 import com.codejoust.main.game_object.Submission;
 import com.codejoust.main.game_object.SubmissionResult;
 import com.codejoust.main.model.problem.Problem;
-import com.google.gson.Gson;
 
 import lombok.extern.log4j.Log4j2;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 /**
@@ -48,20 +40,22 @@ public class SubmitService {
     public static final Double DUMMY_RUNTIME = 5.5;
     public static final String DUMMY_OUTPUT = "[1, 2, 3]";
 
-    private final Gson gson;
-
     // Pulls value from application.properties
     @Value("${tester.debugMode}")
     private Boolean debugMode;
 
-    @Value("${tester.url}")
-    private String testerUrl;
-
-    private final HttpClient httpClient;
-
-    protected SubmitService() {
-        this.httpClient = HttpClientBuilder.create().build();
-        this.gson = new Gson();
+    private final GameRegistry gameRegistry;
+    private final TesterClient testerClient;
+    private final TesterResultCache testerResultCache;
+    private final GameReportService reportService;
+
+    @Autowired
+    protected SubmitService(GameRegistry gameRegistry, TesterClient testerClient,
+                            TesterResultCache testerResultCache, GameReportService reportService) {
+        this.gameRegistry = gameRegistry;
+        this.testerClient = testerClient;
+        this.testerResultCache = testerResultCache;
+        this.reportService = reportService;
     }
 
     // Helper method to return a perfect score dummy submission
@@ -89,8 +83,8 @@ public class SubmitService {
         return submission;
     }
 
-    // Test the submission and send a socket update.
-    public SubmissionDto runCode(Game game, SubmissionRequest request) {
+    // Test the code against the provided input, without recording a submission.
+    public CompletableFuture<SubmissionDto> runCode(Game game, SubmissionRequest request) {
         PlayerCode playerCode = new PlayerCode();
         playerCode.setCode(request.getCode());
         playerCode.setLanguage(request.getLanguage());
@@ -101,14 +95,22 @@ public class SubmitService {
         testerRequest.setLanguage(request.getLanguage());
 
         // Set the problem with the single provided test case.
-        ProblemDto problemDto = getStrippedProblemDto(game.getProblems().get(request.getProblemIndex()));
+        Problem problem = game.getProblems().get(request.getProblemIndex());
+        ProblemDto testerProblemDto = getTesterProblemDto(game, request.getProblemIndex());
+
+        // Copy the shared tester view, rather than modifying it.
+        ProblemDto problemDto = new ProblemDto();
+        problemDto.setOwner(testerProblemDto.getOwner());
+        problemDto.setVerified(testerProblemDto.getVerified());
+        problemDto.setProblemTags(testerProblemDto.getProblemTags());
+        problemDto.setProblemInputs(testerProblemDto.getProblemInputs());
+        problemDto.setOutputType(testerProblemDto.getOutputType());
 
         /**
          * Provide a temporary output to circumvent output parsing error.
          * The problem must have at least one test case to work.
          */
-        String tempOutput = problemDto.getTestCases().get(0).getOutput();
-        problemDto.getTestCases().clear();
+        String tempOutput = testerProblemDto.getTestCases().get(0).getOutput();
 
         List<ProblemTestCaseDto> problemTestCaseDtos = new ArrayList<>();
         ProblemTestCaseDto problemTestCaseDto = new ProblemTestCaseDto();
@@ -120,13 +122,24 @@ public class SubmitService {
         testerRequest.setProblem(problemDto);
 
         // Return submission, and no further records necessary for running code.
-        Submission submission = getSubmission(testerRequest);
-        submission.setProblemIndex(request.getProblemIndex());
-        return GameMapper.submissionToDto(submission);
+        return getSubmission(problem.getProblemId(), testerRequest).thenApply(submission -> {
+            submission.setProblemIndex(request.getProblemIndex());
+            return GameMapper.submissionToDto(submission);
+        });
     }
 
-    // Test the submission and send a socket update.
-    public SubmissionDto submitSolution(Game game, SubmissionRequest request) {
+    /**
+     * Test the submission and record it once the tester responds.
+     *
+     * @param game The game the submission is for.
+     * @param request The code submitted.
+     * @param caller The caller's future; once it is cancelled, e.g. when its
+     * response times out, the tester call is dropped if not yet sent, and
+     * the submission is not recorded, so it can be made again.
+     * @return A future completed with the submission once recorded.
+     */
+    public CompletableFuture<SubmissionDto> submitSolution(Game game, SubmissionRequest request,
+                                                           CompletableFuture<?> caller) {
         String userId = request.getInitiator().getUserId();
         Player player = game.getPlayers().get(userId);
 
@@ -140,15 +153,45 @@ public class SubmitService {
         testerRequest.setLanguage(request.getLanguage());
 
         // Invariant: Games have at least one problem (else it will fail to create)
-        ProblemDto problemDto = getStrippedProblemDto(game.getProblems().get(request.getProblemIndex()));
-        testerRequest.setProblem(problemDto);
+        Problem problem = game.getProblems().get(request.getProblemIndex());
+        testerRequest.setProblem(getTesterProblemDto(game, request.getProblemIndex()));
+
+        CompletableFuture<Submission> testerSubmission = getSubmission(problem.getProblemId(), testerRequest);
+        caller.whenComplete((value, error) -> {
+            if (caller.isCancelled()) {
+                testerSubmission.cancel(false);
+            }
+        });
+
+        // The room lock is only taken once the tester has responded.
+        return testerSubmission.thenApply(submission -> {
+            submission.setProblemIndex(request.getProblemIndex());
+            boolean recorded = gameRegistry.withLock(game.getRoom().getRoomId(), () -> {
+                if (caller.isCancelled()) {
+                    return false;
+                }
 
-        Submission submission = getSubmission(testerRequest);
-        submission.setProblemIndex(request.getProblemIndex());
+                recordSubmission(game, player, submission);
+                return true;
+            });
+            if (!recorded) {
+                throw new CancellationException();
+            }
+
+            // Saved to the database in the background, off the submission's path.
+            reportService.recordSubmission(game, player, submission);
+            return GameMapper.submissionToDto(submission);
+        });
+    }
+
+    // Add the submission to the player and update the solved state of the game.
+    private void recordSubmission(Game game, Player player, Submission submission) {
         player.getSubmissions().add(submission);
+        game.getLeaderboard().record(player, submission);
+        game.getStatistics().record(player, submission);
 
         if (submission.getNumCorrect().equals(submission.getNumTestCases())) {
-            player.getSolved()[request.getProblemIndex()] = true;
+            player.getSolved()[submission.getProblemIndex()] = true;
         }
 
         // Variable to indicate whether all players have solved the problem.
@@ -166,81 +209,96 @@ public class SubmitService {
         if (allSolved) {
             game.setAllSolved(true);
         }
-
-        return GameMapper.submissionToDto(submission);
     }
 
-    // Get submission (either through tester or using a dummy response)
-    protected Submission getSubmission(TesterRequest request) {
+    /**
+     * Get submission (either through tester or using a dummy response).
+     * Identical requests for the same problem are answered from the cache.
+     * The returned future fails with an ApiException if the tester cannot
+     * judge the submission. Cancelling it drops a tester call of its own,
+     * while a call shared through the cache is left to finish and be cached.
+     */
+    protected CompletableFuture<Submission> getSubmission(String problemId, TesterRequest request) {
         // If in debug mode (tester is unavailable), return a dummy submission
         if (getDebugMode()) {
-            return getDummySubmission(request);
+            return CompletableFuture.completedFuture(getDummySubmission(request));
         }
 
+        CompletableFuture<TesterResponse> testerResponse;
         try {
-            TesterResponse testerResponse = callTesterService(request);
-            ProblemDto problem = request.getProblem();
-
-            Submission submission = new Submission();
-            submission.setNumCorrect(testerResponse.getNumCorrect());
-            submission.setNumTestCases(testerResponse.getNumTestCases());
-            submission.setRuntime(testerResponse.getRuntime());
-            submission.setCompilationError(testerResponse.getCompilationError());
-            submission.setStartTime(Instant.now());
-            submission.setPlayerCode(new PlayerCode(request.getCode(), request.getLanguage()));
-
-            // Set the SubmissionResult objects, add to the list.
-            int index = 0;
-            List<ProblemTestCaseDto> testCaseDtos = problem.getTestCases();
-            List<SubmissionResult> results = new ArrayList<>();
-            for (TesterResult testerResult : testerResponse.getResults()) {
-                // Match the test case details with each individual result.
-                ProblemTestCaseDto testCaseDto = testCaseDtos.get(index);
-                SubmissionResult submissionResult = SubmissionMapper.toSubmissionResult(testerResult, testCaseDto);
-                results.add(submissionResult);
-                index++;
-            }
-            submission.setResults(results);
-            
-            return submission;
-        } catch (ApiException e) {
-            // If custom ApiException is thrown, pass that as the response
-            throw e;
+            // Problems that have not been saved cannot be told apart, so are not cached.
+            testerResponse = problemId == null
+                ? callTesterService(request)
+                : testerResultCache.get(problemId, request, () -> callTesterService(request));
         } catch (Exception e) {
-            // Throw generic 500 error
-            log.info("An error occurred connecting to the tester service:");
-            log.error(e.getMessage());
-            throw new ApiException(GameError.TESTER_ERROR);
+            return CompletableFuture.failedFuture(toApiException(e));
         }
-    }
 
-    // Sends a POST request to the tester service to judge the user submission
-    protected TesterResponse callTesterService(TesterRequest request) throws IOException {
-        HttpPost post = new HttpPost(getTesterUrl());
+        CompletableFuture<Submission> submission = testerResponse
+            .thenApply(response -> toSubmission(request, response))
+            .exceptionally(e -> {
+                throw toApiException(e);
+            });
+
+        if (problemId == null) {
+            CompletableFuture<TesterResponse> call = testerResponse;
+            submission.whenComplete((value, error) -> {
+                if (submission.isCancelled()) {
+                    call.cancel(false);
+                }
+            });
+        }
 
-        StringEntity stringEntity = new StringEntity(gson.toJson(request));
-        post.setEntity(stringEntity);
-        post.setHeader("Content-type", "application/json");
+        return submission;
+    }
 
-        HttpResponse response = httpClient.execute(post);
-        String jsonResponse = EntityUtils.toString(response.getEntity());
+    // Build the submission from the tester response.
+    private Submission toSubmission(TesterRequest request, TesterResponse testerResponse) {
+        ProblemDto problem = request.getProblem();
 
-        // Throw tester error if the tester returns an error response
-        int status = response.getStatusLine().getStatusCode();
-        if (status >= 400) {
-            ApiErrorResponse error = new Gson().fromJson(jsonResponse, ApiErrorResponse.class);
-            throw new ApiException(new TesterError(HttpStatus.valueOf(status), error));
+        Submission submission = new Submission();
+        submission.setNumCorrect(testerResponse.getNumCorrect());
+        submission.setNumTestCases(testerResponse.getNumTestCases());
+        submission.setRuntime(testerResponse.getRuntime());
+        submission.setCompilationError(testerResponse.getCompilationError());
+        submission.setStartTime(Instant.now());
+        submission.setPlayerCode(new PlayerCode(request.getCode(), request.getLanguage()));
+
+        // Set the SubmissionResult objects, add to the list.
+        int index = 0;
+        List<ProblemTestCaseDto> testCaseDtos = problem.getTestCases();
+        List<SubmissionResult> results = new ArrayList<>();
+        for (TesterResult testerResult : testerResponse.getResults()) {
+            // Match the test case details with each individual result.
+            ProblemTestCaseDto testCaseDto = testCaseDtos.get(index);
+            SubmissionResult submissionResult = SubmissionMapper.toSubmissionResult(testerResult, testCaseDto);
+            results.add(submissionResult);
+            index++;
         }
+        submission.setResults(results);
 
-        return gson.fromJson(jsonResponse, TesterResponse.class);
+        return submission;
     }
 
-    // Is null in certain testing environments; if so, return a default value
-    private String getTesterUrl() {
-        if (testerUrl == null) {
-            return "http://localhost:8080";
+    private ApiException toApiException(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
         }
-        return testerUrl;
+
+        // If custom ApiException is thrown, pass that as the response
+        if (e instanceof ApiException) {
+            return (ApiException) e;
+        }
+
+        // Throw generic 500 error
+        log.info("An error occurred connecting to the tester service:");
+        log.error(e.getMessage());
+        return new ApiException(GameError.TESTER_ERROR);
+    }
+
+    // Sends a POST request to the tester service to judge the user submission
+    protected CompletableFuture<TesterResponse> callTesterService(TesterRequest request) {
+        return testerClient.send(request);
     }
 
     // Is null in certain testing environments; if so, return true by default
@@ -253,15 +311,12 @@ public class SubmitService {
         this.debugMode = debugMode;
     }
 
-    private ProblemDto getStrippedProblemDto(Problem problem) {
-        ProblemDto problemDto = ProblemMapper.toDto(problem);
-
-        // Clear irrelevant fields before sending request to tester service
-        problemDto.setProblemId(null);
-        problemDto.setName(null);
-        problemDto.setDescription(null);
-        problemDto.setDifficulty(null);
+    // The game's cached tester view of the problem, or a new one if the game has none.
+    private ProblemDto getTesterProblemDto(Game game, int problemIndex) {
+        if (game.getTesterProblems() != null) {
+            return game.getTesterProblems().get(problemIndex);
+        }
 
-        return problemDto;
+        return GameMapper.toTesterProblemDto(game.getProblems().get(problemIndex));
     }
 }
@@ -0,0 +1,318 @@
+package com.codejoust.main.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import com.codejoust.main.config.TesterProperties;
+import com.codejoust.main.dto.game.TesterRequest;
+import com.codejoust.main.dto.game.TesterResponse;
+import com.codejoust.main.exception.GameError;
+import com.codejoust.main.exception.TesterError;
+import com.codejoust.main.exception.api.ApiErrorResponse;
+import com.codejoust.main.exception.api.ApiException;
+import com.google.gson.Gson;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Non-blocking client for the tester service.
+ *
+ * At most maxInFlight requests are sent to the tester at once; further
+ * requests wait in a FIFO queue of at most maxQueued entries and are sent as
+ * earlier ones complete. Once the queue is full, new requests fail fast with
+ * GameError.TESTER_BUSY rather than piling up behind a slow tester. A
+ * request whose future is cancelled, e.g. once its caller times out, leaves
+ * the queue, or is aborted if already sent, and frees its place.
+ *
+ * Connections are pooled and kept alive between requests, and idle or
+ * expired connections are periodically evicted. All limits and timeouts are
+ * configured through TesterProperties.
+ *
+ * Futures are completed on a pool of callbackThreads rather than the I/O
+ * reactor, so the stages callers chain on them (taking room locks, mapping
+ * games, sending socket updates) never stall the tester connections.
+ */
+@Log4j2
+@Component
+public class TesterClient {
+
+    private final Gson gson = new Gson();
+
+    private final String testerUrl;
+    private final int maxInFlight;
+    private final int maxQueued;
+
+    private final PoolingNHttpClientConnectionManager connectionManager;
+    private final CloseableHttpAsyncClient httpClient;
+    private final ScheduledExecutorService evictor;
+    private final ExecutorService callbackExecutor;
+
+    // Guarded by this.
+    private int inFlight = 0;
+    private final Deque<Call> waiting = new ArrayDeque<>();
+
+    // A request waiting to be sent, along with the future its response completes.
+    private static class Call {
+        private final TesterRequest request;
+        private final CompletableFuture<TesterResponse> future;
+
+        Call(TesterRequest request, CompletableFuture<TesterResponse> future) {
+            this.request = request;
+            this.future = future;
+        }
+    }
+
+    @Autowired
+    public TesterClient(TesterProperties properties) {
+        this.testerUrl = properties.getUrl();
+        this.maxInFlight = properties.getMaxInFlight();
+        this.maxQueued = properties.getMaxQueued();
+
+        this.connectionManager = new PoolingNHttpClientConnectionManager(createIOReactor(properties));
+        this.connectionManager.setMaxTotal(properties.getMaxConnections());
+        this.connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(properties.getConnectTimeoutMillis())
+            .setSocketTimeout(properties.getReadTimeoutMillis())
+            .setConnectionRequestTimeout(properties.getConnectionRequestTimeoutMillis())
+            .build();
+
+        this.httpClient = HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(keepAliveStrategy(properties.getKeepAliveMillis()))
+            .build();
+        this.httpClient.start();
+
+        this.callbackExecutor = Executors.newFixedThreadPool(properties.getCallbackThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "tester-callback");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Close expired and long-idle connections so that stale ones are not reused.
+        long keepAliveMillis = properties.getKeepAliveMillis();
+        long evictionMillis = properties.getIdleEvictionMillis();
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tester-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS);
+            reportPoolStats();
+        }, evictionMillis, evictionMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static DefaultConnectingIOReactor createIOReactor(TesterProperties properties) {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+            .setConnectTimeout(properties.getConnectTimeoutMillis())
+            .setSoTimeout(properties.getReadTimeoutMillis())
+            .setSoKeepAlive(true)
+            .build();
+
+        try {
+            return new DefaultConnectingIOReactor(ioReactorConfig);
+        } catch (IOReactorException e) {
+            throw new IllegalStateException("Unable to start the tester I/O reactor.", e);
+        }
+    }
+
+    // Honor the keep-alive the tester asks for, up to the configured maximum.
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long keepAliveMillis) {
+        return (response, context) -> {
+            long requested = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return requested > 0 ? Math.min(requested, keepAliveMillis) : keepAliveMillis;
+        };
+    }
+
+    /**
+     * Send the request to the tester service without blocking the caller.
+     *
+     * @param request The code and problem to be judged.
+     * @return A future completed with the tester response, or exceptionally
+     * with an ApiException if the tester rejects the request or is too busy.
+     */
+    public CompletableFuture<TesterResponse> send(TesterRequest request) {
+        CompletableFuture<TesterResponse> future = new CompletableFuture<>();
+        Call call = new Call(request, future);
+
+        synchronized (this) {
+            if (inFlight >= maxInFlight) {
+                if (waiting.size() >= maxQueued) {
+                    future.completeExceptionally(new ApiException(GameError.TESTER_BUSY));
+                    return future;
+                }
+
+                waiting.addLast(call);
+                future.whenComplete((response, error) -> {
+                    if (future.isCancelled()) {
+                        dequeue(call);
+                    }
+                });
+                return future;
+            }
+
+            inFlight++;
+        }
+
+        execute(call);
+        return future;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiting.size();
+    }
+
+    // Leased, pending, available and maximum connections across the pool.
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    // Log pool usage, warning if requests are starved of connections.
+    private void reportPoolStats() {
+        PoolStats stats = getPoolStats();
+        if (stats.getPending() > 0) {
+            log.warn("Tester connection pool exhausted: {}", stats);
+        } else {
+            log.debug("Tester connection pool: {}, {} requests in flight, {} queued",
+                stats, getInFlight(), getQueued());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        evictor.shutdownNow();
+        httpClient.close();
+        callbackExecutor.shutdown();
+    }
+
+    // Send the request, releasing its slot to the next waiting call when done.
+    private void execute(Call call) {
+        CompletableFuture<TesterResponse> future = call.future;
+        future.whenComplete((response, error) -> release());
+
+        try {
+            HttpPost post = new HttpPost(testerUrl);
+            post.setEntity(new StringEntity(gson.toJson(call.request), ContentType.APPLICATION_JSON));
+
+            Future<HttpResponse> response = httpClient.execute(post, new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse response) {
+                    callback(future, () -> {
+                        try {
+                            future.complete(parseResponse(response));
+                        } catch (Exception e) {
+                            future.completeExceptionally(e);
+                        }
+                    });
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    callback(future, () -> future.completeExceptionally(e));
+                }
+
+                @Override
+                public void cancelled() {
+                    callback(future, () -> future.cancel(false));
+                }
+            });
+
+            // Abort the request once its caller gives up on it.
+            future.whenComplete((value, error) -> {
+                if (future.isCancelled()) {
+                    response.cancel(true);
+                }
+            });
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    // Complete the future off the I/O reactor thread, or on it if the pool has been shut down.
+    private void callback(CompletableFuture<TesterResponse> future, Runnable completion) {
+        try {
+            callbackExecutor.execute(completion);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void release() {
+        Call next;
+        synchronized (this) {
+            // Calls cancelled while waiting are skipped, should they not have left the queue yet.
+            do {
+                next = waiting.pollFirst();
+            } while (next != null && next.future.isDone());
+
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+
+        // The slot passes directly to the next call, so inFlight is unchanged.
+        execute(next);
+    }
+
+    // Drop a call from the queue, if it has not been sent yet.
+    private synchronized void dequeue(Call call) {
+        waiting.remove(call);
+    }
+
+    private TesterResponse parseResponse(HttpResponse response) throws IOException {
+        // The async client buffers the whole entity, so this does not block.
+        String jsonResponse;
+        try {
+            jsonResponse = EntityUtils.toString(response.getEntity());
+        } finally {
+            EntityUtils.consumeQuietly(response.getEntity());
+        }
+
+        // Throw tester error if the tester returns an error response
+        int status = response.getStatusLine().getStatusCode();
+        if (status >= 400) {
+            ApiErrorResponse error = gson.fromJson(jsonResponse, ApiErrorResponse.class);
+            throw new ApiException(new TesterError(HttpStatus.valueOf(status), error));
+        }
+
+        return gson.fromJson(jsonResponse, TesterResponse.class);
+    }
+}
@@ -0,0 +1,168 @@
+package com.codejoust.main.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.codejoust.main.config.TesterProperties;
+import com.codejoust.main.dto.game.TesterRequest;
+import com.codejoust.main.dto.game.TesterResponse;
+import com.codejoust.main.model.report.CodeLanguage;
+import com.google.gson.Gson;
+
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, least-recently-used cache of tester responses.
+ *
+ * Entries are keyed by problem ID, a hash of the problem as sent to the tester
+ * (including its test cases), the language, and a hash of the normalized code,
+ * so an edited problem never matches a stale entry. Concurrent requests for the
+ * same key share a single tester call. Failed calls are not cached.
+ */
+@Component
+public class TesterResultCache {
+
+    private final Gson gson = new Gson();
+
+    private final Map<Key, TesterResponse> responses;
+    private final Map<Key, CompletableFuture<TesterResponse>> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TesterResultCache(TesterProperties properties) {
+        int maxEntries = properties.getCacheMaxEntries();
+        this.responses = Collections.synchronizedMap(new LinkedHashMap<Key, TesterResponse>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, TesterResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @Value
+    protected static class Key {
+        String problemId;
+        String problemHash;
+        CodeLanguage language;
+        String codeHash;
+    }
+
+    protected Key getKey(String problemId, TesterRequest request) {
+        return new Key(problemId, hash(gson.toJson(request.getProblem())),
+            request.getLanguage(), hash(normalizeCode(request.getCode())));
+    }
+
+    /**
+     * Get the cached response for the request, or else the response of an
+     * identical call already in progress, or else the result of a new call.
+     *
+     * @param problemId The ID of the problem the request is for.
+     * @param request The request to be sent to the tester.
+     * @param call Sends the request to the tester if no response is available.
+     * @return A future completed with the tester response.
+     */
+    public CompletableFuture<TesterResponse> get(String problemId, TesterRequest request,
+                                                 Supplier<CompletableFuture<TesterResponse>> call) {
+        Key key = getKey(problemId, request);
+        TesterResponse cached = responses.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<TesterResponse> future = new CompletableFuture<>();
+        CompletableFuture<TesterResponse> existing = pending.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        // The response may have been cached since the first lookup.
+        cached = responses.get(key);
+        if (cached != null) {
+            pending.remove(key, future);
+            future.complete(cached);
+            return future;
+        }
+
+        CompletableFuture<TesterResponse> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        response.whenComplete((testerResponse, error) -> {
+            if (error == null) {
+                responses.put(key, testerResponse);
+            }
+            pending.remove(key, future);
+
+            if (error == null) {
+                future.complete(testerResponse);
+            } else {
+                future.completeExceptionally(error);
+            }
+        });
+
+        return future;
+    }
+
+    // Remove all cached responses for the given problem, e.g. after it is edited.
+    public void invalidate(String problemId) {
+        synchronized (responses) {
+            responses.keySet().removeIf(key -> key.getProblemId().equals(problemId));
+        }
+    }
+
+    public int size() {
+        return responses.size();
+    }
+
+    /**
+     * Normalize line endings and trailing whitespace, which do not affect how
+     * the code runs. Leading whitespace is kept as it is significant in Python.
+     */
+    protected static String normalizeCode(String code) {
+        if (code == null) {
+            return "";
+        }
+
+        StringBuilder normalized = new StringBuilder();
+        for (String line : code.replace("\r\n", "\n").replace('\r', '\n').split("\n")) {
+            int end = line.length();
+            while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+                end--;
+            }
+            normalized.append(line, 0, end).append('\n');
+        }
+
+        // Drop trailing blank lines.
+        int length = normalized.length();
+        while (length > 0 && normalized.charAt(length - 1) == '\n') {
+            length--;
+        }
+        normalized.setLength(length);
+
+        return normalized.toString();
+    }
+
+    private static String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -49,13 +49,21 @@ public class UserService {
         user.setNickname(nickname);
 
         // If no user ID is present set a new automatically-generated user ID.
+        String userId = null;
         if (request.getUserId() == null) {
-            user.setUserId(utility.generateUniqueId(UserService.USER_ID_LENGTH, Utility.USER_ID_KEY));
+            userId = utility.generateUniqueId(UserService.USER_ID_LENGTH, Utility.USER_ID_KEY);
+            user.setUserId(userId);
         } else {
             user.setUserId(request.getUserId());
         }
-        
-        repository.save(user);
+
+        try {
+            repository.save(user);
+        } catch (RuntimeException e) {
+            // Free the generated ID, as the user was not saved with it.
+            utility.cancelId(userId, Utility.USER_ID_KEY);
+            throw e;
+        }
 
         return UserMapper.toDto(user);
     }
@@ -0,0 +1,141 @@
+package com.codejoust.main.socket;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Registers socket connections without holding up the broker's threads on
+ * the race between a user connecting and the request adding them committing.
+ *
+ * A connection is registered at once, on the calling thread, and only if its
+ * user is not found yet is it retried on a thread of its own every
+ * socket.connectRetryMillis, up to socket.connectAttempts times. The
+ * registrations of each session run one at a time: a disconnection waits
+ * for any attempt in progress and drops the retries of its session's
+ * connection, so a user who leaves is never registered after.
+ */
+@Log4j2
+@Component
+public class ConnectionRegistrar {
+
+    private final long retryMillis;
+    private final int maxAttempts;
+    private final ScheduledExecutorService registrar;
+
+    // The sessions whose connections are not registered yet, by session ID.
+    private final Map<String, Connection> pending = new ConcurrentHashMap<>();
+
+    // A session's connection, locked while it or its disconnection is registered.
+    private static class Connection {
+        private final BooleanSupplier registration;
+        private boolean disconnected;
+
+        Connection(BooleanSupplier registration) {
+            this.registration = registration;
+        }
+    }
+
+    @Autowired
+    public ConnectionRegistrar(@Value("${socket.connectRetryMillis:100}") long retryMillis,
+                               @Value("${socket.connectAttempts:20}") int maxAttempts) {
+        this.retryMillis = retryMillis;
+        this.maxAttempts = maxAttempts;
+        this.registrar = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "socket-registrar");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Register the session's connection, retrying while the registration
+     * cannot be made yet.
+     *
+     * @param sessionId The ID of the socket session.
+     * @param registration Registers the connection, returning false to be retried.
+     */
+    public void connect(String sessionId, BooleanSupplier registration) {
+        // Pending before the first attempt, so a disconnection meanwhile waits for it.
+        Connection connection = new Connection(registration);
+        pending.put(sessionId, connection);
+        attempt(sessionId, connection, 1);
+    }
+
+    /**
+     * Register the session's disconnection, once any attempt to register its
+     * connection in progress is done, and stop that connection being retried.
+     *
+     * @param sessionId The ID of the socket session.
+     * @param deregistration Registers the disconnection.
+     */
+    public void disconnect(String sessionId, Runnable deregistration) {
+        Connection connection = pending.remove(sessionId);
+        if (connection == null) {
+            deregister(sessionId, deregistration);
+            return;
+        }
+
+        synchronized (connection) {
+            connection.disconnected = true;
+            deregister(sessionId, deregistration);
+        }
+    }
+
+    // The number of connections not registered yet.
+    public int getPending() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        registrar.shutdownNow();
+    }
+
+    private void attempt(String sessionId, Connection connection, int attempt) {
+        synchronized (connection) {
+            // The session has disconnected since.
+            if (connection.disconnected) {
+                return;
+            }
+
+            if (register(sessionId, connection.registration)) {
+                pending.remove(sessionId, connection);
+            } else if (attempt >= maxAttempts) {
+                pending.remove(sessionId, connection);
+                log.warn("Gave up registering the connection of session {} after {} attempts", sessionId, attempt);
+            } else {
+                registrar.schedule(() -> attempt(sessionId, connection, attempt + 1), retryMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // Returns whether the connection no longer needs retrying.
+    private boolean register(String sessionId, BooleanSupplier registration) {
+        try {
+            return registration.getAsBoolean();
+        } catch (Exception e) {
+            log.error("Failed to register the connection of session {}:", sessionId, e);
+            return true;
+        }
+    }
+
+    private void deregister(String sessionId, Runnable deregistration) {
+        try {
+            deregistration.run();
+        } catch (Exception e) {
+            log.error("Failed to register the disconnection of session {}:", sessionId, e);
+        }
+    }
+}
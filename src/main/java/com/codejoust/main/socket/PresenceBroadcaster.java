@@ -0,0 +1,144 @@
+package com.codejoust.main.socket;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import com.codejoust.main.dao.RoomRepository;
+import com.codejoust.main.dto.room.RoomDto;
+import com.codejoust.main.dto.room.RoomMapper;
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+import com.codejoust.main.service.GameManagementService;
+import com.codejoust.main.service.RoomService;
+import com.codejoust.main.service.SocketService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Batches the presence updates of each room, so that users connecting and
+ * disconnecting within a window (socket.presenceMillis) send one room
+ * update between them, however often their connections drop and return.
+ *
+ * The room is read when the update is sent, so it holds the users connected
+ * then. A host who is still disconnected by then is replaced, which saves
+ * the room, and with it who is connected.
+ */
+@Log4j2
+@Component
+public class PresenceBroadcaster {
+
+    private final RoomRepository repository;
+    private final RoomService roomService;
+    private final GameManagementService gameService;
+    private final SocketService socketService;
+    private final long windowMillis;
+    private final ScheduledExecutorService flusher;
+
+    // The users connected or disconnected since the last update, by room ID.
+    private final Map<String, Set<String>> dirty = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PresenceBroadcaster(RoomRepository repository, RoomService roomService,
+                               GameManagementService gameService, SocketService socketService,
+                               @Value("${socket.presenceMillis:250}") long windowMillis) {
+        this.repository = repository;
+        this.roomService = roomService;
+        this.gameService = gameService;
+        this.socketService = socketService;
+        this.windowMillis = windowMillis;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "presence-update-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Send an update of the room once the current window ends, together with
+     * any other users connecting or disconnecting meanwhile.
+     *
+     * @param roomId The ID of the user's room.
+     * @param userId The ID of the user who connected or disconnected.
+     */
+    public void requestUpdate(String roomId, String userId) {
+        if (windowMillis <= 0) {
+            send(roomId, Set.of(userId));
+            return;
+        }
+
+        // Only the first user of a window schedules the update.
+        boolean[] first = new boolean[1];
+        dirty.compute(roomId, (key, userIds) -> {
+            if (userIds == null) {
+                userIds = new HashSet<>();
+                first[0] = true;
+            }
+            userIds.add(userId);
+            return userIds;
+        });
+
+        if (first[0]) {
+            flusher.schedule(() -> flush(roomId), windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // The number of rooms with an update waiting to be sent.
+    public int getPending() {
+        return dirty.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    private void flush(String roomId) {
+        Set<String> userIds = dirty.remove(roomId);
+        if (userIds != null) {
+            send(roomId, userIds);
+        }
+    }
+
+    private void send(String roomId, Set<String> userIds) {
+        try {
+            Room room = repository.findRoomByRoomId(roomId);
+            if (room == null) {
+                return;
+            }
+
+            // Replace a host who disconnected, if another user is connected.
+            RoomDto roomDto;
+            User host = room.getHost();
+            if (host != null && host.getConnectedSessionId() == null && userIds.contains(host.getUserId())) {
+                roomDto = roomService.conditionallyUpdateRoomHost(room, host, false);
+            } else {
+                roomDto = RoomMapper.toDto(room);
+            }
+            socketService.sendSocketUpdate(roomDto);
+
+            // If a game exists, update the room info for that game
+            List<User> users = new ArrayList<>();
+            for (User user : room.getUsers()) {
+                if (userIds.contains(user.getUserId())) {
+                    users.add(user);
+                }
+            }
+            gameService.conditionallyUpdateSocketInfo(room, users);
+        } catch (Exception e) {
+            log.error("Failed to send the presence update for room {}:", roomId, e);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.codejoust.main.socket;
 import java.util.LinkedList;
 import java.util.Map;
 
+import com.codejoust.main.dao.PresenceRegistry;
+import com.codejoust.main.dao.PresenceRegistry.Connection;
 import com.codejoust.main.dao.UserRepository;
 import com.codejoust.main.dto.room.RoomDto;
 import com.codejoust.main.dto.room.RoomMapper;
@@ -18,7 +20,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.GenericMessage;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
@@ -26,13 +28,16 @@ import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 @Log4j2
 @Configuration
 @EnableWebSocketMessageBroker
-@Transactional
 public class WebSocketConnectionEvents {
 
     private final UserRepository userRepository;
     private final SocketService socketService;
     private final RoomService roomService;
     private final GameManagementService gameService;
+    private final ConnectionRegistrar registrar;
+    private final TransactionTemplate transactionTemplate;
+    private final PresenceRegistry presence;
+    private final PresenceBroadcaster broadcaster;
 
     private static final String CONNECT_MESSAGE = "simpConnectMessage";
     private static final String NATIVE_HEADERS = "nativeHeaders";
@@ -40,11 +45,17 @@ public class WebSocketConnectionEvents {
 
     @Autowired
     public WebSocketConnectionEvents(UserRepository userRepository, SocketService socketService,
-                                     RoomService roomService, GameManagementService gameService) {
+                                     RoomService roomService, GameManagementService gameService,
+                                     ConnectionRegistrar registrar, TransactionTemplate transactionTemplate,
+                                     PresenceRegistry presence, PresenceBroadcaster broadcaster) {
         this.userRepository = userRepository;
         this.socketService = socketService;
         this.roomService = roomService;
         this.gameService = gameService;
+        this.registrar = registrar;
+        this.transactionTemplate = transactionTemplate;
+        this.presence = presence;
+        this.broadcaster = broadcaster;
     }
 
     @EventListener
@@ -70,30 +81,51 @@ public class WebSocketConnectionEvents {
         // Get the unique auto-generated session ID for this connection.
         String sessionId = sha.getSessionId();
 
-        // Pause for 0.5 seconds to allow any pending DB updates to flush to disk
-        try {
-            Thread.sleep(500);
-        } catch (Exception e) {
-            log.info("Thread sleep failed on socket connection");
+        // Register the connection, retrying off this thread if the user is not saved yet.
+        if (presence.isEnabled()) {
+            registrar.connect(sessionId, () -> registerPresence(userId, sessionId));
+        } else {
+            registrar.connect(sessionId, () ->
+                Boolean.TRUE.equals(transactionTemplate.execute(status -> registerConnection(userId, sessionId))));
         }
+    }
 
-        // Update the session ID of the relevant user, if it is found.
+    // Hold the connection in memory and batch the room update, returning whether the user was found.
+    private boolean registerPresence(String userId, String sessionId) {
         User user = userRepository.findUserByUserId(userId);
-        if (user != null) {
-            user.setSessionId(sessionId);
-            userRepository.save(user);
+        if (user == null) {
+            return false;
+        }
 
-            // Get room and send socket update.
-            Room room = user.getRoom();
-            RoomDto roomDto = RoomMapper.toDto(room);
-            socketService.sendSocketUpdate(roomDto);
+        String roomId = user.getRoom().getRoomId();
+        presence.connect(sessionId, userId, roomId);
+        broadcaster.requestUpdate(roomId, userId);
 
-            // If a game exists, update the room info for that game
-            gameService.conditionallyUpdateSocketInfo(room, user);
+        log.info("User [nickname: {}, userId: {}] connected to room {}", user.getNickname(), userId, roomId);
+        return true;
+    }
 
-            log.info("User [nickname: {}, userId: {}] connected to room {}",
-                    user.getNickname(), user.getUserId(), room.getRoomId());
+    // Update the session ID of the relevant user, returning whether they were found.
+    private boolean registerConnection(String userId, String sessionId) {
+        User user = userRepository.findUserByUserId(userId);
+        if (user == null) {
+            return false;
         }
+
+        user.setSessionId(sessionId);
+        userRepository.save(user);
+
+        // Get room and send socket update.
+        Room room = user.getRoom();
+        RoomDto roomDto = RoomMapper.toDto(room);
+        socketService.sendSocketUpdate(roomDto);
+
+        // If a game exists, update the room info for that game
+        gameService.conditionallyUpdateSocketInfo(room, user);
+
+        log.info("User [nickname: {}, userId: {}] connected to room {}",
+                user.getNickname(), user.getUserId(), room.getRoomId());
+        return true;
     }
 
     @EventListener
@@ -103,7 +135,27 @@ public class WebSocketConnectionEvents {
         sha.getSessionId();
         String sessionId = sha.getSessionId();
 
-        // Remove the user from the database and send socket update, if user exists.
+        // Register the disconnection, after the connection if that is still being retried.
+        if (presence.isEnabled()) {
+            registrar.disconnect(sessionId, () -> deregisterPresence(sessionId));
+        } else {
+            registrar.disconnect(sessionId, () ->
+                transactionTemplate.executeWithoutResult(status -> registerDisconnection(sessionId)));
+        }
+    }
+
+    // Drop the connection from memory and batch the room update, if the user has not connected again.
+    private void deregisterPresence(String sessionId) {
+        Connection connection = presence.disconnect(sessionId);
+        if (connection != null) {
+            broadcaster.requestUpdate(connection.getRoomId(), connection.getUserId());
+
+            log.info("User [userId: {}] disconnected from room {}", connection.getUserId(), connection.getRoomId());
+        }
+    }
+
+    // Remove the session ID of the relevant user and send socket update, if user exists.
+    private void registerDisconnection(String sessionId) {
         User user = userRepository.findUserBySessionId(sessionId);
         if (user != null) {
             user.setSessionId(null);
@@ -0,0 +1,98 @@
+package com.codejoust.main.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Assigns keys to nodes by consistent hashing: each node is placed at many
+ * points on a ring of hashes, and a key belongs to the first node at or after
+ * its own hash. Adding or removing a node only moves the keys of that node's
+ * points, about 1/n of all keys.
+ *
+ * Lookups read an immutable copy of the ring without locking; membership
+ * changes, which are rare, replace the copy.
+ */
+public class ConsistentHashRing<T> {
+
+    private final int virtualNodes;
+    private final Set<T> nodes = new LinkedHashSet<>();
+    private volatile NavigableMap<Long, T> ring = new TreeMap<>();
+
+    /**
+     * Create an empty ring.
+     *
+     * @param virtualNodes The number of points each node is placed at; more
+     * points spread the keys more evenly.
+     */
+    public ConsistentHashRing(int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Each node needs at least one point on the ring.");
+        }
+
+        this.virtualNodes = virtualNodes;
+    }
+
+    // Add the node, returning whether it was not already on the ring.
+    public synchronized boolean add(T node) {
+        if (!nodes.add(node)) {
+            return false;
+        }
+
+        NavigableMap<Long, T> updated = new TreeMap<>(ring);
+        for (int i = 0; i < virtualNodes; i++) {
+            updated.putIfAbsent(hash(node + "#" + i), node);
+        }
+        ring = updated;
+        return true;
+    }
+
+    // Remove the node, returning whether it was on the ring.
+    public synchronized boolean remove(T node) {
+        if (!nodes.remove(node)) {
+            return false;
+        }
+
+        NavigableMap<Long, T> updated = new TreeMap<>(ring);
+        updated.values().removeIf(node::equals);
+        ring = updated;
+        return true;
+    }
+
+    // The node the key belongs to, or null if the ring is empty.
+    public T get(String key) {
+        NavigableMap<Long, T> current = ring;
+        if (current.isEmpty()) {
+            return null;
+        }
+
+        Map.Entry<Long, T> entry = current.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : current.firstEntry().getValue();
+    }
+
+    public synchronized Set<T> getNodes() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(nodes));
+    }
+
+    // The first eight bytes of the MD5 digest, which spread similar keys evenly.
+    private static long hash(String key) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available.", e);
+        }
+
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = (hash << 8) | (digest[i] & 0xff);
+        }
+        return hash;
+    }
+}
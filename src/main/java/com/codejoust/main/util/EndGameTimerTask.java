@@ -1,7 +1,5 @@
 package com.codejoust.main.util;
 
-import java.util.TimerTask;
-
 import com.codejoust.main.dto.game.GameDto;
 import com.codejoust.main.dto.game.GameMapper;
 import com.codejoust.main.exception.TimerError;
@@ -9,7 +7,7 @@ import com.codejoust.main.exception.api.ApiException;
 import com.codejoust.main.game_object.Game;
 import com.codejoust.main.service.SocketService;
 
-public class EndGameTimerTask extends TimerTask {
+public class EndGameTimerTask implements Runnable {
 
     private final Game game;
 
@@ -0,0 +1,165 @@
+package com.codejoust.main.util;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Hands out unused numeric IDs of a fixed number of digits, tracking which
+ * are in use with one bit per ID: 10^6 IDs of six digits take about 125 KB.
+ *
+ * When several nodes hand out IDs, the IDs are split into blocks dealt out
+ * to the nodes in turn, and each node only hands out IDs from its own
+ * blocks, so that no two nodes can hand out the same ID. The IDs of other
+ * nodes' blocks are marked as in use from the start.
+ *
+ * An ID handed out is pending until it is reserved, once saved, and can be
+ * cancelled meanwhile, so that IDs of rooms and users never saved are not
+ * kept in use.
+ */
+public class IdAllocator {
+
+    private final int digits;
+    private final int capacity;
+    private final int blockSize;
+    private final int node;
+    private final int numNodes;
+    private final BitSet used;
+    private final BitSet pending;
+    private int free;
+
+    // Create an allocator handing out every ID of the given number of digits.
+    public IdAllocator(int digits) {
+        this(digits, 1, 0, 1);
+    }
+
+    /**
+     * Create an allocator handing out the IDs of one node's blocks.
+     *
+     * @param digits The number of digits of each ID, leading zeros included.
+     * @param blockSize The number of consecutive IDs in each block.
+     * @param node The index of this node, from 0 to numNodes - 1.
+     * @param numNodes The number of nodes the blocks are dealt out to.
+     */
+    public IdAllocator(int digits, int blockSize, int node, int numNodes) {
+        if (digits <= 0 || digits > 9) {
+            throw new IllegalArgumentException("IDs must have between 1 and 9 digits.");
+        }
+        if (blockSize <= 0 || numNodes <= 0 || node < 0 || node >= numNodes) {
+            throw new IllegalArgumentException("Each node needs a block size and an index below the number of nodes.");
+        }
+
+        this.digits = digits;
+        this.capacity = (int) Math.pow(10, digits);
+        this.blockSize = blockSize;
+        this.node = node;
+        this.numNodes = numNodes;
+        this.used = new BitSet(capacity);
+        this.pending = new BitSet(capacity);
+
+        for (int start = 0; start < capacity; start += blockSize) {
+            int end = Math.min(start + blockSize, capacity);
+            if (owns(start)) {
+                free += end - start;
+            } else {
+                used.set(start, end);
+            }
+        }
+    }
+
+    /**
+     * Hand out an unused ID, starting the search at a random point so that
+     * IDs cannot be guessed from the previous ones.
+     *
+     * @param random The source of the starting point.
+     * @return The ID, padded with leading zeros, or null if every ID is in use.
+     * The ID is pending until reserved or cancelled.
+     */
+    public synchronized String allocate(Random random) {
+        if (free == 0) {
+            return null;
+        }
+
+        int id = used.nextClearBit(random.nextInt(capacity));
+        if (id >= capacity) {
+            id = used.nextClearBit(0);
+        }
+
+        used.set(id);
+        pending.set(id);
+        free--;
+        return format(id);
+    }
+
+    // Mark the ID as in use, e.g. once read from the database or saved; IDs of other formats are ignored.
+    public synchronized void reserve(String id) {
+        int value = parse(id);
+        if (value < 0 || !owns(value)) {
+            return;
+        }
+
+        pending.clear(value);
+        if (!used.get(value)) {
+            used.set(value);
+            free--;
+        }
+    }
+
+    // Hand out the ID again, once nothing uses it.
+    public synchronized void release(String id) {
+        int value = parse(id);
+        if (value >= 0 && owns(value) && used.get(value)) {
+            used.clear(value);
+            pending.clear(value);
+            free++;
+        }
+    }
+
+    // Hand out the ID again if it is still pending, as it was never saved; reserved IDs are kept.
+    public synchronized void cancel(String id) {
+        int value = parse(id);
+        if (value >= 0 && pending.get(value)) {
+            pending.clear(value);
+            used.clear(value);
+            free++;
+        }
+    }
+
+    public synchronized boolean isUsed(String id) {
+        int value = parse(id);
+        return value >= 0 && used.get(value);
+    }
+
+    public synchronized boolean isPending(String id) {
+        int value = parse(id);
+        return value >= 0 && pending.get(value);
+    }
+
+    // The number of IDs this node can still hand out.
+    public synchronized int getFree() {
+        return free;
+    }
+
+    private boolean owns(int id) {
+        return (id / blockSize) % numNodes == node;
+    }
+
+    private String format(int id) {
+        return String.format("%0" + digits + "d", id);
+    }
+
+    private int parse(String id) {
+        if (id == null || id.length() != digits) {
+            return -1;
+        }
+
+        int value = 0;
+        for (int i = 0; i < digits; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,34 @@
+package com.codejoust.main.util;
+
+import javax.persistence.PostLoad;
+
+import com.codejoust.main.dao.PresenceRegistry;
+import com.codejoust.main.model.User;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives each user loaded their current session ID, as held by the presence
+ * registry rather than the database. The ID is kept apart from the saved
+ * column, so the user is not dirtied by loading.
+ */
+@Component
+public class PresenceListener {
+
+    // Looked up when needed, as the listener is created along with the repositories.
+    private final ObjectProvider<PresenceRegistry> presence;
+
+    @Autowired
+    public PresenceListener(ObjectProvider<PresenceRegistry> presence) {
+        this.presence = presence;
+    }
+
+    @PostLoad
+    public void onLoad(Object entity) {
+        if (entity instanceof User) {
+            presence.getObject().apply((User) entity);
+        }
+    }
+}
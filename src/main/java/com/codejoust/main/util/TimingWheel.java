@@ -0,0 +1,291 @@
+package com.codejoust.main.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * A hashed timing wheel for large numbers of coarse-grained deadlines.
+ *
+ * Time is divided into ticks, and the wheel into a fixed number of buckets,
+ * one per tick; a deadline further away than one turn of the wheel waits a
+ * number of extra rounds in its bucket. Scheduling and cancelling are O(1),
+ * and a single tick thread hands the due tasks to the given executor, so
+ * tasks run up to one tick after their deadline.
+ */
+@Log4j2
+public class TimingWheel {
+
+    // Most newly scheduled timeouts moved into the wheel per tick, so a burst cannot stall it.
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor executor;
+
+    // Scheduled and cancelled timeouts, handed to the tick thread.
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final long startTime = System.nanoTime();
+    private final Thread tickThread;
+    private volatile boolean stopped = false;
+
+    // The current tick, only accessed by the tick thread.
+    private long tick = 0;
+
+    /**
+     * Create and start the wheel.
+     *
+     * @param name The name of the tick thread.
+     * @param tickDuration The length of one tick.
+     * @param unit The unit of the tick duration.
+     * @param ticksPerWheel The number of buckets, rounded up to a power of two.
+     * @param executor The executor running the due tasks.
+     */
+    public TimingWheel(String name, long tickDuration, TimeUnit unit, int ticksPerWheel, Executor executor) {
+        if (tickDuration <= 0 || ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid tick duration or ticks per wheel.");
+        }
+
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.executor = executor;
+
+        this.tickThread = new Thread(this::runTicks, name);
+        this.tickThread.setDaemon(true);
+        this.tickThread.start();
+    }
+
+    /**
+     * Run the task once after the given delay.
+     *
+     * @param task The task to run.
+     * @param delay The delay before running the task.
+     * @param unit The unit of the delay.
+     * @return A handle with which the task can be cancelled.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) {
+            throw new IllegalStateException("The timing wheel has been stopped.");
+        }
+
+        Timeout timeout = new Timeout(task, System.nanoTime() - startTime + unit.toNanos(Math.max(delay, 0)));
+        pending.incrementAndGet();
+        added.add(timeout);
+        return timeout;
+    }
+
+    // The number of tasks neither run nor cancelled.
+    public int getPending() {
+        return pending.get();
+    }
+
+    // Stop the tick thread; tasks not yet due never run.
+    public void stop() {
+        stopped = true;
+        tickThread.interrupt();
+    }
+
+    private void runTicks() {
+        while (!stopped) {
+            long now = waitForNextTick();
+            if (now < 0) {
+                break;
+            }
+
+            removeCancelled();
+            transferAdded();
+            wheel[(int) (tick & mask)].expire(now);
+            tick++;
+        }
+    }
+
+    // Sleep until the current tick ends, returning the time then, or -1 if stopped.
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+
+        while (true) {
+            long now = System.nanoTime() - startTime;
+            long sleepMillis = TimeUnit.NANOSECONDS.toMillis(deadline - now + 999999);
+            if (sleepMillis <= 0) {
+                return now;
+            }
+
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if (stopped) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferAdded() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = added.poll();
+            if (timeout == null) {
+                break;
+            }
+
+            if (timeout.state.get() == Timeout.CANCELLED) {
+                continue;
+            }
+
+            // Deadlines already passed go in the current bucket.
+            long dueTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (dueTick - tick) / wheel.length;
+            wheel[(int) (Math.max(dueTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * A scheduled task, and the handle with which it can be cancelled.
+     */
+    public class Timeout {
+
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // Only accessed by the tick thread.
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the task, if it has not yet run.
+         *
+         * @return Whether the task was cancelled by this call.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+
+            pending.decrementAndGet();
+            cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        // Whether the task is due, and has been run or handed to the executor.
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(WAITING, EXPIRED)) {
+                return;
+            }
+
+            pending.decrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        log.error("A scheduled task failed:", e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("A scheduled task was rejected by its executor.");
+            }
+        }
+    }
+
+    /**
+     * A doubly linked list of the timeouts in one slot of the wheel, only
+     * accessed by the tick thread.
+     */
+    private static class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        // Run the timeouts due by now, and count down the rounds of the rest.
+        void expire(long now) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
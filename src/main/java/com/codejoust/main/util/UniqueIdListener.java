@@ -0,0 +1,84 @@
+package com.codejoust.main.util;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the generated room and user IDs in step with the database: IDs
+ * saved are marked as in use once the save commits, and generated IDs whose
+ * save rolls back are freed, as are IDs deleted, including those of users
+ * removed from their room, once the deletion commits.
+ */
+@Component
+public class UniqueIdListener {
+
+    // Looked up when needed, as the listener is created along with the repositories Utility uses.
+    private final ObjectProvider<Utility> utility;
+
+    @Autowired
+    public UniqueIdListener(ObjectProvider<Utility> utility) {
+        this.utility = utility;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        if (entity instanceof Room) {
+            reserve(((Room) entity).getRoomId(), Utility.ROOM_ID_KEY);
+        } else if (entity instanceof User) {
+            reserve(((User) entity).getUserId(), Utility.USER_ID_KEY);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Room) {
+            release(((Room) entity).getRoomId(), Utility.ROOM_ID_KEY);
+        } else if (entity instanceof User) {
+            release(((User) entity).getUserId(), Utility.USER_ID_KEY);
+        }
+    }
+
+    private void reserve(String id, String idType) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            utility.getObject().reserveId(id, idType);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                    utility.getObject().reserveId(id, idType);
+                } else {
+                    utility.getObject().cancelId(id, idType);
+                }
+            }
+        });
+    }
+
+    private void release(String id, String idType) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            utility.getObject().releaseId(id, idType);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                    utility.getObject().releaseId(id, idType);
+                }
+            }
+        });
+    }
+}
@@ -3,18 +3,25 @@ package com.codejoust.main.util;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.lang.model.SourceVersion;
 
+import com.codejoust.main.config.ClusterProperties;
 import com.codejoust.main.dao.RoomRepository;
 import com.codejoust.main.dao.UserRepository;
 import com.codejoust.main.game_object.NotificationType;
+import com.codejoust.main.service.RoomService;
+import com.codejoust.main.service.UserService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -56,51 +63,98 @@ public class Utility {
 
     private final RoomRepository roomRepository;
     private final UserRepository userRepository;
+    private final ClusterProperties clusterProperties;
+
+    // The allocator of each type of ID, loaded with the IDs in the database when first used.
+    private final Map<String, IdAllocator> allocators = new ConcurrentHashMap<>();
 
     @Autowired
-    public Utility(RoomRepository roomRepository, UserRepository userRepository) {
+    public Utility(RoomRepository roomRepository, UserRepository userRepository,
+                   ClusterProperties clusterProperties) {
         this.roomRepository = roomRepository;
         this.userRepository = userRepository;
+        this.clusterProperties = clusterProperties;
     }
 
-    // Generate numeric String with a specific length.
+    /**
+     * Generate an unused numeric ID of the given type, from the IDs held in
+     * memory rather than by checking candidates against the database.
+     *
+     * @param length The number of digits, which must stay the same for each type.
+     * @param idType The type of ID, ROOM_ID_KEY or USER_ID_KEY.
+     * @return The ID, which is held until the room or user is saved with it,
+     * or cancelled with cancelId if they are not.
+     */
     public String generateUniqueId(int length, String idType) {
-        String numbers = "1234567890";
-        char[] values = new char[length];
-        String id = null;
-        
-        /**
-         * Continue generating new id values until a valid one is provided.
-         * Note: This loop could technically run forever, but there are 9^6
-         * (531,441) possible combinations, so this works for now (10/20/2020).
-         */
-        try {
-            while (id == null || idExists(id, idType)) {
-                for (int i = 0; i < values.length; i++) {
-                    int index = random.nextInt(numbers.length());
-                    values[i] = numbers.charAt(index);
-                }
-                id = new String(values);
-            }
-            return id;
-        } catch (IllegalArgumentException e) {
-            // Throw IllegalArgumentException for invalid id type.
-            throw new IllegalArgumentException(e);
+        String id = getAllocator(idType, length).allocate(random);
+        if (id == null) {
+            throw new IllegalStateException(String.format("Every %s of %d digits is in use.", idType, length));
+        }
+
+        return id;
+    }
+
+    // Load the IDs in use once the application starts, rather than on the first request.
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIds() {
+        getAllocator(ROOM_ID_KEY, RoomService.ROOM_ID_LENGTH);
+        getAllocator(USER_ID_KEY, UserService.USER_ID_LENGTH);
+    }
+
+    // Mark an ID saved to the database as in use, whether generated here or chosen by the client.
+    public void reserveId(String id, String idType) {
+        IdAllocator allocator = allocators.get(idType);
+        if (allocator != null) {
+            allocator.reserve(id);
         }
     }
 
-    // Determine if the id of idType already exists in the database.
-    private boolean idExists(String id, String idType) {
-        switch (idType) {
-            case (ROOM_ID_KEY):
-                return roomRepository.findRoomByRoomId(id) != null;
-            case (USER_ID_KEY):
-                return userRepository.findUserByUserId(id) != null; 
-            default:
-                throw new IllegalArgumentException(String.format("The provided id type of %s is invalid.", idType));
+    // Free a generated ID that was never saved; IDs saved since are kept.
+    public void cancelId(String id, String idType) {
+        IdAllocator allocator = allocators.get(idType);
+        if (allocator != null) {
+            allocator.cancel(id);
         }
     }
 
+    // Free an ID deleted from the database to be generated again.
+    public void releaseId(String id, String idType) {
+        IdAllocator allocator = allocators.get(idType);
+        if (allocator != null) {
+            allocator.release(id);
+        }
+    }
+
+    private IdAllocator getAllocator(String idType, int length) {
+        return allocators.computeIfAbsent(idType, type -> {
+            List<String> ids;
+            switch (type) {
+                case (ROOM_ID_KEY):
+                    ids = roomRepository.findAllRoomIds();
+                    break;
+                case (USER_ID_KEY):
+                    ids = userRepository.findAllUserIds();
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("The provided id type of %s is invalid.", type));
+            }
+
+            // With several nodes, this node only generates IDs from its own blocks.
+            List<String> nodes = clusterProperties.getNodes();
+            int node = nodes.indexOf(clusterProperties.getSelf());
+            if (nodes.isEmpty()) {
+                node = 0;
+            } else if (node < 0) {
+                throw new IllegalStateException("This node (cluster.self) must be one of cluster.nodes.");
+            }
+            IdAllocator allocator = new IdAllocator(length, clusterProperties.getIdBlockSize(),
+                node, Math.max(nodes.size(), 1));
+
+            ids.forEach(allocator::reserve);
+            return allocator;
+        });
+    }
+
     /**
      * Check if the String is a valid identifier / variable name in Java and
      * Python, as well as ensuring that is starts with a letter.
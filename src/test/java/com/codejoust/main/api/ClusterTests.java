@@ -0,0 +1,169 @@
+package com.codejoust.main.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.codejoust.main.Main;
+import com.codejoust.main.dto.game.GameDto;
+import com.codejoust.main.dto.game.StartGameRequest;
+import com.codejoust.main.dto.room.CreateRoomRequest;
+import com.codejoust.main.dto.room.RoomDto;
+import com.codejoust.main.service.GameRegistry;
+import com.codejoust.main.service.RoomShardRouter;
+import com.codejoust.main.util.SocketTestMethods;
+import com.codejoust.main.util.TestFields;
+import com.codejoust.main.util.TestUrls;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Two nodes sharing live games, run in this JVM on local ports with a shared
+ * database of their own, which is kept when either node stops.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ClusterTests {
+
+    private static String nodeA;
+    private static String nodeB;
+    private static ConfigurableApplicationContext contextA;
+    private static ConfigurableApplicationContext contextB;
+
+    // The room whose game node B holds, once started.
+    private static String gameRoomId;
+
+    private static final TestRestTemplate template = new TestRestTemplate();
+
+    @BeforeAll
+    public static void startNodes() throws Exception {
+        int portA = freePort();
+        int portB = freePort();
+        nodeA = "http://localhost:" + portA;
+        nodeB = "http://localhost:" + portB;
+
+        contextA = startNode(portA);
+        contextB = startNode(portB);
+
+        template.getRestTemplate().setInterceptors(
+                Collections.singletonList((request, body, execution) -> {
+                    request.getHeaders().add("Authorization", TestFields.TOKEN);
+                    return execution.execute(request, body);
+                }));
+    }
+
+    @AfterAll
+    public static void stopNodes() {
+        contextA.close();
+        if (contextB.isActive()) {
+            contextB.close();
+        }
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(int port) {
+        String self = "http://localhost:" + port;
+        // Passed as arguments, which take precedence over application.properties.
+        return new SpringApplicationBuilder(Main.class).run(
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:cluster;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.type=com.zaxxer.hikari.HikariDataSource",
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--cluster.self=" + self,
+                "--cluster.nodes=" + nodeA + "," + nodeB,
+                "--cluster.healthCheckMillis=200");
+    }
+
+    // Create a room through node A, whose game is owned by the given node.
+    private RoomDto createRoomOwnedBy(String owner) {
+        RoomShardRouter router = contextA.getBean(RoomShardRouter.class);
+        for (int i = 0; i < 100; i++) {
+            CreateRoomRequest createRequest = new CreateRoomRequest();
+            createRequest.setHost(TestFields.userDto1());
+            RoomDto room = template.postForObject(nodeA + TestUrls.createRoom(), new HttpEntity<>(createRequest), RoomDto.class);
+            assertNotNull(room);
+
+            if (owner.equals(router.getOwner(room.getRoomId()))) {
+                return room;
+            }
+        }
+        throw new AssertionError("No room was assigned to " + owner);
+    }
+
+    @Test
+    @Order(1)
+    public void requestsAreForwardedToOwner() throws Exception {
+        SocketTestMethods.createSingleVerifiedProblemAndTestCases(template, Integer.parseInt(nodeA.substring(nodeA.lastIndexOf(':') + 1)));
+        assertEquals(Set.of(nodeA, nodeB), contextA.getBean(RoomShardRouter.class).getNodes());
+
+        // Node A starts a game for a room node B owns.
+        RoomDto room = createRoomOwnedBy(nodeB);
+        StartGameRequest request = new StartGameRequest();
+        request.setInitiator(room.getHost());
+        ResponseEntity<RoomDto> started = template.postForEntity(nodeA + TestUrls.startGame(room.getRoomId()), request, RoomDto.class);
+        assertEquals(HttpStatus.OK, started.getStatusCode());
+
+        // The game is kept on node B only, and both nodes answer for it.
+        assertNotNull(contextB.getBean(GameRegistry.class).get(room.getRoomId()));
+        assertNull(contextA.getBean(GameRegistry.class).get(room.getRoomId()));
+
+        for (String node : List.of(nodeA, nodeB)) {
+            GameDto game = template.getForObject(node + TestUrls.getGame(room.getRoomId()), GameDto.class);
+            assertNotNull(game);
+            assertEquals(room.getRoomId(), game.getRoom().getRoomId());
+        }
+        gameRoomId = room.getRoomId();
+    }
+
+    @Test
+    @Order(2)
+    public void roomsMoveOffNodeThatIsDown() throws Exception {
+        RoomDto room = createRoomOwnedBy(nodeB);
+
+        // Let node A's health check see the game on node B before it goes down.
+        Thread.sleep(500);
+        contextB.close();
+
+        // Node A finds the node down and takes over its rooms.
+        RoomShardRouter router = contextA.getBean(RoomShardRouter.class);
+        for (int i = 0; i < 50 && router.getNodes().size() > 1; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(Set.of(nodeA), router.getNodes());
+        assertTrue(router.isLocal(room.getRoomId()));
+
+        // The room whose game node B holds stays with it, rather than being found missing here.
+        assertEquals(nodeB, router.getOwner(gameRoomId));
+        ResponseEntity<String> stranded = template.getForEntity(nodeA + TestUrls.getGame(gameRoomId), String.class);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, stranded.getStatusCode());
+
+        StartGameRequest request = new StartGameRequest();
+        request.setInitiator(room.getHost());
+        ResponseEntity<RoomDto> started = template.postForEntity(nodeA + TestUrls.startGame(room.getRoomId()), request, RoomDto.class);
+        assertEquals(HttpStatus.OK, started.getStatusCode());
+        assertNotNull(contextA.getBean(GameRegistry.class).get(room.getRoomId()));
+        assertNotEquals(nodeB, router.getOwner(room.getRoomId()));
+    }
+}
@@ -4,6 +4,7 @@ import com.codejoust.main.dto.game.GameDto;
 import com.codejoust.main.dto.game.GameNotificationDto;
 import com.codejoust.main.dto.game.GameNotificationRequest;
 import com.codejoust.main.dto.game.PlayerDto;
+import com.codejoust.main.dto.game.ProblemStatisticsDto;
 import com.codejoust.main.dto.game.StartGameRequest;
 import com.codejoust.main.dto.game.SubmissionDto;
 import com.codejoust.main.dto.game.SubmissionRequest;
@@ -26,6 +27,7 @@ import com.codejoust.main.util.ProblemTestMethods;
 import com.codejoust.main.util.RoomTestMethods;
 import com.codejoust.main.util.TestFields;
 import com.codejoust.main.util.TestUrls;
+import com.google.gson.reflect.TypeToken;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,8 +44,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.reflect.Type;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 @SpringBootTest(properties = "spring.datasource.type=com.zaxxer.hikari.HikariDataSource")
 @AutoConfigureMockMvc
@@ -264,6 +269,48 @@ public class GameTests {
         assertTrue(gameDto.getAllSolved());
     }
 
+    @Test
+    public void getProblemStatisticsSuccess() throws Exception {
+        UserDto host = TestFields.userDto1();
+
+        RoomDto roomDto = RoomTestMethods.setUpRoomWithOneUser(this.mockMvc, host);
+        startGameHelper(roomDto, host);
+
+        SubmissionRequest request = new SubmissionRequest();
+        request.setInitiator(host);
+        request.setCode(TestFields.PYTHON_CODE);
+        request.setLanguage(TestFields.PYTHON_LANGUAGE);
+
+        MockHelper.postRequest(this.mockMvc, TestUrls.submitCode(roomDto.getRoomId()), request, SubmissionDto.class, HttpStatus.OK);
+        MockHelper.postRequest(this.mockMvc, TestUrls.submitCode(roomDto.getRoomId()), request, SubmissionDto.class, HttpStatus.OK);
+
+        Type listType = new TypeToken<ArrayList<ProblemStatisticsDto>>(){}.getType();
+        List<ProblemStatisticsDto> statistics = MockHelper.getRequest(this.mockMvc,
+            TestUrls.getProblemStatistics(roomDto.getRoomId(), host.getUserId()), listType, HttpStatus.OK);
+
+        assertEquals(1, statistics.size());
+        ProblemStatisticsDto statisticsDto = statistics.get(0);
+        assertEquals(0, statisticsDto.getProblemIndex());
+        assertEquals(1, statisticsDto.getUserSolvedCount());
+        assertEquals(1, statisticsDto.getAttemptedCount());
+        assertEquals(2.0, statisticsDto.getAverageAttemptCount());
+        assertEquals(statisticsDto.getTestCaseCount(), statisticsDto.getAverageTestCasesPassed());
+    }
+
+    @Test
+    public void getProblemStatisticsNotHost() throws Exception {
+        UserDto host = TestFields.userDto1();
+
+        RoomDto roomDto = RoomTestMethods.setUpRoomWithOneUser(this.mockMvc, host);
+        startGameHelper(roomDto, host);
+
+        ApiError ERROR = GameError.INVALID_PERMISSIONS;
+
+        ApiErrorResponse actual = MockHelper.getRequest(this.mockMvc,
+            TestUrls.getProblemStatistics(roomDto.getRoomId(), TestFields.USER_ID_2), ApiErrorResponse.class, ERROR.getStatus());
+        assertEquals(ERROR.getResponse(), actual);
+    }
+
     @Test
     public void sendNotificationSuccess() throws Exception {
         UserDto host = TestFields.userDto1();
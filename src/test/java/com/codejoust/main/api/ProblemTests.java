@@ -12,6 +12,7 @@ import com.codejoust.main.dto.problem.CreateProblemRequest;
 import com.codejoust.main.dto.problem.CreateTestCaseRequest;
 import com.codejoust.main.dto.problem.ProblemDto;
 import com.codejoust.main.dto.problem.ProblemInputDto;
+import com.codejoust.main.dto.problem.ProblemPageDto;
 import com.codejoust.main.dto.problem.ProblemTagDto;
 import com.codejoust.main.dto.problem.ProblemTestCaseDto;
 import com.codejoust.main.exception.ProblemError;
@@ -390,6 +391,53 @@ class ProblemTests {
         assertEquals(ERROR.getResponse(), actual);
     }
 
+    @Test
+    public void getProblemPageSuccess() throws Exception {
+        ProblemDto tagged = ProblemTestMethods.createSingleProblemAndTags(this.mockMvc);
+        ProblemTestMethods.createSingleProblem(this.mockMvc);
+        ProblemTestMethods.createSingleProblem(this.mockMvc);
+
+        // Problems with the same name are listed in the order they were created
+        ProblemPageDto actual = MockHelper.getRequest(this.mockMvc, TestUrls.getProblemPage("size=2"), ProblemPageDto.class, HttpStatus.OK);
+        assertEquals(2, actual.getProblems().size());
+        assertEquals(3, actual.getTotalProblems());
+        assertEquals(2, actual.getTotalPages());
+        assertEquals(1, actual.getNextPage());
+        assertEquals(tagged.getProblemId(), actual.getProblems().get(0).getProblemId());
+        assertEquals(tagged.getProblemTags(), actual.getProblems().get(0).getProblemTags());
+        assertEquals(ProblemDifficulty.EASY, actual.getProblems().get(0).getDifficulty());
+
+        actual = MockHelper.getRequest(this.mockMvc, TestUrls.getProblemPage("size=2&page=1"), ProblemPageDto.class, HttpStatus.OK);
+        assertEquals(1, actual.getProblems().size());
+        assertNull(actual.getNextPage());
+
+        actual = MockHelper.getRequest(this.mockMvc, TestUrls.getProblemPage("sort=-created"), ProblemPageDto.class, HttpStatus.OK);
+        assertEquals(3, actual.getProblems().size());
+        assertEquals(tagged.getProblemId(), actual.getProblems().get(2).getProblemId());
+
+        String tagQuery = "tagId=" + tagged.getProblemTags().get(0).getTagId() + "&owner=" + TestFields.UID;
+        actual = MockHelper.getRequest(this.mockMvc, TestUrls.getProblemPage(tagQuery), ProblemPageDto.class, HttpStatus.OK);
+        assertEquals(1, actual.getProblems().size());
+        assertEquals(tagged.getProblemId(), actual.getProblems().get(0).getProblemId());
+
+        actual = MockHelper.getRequest(this.mockMvc, TestUrls.getProblemPage("difficulty=hard"), ProblemPageDto.class, HttpStatus.OK);
+        assertEquals(0, actual.getProblems().size());
+
+        actual = MockHelper.getRequest(this.mockMvc, TestUrls.getProblemPage("verified=true"), ProblemPageDto.class, HttpStatus.OK);
+        assertEquals(0, actual.getTotalProblems());
+    }
+
+    @Test
+    public void getProblemPageBadRequest() throws Exception {
+        ApiError ERROR = ProblemError.INVALID_PAGE_REQUEST;
+
+        ApiErrorResponse actual = MockHelper.getRequest(this.mockMvc, TestUrls.getProblemPage("sort=description"), ApiErrorResponse.class, ERROR.getStatus());
+        assertEquals(ERROR.getResponse(), actual);
+
+        actual = MockHelper.getRequest(this.mockMvc, TestUrls.getProblemPage("size=101"), ApiErrorResponse.class, ERROR.getStatus());
+        assertEquals(ERROR.getResponse(), actual);
+    }
+
     @Test
     public void getAllProblemTagsSuccess() throws Exception {
         /**
@@ -1,6 +1,7 @@
 package com.codejoust.main.api;
 
 
+import com.codejoust.main.dto.room.RoomCacheStatsDto;
 import com.codejoust.main.util.MockHelper;
 import com.codejoust.main.util.TestUrls;
 import org.junit.jupiter.api.Test;
@@ -14,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(properties = "spring.datasource.type=com.zaxxer.hikari.HikariDataSource")
@@ -31,4 +33,12 @@ public class UtilityTests {
         assertTrue(Instant.now().isAfter(instant)
             || Instant.now().minusSeconds((long) 1).isBefore(instant));
     }
+
+    @Test
+    public void getRoomCacheStatsSuccess() throws Exception {
+        RoomCacheStatsDto statsDto = MockHelper.getRequest(this.mockMvc, TestUrls.getRoomCacheStats(),
+            RoomCacheStatsDto.class, HttpStatus.OK);
+        assertEquals(0, statsDto.getSize());
+        assertEquals(0, statsDto.getHits());
+    }
 }
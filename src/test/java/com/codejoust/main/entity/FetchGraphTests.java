@@ -0,0 +1,161 @@
+package com.codejoust.main.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import com.codejoust.main.dao.AccountRepository;
+import com.codejoust.main.dao.ProblemRepository;
+import com.codejoust.main.dao.ProblemSummary;
+import com.codejoust.main.dao.RoomRepository;
+import com.codejoust.main.model.Account;
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+import com.codejoust.main.model.problem.Problem;
+import com.codejoust.main.model.problem.ProblemDifficulty;
+import com.codejoust.main.model.problem.ProblemTestCase;
+import com.codejoust.main.util.TestFields;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+
+/**
+ * Counts the SQL statements run by the repository methods on the paths
+ * taken for every request, so that eager associations cannot creep back in.
+ * The room cache is off, so that every read reaches the database.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.type=com.zaxxer.hikari.HikariDataSource",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "cache.enabled=false"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class FetchGraphTests {
+
+    private static final int NUM_USERS = 5;
+    private static final int NUM_PROBLEMS = 4;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ProblemRepository problemRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private Statistics statistics;
+    private List<Integer> problemIds;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Each user has an account that owns a bank of problems.
+        Room room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+        room.setDifficulty(ProblemDifficulty.EASY);
+        problemIds = new ArrayList<>();
+
+        for (int i = 0; i < NUM_USERS; i++) {
+            Account account = new Account();
+            account.setUid(TestFields.UID + i);
+            accountRepository.save(account);
+
+            for (int j = 0; j < NUM_PROBLEMS; j++) {
+                Problem problem = new Problem();
+                problem.setName(TestFields.NAME);
+                problem.setOwner(account);
+                problem.addTestCase(new ProblemTestCase());
+                problem.addTestCase(new ProblemTestCase());
+                problemRepository.save(problem);
+                problemIds.add(problem.getId());
+            }
+
+            User user = new User();
+            user.setUserId(TestFields.USER_ID + i);
+            user.setNickname(TestFields.NICKNAME);
+            user.setAccount(account);
+            room.addUser(user);
+            if (i == 0) {
+                room.setHost(user);
+            }
+        }
+
+        roomRepository.save(room);
+        statistics.clear();
+    }
+
+    @Test
+    public void findRoomLoadsUsersAndAccountsInOneQuery() {
+        Room room = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+
+        // One query for the room, host, users and accounts, and one for its selectable problems.
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(NUM_USERS, room.getUsers().size());
+        for (User user : room.getUsers()) {
+            assertTrue(Hibernate.isInitialized(user.getAccount()));
+            assertFalse(Hibernate.isInitialized(user.getAccount().getProblems()));
+            assertFalse(Hibernate.isInitialized(user.getAccount().getProblemTags()));
+        }
+    }
+
+    @Test
+    public void findProblemsLoadsTestCasesWithoutQueryPerProblem() {
+        List<Problem> problems = problemRepository.findDistinctByIdIn(problemIds);
+
+        // One query for the problems, owners and test cases, and one each for all inputs and tags.
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(problemIds.size(), problems.size());
+        for (Problem problem : problems) {
+            assertEquals(2, problem.getTestCases().size());
+            assertFalse(Hibernate.isInitialized(problem.getOwner().getProblems()));
+        }
+    }
+
+    @Test
+    public void findProblemLoadsOwnerWithoutTheirProblems() {
+        Problem problem = problemRepository.findDistinctByIdIn(problemIds.subList(0, 1)).get(0);
+        statistics.clear();
+
+        problem = problemRepository.findProblemByProblemId(problem.getProblemId());
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(2, problem.getTestCases().size());
+        assertFalse(Hibernate.isInitialized(problem.getOwner().getProblems()));
+    }
+
+    @Test
+    public void findSummariesKeepsProblemsWithoutOwner() {
+        Problem problem = new Problem();
+        problem.setName(TestFields.NAME);
+        problemRepository.save(problem);
+
+        // Without an owner filter, the problem without an owner is listed and counted.
+        Page<ProblemSummary> summaries = problemRepository.findSummaries(null, null, null, null, PageRequest.of(0, 5));
+        assertEquals(NUM_USERS * NUM_PROBLEMS + 1, summaries.getTotalElements());
+
+        summaries = problemRepository.findSummaries(null, null, null, null, PageRequest.of(0, 100));
+        assertTrue(summaries.getContent().stream().anyMatch(summary -> summary.getProblemId().equals(problem.getProblemId())));
+
+        // With one, only that owner's problems are.
+        summaries = problemRepository.findSummaries(null, null, TestFields.UID + 0, null, PageRequest.of(0, 5));
+        assertEquals(NUM_PROBLEMS, summaries.getTotalElements());
+    }
+}
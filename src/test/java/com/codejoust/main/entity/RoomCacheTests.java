@@ -0,0 +1,192 @@
+package com.codejoust.main.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import javax.persistence.EntityManagerFactory;
+
+import com.codejoust.main.dao.RoomCache;
+import com.codejoust.main.dao.RoomRepository;
+import com.codejoust.main.dao.UserRepository;
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+import com.codejoust.main.util.TestFields;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = {
+    "spring.datasource.type=com.zaxxer.hikari.HikariDataSource",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "socket.presence=false"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class RoomCacheTests {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoomCache cache;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Room room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+
+        User host = new User();
+        host.setUserId(TestFields.USER_ID);
+        host.setNickname(TestFields.NICKNAME);
+        host.setSessionId(TestFields.SESSION_ID);
+        room.addUser(host);
+        room.setHost(host);
+
+        User user = new User();
+        user.setUserId(TestFields.USER_ID_2);
+        user.setNickname(TestFields.NICKNAME_2);
+        room.addUser(user);
+
+        roomRepository.save(room);
+        statistics.clear();
+    }
+
+    @Test
+    public void roomIsReadFromTheDatabaseOnce() {
+        cache.evict(TestFields.ROOM_ID);
+
+        Room room = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements > 0);
+
+        Room cached = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+        User user = userRepository.findUserByUserId(TestFields.USER_ID_2);
+        User host = userRepository.findUserBySessionId(TestFields.SESSION_ID);
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(new ArrayList<>(room.getUsers()), cached.getUsers());
+        assertEquals(TestFields.NICKNAME_2, user.getNickname());
+        assertEquals(TestFields.USER_ID, host.getUserId());
+
+        // A user's room is the rest of the copy they were read in.
+        assertEquals(TestFields.ROOM_ID, user.getRoom().getRoomId());
+        assertTrue(user.getRoom().getUsers().contains(host));
+    }
+
+    @Test
+    public void changesAreOnlyCachedOnceSaved() {
+        Room room = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+        room.setActive(true);
+        room.getUsers().get(1).setSpectator(true);
+
+        // Each read is a copy, unaffected by the unsaved changes.
+        Room cached = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+        assertNotSame(room, cached);
+        assertFalse(cached.getActive());
+        assertFalse(cached.getUsers().get(1).getSpectator());
+        assertEquals(cached.getUsers().get(0), cached.getHost());
+
+        roomRepository.save(room);
+        statistics.clear();
+
+        cached = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(cached.getActive());
+        assertTrue(cached.getUsers().get(1).getSpectator());
+    }
+
+    @Test
+    public void savedUserIsWrittenThroughToTheirRoom() {
+        User user = userRepository.findUserByUserId(TestFields.USER_ID_2);
+        user.setSessionId(TestFields.SESSION_ID_2);
+        userRepository.save(user);
+
+        // The host disconnects, as handled on socket events.
+        User host = userRepository.findUserBySessionId(TestFields.SESSION_ID);
+        host.setSessionId(null);
+        userRepository.save(host);
+        statistics.clear();
+
+        Room room = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertNull(room.getHost().getSessionId());
+        assertEquals(TestFields.SESSION_ID_2, room.getUserByUserId(TestFields.USER_ID_2).getSessionId());
+        assertEquals(TestFields.USER_ID_2, userRepository.findUserBySessionId(TestFields.SESSION_ID_2).getUserId());
+        assertNull(userRepository.findUserBySessionId(TestFields.SESSION_ID));
+
+        // The database agrees with the cache.
+        cache.evict(TestFields.ROOM_ID);
+        room = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+        assertNull(room.getHost().getSessionId());
+        assertEquals(TestFields.SESSION_ID_2, room.getUserByUserId(TestFields.USER_ID_2).getSessionId());
+    }
+
+    @Test
+    public void hostTransferIsCached() {
+        Room room = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+        User newHost = room.getUserByUserId(TestFields.USER_ID_2);
+        room.setHost(newHost);
+        room.removeUser(room.getUserByUserId(TestFields.USER_ID));
+        roomRepository.save(room);
+
+        Room cached = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+        assertEquals(newHost, cached.getHost());
+        assertEquals(1, cached.getUsers().size());
+        assertNull(userRepository.findUserByUserId(TestFields.USER_ID));
+        assertNull(userRepository.findUserBySessionId(TestFields.SESSION_ID));
+    }
+
+    @Test
+    public void deletedRoomIsEvicted() {
+        Room room = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+        roomRepository.delete(room);
+
+        assertEquals(0, cache.size());
+        assertNull(roomRepository.findRoomByRoomId(TestFields.ROOM_ID));
+        assertNull(userRepository.findUserByUserId(TestFields.USER_ID));
+    }
+
+    @Test
+    public void rolledBackSaveIsEvicted() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Room room = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+            room.setActive(true);
+            roomRepository.save(room);
+
+            // The rest of the transaction sees the change.
+            assertTrue(roomRepository.findRoomByRoomId(TestFields.ROOM_ID).getActive());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, cache.size());
+        Room room = roomRepository.findRoomByRoomId(TestFields.ROOM_ID);
+        assertNotNull(room);
+        assertFalse(room.getActive());
+    }
+}
@@ -1,12 +1,16 @@
 package com.codejoust.main.mapper;
 
 import com.codejoust.main.util.TestFields;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -38,14 +42,16 @@ public class GameMapperTests {
 
     private static final int TEST_CASES = 10;
 
-    // Helper method to add a dummy submission to a PlayerDto object
-    private void addSubmissionHelper(PlayerDto playerDto, int numCorrect, int problemIndex) {
-        SubmissionDto submissionDto = new SubmissionDto();
-        submissionDto.setNumCorrect(numCorrect);
-        submissionDto.setProblemIndex(problemIndex);
-        submissionDto.setStartTime(Instant.now());
+    // Helper method to record a dummy submission for a player in the game
+    private void addSubmissionHelper(Game game, Player player, int numCorrect, int problemIndex) {
+        Submission submission = new Submission();
+        submission.setNumCorrect(numCorrect);
+        submission.setNumTestCases(TEST_CASES);
+        submission.setProblemIndex(problemIndex);
+        submission.setStartTime(Instant.now());
 
-        playerDto.getSubmissions().add(submissionDto);
+        player.getSubmissions().add(submission);
+        game.getLeaderboard().record(player, submission);
     }
 
     @Test
@@ -205,45 +211,81 @@ public class GameMapperTests {
     }
 
     @Test
-    public void sortLeaderboardSuccess() {
-        List<PlayerDto> players = new ArrayList<>();
+    public void leaderboardOrderSuccess() {
+        Game game = new Game();
 
         // Note: order of addSubmissionHelper matters (time of submission)
-        PlayerDto player1 = new PlayerDto();
-        addSubmissionHelper(player1, TEST_CASES, 0);
-        addSubmissionHelper(player1, TEST_CASES, 0);
-        addSubmissionHelper(player1, TEST_CASES, 0);
+        Player player1 = new Player();
+        Player player2 = new Player();
+        Player player3 = new Player();
+        Player player4 = new Player();
+        Player player5 = new Player();
+        game.addPlayer("player1", player1);
+        game.addPlayer("player2", player2);
+        game.addPlayer("player3", player3);
+        game.addPlayer("player4", player4);
+        game.addPlayer("player5", player5);
 
-        PlayerDto player2 = new PlayerDto();
-        addSubmissionHelper(player2, TEST_CASES, 0);
-        addSubmissionHelper(player2, TEST_CASES, 1);
+        addSubmissionHelper(game, player1, TEST_CASES, 0);
+        addSubmissionHelper(game, player1, TEST_CASES, 0);
+        addSubmissionHelper(game, player1, TEST_CASES, 0);
 
-        PlayerDto player3 = new PlayerDto();
-        addSubmissionHelper(player3, 0, 0);
+        addSubmissionHelper(game, player2, TEST_CASES, 0);
+        addSubmissionHelper(game, player2, TEST_CASES, 1);
 
-        PlayerDto player4 = new PlayerDto();
-        addSubmissionHelper(player4, TEST_CASES, 0);
-        addSubmissionHelper(player4, TEST_CASES, 1);
+        addSubmissionHelper(game, player3, 0, 0);
+
+        addSubmissionHelper(game, player4, TEST_CASES, 0);
+        addSubmissionHelper(game, player4, TEST_CASES, 1);
 
         // Player 2 submits wrong afterwards, but it doesn't count against his time
-        addSubmissionHelper(player2, 0, 1);
+        addSubmissionHelper(game, player2, 0, 1);
 
-        PlayerDto player5 = new PlayerDto();
+        // Player order should be: [2, 4, 1, 3, 5]
+        List<Player> players = game.getLeaderboard().getRanking();
 
-        players.add(player1);
-        players.add(player2);
-        players.add(player3);
-        players.add(player4);
-        players.add(player5);
+        assertSame(player2, players.get(0));
+        assertSame(player4, players.get(1));
+        assertSame(player1, players.get(2));
+        assertSame(player3, players.get(3));
+        assertSame(player5, players.get(4));
+    }
 
-        // Player order should be: [2, 4, 1, 3, 5]
-        GameMapper.sortLeaderboard(players);
+    @Test
+    public void toDtoReusesCachedProblems() {
+        Problem problem = new Problem();
+        problem.setName(TestFields.PROBLEM_NAME);
+        problem.setDescription(TestFields.PROBLEM_DESCRIPTION);
+
+        ProblemTestCase testCase = new ProblemTestCase();
+        testCase.setInput(TestFields.INPUT);
+        testCase.setOutput(TestFields.OUTPUT);
+        testCase.setHidden(true);
+        problem.addTestCase(testCase);
+
+        Game game = new Game();
+        game.getProblems().add(problem);
+        GameMapper.cacheProblemDtos(game);
+
+        List<ProblemDto> problems = GameMapper.toDto(game).getProblems();
+        assertSame(problems, GameMapper.toDto(game).getProblems());
+        assertEquals("", problems.get(0).getTestCases().get(0).getInput());
+        assertEquals("", problems.get(0).getTestCases().get(0).getOutput());
+
+        // The tester view keeps the test cases, but not the problem details
+        ProblemDto testerProblem = game.getTesterProblems().get(0);
+        assertNull(testerProblem.getName());
+        assertNull(testerProblem.getDescription());
+        assertEquals(TestFields.OUTPUT, testerProblem.getTestCases().get(0).getOutput());
+    }
+
+    @Test
+    public void toDtoMatchesReflectiveMapping() throws Exception {
+        Game game = MapperBenchmark.createGame(10, 5);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
-        assertEquals(player2, players.get(0));
-        assertEquals(player4, players.get(1));
-        assertEquals(player1, players.get(2));
-        assertEquals(player3, players.get(3));
-        assertEquals(player5, players.get(4));
+        assertEquals(objectMapper.writeValueAsString(MapperBenchmark.ReflectiveGameMapper.toDto(game)),
+            objectMapper.writeValueAsString(GameMapper.toDto(game)));
     }
 
     @Test
@@ -261,8 +303,8 @@ public class GameMapperTests {
         player2.getSubmissions().add(sub2);
 
         Game game = new Game();
-        game.getPlayers().put("player1", player1);
-        game.getPlayers().put("player2", player2);
+        game.addPlayer("player1", player1);
+        game.addPlayer("player2", player2);
 
         GameDto gameDto = GameMapper.toDto(game);
 
@@ -0,0 +1,242 @@
+package com.codejoust.main.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.codejoust.main.dto.game.GameDto;
+import com.codejoust.main.dto.game.GameMapper;
+import com.codejoust.main.dto.game.GameTimerMapper;
+import com.codejoust.main.dto.game.PlayerDto;
+import com.codejoust.main.dto.problem.ProblemDto;
+import com.codejoust.main.dto.problem.ProblemTestCaseDto;
+import com.codejoust.main.dto.room.RoomDto;
+import com.codejoust.main.dto.user.UserDto;
+import com.codejoust.main.game_object.Game;
+import com.codejoust.main.game_object.GameTimer;
+import com.codejoust.main.game_object.Player;
+import com.codejoust.main.game_object.PlayerCode;
+import com.codejoust.main.game_object.Submission;
+import com.codejoust.main.game_object.SubmissionResult;
+import com.codejoust.main.model.Account;
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+import com.codejoust.main.model.problem.Problem;
+import com.codejoust.main.model.problem.ProblemDifficulty;
+import com.codejoust.main.model.problem.ProblemIOType;
+import com.codejoust.main.model.problem.ProblemInput;
+import com.codejoust.main.model.problem.ProblemTag;
+import com.codejoust.main.model.problem.ProblemTestCase;
+import com.codejoust.main.model.report.CodeLanguage;
+
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares building a GameDto with the hand-written mappers against the
+ * reflective ModelMapper mapping they replaced. Not run as part of the tests;
+ * run the main method from the test classpath, adding -prof gc through
+ * JMH's command line runner to compare allocations as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "30"})
+    private int numPlayers;
+
+    @Param({"10"})
+    private int submissionsPerPlayer;
+
+    private Game game;
+
+    @Setup
+    public void setup() {
+        game = createGame(numPlayers, submissionsPerPlayer);
+    }
+
+    @Benchmark
+    public GameDto handWritten() {
+        return GameMapper.toDto(game);
+    }
+
+    @Benchmark
+    public GameDto reflective() {
+        return ReflectiveGameMapper.toDto(game);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(MapperBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    // A game midway through, with every field the mappers copy filled in.
+    public static Game createGame(int numPlayers, int submissionsPerPlayer) {
+        Account account = new Account();
+        account.setUid("account");
+
+        Room room = new Room();
+        room.setRoomId("012345");
+        room.setDifficulty(ProblemDifficulty.MEDIUM);
+        room.setNumProblems(2);
+        room.setSize(numPlayers);
+
+        for (int i = 0; i < numPlayers; i++) {
+            User user = new User();
+            user.setUserId("user" + i);
+            user.setNickname("nickname" + i);
+            user.setSessionId(i % 3 == 0 ? null : "session" + i);
+            user.setSpectator(i % 5 == 4);
+            user.setAccount(i % 2 == 0 ? account : null);
+            room.addUser(user);
+        }
+        room.setHost(room.getUsers().get(0));
+
+        for (int i = 0; i < room.getNumProblems(); i++) {
+            Problem problem = new Problem();
+            problem.setName("problem" + i);
+            problem.setDescription("Sort the given numbers.");
+            problem.setDifficulty(ProblemDifficulty.MEDIUM);
+            problem.setOwner(account);
+            problem.setOutputType(ProblemIOType.ARRAY_INTEGER);
+            problem.addProblemInput(new ProblemInput("nums", ProblemIOType.ARRAY_INTEGER));
+
+            ProblemTag tag = new ProblemTag();
+            tag.setName("sorting");
+            problem.addProblemTag(tag);
+
+            for (int j = 0; j < 5; j++) {
+                ProblemTestCase testCase = new ProblemTestCase();
+                testCase.setInput("[" + j + ", 2, 1]");
+                testCase.setOutput("[1, 2, " + j + "]");
+                testCase.setHidden(j % 2 == 1);
+                testCase.setExplanation("explanation");
+                problem.addTestCase(testCase);
+            }
+
+            room.getProblems().add(problem);
+        }
+
+        Game game = GameMapper.fromRoom(room);
+        game.getProblems().addAll(room.getProblems());
+        game.setGameTimer(new GameTimer(GameTimer.DURATION_15));
+
+        for (Player player : game.getPlayers().values()) {
+            player.setPlayerCode(new PlayerCode("print('hello')", CodeLanguage.PYTHON));
+
+            for (int i = 0; i < submissionsPerPlayer; i++) {
+                Submission submission = new Submission();
+                submission.setPlayerCode(new PlayerCode("print(" + i + ")", CodeLanguage.PYTHON));
+                submission.setProblemIndex(i % 2);
+                submission.setNumTestCases(5);
+                submission.setNumCorrect(i % 5);
+                submission.setRuntime(0.1 * i);
+                submission.setCompilationError(i % 7 == 6 ? "error" : null);
+
+                List<SubmissionResult> results = new ArrayList<>();
+                for (int j = 0; j < 5; j++) {
+                    SubmissionResult result = new SubmissionResult();
+                    result.setConsole("console");
+                    result.setUserOutput("[1, 2]");
+                    result.setInput("[2, 1]");
+                    result.setCorrectOutput("[1, 2]");
+                    result.setHidden(j % 2 == 1);
+                    result.setCorrect(j < i % 5);
+                    results.add(result);
+                }
+                submission.setResults(results);
+
+                player.getSubmissions().add(submission);
+                game.getLeaderboard().record(player, submission);
+            }
+        }
+
+        return game;
+    }
+
+    /**
+     * The reflective ModelMapper mapping used before the hand-written
+     * mappers, kept as the baseline.
+     */
+    static class ReflectiveGameMapper {
+
+        private static final ModelMapper roomMapper = new ModelMapper();
+        private static final ModelMapper problemMapper = new ModelMapper();
+        private static final ModelMapper playerMapper = new ModelMapper();
+
+        static {
+            playerMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.LOOSE);
+        }
+
+        static GameDto toDto(Game game) {
+            GameDto gameDto = new GameDto();
+            gameDto.setRoom(toRoomDto(game.getRoom()));
+            gameDto.setGameTimer(GameTimerMapper.toDto(game.getGameTimer()));
+            gameDto.setPlayAgain(game.getPlayAgain());
+            gameDto.setGameEnded(game.getGameEnded());
+
+            for (Player player : game.getLeaderboard().getRanking()) {
+                gameDto.getPlayers().add(playerMapper.map(player, PlayerDto.class));
+            }
+
+            List<ProblemDto> problems = new ArrayList<>();
+            for (Problem problem : game.getProblems()) {
+                ProblemDto problemDto = problemMapper.map(problem, ProblemDto.class);
+
+                for (ProblemTestCaseDto testcase : problemDto.getTestCases()) {
+                    if (testcase.isHidden()) {
+                        testcase.setInput("");
+                    }
+
+                    testcase.setOutput("");
+                }
+
+                problems.add(problemDto);
+            }
+
+            gameDto.setProblems(problems);
+            gameDto.setAllSolved(game.getAllSolved());
+            return gameDto;
+        }
+
+        private static RoomDto toRoomDto(Room room) {
+            RoomDto roomDto = roomMapper.map(room, RoomDto.class);
+
+            List<UserDto> activeUsers = new ArrayList<>();
+            List<UserDto> inactiveUsers = new ArrayList<>();
+            List<UserDto> spectators = new ArrayList<>();
+            for (UserDto userDto : roomDto.getUsers()) {
+                if (userDto.getSessionId() != null) {
+                    activeUsers.add(userDto);
+                } else {
+                    inactiveUsers.add(userDto);
+                }
+
+                if (userDto.getSpectator()) {
+                    spectators.add(userDto);
+                }
+            }
+            roomDto.setActiveUsers(activeUsers);
+            roomDto.setInactiveUsers(inactiveUsers);
+            roomDto.setSpectators(spectators);
+
+            return roomDto;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.codejoust.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.codejoust.main.config.JournalProperties;
+import com.codejoust.main.dto.game.GameMapper;
+import com.codejoust.main.dto.game.GameRecordDto;
+import com.codejoust.main.game_object.Game;
+import com.codejoust.main.game_object.GameTimer;
+import com.codejoust.main.game_object.PlayerCode;
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+import com.codejoust.main.model.problem.Problem;
+import com.codejoust.main.util.TestFields;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GameJournalTests {
+
+    @TempDir
+    Path directory;
+
+    private GameRegistry registry;
+    private GameJournal journal;
+
+    @BeforeEach
+    public void setup() {
+        JournalProperties properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setFlushMillis(60000);
+        properties.setCompactAfter(3);
+
+        registry = new GameRegistry();
+        journal = new GameJournal(properties, registry, new ObjectMapper());
+    }
+
+    @AfterEach
+    public void teardown() {
+        journal.shutdown();
+    }
+
+    private Game createGame(String roomId) {
+        Room room = new Room();
+        room.setRoomId(roomId);
+        room.setNumProblems(1);
+        User user = new User();
+        user.setUserId(TestFields.USER_ID);
+        user.setNickname(TestFields.NICKNAME);
+        room.addUser(user);
+
+        Game game = GameMapper.fromRoom(room);
+        Problem problem = new Problem();
+        problem.setProblemId(TestFields.PROBLEM_ID);
+        game.getProblems().add(problem);
+        game.setGameTimer(new GameTimer(TestFields.DURATION));
+        registry.put(roomId, game);
+        return game;
+    }
+
+    private long countLines() throws Exception {
+        try (Stream<String> lines = Files.lines(directory.resolve(GameJournal.FILE_NAME))) {
+            return lines.count();
+        }
+    }
+
+    @Test
+    public void readLatestReturnsLatestStateOfEachGame() throws Exception {
+        Game game = createGame(TestFields.ROOM_ID);
+        journal.record(game);
+        journal.flush();
+
+        game.getPlayers().get(TestFields.USER_ID).setPlayerCode(new PlayerCode(TestFields.PYTHON_CODE, TestFields.PYTHON_LANGUAGE));
+        journal.record(game);
+        journal.flush();
+
+        List<GameRecordDto> records = journal.readLatest();
+        assertEquals(1, records.size());
+
+        GameRecordDto record = records.get(0);
+        assertEquals(TestFields.ROOM_ID, record.getRoomId());
+        assertEquals(List.of(TestFields.PROBLEM_ID), record.getProblemIds());
+        assertEquals(TestFields.PYTHON_CODE, record.getPlayers().get(0).getCode());
+        assertEquals(game.getGameTimer().getEndTime(), record.getGameTimer().getEndTime());
+    }
+
+    @Test
+    public void codeChangesAreWrittenWithoutTheGame() throws Exception {
+        Game game = createGame(TestFields.ROOM_ID);
+        journal.record(game);
+        journal.flush();
+
+        PlayerCode playerCode = new PlayerCode(TestFields.PYTHON_CODE, TestFields.PYTHON_LANGUAGE);
+        for (int i = 0; i < 10; i++) {
+            journal.recordCode(TestFields.ROOM_ID, TestFields.USER_ID, playerCode);
+        }
+        journal.flush();
+
+        // One entry holds only the latest code, and applies to the game's entry.
+        assertEquals(2, countLines());
+        String codeLine = Files.readAllLines(directory.resolve(GameJournal.FILE_NAME)).get(1);
+        assertTrue(codeLine.contains("\"codeOnly\":true"));
+        assertFalse(codeLine.contains("problemIds\":[\""));
+
+        List<GameRecordDto> records = journal.readLatest();
+        assertEquals(1, records.size());
+        assertEquals(List.of(TestFields.PROBLEM_ID), records.get(0).getProblemIds());
+        assertEquals(TestFields.PYTHON_CODE, records.get(0).getPlayers().get(0).getCode());
+    }
+
+    @Test
+    public void changesBeforeFlushAreWrittenOnce() throws Exception {
+        Game game = createGame(TestFields.ROOM_ID);
+        for (int i = 0; i < 10; i++) {
+            journal.record(game);
+        }
+        journal.flush();
+
+        assertEquals(1, countLines());
+    }
+
+    @Test
+    public void removedGamesAreNotRead() throws Exception {
+        journal.record(createGame(TestFields.ROOM_ID));
+        journal.record(createGame("654321"));
+        journal.flush();
+
+        registry.remove(TestFields.ROOM_ID);
+        journal.remove(TestFields.ROOM_ID);
+        journal.flush();
+
+        List<GameRecordDto> records = journal.readLatest();
+        assertEquals(1, records.size());
+        assertEquals("654321", records.get(0).getRoomId());
+    }
+
+    @Test
+    public void lineCutShortByCrashIsSkipped() throws Exception {
+        journal.record(createGame(TestFields.ROOM_ID));
+        journal.flush();
+
+        Files.write(directory.resolve(GameJournal.FILE_NAME), "{\"roomId\":\"6543".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        List<GameRecordDto> records = journal.readLatest();
+        assertEquals(1, records.size());
+        assertEquals(TestFields.ROOM_ID, records.get(0).getRoomId());
+    }
+
+    @Test
+    public void journalIsRewrittenWithOneEntryPerGame() throws Exception {
+        Game game = createGame(TestFields.ROOM_ID);
+        journal.record(game);
+        journal.flush();
+        journal.record(game);
+        journal.flush();
+        assertEquals(2, countLines());
+
+        // The third entry reaches the limit, and the journal is rewritten.
+        journal.record(game);
+        journal.flush();
+        assertEquals(1, countLines());
+
+        journal.record(game);
+        journal.flush();
+        assertEquals(2, countLines());
+        assertTrue(Files.notExists(directory.resolve(GameJournal.FILE_NAME + ".tmp")));
+    }
+}
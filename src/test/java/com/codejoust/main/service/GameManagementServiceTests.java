@@ -11,6 +11,7 @@ import org.mockito.Spy;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -21,16 +22,25 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.after;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 
+import com.codejoust.main.config.RateLimitProperties;
+import com.codejoust.main.dao.PresenceRegistry;
 import com.codejoust.main.dao.RoomRepository;
 import com.codejoust.main.dto.game.GameDto;
+import com.codejoust.main.dto.game.GameTimerRequest;
+import com.codejoust.main.dto.game.GameSnapshotDto;
 import com.codejoust.main.dto.game.GameMapper;
 import com.codejoust.main.dto.game.GameNotificationDto;
+import com.codejoust.main.dto.game.GameRecordDto;
+import com.codejoust.main.dto.game.GameRecordMapper;
 import com.codejoust.main.dto.game.PlayAgainRequest;
 import com.codejoust.main.dto.game.StartGameRequest;
 import com.codejoust.main.dto.game.SubmissionDto;
@@ -42,6 +52,7 @@ import com.codejoust.main.dto.user.UserMapper;
 import com.codejoust.main.exception.GameError;
 import com.codejoust.main.exception.ProblemError;
 import com.codejoust.main.exception.RoomError;
+import com.codejoust.main.exception.TimerError;
 import com.codejoust.main.exception.api.ApiException;
 import com.codejoust.main.game_object.Game;
 import com.codejoust.main.game_object.GameTimer;
@@ -74,6 +85,27 @@ public class GameManagementServiceTests {
     @Mock
     private LiveGameService liveGameService;
 
+    @Spy
+    private GameRegistry gameRegistry = new GameRegistry();
+
+    @Spy
+    private SubmissionRateLimiter rateLimiter = new SubmissionRateLimiter(new RateLimitProperties());
+
+    @Spy
+    private GameScheduler scheduler = new GameScheduler(1, 10, 64);
+
+    @Mock
+    private GameUpdateCoalescer updateCoalescer;
+
+    @Mock
+    private GameJournal journal;
+
+    @Mock
+    private GameReportService reportService;
+
+    @Mock
+    private PresenceRegistry presence;
+
     @Spy
     @InjectMocks
     private GameManagementService gameService;
@@ -284,6 +316,118 @@ public class GameManagementServiceTests {
         assertEquals(GameError.NOT_FOUND, exception.getError());
     }
 
+    @Test
+    public void getGameSnapshotSuccess() {
+        Room room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+        User user = new User();
+        user.setNickname(TestFields.NICKNAME);
+        user.setUserId(TestFields.USER_ID);
+        room.addUser(user);
+
+        Mockito.doReturn(Collections.singletonList(new Problem())).when(problemService).getProblemsFromDifficulty(Mockito.any(), Mockito.any());
+        gameService.createAddGameFromRoom(room);
+        Mockito.doReturn(3L).when(socketService).getGameVersion(TestFields.ROOM_ID);
+
+        GameSnapshotDto snapshotDto = gameService.getGameSnapshot(TestFields.ROOM_ID);
+
+        assertEquals(3L, snapshotDto.getVersion());
+        assertEquals(gameService.getGameDtoFromRoomId(TestFields.ROOM_ID), snapshotDto.getGame());
+    }
+
+    // A record of a game in the given room, with one player who has submitted, ending after the given seconds.
+    private GameRecordDto createGameRecordHelper(Room room, Problem problem, long secondsLeft) {
+        Game game = GameMapper.fromRoom(room);
+        game.getProblems().add(problem);
+        addSubmissionHelper(game.getPlayers().get(TestFields.USER_ID), TestFields.NUM_PROBLEMS);
+
+        GameTimer gameTimer = new GameTimer(TestFields.DURATION);
+        gameTimer.setEndTime(Instant.now().plusSeconds(secondsLeft));
+        game.setGameTimer(gameTimer);
+        return GameRecordMapper.toRecord(game);
+    }
+
+    @Test
+    public void recoverGameReschedulesTimerFromEndTime() {
+        Room room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+        room.setActive(true);
+        User user = new User();
+        user.setNickname(TestFields.NICKNAME);
+        user.setUserId(TestFields.USER_ID);
+        room.addUser(user);
+
+        Problem problem = new Problem();
+        problem.setProblemId(TestFields.PROBLEM_ID);
+        GameRecordDto record = createGameRecordHelper(room, problem, 120);
+
+        Mockito.doReturn(room).when(repository).findRoomByRoomId(TestFields.ROOM_ID);
+        Mockito.doReturn(problem).when(problemService).getProblemEntity(TestFields.PROBLEM_ID);
+
+        assertTrue(gameService.recoverGame(record));
+
+        // The game is restored with its player's submissions, and ends at the saved time.
+        Game game = gameService.getGameFromRoomId(TestFields.ROOM_ID);
+        assertEquals(Collections.singletonList(problem), game.getProblems());
+        assertEquals(1, game.getPlayers().get(TestFields.USER_ID).getSubmissions().size());
+        assertEquals(record.getGameTimer().getEndTime(), game.getGameTimer().getEndTime());
+        assertFalse(game.getGameTimer().isTimeUp());
+        assertNotNull(game.getGameTimer().getEndGameTask());
+        verify(notificationService).scheduleTimeLeftNotifications(eq(game), eq(120L));
+
+        // A game already restored is not replaced.
+        assertFalse(gameService.recoverGame(record));
+    }
+
+    @Test
+    public void recoverGameEndsGameWhoseTimeRanOut() {
+        Room room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+        room.setActive(true);
+        User user = new User();
+        user.setUserId(TestFields.USER_ID);
+        room.addUser(user);
+
+        Problem problem = new Problem();
+        problem.setProblemId(TestFields.PROBLEM_ID);
+        GameRecordDto record = createGameRecordHelper(room, problem, -5);
+
+        Mockito.doReturn(room).when(repository).findRoomByRoomId(TestFields.ROOM_ID);
+        Mockito.doReturn(problem).when(problemService).getProblemEntity(TestFields.PROBLEM_ID);
+
+        assertTrue(gameService.recoverGame(record));
+
+        Game game = gameService.getGameFromRoomId(TestFields.ROOM_ID);
+        assertTrue(game.getGameTimer().isTimeUp());
+        assertNull(game.getGameTimer().getEndGameTask());
+    }
+
+    @Test
+    public void recoverGameSkipsRoomsNoLongerInGame() {
+        Room room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+        room.setActive(false);
+        User user = new User();
+        user.setUserId(TestFields.USER_ID);
+        room.addUser(user);
+
+        Problem problem = new Problem();
+        problem.setProblemId(TestFields.PROBLEM_ID);
+        GameRecordDto record = createGameRecordHelper(room, problem, 120);
+
+        Mockito.doReturn(room).when(repository).findRoomByRoomId(TestFields.ROOM_ID);
+        assertFalse(gameService.recoverGame(record));
+
+        // A game whose problem was deleted sends its room back to the lobby.
+        room.setActive(true);
+        Mockito.doReturn(null).when(problemService).getProblemEntity(TestFields.PROBLEM_ID);
+        assertFalse(gameService.recoverGame(record));
+        assertFalse(room.getActive());
+        verify(repository).save(room);
+
+        assertNull(gameRegistry.get(TestFields.ROOM_ID));
+    }
+
     @Test
     public void runCodeSuccess() {
         Room room = new Room();
@@ -358,18 +502,18 @@ public class GameManagementServiceTests {
         SubmissionDto submissionDto = new SubmissionDto();
         submissionDto.setNumCorrect(TestFields.NUM_PROBLEMS);
         submissionDto.setNumTestCases(TestFields.NUM_PROBLEMS);
-        Mockito.doAnswer(new Answer<SubmissionDto>() {
-            public SubmissionDto answer(InvocationOnMock invocation) {
+        Mockito.doAnswer(new Answer<CompletableFuture<SubmissionDto>>() {
+            public CompletableFuture<SubmissionDto> answer(InvocationOnMock invocation) {
                 addSubmissionHelper(game.getPlayers().get(TestFields.USER_ID), 10);
                 game.setAllSolved(true);
-                return submissionDto;
+                return CompletableFuture.completedFuture(submissionDto);
             }})
-          .when(submitService).submitSolution(game, request);
+          .when(submitService).submitSolution(eq(game), eq(request), Mockito.any());
 
-        gameService.submitSolution(TestFields.ROOM_ID, request);
+        gameService.submitSolution(TestFields.ROOM_ID, request).join();
 
         // Test that both submit service methods were called.
-        verify(submitService).submitSolution(eq(game), eq(request));
+        verify(submitService).submitSolution(eq(game), eq(request), Mockito.any());
 
         // Test that game has been updated in socket message.
         verify(socketService).sendSocketUpdate(GameMapper.toDto(game));
@@ -413,18 +557,19 @@ public class GameManagementServiceTests {
         SubmissionDto submissionDto = new SubmissionDto();
         submissionDto.setNumCorrect(TestFields.NUM_PROBLEMS);
         submissionDto.setNumTestCases(TestFields.NUM_PROBLEMS);
-        Mockito.doAnswer(new Answer<SubmissionDto>() {
-            public SubmissionDto answer(InvocationOnMock invocation) {
+        Mockito.doAnswer(new Answer<CompletableFuture<SubmissionDto>>() {
+            public CompletableFuture<SubmissionDto> answer(InvocationOnMock invocation) {
                 addSubmissionHelper(game.getPlayers().get(TestFields.USER_ID_3), 10);
                 game.setAllSolved(true);
-                return submissionDto;
+                return CompletableFuture.completedFuture(submissionDto);
             }})
-          .when(submitService).submitSolution(game, request);
+          .when(submitService).submitSolution(eq(game), eq(request), Mockito.any());
 
-        gameService.submitSolution(TestFields.ROOM_ID, request);
+        gameService.submitSolution(TestFields.ROOM_ID, request).join();
 
-        verify(submitService).submitSolution(eq(game), eq(request));
+        verify(submitService).submitSolution(eq(game), eq(request), Mockito.any());
         verify(gameService).handleEndGame(eq(game));
+        verify(reportService).reportGameEnd(eq(game));
 
         // Confirm that socket sent updated GameDto object.
         verify(socketService).sendSocketUpdate(eq(GameMapper.toDto(game)));
@@ -459,19 +604,21 @@ public class GameManagementServiceTests {
         SubmissionDto submissionDto = new SubmissionDto();
         submissionDto.setNumCorrect(TestFields.NUM_PROBLEMS);
         submissionDto.setNumTestCases(TestFields.NUM_PROBLEMS);
-        Mockito.doAnswer(new Answer<SubmissionDto>() {
-            public SubmissionDto answer(InvocationOnMock invocation) {
+        Mockito.doAnswer(new Answer<CompletableFuture<SubmissionDto>>() {
+            public CompletableFuture<SubmissionDto> answer(InvocationOnMock invocation) {
                 addSubmissionHelper(game.getPlayers().get(TestFields.USER_ID), 10);
-                return submissionDto;
+                return CompletableFuture.completedFuture(submissionDto);
             }})
-          .when(submitService).submitSolution(game, request);
+          .when(submitService).submitSolution(eq(game), eq(request), Mockito.any());
 
-        gameService.submitSolution(TestFields.ROOM_ID, request);
+        gameService.submitSolution(TestFields.ROOM_ID, request).join();
 
-        verify(submitService).submitSolution(eq(game), eq(request));
+        verify(submitService).submitSolution(eq(game), eq(request), Mockito.any());
 
-        // Confirm the same update is sent even when all players solved problem.
-        verify(socketService).sendSocketUpdate(eq(GameMapper.toDto(game)));
+        // Confirm the update is batched with others while the game goes on.
+        verify(updateCoalescer).requestUpdate(eq(game));
+        verify(socketService, never()).sendSocketUpdate(Mockito.any(GameDto.class));
+        verify(reportService, never()).reportGameEnd(Mockito.any());
         assertFalse(game.getAllSolved());
     }
 
@@ -495,6 +642,30 @@ public class GameManagementServiceTests {
         assertEquals(GameError.INVALID_PERMISSIONS, exception.getError());
     }
 
+    @Test
+    public void submitSolutionRateLimited() {
+        Room room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+        User user = new User();
+        user.setNickname(TestFields.NICKNAME);
+        user.setUserId(TestFields.USER_ID);
+        room.addUser(user);
+
+        Mockito.doReturn(Collections.singletonList(new Problem())).when(problemService).getProblemsFromDifficulty(Mockito.any(), Mockito.any());
+        gameService.createAddGameFromRoom(room);
+
+        SubmissionRequest request = new SubmissionRequest();
+        request.setLanguage(TestFields.PYTHON_LANGUAGE);
+        request.setCode(TestFields.PYTHON_CODE);
+        request.setInitiator(UserMapper.toDto(user));
+
+        Mockito.doThrow(new ApiException(GameError.TOO_MANY_REQUESTS)).when(rateLimiter).acquire(TestFields.ROOM_ID, TestFields.USER_ID);
+
+        ApiException exception = assertThrows(ApiException.class, () -> gameService.submitSolution(TestFields.ROOM_ID, request));
+        assertEquals(GameError.TOO_MANY_REQUESTS, exception.getError());
+        verify(submitService, never()).submitSolution(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
     @Test
     public void submitSolutionEmptyField() {
         Room room = new Room();
@@ -911,8 +1082,10 @@ public class GameManagementServiceTests {
 
         Player player = game.getPlayers().get(TestFields.USER_ID);
 
-        // Confirm that the live game service method is called correctly.
+        // Confirm that the live game service method is called correctly, and only the code is journaled.
         verify(liveGameService).updateCode(eq(player), eq(TestFields.PLAYER_CODE));
+        verify(journal).recordCode(TestFields.ROOM_ID, TestFields.USER_ID, TestFields.PLAYER_CODE);
+        verify(journal, times(1)).record(game);
     }
 
     @Test
@@ -1000,7 +1173,7 @@ public class GameManagementServiceTests {
         Game game = gameService.getGameFromRoomId(room.getRoomId());
 
         // Manually schedule notification tasks due to service being mocked
-        new NotificationService(socketService).scheduleTimeLeftNotifications(game, 12L);
+        new NotificationService(socketService, scheduler).scheduleTimeLeftNotifications(game, 12L);
 
         gameService.handleEndGame(game);
 
@@ -1009,6 +1182,134 @@ public class GameManagementServiceTests {
         verify(socketService, never()).sendSocketUpdate(Mockito.any(GameDto.class));
     }
 
+    @Test
+    public void endedGameIsRemovedAfterRetention() {
+        ReflectionTestUtils.setField(gameService, "retainEndedMillis", 100L);
+        GameTimerRequest request = createTimedGame();
+        Game game = gameService.getGameFromRoomId(TestFields.ROOM_ID);
+        Room room = game.getRoom();
+        room.setActive(true);
+        Mockito.doReturn(room).when(repository).findRoomByRoomId(TestFields.ROOM_ID);
+
+        EndGameRequest endRequest = new EndGameRequest();
+        endRequest.setInitiator(request.getInitiator());
+        gameService.manuallyEndGame(TestFields.ROOM_ID, endRequest);
+
+        // The game is kept for its results, then removed from the registry and the journal.
+        assertNotNull(gameService.getGameFromRoomId(TestFields.ROOM_ID));
+        verify(journal, timeout(2000)).remove(TestFields.ROOM_ID);
+        ApiException exception = assertThrows(ApiException.class, () -> gameService.getGameFromRoomId(TestFields.ROOM_ID));
+        assertEquals(GameError.NOT_FOUND, exception.getError());
+        assertFalse(room.getActive());
+        verify(repository).save(room);
+    }
+
+    // Create a game with a twelve second timer, hosted by the returned request's initiator.
+    private GameTimerRequest createTimedGame() {
+        Room room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+        room.setDuration(12L);
+        User user = new User();
+        user.setNickname(TestFields.NICKNAME);
+        user.setUserId(TestFields.USER_ID);
+        room.addUser(user);
+        room.setHost(user);
+
+        Mockito.doReturn(Collections.singletonList(new Problem())).when(problemService).getProblemsFromDifficulty(Mockito.any(), Mockito.any());
+        gameService.createAddGameFromRoom(room);
+
+        GameTimerRequest request = new GameTimerRequest();
+        request.setInitiator(UserMapper.toDto(user));
+        return request;
+    }
+
+    @Test
+    public void pauseAndResumeGameTimer() {
+        GameTimerRequest request = createTimedGame();
+        Game game = gameService.getGameFromRoomId(TestFields.ROOM_ID);
+
+        // Pausing cancels the timer's tasks
+        gameService.pauseGameTimer(TestFields.ROOM_ID, request);
+        assertNotNull(game.getGameTimer().getPausedAt());
+        assertNull(game.getGameTimer().getEndGameTask());
+
+        ApiException exception = assertThrows(ApiException.class, () -> gameService.pauseGameTimer(TestFields.ROOM_ID, request));
+        assertEquals(TimerError.ALREADY_PAUSED, exception.getError());
+
+        // Resuming schedules them again for the time that was left
+        gameService.resumeGameTimer(TestFields.ROOM_ID, request);
+        assertNull(game.getGameTimer().getPausedAt());
+        assertNotNull(game.getGameTimer().getEndGameTask());
+        verify(notificationService, times(2)).scheduleTimeLeftNotifications(eq(game), Mockito.anyLong());
+        verify(socketService, times(2)).sendSocketUpdate(Mockito.any(GameDto.class));
+
+        exception = assertThrows(ApiException.class, () -> gameService.resumeGameTimer(TestFields.ROOM_ID, request));
+        assertEquals(TimerError.NOT_PAUSED, exception.getError());
+    }
+
+    @Test
+    public void changeGameTimerExtendsAndShortensGame() {
+        GameTimerRequest request = createTimedGame();
+        Game game = gameService.getGameFromRoomId(TestFields.ROOM_ID);
+
+        request.setSeconds(60L);
+        gameService.changeGameTimer(TestFields.ROOM_ID, request);
+        assertEquals(72L, game.getGameTimer().getDuration());
+        assertTrue(game.getGameTimer().getEndTime().isAfter(Instant.now().plusSeconds(60)));
+
+        // Shortening the timer past zero ends the game straight away
+        request.setSeconds(-100L);
+        gameService.changeGameTimer(TestFields.ROOM_ID, request);
+        verify(socketService, timeout(1000).times(3)).sendSocketUpdate(Mockito.any(GameDto.class));
+        assertTrue(game.getGameTimer().isTimeUp());
+
+        request.setSeconds(60L);
+        ApiException exception = assertThrows(ApiException.class, () -> gameService.changeGameTimer(TestFields.ROOM_ID, request));
+        assertEquals(TimerError.GAME_OVER, exception.getError());
+    }
+
+    @Test
+    public void changeGameTimerRequiresSeconds() {
+        GameTimerRequest request = createTimedGame();
+
+        ApiException exception = assertThrows(ApiException.class, () -> gameService.changeGameTimer(TestFields.ROOM_ID, request));
+        assertEquals(GameError.EMPTY_FIELD, exception.getError());
+    }
+
+    @Test
+    public void onlyHostChangesGameTimer() {
+        GameTimerRequest request = createTimedGame();
+        request.setInitiator(TestFields.userDto2());
+        request.setSeconds(60L);
+
+        ApiException exception = assertThrows(ApiException.class, () -> gameService.pauseGameTimer(TestFields.ROOM_ID, request));
+        assertEquals(GameError.INVALID_PERMISSIONS, exception.getError());
+        exception = assertThrows(ApiException.class, () -> gameService.resumeGameTimer(TestFields.ROOM_ID, request));
+        assertEquals(GameError.INVALID_PERMISSIONS, exception.getError());
+        exception = assertThrows(ApiException.class, () -> gameService.changeGameTimer(TestFields.ROOM_ID, request));
+        assertEquals(GameError.INVALID_PERMISSIONS, exception.getError());
+
+        assertNull(gameService.getGameFromRoomId(TestFields.ROOM_ID).getGameTimer().getPausedAt());
+    }
+
+    @Test
+    public void pausedGameRejectsCode() {
+        GameTimerRequest timerRequest = createTimedGame();
+        gameService.pauseGameTimer(TestFields.ROOM_ID, timerRequest);
+
+        SubmissionRequest request = new SubmissionRequest();
+        request.setInitiator(timerRequest.getInitiator());
+        request.setCode(TestFields.PYTHON_CODE);
+        request.setLanguage(TestFields.PYTHON_LANGUAGE);
+        request.setInput(TestFields.INPUT);
+
+        ApiException exception = assertThrows(ApiException.class, () -> gameService.submitSolution(TestFields.ROOM_ID, request));
+        assertEquals(GameError.GAME_PAUSED, exception.getError());
+        exception = assertThrows(ApiException.class, () -> gameService.runCode(TestFields.ROOM_ID, request));
+        assertEquals(GameError.GAME_PAUSED, exception.getError());
+        verify(submitService, never()).submitSolution(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
     @Test
     public void conditionallyUpdateSocketInfoSuccess() {
         Room room = new Room();
@@ -0,0 +1,252 @@
+package com.codejoust.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.codejoust.main.config.JournalProperties;
+import com.codejoust.main.config.RateLimitProperties;
+import com.codejoust.main.dao.PresenceRegistry;
+import com.codejoust.main.dao.RoomRepository;
+import com.codejoust.main.dto.game.EndGameRequest;
+import com.codejoust.main.dto.game.SubmissionRequest;
+import com.codejoust.main.dto.user.UserMapper;
+import com.codejoust.main.game_object.Game;
+import com.codejoust.main.game_object.Player;
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+import com.codejoust.main.model.problem.Problem;
+import com.codejoust.main.model.problem.ProblemTestCase;
+import com.codejoust.main.util.TestFields;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class GameRegistryTests {
+
+    private static final int NUM_ROOMS = 2000;
+    private static final int NUM_PLAYERS = 3;
+    private static final int SUBMISSIONS_PER_PLAYER = 3;
+    private static final int NUM_THREADS = 32;
+
+    private final GameRegistry registry = new GameRegistry();
+
+    // Helper method to create a room with a host and the given number of players
+    private Room createRoom(String roomId, int numPlayers) {
+        Room room = new Room();
+        room.setRoomId(roomId);
+
+        for (int i = 0; i < numPlayers; i++) {
+            User user = new User();
+            user.setNickname(TestFields.NICKNAME + i);
+            user.setUserId(roomId + "-" + i);
+            room.addUser(user);
+        }
+        room.setHost(room.getUsers().get(0));
+
+        Problem problem = new Problem();
+        ProblemTestCase testCase = new ProblemTestCase();
+        testCase.setInput(TestFields.INPUT);
+        testCase.setOutput(TestFields.OUTPUT);
+        problem.addTestCase(testCase);
+        room.setProblems(Collections.singletonList(problem));
+
+        return room;
+    }
+
+    @Test
+    public void putGetAndRemoveGame() {
+        assertNull(registry.get(TestFields.ROOM_ID));
+        assertNull(registry.get(null));
+
+        Game game = new Game();
+        assertNull(registry.put(TestFields.ROOM_ID, game));
+        assertSame(game, registry.get(TestFields.ROOM_ID));
+        assertEquals(1, registry.size());
+
+        assertSame(game, registry.remove(TestFields.ROOM_ID));
+        assertNull(registry.get(TestFields.ROOM_ID));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void putReplacesPreviousGame() {
+        Game game = new Game();
+        Game newGame = new Game();
+
+        registry.put(TestFields.ROOM_ID, game);
+        assertSame(game, registry.put(TestFields.ROOM_ID, newGame));
+        assertSame(newGame, registry.get(TestFields.ROOM_ID));
+
+        // A stale reference to the old game does not remove the new one.
+        assertFalse(registry.remove(TestFields.ROOM_ID, game));
+        assertSame(newGame, registry.get(TestFields.ROOM_ID));
+        assertTrue(registry.remove(TestFields.ROOM_ID, newGame));
+        assertNull(registry.get(TestFields.ROOM_ID));
+    }
+
+    @Test
+    public void lockOnOneRoomDoesNotBlockOtherStripes() throws Exception {
+        // Find a room ID that maps to a different stripe than ROOM_ID.
+        String otherRoomId = TestFields.ROOM_ID;
+        for (int i = 0; registry.lockFor(otherRoomId) == registry.lockFor(TestFields.ROOM_ID); i++) {
+            otherRoomId = String.valueOf(i);
+        }
+        String finalOtherRoomId = otherRoomId;
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> registry.withLock(TestFields.ROOM_ID, () -> {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            // While one room is locked, another stripe can still be updated.
+            registry.put(finalOtherRoomId, new Game());
+            assertTrue(registry.lockFor(TestFields.ROOM_ID).isLocked());
+            assertFalse(registry.lockFor(finalOtherRoomId).isLocked());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void concurrentlyStartSubmitAndEndThousandsOfRooms() throws Exception {
+        SocketService socketService = Mockito.mock(SocketService.class, withSettings().stubOnly());
+        NotificationService notificationService = Mockito.mock(NotificationService.class, withSettings().stubOnly());
+        GameReportService reportService = Mockito.mock(GameReportService.class, withSettings().stubOnly());
+        GameManagementService gameService = new GameManagementService(
+                Mockito.mock(RoomRepository.class, withSettings().stubOnly()), socketService,
+                new LiveGameService(), notificationService, new SubmitService(registry,
+                    Mockito.mock(TesterClient.class), Mockito.mock(TesterResultCache.class), reportService),
+                Mockito.mock(ProblemService.class, withSettings().stubOnly()), registry,
+                new SubmissionRateLimiter(new RateLimitProperties()), new GameScheduler(2, 10, 64),
+                new GameUpdateCoalescer(socketService, registry, 100),
+                new GameJournal(new JournalProperties(), registry, new ObjectMapper()), reportService,
+                Mockito.mock(PresenceRegistry.class));
+
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < NUM_ROOMS; i++) {
+            rooms.add(createRoom(String.format("%06d", i), NUM_PLAYERS));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        /*
+         * Each room is started, then receives submissions from every player
+         * in separate tasks, then is ended and removed. Tasks for all rooms
+         * are interleaved across the pool.
+         */
+        for (Room room : rooms) {
+            tasks.add(() -> {
+                start.await();
+                gameService.createAddGameFromRoom(room);
+
+                List<Callable<Void>> submissions = new ArrayList<>();
+                for (User user : room.getUsers()) {
+                    for (int j = 0; j < SUBMISSIONS_PER_PLAYER; j++) {
+                        submissions.add(() -> {
+                            SubmissionRequest request = new SubmissionRequest();
+                            request.setInitiator(UserMapper.toDto(user));
+                            request.setCode(TestFields.PYTHON_CODE);
+                            request.setLanguage(TestFields.PYTHON_LANGUAGE);
+                            gameService.submitSolution(room.getRoomId(), request).join();
+                            return null;
+                        });
+                    }
+                }
+
+                for (Future<Void> future : executor.invokeAll(submissions)) {
+                    future.get();
+                }
+
+                Game game = gameService.getGameFromRoomId(room.getRoomId());
+                for (Player player : game.getPlayers().values()) {
+                    if (player.getSubmissions().size() != SUBMISSIONS_PER_PLAYER) {
+                        failed.set(true);
+                    }
+                }
+
+                EndGameRequest endRequest = new EndGameRequest();
+                endRequest.setInitiator(UserMapper.toDto(room.getHost()));
+                gameService.manuallyEndGame(room.getRoomId(), endRequest);
+                gameService.removeGame(room.getRoomId());
+                return null;
+            });
+        }
+
+        // Outer tasks run on their own pool so nested submissions cannot starve.
+        ExecutorService roomExecutor = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(roomExecutor.submit(task));
+            }
+            start.countDown();
+
+            for (Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            roomExecutor.shutdownNow();
+            executor.shutdownNow();
+        }
+
+        assertFalse(failed.get());
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void withLockSerializesUpdatesToOneRoom() throws Exception {
+        Room room = createRoom(TestFields.ROOM_ID, NUM_PLAYERS);
+
+        // Unsynchronized updates made under the room's stripe are never lost.
+        int updatesPerThread = 500;
+        List<Integer> counter = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < NUM_THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < updatesPerThread; j++) {
+                        registry.withLock(room.getRoomId(), () -> counter.add(1));
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(NUM_THREADS * updatesPerThread, counter.size());
+    }
+}
@@ -0,0 +1,230 @@
+package com.codejoust.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import com.codejoust.main.dao.GameReportRepository;
+import com.codejoust.main.dao.SubmissionGroupReportRepository;
+import com.codejoust.main.dto.game.GameMapper;
+import com.codejoust.main.game_object.Game;
+import com.codejoust.main.game_object.GameTimer;
+import com.codejoust.main.game_object.Player;
+import com.codejoust.main.game_object.PlayerCode;
+import com.codejoust.main.game_object.Submission;
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+import com.codejoust.main.model.problem.Problem;
+import com.codejoust.main.model.problem.ProblemContainer;
+import com.codejoust.main.model.problem.ProblemTestCase;
+import com.codejoust.main.model.report.GameEndType;
+import com.codejoust.main.model.report.GameReport;
+import com.codejoust.main.model.report.SubmissionGroupReport;
+import com.codejoust.main.util.TestFields;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.annotation.DirtiesContext;
+
+// The writer is left to run only when flushed, so the tests can check what it saved; failed batches are retried at once.
+@SpringBootTest(properties = {"spring.datasource.type=com.zaxxer.hikari.HikariDataSource", "report.flushMillis=600000",
+    "report.retryMillis=0", "report.maxAttempts=2"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class GameReportServiceTests {
+
+    @Autowired
+    private GameReportService reportService;
+
+    @SpyBean
+    private GameReportRepository gameReportRepository;
+
+    @Autowired
+    private SubmissionGroupReportRepository groupReportRepository;
+
+    private Game createGame() {
+        Room room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+        room.setNumProblems(1);
+
+        User user1 = new User();
+        user1.setUserId(TestFields.USER_ID);
+        user1.setNickname(TestFields.NICKNAME);
+        room.addUser(user1);
+
+        User user2 = new User();
+        user2.setUserId(TestFields.USER_ID_2);
+        user2.setNickname(TestFields.NICKNAME_2);
+        room.addUser(user2);
+
+        Game game = GameMapper.fromRoom(room);
+        Problem problem = new Problem();
+        problem.setProblemId(TestFields.PROBLEM_ID);
+        problem.addTestCase(new ProblemTestCase());
+        problem.addTestCase(new ProblemTestCase());
+        game.getProblems().add(problem);
+        game.setGameTimer(new GameTimer(TestFields.DURATION));
+        return game;
+    }
+
+    private Submission addSubmission(Game game, String userId, int numCorrect) {
+        Submission submission = new Submission();
+        submission.setPlayerCode(new PlayerCode(TestFields.PYTHON_CODE, TestFields.PYTHON_LANGUAGE));
+        submission.setNumCorrect(numCorrect);
+        submission.setNumTestCases(2);
+
+        Player player = game.getPlayers().get(userId);
+        player.getSubmissions().add(submission);
+        game.getStatistics().record(player, submission);
+        if (numCorrect == 2) {
+            player.getSolved()[0] = true;
+        }
+
+        return submission;
+    }
+
+    @Test
+    public void submissionsAreSavedInOneGroupPerPlayer() {
+        Game game = createGame();
+        Player player1 = game.getPlayers().get(TestFields.USER_ID);
+        Player player2 = game.getPlayers().get(TestFields.USER_ID_2);
+
+        reportService.recordSubmission(game, player1, addSubmission(game, TestFields.USER_ID, 1));
+        reportService.recordSubmission(game, player2, addSubmission(game, TestFields.USER_ID_2, 0));
+        reportService.flush();
+
+        // A later flush adds to the group saved by the first.
+        reportService.recordSubmission(game, player1, addSubmission(game, TestFields.USER_ID, 2));
+        reportService.flush();
+        assertEquals(0, reportService.getPending());
+
+        List<SubmissionGroupReport> groups = groupReportRepository.findAllByGameReportId(game.getGameReportId());
+        assertEquals(2, groups.size());
+
+        for (SubmissionGroupReport group : groups) {
+            int expected = group.getUserId().equals(TestFields.USER_ID) ? 2 : 1;
+            assertEquals(expected, group.getSubmissionReports().size());
+        }
+    }
+
+    @Test
+    public void failedBatchIsRetriedThenDropped() {
+        Game game = createGame();
+        game.setGameEnded(true);
+        Mockito.doThrow(new IllegalStateException("The database is down."))
+            .doCallRealMethod()
+            .when(gameReportRepository).save(Mockito.any(GameReport.class));
+
+        // The failed batch is kept, and saved by the next flush.
+        reportService.reportGameEnd(game);
+        reportService.flush();
+        assertEquals(1, reportService.getPending());
+        assertNull(gameReportRepository.findGameReportByGameReportId(game.getGameReportId()));
+
+        reportService.flush();
+        assertEquals(0, reportService.getPending());
+        assertNotNull(gameReportRepository.findGameReportByGameReportId(game.getGameReportId()));
+
+        // A batch failing every time is dropped once tried report.maxAttempts times.
+        Game otherGame = createGame();
+        otherGame.setGameEnded(true);
+        Mockito.doThrow(new IllegalStateException("The database is down."))
+            .when(gameReportRepository).save(Mockito.any(GameReport.class));
+        reportService.reportGameEnd(otherGame);
+        reportService.flush();
+        assertEquals(1, reportService.getPending());
+        reportService.flush();
+        assertEquals(0, reportService.getPending());
+    }
+
+    @Test
+    public void longCodeIsSaved() {
+        Game game = createGame();
+        Player player = game.getPlayers().get(TestFields.USER_ID);
+        Submission submission = addSubmission(game, TestFields.USER_ID, 1);
+        String code = "print('Hello, world!')\n".repeat(50);
+        submission.setPlayerCode(new PlayerCode(code, TestFields.PYTHON_LANGUAGE));
+
+        reportService.recordSubmission(game, player, submission);
+        reportService.flush();
+        assertEquals(0, reportService.getPending());
+
+        List<SubmissionGroupReport> groups = groupReportRepository.findAllByGameReportId(game.getGameReportId());
+        assertEquals(1, groups.size());
+        assertEquals(code, groups.get(0).getSubmissionReports().get(0).getCode());
+    }
+
+    @Test
+    public void failedEntryDoesNotHoldBackItsBatch() {
+        Game game = createGame();
+        Game badGame = createGame();
+        game.setGameEnded(true);
+        badGame.setGameEnded(true);
+        Mockito.doThrow(new IllegalStateException("The report is invalid."))
+            .when(gameReportRepository).save(Mockito.argThat(
+                (GameReport report) -> report != null && badGame.getGameReportId().equals(report.getGameReportId())));
+
+        Player player = game.getPlayers().get(TestFields.USER_ID);
+        reportService.recordSubmission(game, player, addSubmission(game, TestFields.USER_ID, 1));
+        reportService.reportGameEnd(badGame);
+        reportService.reportGameEnd(game);
+        reportService.flush();
+
+        // Only the failed entry is kept to be tried again.
+        assertEquals(1, reportService.getPending());
+        assertNotNull(gameReportRepository.findGameReportByGameReportId(game.getGameReportId()));
+        assertNull(gameReportRepository.findGameReportByGameReportId(badGame.getGameReportId()));
+        assertEquals(1, groupReportRepository.findAllByGameReportId(game.getGameReportId()).size());
+    }
+
+    @Test
+    public void gameEndIsReportedOnce() {
+        Game game = createGame();
+        addSubmission(game, TestFields.USER_ID, 1);
+        addSubmission(game, TestFields.USER_ID, 2);
+        game.setAllSolved(true);
+
+        reportService.reportGameEnd(game);
+        reportService.reportGameEnd(game);
+        assertEquals(1, reportService.getPending());
+        reportService.flush();
+
+        GameReport gameReport = gameReportRepository.findGameReportByGameReportId(game.getGameReportId());
+        assertNotNull(gameReport);
+        assertEquals(GameEndType.ALL_SOLVED, gameReport.getGameEndType());
+        assertEquals(TestFields.DURATION, gameReport.getDuration());
+        assertEquals(1, gameReport.getProblemContainers().size());
+    }
+
+    @Test
+    public void problemContainerAveragesOverPlayersWhoSubmitted() {
+        Game game = createGame();
+        addSubmission(game, TestFields.USER_ID, 1);
+        addSubmission(game, TestFields.USER_ID, 2);
+
+        ProblemContainer problemContainer = GameReportService.toProblemContainer(game, 0);
+
+        // The unsaved problem is not referenced, and the second player did not submit.
+        assertNull(problemContainer.getProblem());
+        assertEquals(1, problemContainer.getUserSolvedCount());
+        assertEquals(2, problemContainer.getTestCaseCount());
+        assertEquals(2.0, problemContainer.getAverageAttemptCount());
+        assertEquals(2.0, problemContainer.getAverageTestCasesPassed());
+    }
+
+    @Test
+    public void gameEndTypeFollowsHowGameEnded() {
+        Game game = createGame();
+        assertEquals(GameEndType.TIME_UP, GameReportService.getGameEndType(game));
+
+        game.setAllSolved(true);
+        assertEquals(GameEndType.ALL_SOLVED, GameReportService.getGameEndType(game));
+
+        game.setGameEnded(true);
+        assertEquals(GameEndType.MANUAL_END, GameReportService.getGameEndType(game));
+    }
+}
@@ -0,0 +1,55 @@
+package com.codejoust.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.codejoust.main.util.TimingWheel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class GameSchedulerTests {
+
+    private final GameScheduler scheduler = new GameScheduler(1, 10, 64);
+
+    @AfterEach
+    public void teardown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void cancelledTasksAreRemoved() {
+        TimingWheel.Timeout task = scheduler.schedule(() -> { }, 1, TimeUnit.HOURS);
+        assertEquals(1, scheduler.getQueueSize());
+
+        task.cancel();
+        assertEquals(0, scheduler.getQueueSize());
+    }
+
+    @Test
+    public void failedTaskDoesNotStopLaterTasks() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        scheduler.schedule(() -> {
+            throw new IllegalStateException();
+        }, 0, TimeUnit.MILLISECONDS);
+        scheduler.schedule(ran::countDown, 20, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void manyGamesShareFewThreads() throws Exception {
+        int numTasks = 10000;
+        CountDownLatch ran = new CountDownLatch(numTasks);
+        for (int i = 0; i < numTasks; i++) {
+            scheduler.schedule(ran::countDown, i % 100, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertTrue(Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("game-scheduler-")).count() < numTasks);
+    }
+}
@@ -0,0 +1,105 @@
+package com.codejoust.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.codejoust.main.dto.game.GameDto;
+import com.codejoust.main.dto.game.GameMapper;
+import com.codejoust.main.game_object.Game;
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+import com.codejoust.main.util.TestFields;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class GameUpdateCoalescerTests {
+
+    private static final long WINDOW_MILLIS = 100;
+
+    @Mock
+    private SocketService socketService;
+
+    private GameUpdateCoalescer updateCoalescer;
+
+    @AfterEach
+    public void teardown() {
+        if (updateCoalescer != null) {
+            updateCoalescer.shutdown();
+        }
+    }
+
+    private Game createGame(String roomId) {
+        Room room = new Room();
+        room.setRoomId(roomId);
+        User user = new User();
+        user.setNickname(TestFields.NICKNAME);
+        user.setUserId(TestFields.USER_ID);
+        room.addUser(user);
+
+        return GameMapper.fromRoom(room);
+    }
+
+    @Test
+    public void burstOfUpdatesSendsOneWithLatestState() {
+        updateCoalescer = new GameUpdateCoalescer(socketService, new GameRegistry(), WINDOW_MILLIS);
+        Game game = createGame(TestFields.ROOM_ID);
+
+        for (int i = 0; i < 50; i++) {
+            updateCoalescer.requestUpdate(game);
+        }
+        game.setAllSolved(true);
+        assertEquals(1, updateCoalescer.getPending());
+
+        // Nothing is sent until the window ends, and then only once.
+        verify(socketService, never()).sendSocketUpdate(Mockito.any(GameDto.class));
+        ArgumentCaptor<GameDto> captor = ArgumentCaptor.forClass(GameDto.class);
+        verify(socketService, timeout(1000)).sendSocketUpdate(captor.capture());
+        verify(socketService, after(3 * WINDOW_MILLIS).times(1)).sendSocketUpdate(Mockito.any(GameDto.class));
+
+        assertEquals(true, captor.getValue().getAllSolved());
+        assertEquals(0, updateCoalescer.getPending());
+    }
+
+    @Test
+    public void roomsAreBatchedSeparately() {
+        updateCoalescer = new GameUpdateCoalescer(socketService, new GameRegistry(), WINDOW_MILLIS);
+
+        updateCoalescer.requestUpdate(createGame(TestFields.ROOM_ID));
+        updateCoalescer.requestUpdate(createGame("654321"));
+        updateCoalescer.requestUpdate(createGame(TestFields.ROOM_ID));
+
+        verify(socketService, timeout(1000).times(2)).sendSocketUpdate(Mockito.any(GameDto.class));
+    }
+
+    @Test
+    public void cancelledUpdateIsNotSent() {
+        updateCoalescer = new GameUpdateCoalescer(socketService, new GameRegistry(), WINDOW_MILLIS);
+
+        updateCoalescer.requestUpdate(createGame(TestFields.ROOM_ID));
+        updateCoalescer.cancel(TestFields.ROOM_ID);
+
+        verify(socketService, after(3 * WINDOW_MILLIS).never()).sendSocketUpdate(Mockito.any(GameDto.class));
+    }
+
+    @Test
+    public void noWindowSendsEachUpdate() {
+        updateCoalescer = new GameUpdateCoalescer(socketService, new GameRegistry(), 0);
+        Game game = createGame(TestFields.ROOM_ID);
+
+        updateCoalescer.requestUpdate(game);
+        updateCoalescer.requestUpdate(game);
+
+        verify(socketService, times(2)).sendSocketUpdate(Mockito.any(GameDto.class));
+    }
+}
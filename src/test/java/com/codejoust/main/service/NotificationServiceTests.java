@@ -32,6 +32,9 @@ public class NotificationServiceTests {
     @Mock
     private GameManagementService gameService;
 
+    @Spy
+    private GameScheduler scheduler = new GameScheduler(1, 10, 64);
+
     @Spy
     @InjectMocks
     private NotificationService notificationService;
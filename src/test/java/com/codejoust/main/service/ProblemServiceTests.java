@@ -15,15 +15,21 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import com.codejoust.main.dao.ProblemContainerRepository;
 import com.codejoust.main.dao.ProblemRepository;
 import com.codejoust.main.dao.ProblemTagRepository;
+import com.codejoust.main.dao.RoomCache;
 import com.codejoust.main.dto.problem.CreateProblemRequest;
 import com.codejoust.main.dto.problem.CreateProblemTagRequest;
 import com.codejoust.main.dto.problem.CreateTestCaseRequest;
 import com.codejoust.main.dto.problem.ProblemDto;
+import com.codejoust.main.dto.problem.ProblemPageRequest;
 import com.codejoust.main.dto.problem.ProblemInputDto;
 import com.codejoust.main.dto.problem.ProblemMapper;
 import com.codejoust.main.dto.problem.ProblemTagDto;
@@ -60,6 +66,15 @@ public class ProblemServiceTests {
     @Mock
     private FirebaseService firebaseService;
 
+    @Mock
+    private TesterResultCache testerResultCache;
+
+    @Mock
+    private RoomCache roomCache;
+
+    @Mock
+    private ProblemContainerRepository problemContainerRepository;
+
     @Spy
     @InjectMocks
     private ProblemService problemService;
@@ -259,6 +274,14 @@ public class ProblemServiceTests {
         assertEquals(AccountError.INVALID_CREDENTIALS, exception.getError());
     }
 
+    @Test
+    public void getProblemPageNoTokenFailure() {
+        Mockito.doThrow(new ApiException(AccountError.INVALID_CREDENTIALS)).when(firebaseService).verifyAdminAccount(null);
+        ApiException exception = assertThrows(ApiException.class, () -> problemService.getProblemPage(new ProblemPageRequest(), null));
+        assertEquals(AccountError.INVALID_CREDENTIALS, exception.getError());
+        verify(repository, never()).findSummaries(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
     @Test
     public void getAllProblemsOnlyVerified() {
         Problem problem = new Problem();
@@ -298,6 +321,7 @@ public class ProblemServiceTests {
         ProblemTestCaseDto response = problemService.createTestCase(expected.getProblemId(), request, TestFields.TOKEN);
 
         verify(repository).save(Mockito.any(Problem.class));
+        verify(testerResultCache).invalidate(expected.getProblemId());
 
         assertEquals(TestFields.INPUT, response.getInput());
         assertEquals(TestFields.OUTPUT, response.getOutput());
@@ -368,11 +392,13 @@ public class ProblemServiceTests {
         Problem problem1 = new Problem();
         problem1.setDifficulty(ProblemDifficulty.MEDIUM);
         List<Problem> problems = Collections.singletonList(problem1);
-        Mockito.doReturn(problems).when(repository).findAllByDifficultyAndVerified(ProblemDifficulty.MEDIUM, true);
+        Mockito.doReturn(Collections.singletonList(1)).when(repository).findVerifiedIds(ProblemDifficulty.MEDIUM);
+        Mockito.doReturn(problems).when(repository).findDistinctByIdIn(Collections.singletonList(1));
 
         List<Problem> response = problemService.getProblemsFromDifficulty(ProblemDifficulty.MEDIUM, 1);
 
         assertEquals(problem1, response.get(0));
+        verify(repository, never()).findAllByVerified(Mockito.any());
     }
 
     @Test
@@ -380,7 +406,8 @@ public class ProblemServiceTests {
         Problem problem1 = new Problem();
         problem1.setDifficulty(ProblemDifficulty.MEDIUM);
         List<Problem> problems = Collections.singletonList(problem1);
-        Mockito.doReturn(problems).when(repository).findAllByVerified(true);
+        Mockito.doReturn(Collections.singletonList(1)).when(repository).findVerifiedIds(null);
+        Mockito.doReturn(problems).when(repository).findDistinctByIdIn(Collections.singletonList(1));
 
         // Return correct problem when selecting random difficulty
         List<Problem> response = problemService.getProblemsFromDifficulty(ProblemDifficulty.RANDOM, 1);
@@ -391,13 +418,35 @@ public class ProblemServiceTests {
     public void getRandomProblemExceedsAvailableProblems() {
         Problem problem1 = new Problem();
         problem1.setDifficulty(ProblemDifficulty.MEDIUM);
-        List<Problem> problems = Collections.singletonList(problem1);
-        Mockito.doReturn(problems).when(repository).findAllByVerified(true);
+        Mockito.doReturn(Collections.singletonList(1)).when(repository).findVerifiedIds(null);
 
         ApiException exception = assertThrows(ApiException.class, () ->
                 problemService.getProblemsFromDifficulty(ProblemDifficulty.RANDOM, 3));
 
         assertEquals(ProblemError.NOT_ENOUGH_FOUND, exception.getError());
+        verify(repository, never()).findDistinctByIdIn(Mockito.any());
+    }
+
+    @Test
+    public void getRandomProblemChoosesDistinctProblems() {
+        List<Integer> ids = List.of(1, 2, 3, 4, 5);
+        Mockito.doReturn(ids).when(repository).findVerifiedIds(null);
+        Mockito.doAnswer(invocation -> {
+            List<Problem> problems = new ArrayList<>();
+            for (Integer id : invocation.<Collection<Integer>>getArgument(0)) {
+                Problem problem = new Problem();
+                problem.setId(id);
+                problems.add(problem);
+            }
+            return problems;
+        }).when(repository).findDistinctByIdIn(Mockito.any());
+
+        List<Problem> response = problemService.getProblemsFromDifficulty(ProblemDifficulty.RANDOM, 3);
+
+        Set<Integer> chosenIds = new HashSet<>();
+        response.forEach(problem -> chosenIds.add(problem.getId()));
+        assertEquals(3, chosenIds.size());
+        assertTrue(ids.containsAll(chosenIds));
     }
 
     @Test
@@ -466,6 +515,8 @@ public class ProblemServiceTests {
         problemService.editProblem(problem.getProblemId(), updatedProblem, TestFields.TOKEN);
 
         verify(repository).save(problem);
+        verify(testerResultCache).invalidate(problem.getProblemId());
+        verify(roomCache).evictProblem(problem.getProblemId());
         assertEquals(1, problem.getTestCases().size());
         assertEquals(1, problem.getProblemTags().size());
         assertEquals(1, problem.getProblemInputs().size());
@@ -667,6 +718,7 @@ public class ProblemServiceTests {
         ProblemDto response = problemService.deleteProblem(problem.getProblemId(), TestFields.TOKEN);
 
         verify(repository).delete(problem);
+        verify(testerResultCache).invalidate(problem.getProblemId());
 
         assertEquals(problem.getName(), response.getName());
         assertEquals(problem.getDescription(), response.getDescription());
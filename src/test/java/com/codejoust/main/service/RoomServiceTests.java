@@ -123,6 +123,25 @@ public class RoomServiceTests {
         assertEquals(ProblemDifficulty.RANDOM, response.getDifficulty());
     }
 
+    @Test
+    public void joinRoomSaveFailureCancelsUserId() {
+        User user = new User();
+        user.setNickname(TestFields.NICKNAME);
+        JoinRoomRequest request = new JoinRoomRequest();
+        request.setUser(UserMapper.toDto(user));
+
+        Mockito.doReturn(TestFields.USER_ID).when(utility).generateUniqueId(eq(UserService.USER_ID_LENGTH), eq(Utility.USER_ID_KEY));
+
+        Room room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+        Mockito.doReturn(room).when(repository).findRoomByRoomId(eq(TestFields.ROOM_ID));
+        Mockito.doThrow(new IllegalStateException()).when(repository).save(Mockito.any(Room.class));
+
+        // The generated ID is freed, as the user was never saved with it.
+        assertThrows(IllegalStateException.class, () -> roomService.joinRoom(TestFields.ROOM_ID, request, null));
+        verify(utility).cancelId(TestFields.USER_ID, Utility.USER_ID_KEY);
+    }
+
     @Test
     public void joinRoomNonexistentFailure() {
         // Verify join room request fails when room does not exist
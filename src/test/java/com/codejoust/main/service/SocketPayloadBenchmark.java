@@ -0,0 +1,140 @@
+package com.codejoust.main.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codejoust.main.config.WebSocketConfig;
+import com.codejoust.main.controller.v1.BaseRestController;
+import com.codejoust.main.dto.game.GameDto;
+import com.codejoust.main.dto.game.GameMapper;
+import com.codejoust.main.mapper.MapperBenchmark;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.DefaultContentTypeResolver;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Compares broadcasting a game through the template's message converters
+ * against sending it pre-encoded, each through a simple broker with one room
+ * of subscribers. Not run as part of the tests; run the main method from the
+ * test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SocketPayloadBenchmark {
+
+    @Param({"10", "30"})
+    private int numSubscribers;
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    private SimpleBrokerMessageHandler broker;
+    private SimpMessagingTemplate converterTemplate;
+    private SimpMessagingTemplate encodedTemplate;
+    private SocketPayloadEncoder encoder;
+    private GameDto gameDto;
+    private String destination;
+
+    @Setup
+    public void setup() {
+        // Keep the broker's debug logging out of the measurements.
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        gameDto = GameMapper.toDto(MapperBenchmark.createGame(numSubscribers, 10));
+        destination = String.format(WebSocketConfig.SOCKET_GAME, gameDto.getRoom().getRoomId());
+
+        // Messages to clients are only counted.
+        MessageChannel clientOutbound = (message, timeout) -> {
+            delivered.incrementAndGet();
+            return true;
+        };
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        broker = new SimpleBrokerMessageHandler(new ExecutorSubscribableChannel(), clientOutbound,
+            brokerChannel, List.of(BaseRestController.BASE_SOCKET_URL));
+        broker.start();
+
+        // The broker only delivers to connected sessions.
+        for (int i = 0; i < numSubscribers; i++) {
+            SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+            connect.setSessionId("session" + i);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            accessor.setSessionId("session" + i);
+            accessor.setSubscriptionId("subscription" + i);
+            accessor.setDestination(destination);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+        }
+
+        // The converters the broker configuration gives the template.
+        DefaultContentTypeResolver resolver = new DefaultContentTypeResolver();
+        resolver.setDefaultMimeType(MimeTypeUtils.APPLICATION_JSON);
+        MappingJackson2MessageConverter jsonConverter = new MappingJackson2MessageConverter();
+        jsonConverter.setContentTypeResolver(resolver);
+        jsonConverter.setObjectMapper(objectMapper);
+
+        converterTemplate = new SimpMessagingTemplate(brokerChannel);
+        converterTemplate.setMessageConverter(new CompositeMessageConverter(List.of(
+            new StringMessageConverter(), new ByteArrayMessageConverter(), jsonConverter)));
+
+        encodedTemplate = new SimpMessagingTemplate(brokerChannel);
+        encoder = new SocketPayloadEncoder(objectMapper);
+    }
+
+    @TearDown
+    public void teardown() {
+        broker.stop();
+        System.out.printf("%nDelivered %d messages; pre-encoded payloads averaged %d bytes in %d us%n",
+            delivered.get(), encoder.getBytes() / Math.max(encoder.getBroadcasts(), 1),
+            encoder.getEncodeNanos() / Math.max(encoder.getBroadcasts(), 1) / 1000);
+    }
+
+    @Benchmark
+    public void converted() {
+        converterTemplate.convertAndSend(destination, gameDto);
+    }
+
+    @Benchmark
+    public void preEncoded() {
+        encodedTemplate.send(destination, encoder.encode(gameDto));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(SocketPayloadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1,27 +1,56 @@
 package com.codejoust.main.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import com.codejoust.main.config.WebSocketConfig;
+import com.codejoust.main.dto.game.GameDeltaDto;
+import com.codejoust.main.dto.game.GameDto;
+import com.codejoust.main.dto.game.PlayerDto;
+import com.codejoust.main.dto.game.SubmissionDto;
 import com.codejoust.main.dto.room.RoomDto;
 import com.codejoust.main.dto.user.UserDto;
 
 import com.codejoust.main.util.TestFields;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MimeTypeUtils;
 
 @ExtendWith(MockitoExtension.class)
 public class SocketServiceTests {
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     @Mock
     private SimpMessagingTemplate template;
 
+    @Spy
+    private GameDeltaTracker deltaTracker = new GameDeltaTracker();
+
+    @Spy
+    private SocketPayloadEncoder encoder = new SocketPayloadEncoder(objectMapper);
+
     @Spy
     @InjectMocks
     private SocketService socketService;
@@ -35,9 +64,123 @@ public class SocketServiceTests {
         roomDto.setHost(userDto);
 
         socketService.sendSocketUpdate(roomDto);
-        verify(template).convertAndSend(
-                eq(String.format(WebSocketConfig.SOCKET_LOBBY, roomDto.getRoomId())),
-                eq(roomDto));
+
+        // The room is sent once, encoded as JSON.
+        assertEquals(roomDto, decode(captureSent(WebSocketConfig.SOCKET_LOBBY, 1).get(0), RoomDto.class));
+        assertEquals(1, encoder.getBroadcasts());
+        assertTrue(encoder.getBytes() > 0);
+    }
+
+    @Test
+    public void sendGameUpdateSendsOnlyChanges() {
+        GameDto gameDto = createGameDto(1);
+        socketService.sendSocketUpdate(gameDto);
+
+        GameDto nextGameDto = createGameDto(2);
+        socketService.sendSocketUpdate(nextGameDto);
+
+        // The whole game is not sent by default.
+        verify(template, never()).send(eq(String.format(WebSocketConfig.SOCKET_GAME, TestFields.ROOM_ID)), any());
+
+        List<Message<byte[]>> deltas = captureSent(WebSocketConfig.SOCKET_GAME_DELTA, 2);
+
+        // The first update holds the whole game.
+        GameDeltaDto first = decode(deltas.get(0), GameDeltaDto.class);
+        assertEquals(1, first.getVersion());
+        assertEquals(gameDto, first.getGame());
+
+        // The next holds only the new submission.
+        GameDeltaDto delta = decode(deltas.get(1), GameDeltaDto.class);
+        assertEquals(2, delta.getVersion());
+        assertEquals(2, socketService.getGameVersion(TestFields.ROOM_ID));
+        assertNull(delta.getGame());
+        assertNull(delta.getRoom());
+        assertNull(delta.getGameTimer());
+        assertNull(delta.getLeaderboard());
+        assertEquals(1, delta.getPlayers().size());
+        assertEquals(TestFields.USER_ID, delta.getPlayers().get(0).getUserId());
+        assertEquals(1, delta.getPlayers().get(0).getFromSubmission());
+        assertEquals(1, delta.getPlayers().get(0).getSubmissions().size());
+        assertEquals(1, delta.getPlayers().get(0).getSubmissions().get(0).getNumCorrect());
+
+        // Once the game is removed, the next update holds the whole game again.
+        socketService.clearGameUpdates(TestFields.ROOM_ID);
+        socketService.sendSocketUpdate(nextGameDto);
+        deltas = captureSent(WebSocketConfig.SOCKET_GAME_DELTA, 3);
+        assertEquals(nextGameDto, decode(deltas.get(2), GameDeltaDto.class).getGame());
+    }
+
+    @Test
+    public void olderGameUpdateIsDropped() {
+        GameDto endedGameDto = createGameDto(2);
+        endedGameDto.setGameEnded(true);
+        endedGameDto.setVersion(2);
+        GameDto olderGameDto = createGameDto(1);
+        olderGameDto.setVersion(1);
+
+        // The older game was mapped first, but is sent after the newer one.
+        socketService.sendSocketUpdate(endedGameDto);
+        socketService.sendSocketUpdate(olderGameDto);
+
+        List<Message<byte[]>> deltas = captureSent(WebSocketConfig.SOCKET_GAME_DELTA, 1);
+        assertEquals(true, decode(deltas.get(0), GameDeltaDto.class).getGame().getGameEnded());
+        assertEquals(1, socketService.getGameVersion(TestFields.ROOM_ID));
+    }
+
+    @Test
+    public void sendFullGameUpdatesWhenEnabled() {
+        ReflectionTestUtils.setField(socketService, "fullGameUpdates", true);
+
+        socketService.sendSocketUpdate(createGameDto(1));
+        socketService.sendSocketUpdate(createGameDto(2));
+
+        // The whole game is sent alongside the changes.
+        List<Message<byte[]>> games = captureSent(WebSocketConfig.SOCKET_GAME, 2);
+        assertEquals(1, decode(games.get(0), GameDto.class).getPlayers().get(0).getSubmissions().size());
+        assertEquals(2, decode(games.get(1), GameDto.class).getPlayers().get(0).getSubmissions().size());
+        captureSent(WebSocketConfig.SOCKET_GAME_DELTA, 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Message<byte[]>> captureSent(String socketPath, int times) {
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(template, times(times)).send(eq(String.format(socketPath, TestFields.ROOM_ID)), captor.capture());
+
+        for (Message<byte[]> message : captor.getAllValues()) {
+            assertEquals(MimeTypeUtils.APPLICATION_JSON, message.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+        }
+        return captor.getAllValues();
+    }
+
+    private <T> T decode(Message<byte[]> message, Class<T> type) {
+        try {
+            return objectMapper.readValue(message.getPayload(), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private GameDto createGameDto(int numSubmissions) {
+        RoomDto roomDto = new RoomDto();
+        roomDto.setRoomId(TestFields.ROOM_ID);
+
+        UserDto userDto = new UserDto();
+        userDto.setUserId(TestFields.USER_ID);
+        userDto.setNickname(TestFields.NICKNAME);
+
+        PlayerDto playerDto = new PlayerDto();
+        playerDto.setUser(userDto);
+        playerDto.setCode(TestFields.PYTHON_CODE);
+        for (int i = 0; i < numSubmissions; i++) {
+            SubmissionDto submissionDto = new SubmissionDto();
+            submissionDto.setNumCorrect(i);
+            playerDto.getSubmissions().add(submissionDto);
+        }
+
+        GameDto gameDto = new GameDto();
+        gameDto.setRoom(roomDto);
+        gameDto.setProblems(new ArrayList<>());
+        gameDto.getPlayers().add(playerDto);
+        return gameDto;
     }
-    
 }
@@ -0,0 +1,138 @@
+package com.codejoust.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codejoust.main.config.RateLimitProperties;
+import com.codejoust.main.exception.GameError;
+import com.codejoust.main.exception.api.ApiException;
+import com.codejoust.main.util.TestFields;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SubmissionRateLimiterTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(0);
+    private SubmissionRateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setup() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoomPerSecond(2);
+        properties.setRoomBurst(6);
+        properties.setUserPerSecond(1);
+        properties.setUserBurst(2);
+        properties.setMaxWaitMillis(2000);
+
+        rateLimiter = new SubmissionRateLimiter(properties) {
+            @Override
+            protected long nanoTime() {
+                return clock.get();
+            }
+        };
+    }
+
+    @Test
+    public void acquireAllowsBurstThenQueues() {
+        assertEquals(0, rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID));
+        assertEquals(0, rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID));
+
+        // Beyond the burst, each request waits for the one before it.
+        assertEquals(SECOND, rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID));
+        assertEquals(2 * SECOND, rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID));
+
+        // Requests that would wait too long are rejected.
+        ApiException exception = assertThrows(ApiException.class, () -> rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID));
+        assertEquals(GameError.TOO_MANY_REQUESTS, exception.getError());
+    }
+
+    @Test
+    public void acquireRefillsOverTime() {
+        rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID);
+        rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID);
+        assertEquals(SECOND, rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID));
+
+        clock.addAndGet(5 * SECOND);
+        assertEquals(0, rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID));
+    }
+
+    @Test
+    public void rejectedRequestsDoNotUseBudget() {
+        rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID);
+        rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID);
+        rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID);
+        rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID);
+
+        for (int i = 0; i < 10; i++) {
+            assertThrows(ApiException.class, () -> rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID));
+        }
+
+        // The spam above did not push back the player's next slot.
+        clock.addAndGet(SECOND);
+        assertEquals(2 * SECOND, rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID));
+    }
+
+    @Test
+    public void onePlayerDoesNotQueueOthers() {
+        // The first player uses up their own budget.
+        rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID);
+        rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID);
+        assertThrows(ApiException.class, () -> {
+            while (true) {
+                rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID);
+            }
+        });
+
+        // Another player in the room still has room budget left.
+        assertEquals(0, rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID_2));
+    }
+
+    @Test
+    public void onePlayerDoesNotQueueOthersWithDefaultLimits() {
+        SubmissionRateLimiter defaultLimiter = new SubmissionRateLimiter(new RateLimitProperties()) {
+            @Override
+            protected long nanoTime() {
+                return clock.get();
+            }
+        };
+
+        // The first player queues as many requests as their own budget allows.
+        assertThrows(ApiException.class, () -> {
+            while (true) {
+                defaultLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID);
+            }
+        });
+
+        // Every other player in the room still proceeds at once.
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, defaultLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID_2 + i));
+        }
+    }
+
+    @Test
+    public void roomLimitAppliesAcrossPlayers() {
+        // Six players each submit once, using up the room's burst.
+        for (int i = 0; i < 6; i++) {
+            assertEquals(0, rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID + i));
+        }
+
+        // The next player has budget of their own, but must wait for the room.
+        assertEquals(SECOND / 2, rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID_2));
+    }
+
+    @Test
+    public void idleBucketsAreRemoved() {
+        rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID);
+        assertEquals(2, rateLimiter.size());
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        rateLimiter.acquire(TestFields.ROOM_ID, TestFields.USER_ID_2);
+        assertEquals(2, rateLimiter.size());
+    }
+}
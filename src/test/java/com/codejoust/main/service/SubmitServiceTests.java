@@ -1,5 +1,6 @@
 package com.codejoust.main.service;
 
+import com.codejoust.main.config.TesterProperties;
 import com.codejoust.main.model.problem.ProblemDifficulty;
 import com.codejoust.main.util.TestFields;
 import org.junit.jupiter.api.Test;
@@ -7,6 +8,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.invocation.InvocationOnMock;
@@ -18,6 +20,9 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import com.codejoust.main.dto.game.GameMapper;
 import com.codejoust.main.dto.game.SubmissionDto;
@@ -33,6 +38,7 @@ import com.codejoust.main.exception.TesterError;
 import com.codejoust.main.exception.api.ApiErrorResponse;
 import com.codejoust.main.exception.api.ApiException;
 import com.codejoust.main.game_object.Game;
+import com.codejoust.main.game_object.GameStatistics.ProblemStatistics;
 import com.codejoust.main.game_object.Submission;
 import com.codejoust.main.game_object.SubmissionResult;
 import com.codejoust.main.model.Room;
@@ -46,12 +52,26 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class SubmitServiceTests {
 
+    @Spy
+    private GameRegistry gameRegistry = new GameRegistry();
+
+    @Spy
+    private TesterClient testerClient = new TesterClient(new TesterProperties());
+
+    @Spy
+    private TesterResultCache testerResultCache = new TesterResultCache(new TesterProperties());
+
+    @Mock
+    private GameReportService reportService;
+
     @Spy
     @InjectMocks
     private SubmitService submitService;
@@ -90,9 +110,9 @@ public class SubmitServiceTests {
         request.setInput(TestFields.INPUT);
         request.setInitiator(UserMapper.toDto(user));
 
-        SubmissionDto submissionDto = submitService.runCode(game, request);
+        SubmissionDto submissionDto = submitService.runCode(game, request).join();
 
-        verify(submitService).getSubmission(captor.capture());
+        verify(submitService).getSubmission(eq(TestFields.PROBLEM_ID), captor.capture());
         TesterRequest testerRequest = captor.getValue();
 
         // Verify TesterRequest has non-required fields set to null
@@ -120,6 +140,50 @@ public class SubmitServiceTests {
         assertFalse(game.getAllSolved());
     }
 
+    @Test
+    public void runCodeDoesNotModifyCachedProblems() {
+        Room room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+        User user = new User();
+        user.setNickname(TestFields.NICKNAME);
+        user.setUserId(TestFields.USER_ID);
+        room.addUser(user);
+
+        Game game = GameMapper.fromRoom(room);
+
+        Problem problem = new Problem();
+        problem.setProblemId(TestFields.PROBLEM_ID);
+
+        ProblemTestCase testCase = new ProblemTestCase();
+        testCase.setInput(TestFields.INPUT);
+        testCase.setOutput(TestFields.OUTPUT);
+        problem.addTestCase(testCase);
+
+        ProblemTestCase testCase2 = new ProblemTestCase();
+        testCase2.setInput(TestFields.INPUT_2);
+        testCase2.setOutput(TestFields.OUTPUT_2);
+        problem.addTestCase(testCase2);
+        game.getProblems().add(problem);
+        GameMapper.cacheProblemDtos(game);
+
+        SubmissionRequest request = new SubmissionRequest();
+        request.setLanguage(TestFields.PYTHON_LANGUAGE);
+        request.setCode(TestFields.PYTHON_CODE);
+        request.setInput(TestFields.INPUT_2);
+        request.setInitiator(UserMapper.toDto(user));
+
+        submitService.runCode(game, request).join();
+
+        verify(submitService).getSubmission(eq(TestFields.PROBLEM_ID), captor.capture());
+        List<ProblemTestCaseDto> testCases = captor.getValue().getProblem().getTestCases();
+        assertEquals(1, testCases.size());
+        assertEquals(TestFields.INPUT_2, testCases.get(0).getInput());
+
+        // The tester request was built from a copy of the game's cached problem
+        assertEquals(2, game.getTesterProblems().get(0).getTestCases().size());
+        assertEquals(TestFields.INPUT, game.getTesterProblems().get(0).getTestCases().get(0).getInput());
+    }
+
     @Test
     public void submitSolutionSuccess() {
         Room room = new Room();
@@ -150,9 +214,9 @@ public class SubmitServiceTests {
         request.setCode(TestFields.PYTHON_CODE);
         request.setInitiator(UserMapper.toDto(user));
 
-        submitService.submitSolution(game, request);
+        submitService.submitSolution(game, request, new CompletableFuture<>()).join();
 
-        verify(submitService).getSubmission(captor.capture());
+        verify(submitService).getSubmission(eq(TestFields.PROBLEM_ID), captor.capture());
         TesterRequest testerRequest = captor.getValue();
 
         // Verify TesterRequest has non-required fields set to null
@@ -182,6 +246,13 @@ public class SubmitServiceTests {
         assertTrue(submissionResult.isCorrect());
         
         assertTrue(game.getAllSolved());
+
+        // The game's statistics count the submission as it is recorded.
+        ProblemStatistics statistics = game.getStatistics().get(0);
+        assertEquals(1, statistics.getUserSolvedCount());
+        assertEquals(1, statistics.getAttemptedCount());
+        assertEquals(1.0, statistics.getAverageAttemptCount());
+        assertEquals(1.0, statistics.getAverageTestCasesPassed());
     }
 
     @Test
@@ -214,7 +285,7 @@ public class SubmitServiceTests {
         request.setCode(TestFields.PYTHON_CODE);
         request.setInitiator(UserMapper.toDto(user));
 
-        submitService.submitSolution(game, request);
+        submitService.submitSolution(game, request, new CompletableFuture<>()).join();
 
         List<Submission> submissions = game.getPlayers().get(TestFields.USER_ID).getSubmissions();
         assertEquals(1, submissions.size());
@@ -239,6 +310,37 @@ public class SubmitServiceTests {
         assertFalse(game.getAllSolved());
     }
 
+    @Test
+    public void cancelledSubmissionIsNotRecorded() {
+        Room room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+        User user = new User();
+        user.setNickname(TestFields.NICKNAME);
+        user.setUserId(TestFields.USER_ID);
+        room.addUser(user);
+
+        Game game = GameMapper.fromRoom(room);
+        Problem problem = new Problem();
+        ProblemTestCase testCase = new ProblemTestCase();
+        testCase.setInput(TestFields.INPUT);
+        testCase.setOutput(TestFields.OUTPUT);
+        problem.addTestCase(testCase);
+        game.setProblems(new ArrayList<>(List.of(problem)));
+
+        SubmissionRequest request = new SubmissionRequest();
+        request.setLanguage(TestFields.PYTHON_LANGUAGE);
+        request.setCode(TestFields.PYTHON_CODE);
+        request.setInitiator(UserMapper.toDto(user));
+
+        // The caller stopped waiting, e.g. as its response timed out, so it may submit again.
+        CompletableFuture<SubmissionDto> caller = new CompletableFuture<>();
+        caller.cancel(false);
+
+        assertThrows(CancellationException.class, () -> submitService.submitSolution(game, request, caller).join());
+        assertEquals(0, game.getPlayers().get(TestFields.USER_ID).getSubmissions().size());
+        verify(reportService, never()).recordSubmission(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
     @Test
     public void callTesterServiceReturnsDummyResponse() throws Exception {
         ProblemTestCaseDto testCaseDto = new ProblemTestCaseDto();
@@ -250,7 +352,7 @@ public class SubmitServiceTests {
         request.setLanguage(TestFields.PYTHON_LANGUAGE);
         request.setProblem(problemDto);
 
-        Submission response = submitService.getSubmission(request);
+        Submission response = submitService.getSubmission(TestFields.PROBLEM_ID, request).join();
 
         assertNotNull(response);
         verify(submitService, never()).callTesterService(Mockito.any());
@@ -275,8 +377,8 @@ public class SubmitServiceTests {
         testerResponse.setRuntime(5.5);
         testerResponse.setResults(new ArrayList<>());
 
-        Mockito.doReturn(testerResponse).when(submitService).callTesterService(request);
-        Submission response = submitService.getSubmission(request);
+        Mockito.doReturn(CompletableFuture.completedFuture(testerResponse)).when(submitService).callTesterService(request);
+        Submission response = submitService.getSubmission(TestFields.PROBLEM_ID, request).join();
 
         assertEquals(testerResponse.getNumCorrect(), response.getNumCorrect());
         assertEquals(testerResponse.getNumTestCases(), response.getNumTestCases());
@@ -306,11 +408,11 @@ public class SubmitServiceTests {
 
         TesterError ERROR = new TesterError(HttpStatus.BAD_REQUEST, new ApiErrorResponse("Bad input", "INVALID_INPUT"));
 
-        Mockito.doThrow(new ApiException(ERROR)).when(submitService).callTesterService(request);
+        Mockito.doReturn(CompletableFuture.failedFuture(new ApiException(ERROR))).when(submitService).callTesterService(request);
 
-        ApiException exception = assertThrows(ApiException.class, () -> submitService.getSubmission(request));
+        CompletionException exception = assertThrows(CompletionException.class, () -> submitService.getSubmission(TestFields.PROBLEM_ID, request).join());
 
-        assertEquals(ERROR, exception.getError());
+        assertEquals(ERROR, ((ApiException) exception.getCause()).getError());
     }
 
     @Test
@@ -338,9 +440,9 @@ public class SubmitServiceTests {
             }})
           .when(submitService).callTesterService(request);
 
-        ApiException exception = assertThrows(ApiException.class, () -> submitService.getSubmission(request));
+        CompletionException exception = assertThrows(CompletionException.class, () -> submitService.getSubmission(TestFields.PROBLEM_ID, request).join());
 
-        assertEquals(GameError.TESTER_ERROR, exception.getError());
+        assertEquals(GameError.TESTER_ERROR, ((ApiException) exception.getCause()).getError());
     }
 
     @Test
@@ -350,9 +452,43 @@ public class SubmitServiceTests {
         TesterRequest request = new TesterRequest();
         request.setCode("temp");
 
-        assertThrows(Exception.class, () -> submitService.callTesterService(request));
+        assertThrows(Exception.class, () -> submitService.callTesterService(request).join());
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> submitService.getSubmission(TestFields.PROBLEM_ID, request).join());
+        assertEquals(GameError.TESTER_ERROR, ((ApiException) exception.getCause()).getError());
+    }
+
+    @Test
+    public void getSubmissionIdenticalRequestsCallTesterOnce() {
+        submitService.setDebugModeForTesting(false);
+
+        ProblemTestCaseDto testCaseDto = new ProblemTestCaseDto();
+        ProblemDto problemDto = new ProblemDto();
+        problemDto.setTestCases(Collections.singletonList(testCaseDto));
+
+        TesterRequest request = new TesterRequest();
+        request.setCode(TestFields.PYTHON_CODE);
+        request.setLanguage(TestFields.PYTHON_LANGUAGE);
+        request.setProblem(problemDto);
+
+        TesterResponse testerResponse = new TesterResponse();
+        testerResponse.setNumCorrect(1);
+        testerResponse.setNumTestCases(1);
+        testerResponse.setRuntime(5.5);
+        testerResponse.setResults(new ArrayList<>());
+
+        // The first two requests arrive while the tester is still running.
+        CompletableFuture<TesterResponse> pending = new CompletableFuture<>();
+        Mockito.doReturn(pending).when(submitService).callTesterService(request);
+
+        CompletableFuture<Submission> first = submitService.getSubmission(TestFields.PROBLEM_ID, request);
+        CompletableFuture<Submission> second = submitService.getSubmission(TestFields.PROBLEM_ID, request);
+        pending.complete(testerResponse);
+        Submission third = submitService.getSubmission(TestFields.PROBLEM_ID, request).join();
 
-        ApiException exception = assertThrows(ApiException.class, () -> submitService.getSubmission(request));
-        assertEquals(GameError.TESTER_ERROR, exception.getError());
+        verify(submitService, times(1)).callTesterService(request);
+        assertEquals(testerResponse.getNumCorrect(), first.join().getNumCorrect());
+        assertEquals(testerResponse.getNumCorrect(), second.join().getNumCorrect());
+        assertEquals(testerResponse.getNumCorrect(), third.getNumCorrect());
     }
 }
@@ -0,0 +1,191 @@
+package com.codejoust.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.codejoust.main.config.TesterProperties;
+import com.codejoust.main.dto.game.TesterRequest;
+import com.codejoust.main.dto.game.TesterResponse;
+import com.codejoust.main.exception.GameError;
+import com.codejoust.main.exception.TesterError;
+import com.codejoust.main.exception.api.ApiException;
+import com.codejoust.main.util.TestFields;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.HttpStatus;
+
+public class TesterClientTests {
+
+    private static final String RESPONSE = "{\"numCorrect\": 1, \"numTestCases\": 1, \"runtime\": 5.5, \"results\": []}";
+    private static final String ERROR_RESPONSE = "{\"message\": \"Bad input\", \"type\": \"INVALID_INPUT\"}";
+
+    private HttpServer server;
+    private TesterClient client;
+
+    // Released to let the fake tester respond to requests.
+    private final CountDownLatch respond = new CountDownLatch(1);
+    private volatile int status = 200;
+
+    // Number of requests the fake tester has received.
+    private final AtomicInteger requests = new AtomicInteger();
+
+    // Number of distinct connections the fake tester has served.
+    private final Set<InetSocketAddress> clientAddresses = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    public void setup() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            clientAddresses.add(exchange.getRemoteAddress());
+            requests.incrementAndGet();
+            try {
+                respond.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            byte[] body = (status >= 400 ? ERROR_RESPONSE : RESPONSE).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void teardown() throws Exception {
+        respond.countDown();
+        if (client != null) {
+            client.close();
+        }
+        server.stop(0);
+    }
+
+    private TesterClient createClient(int maxInFlight, int maxQueued) {
+        TesterProperties properties = new TesterProperties();
+        properties.setUrl(String.format("http://localhost:%d/", server.getAddress().getPort()));
+        properties.setMaxInFlight(maxInFlight);
+        properties.setMaxQueued(maxQueued);
+        return new TesterClient(properties);
+    }
+
+    private TesterRequest createRequest() {
+        TesterRequest request = new TesterRequest();
+        request.setCode(TestFields.PYTHON_CODE);
+        request.setLanguage(TestFields.PYTHON_LANGUAGE);
+        return request;
+    }
+
+    @Test
+    public void sendReturnsTesterResponse() {
+        client = createClient(1, 1);
+        respond.countDown();
+
+        TesterResponse response = client.send(createRequest()).join();
+
+        assertEquals(1, response.getNumCorrect());
+        assertEquals(1, response.getNumTestCases());
+        assertEquals(5.5, response.getRuntime());
+    }
+
+    @Test
+    public void responseIsHandledOffTheIOThread() {
+        client = createClient(1, 1);
+
+        // Chained before the tester responds, so the stage runs where the future completes.
+        CompletableFuture<String> thread = client.send(createRequest())
+            .thenApply(response -> Thread.currentThread().getName());
+        respond.countDown();
+
+        assertEquals("tester-callback", thread.join());
+    }
+
+    @Test
+    public void sendTesterErrorResponse() {
+        client = createClient(1, 1);
+        status = 400;
+        respond.countDown();
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> client.send(createRequest()).join());
+
+        TesterError error = (TesterError) ((ApiException) exception.getCause()).getError();
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatus());
+        assertEquals("INVALID_INPUT", error.getResponse().getType());
+    }
+
+    @Test
+    public void sendQueuesAndRejectsBeyondLimits() {
+        client = createClient(1, 1);
+
+        // The first request takes the only slot, and the second waits for it.
+        CompletableFuture<TesterResponse> inFlight = client.send(createRequest());
+        CompletableFuture<TesterResponse> queued = client.send(createRequest());
+        assertEquals(1, client.getInFlight());
+        assertEquals(1, client.getQueued());
+
+        // With the queue full, further requests are rejected immediately.
+        CompletionException exception = assertThrows(CompletionException.class, () -> client.send(createRequest()).join());
+        assertEquals(GameError.TESTER_BUSY, ((ApiException) exception.getCause()).getError());
+        assertFalse(inFlight.isDone());
+        assertFalse(queued.isDone());
+
+        // Once the tester responds, the queued request is sent and completes.
+        respond.countDown();
+        assertEquals(1, inFlight.join().getNumCorrect());
+        assertEquals(1, queued.join().getNumCorrect());
+        assertEquals(0, client.getQueued());
+    }
+
+    @Test
+    public void cancelledQueuedRequestIsNotSent() throws Exception {
+        client = createClient(1, 1);
+
+        CompletableFuture<TesterResponse> inFlight = client.send(createRequest());
+        CompletableFuture<TesterResponse> queued = client.send(createRequest());
+
+        // The cancelled request leaves the queue, making room for another.
+        queued.cancel(false);
+        assertEquals(0, client.getQueued());
+
+        respond.countDown();
+        assertEquals(1, inFlight.join().getNumCorrect());
+        Thread.sleep(200);
+        assertEquals(1, requests.get());
+        assertEquals(0, client.getInFlight());
+    }
+
+    @Test
+    public void sendReusesPooledConnection() {
+        client = createClient(1, 1);
+        respond.countDown();
+
+        client.send(createRequest()).join();
+        client.send(createRequest()).join();
+
+        // Both requests share one kept-alive connection, returned to the pool.
+        PoolStats stats = client.getPoolStats();
+        assertEquals(0, stats.getLeased());
+        assertEquals(0, stats.getPending());
+        assertEquals(1, stats.getAvailable());
+        assertEquals(1, clientAddresses.size());
+    }
+}
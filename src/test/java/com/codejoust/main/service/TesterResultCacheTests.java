@@ -0,0 +1,160 @@
+package com.codejoust.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.codejoust.main.config.TesterProperties;
+import com.codejoust.main.dto.game.TesterRequest;
+import com.codejoust.main.dto.game.TesterResponse;
+import com.codejoust.main.dto.problem.ProblemDto;
+import com.codejoust.main.dto.problem.ProblemTestCaseDto;
+import com.codejoust.main.exception.GameError;
+import com.codejoust.main.exception.api.ApiException;
+import com.codejoust.main.model.report.CodeLanguage;
+import com.codejoust.main.util.TestFields;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TesterResultCacheTests {
+
+    private static final int MAX_ENTRIES = 2;
+
+    private TesterResultCache cache;
+
+    // Counts the tester calls made through the cache.
+    private final AtomicInteger calls = new AtomicInteger();
+    private final TesterResponse response = new TesterResponse();
+    private final Supplier<CompletableFuture<TesterResponse>> call = () -> {
+        calls.incrementAndGet();
+        return CompletableFuture.completedFuture(response);
+    };
+
+    @BeforeEach
+    public void setup() {
+        TesterProperties properties = new TesterProperties();
+        properties.setCacheMaxEntries(MAX_ENTRIES);
+        cache = new TesterResultCache(properties);
+    }
+
+    private TesterRequest createRequest(String code, String output) {
+        ProblemTestCaseDto testCaseDto = new ProblemTestCaseDto();
+        testCaseDto.setInput(TestFields.INPUT);
+        testCaseDto.setOutput(output);
+
+        ProblemDto problemDto = new ProblemDto();
+        problemDto.setTestCases(Collections.singletonList(testCaseDto));
+
+        TesterRequest request = new TesterRequest();
+        request.setCode(code);
+        request.setLanguage(TestFields.PYTHON_LANGUAGE);
+        request.setProblem(problemDto);
+        return request;
+    }
+
+    @Test
+    public void getCachesResponse() {
+        TesterRequest request = createRequest(TestFields.PYTHON_CODE, TestFields.OUTPUT);
+
+        assertSame(response, cache.get(TestFields.PROBLEM_ID, request, call).join());
+        assertSame(response, cache.get(TestFields.PROBLEM_ID, request, call).join());
+
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void getCoalescesConcurrentRequests() {
+        TesterRequest request = createRequest(TestFields.PYTHON_CODE, TestFields.OUTPUT);
+        CompletableFuture<TesterResponse> pending = new CompletableFuture<>();
+        Supplier<CompletableFuture<TesterResponse>> slowCall = () -> {
+            calls.incrementAndGet();
+            return pending;
+        };
+
+        CompletableFuture<TesterResponse> first = cache.get(TestFields.PROBLEM_ID, request, slowCall);
+        CompletableFuture<TesterResponse> second = cache.get(TestFields.PROBLEM_ID, request, slowCall);
+        pending.complete(response);
+
+        assertSame(response, first.join());
+        assertSame(response, second.join());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void getDoesNotCacheFailures() {
+        TesterRequest request = createRequest(TestFields.PYTHON_CODE, TestFields.OUTPUT);
+        Supplier<CompletableFuture<TesterResponse>> failedCall = () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new ApiException(GameError.TESTER_ERROR));
+        };
+
+        assertThrows(CompletionException.class, () -> cache.get(TestFields.PROBLEM_ID, request, failedCall).join());
+        assertSame(response, cache.get(TestFields.PROBLEM_ID, request, call).join());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void getEvictsLeastRecentlyUsed() {
+        TesterRequest request1 = createRequest("print(1)", TestFields.OUTPUT);
+        TesterRequest request2 = createRequest("print(2)", TestFields.OUTPUT);
+        TesterRequest request3 = createRequest("print(3)", TestFields.OUTPUT);
+
+        cache.get(TestFields.PROBLEM_ID, request1, call).join();
+        cache.get(TestFields.PROBLEM_ID, request2, call).join();
+
+        // Use the first entry again, so the second is the one evicted.
+        cache.get(TestFields.PROBLEM_ID, request1, call).join();
+        cache.get(TestFields.PROBLEM_ID, request3, call).join();
+        assertEquals(MAX_ENTRIES, cache.size());
+        assertEquals(3, calls.get());
+
+        cache.get(TestFields.PROBLEM_ID, request1, call).join();
+        assertEquals(3, calls.get());
+        cache.get(TestFields.PROBLEM_ID, request2, call).join();
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void invalidateRemovesProblemEntries() {
+        TesterRequest request = createRequest(TestFields.PYTHON_CODE, TestFields.OUTPUT);
+        cache.get(TestFields.PROBLEM_ID, request, call).join();
+        cache.get(TestFields.PROBLEM_ID_2, request, call).join();
+
+        cache.invalidate(TestFields.PROBLEM_ID);
+        assertEquals(1, cache.size());
+
+        cache.get(TestFields.PROBLEM_ID, request, call).join();
+        cache.get(TestFields.PROBLEM_ID_2, request, call).join();
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void keyIgnoresFormattingButNotContent() {
+        String code = "def solve(nums):\n    return sorted(nums)\n";
+        TesterRequest request = createRequest(code, TestFields.OUTPUT);
+
+        // Line endings and trailing whitespace do not change the key.
+        TesterRequest reformatted = createRequest("def solve(nums):  \r\n    return sorted(nums)\r\n\r\n", TestFields.OUTPUT);
+        assertEquals(cache.getKey(TestFields.PROBLEM_ID, request), cache.getKey(TestFields.PROBLEM_ID, reformatted));
+
+        // Indentation, test cases and language all do.
+        TesterRequest reindented = createRequest("def solve(nums):\n  return sorted(nums)\n", TestFields.OUTPUT);
+        assertNotEquals(cache.getKey(TestFields.PROBLEM_ID, request), cache.getKey(TestFields.PROBLEM_ID, reindented));
+
+        TesterRequest newTestCase = createRequest(code, TestFields.OUTPUT_2);
+        assertNotEquals(cache.getKey(TestFields.PROBLEM_ID, request), cache.getKey(TestFields.PROBLEM_ID, newTestCase));
+
+        TesterRequest newLanguage = createRequest(code, TestFields.OUTPUT);
+        newLanguage.setLanguage(CodeLanguage.JAVA);
+        assertNotEquals(cache.getKey(TestFields.PROBLEM_ID, request), cache.getKey(TestFields.PROBLEM_ID, newLanguage));
+    }
+}
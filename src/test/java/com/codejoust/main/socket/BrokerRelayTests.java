@@ -0,0 +1,172 @@
+package com.codejoust.main.socket;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+import com.codejoust.main.controller.v1.BaseRestController;
+import com.codejoust.main.dto.room.CreateRoomRequest;
+import com.codejoust.main.dto.room.JoinRoomRequest;
+import com.codejoust.main.dto.room.RoomDto;
+import com.codejoust.main.util.TestFields;
+
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+/**
+ * Socket updates relayed through an external STOMP broker, here an embedded
+ * Artemis started on a free local port.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.type=com.zaxxer.hikari.HikariDataSource", "broker.relay=true"})
+@DirtiesContext
+public class BrokerRelayTests {
+
+    private static final String CONNECT_ENDPOINT = "ws://localhost:{port}" + BaseRestController.BASE_SOCKET_URL + "/join-room-endpoint";
+    private static final String SUBSCRIBE_ENDPOINT = BaseRestController.BASE_SOCKET_URL + "/%s/subscribe-lobby";
+
+    private static int brokerPort;
+    private static EmbeddedActiveMQ broker;
+
+    @LocalServerPort
+    private Integer port;
+
+    @Autowired
+    private TestRestTemplate template;
+
+    @Autowired
+    private StompBrokerRelayMessageHandler relay;
+
+    @BeforeAll
+    public static void startBroker() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            brokerPort = socket.getLocalPort();
+        }
+
+        Configuration configuration = new ConfigurationImpl()
+            .setPersistenceEnabled(false)
+            .setSecurityEnabled(false)
+            .addAcceptorConfiguration("stomp", "tcp://localhost:" + brokerPort + "?protocols=STOMP");
+        configuration.setBrokerInstance(new File("target/artemis"));
+
+        broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        broker.start();
+    }
+
+    @AfterAll
+    public static void stopBroker() throws Exception {
+        broker.stop();
+    }
+
+    @DynamicPropertySource
+    public static void brokerProperties(DynamicPropertyRegistry registry) {
+        registry.add("broker.relayPort", () -> brokerPort);
+    }
+
+    @Test
+    public void socketReceivesLobbyUpdateThroughRelay() throws Exception {
+        template.getRestTemplate().setInterceptors(
+                Collections.singletonList((request, body, execution) -> {
+                    request.getHeaders().add("Authorization", TestFields.TOKEN);
+                    return execution.execute(request, body);
+                }));
+
+        String baseRestEndpoint = "http://localhost:" + port + "/api/v1/rooms";
+        CreateRoomRequest createRequest = new CreateRoomRequest();
+        createRequest.setHost(TestFields.userDto1());
+        RoomDto room = template.postForObject(baseRestEndpoint, new HttpEntity<>(createRequest), RoomDto.class);
+        assertNotNull(room);
+
+        // The relay connects to the broker in the background after startup.
+        for (int i = 0; i < 50 && !relay.isBrokerAvailable(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(relay.isBrokerAvailable());
+
+        BlockingQueue<RoomDto> blockingQueue = new ArrayBlockingQueue<>(2);
+        StompSession session = connectWithReceipts();
+
+        // Wait until the broker confirms the subscription, as it is made asynchronously.
+        CountDownLatch subscribed = new CountDownLatch(1);
+        session.subscribe(String.format(SUBSCRIBE_ENDPOINT, room.getRoomId()), new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return RoomDto.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                blockingQueue.add((RoomDto) payload);
+            }
+        }).addReceiptTask(subscribed::countDown);
+        assertTrue(subscribed.await(5, SECONDS));
+
+        JoinRoomRequest joinRequest = new JoinRoomRequest();
+        joinRequest.setUser(TestFields.userDto2());
+        String joinRoomEndpoint = String.format("%s/%s/users", baseRestEndpoint, room.getRoomId());
+        RoomDto expected = template.exchange(joinRoomEndpoint, HttpMethod.PUT, new HttpEntity<>(joinRequest), RoomDto.class).getBody();
+
+        // The update published by the app comes back from the external broker.
+        RoomDto actual = blockingQueue.poll(5, SECONDS);
+        assertNotNull(actual);
+        assertNotNull(expected);
+        assertEquals(expected.getUsers(), actual.getUsers());
+
+        session.disconnect();
+    }
+
+    // Connect as the helper does, with a scheduler to track the receipts the broker sends.
+    private StompSession connectWithReceipts() throws Exception {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.initialize();
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(new SockJsClient(
+                List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        stompClient.setTaskScheduler(scheduler);
+
+        StompHeaders headers = new StompHeaders();
+        headers.add(WebSocketConnectionEvents.USER_ID_KEY, TestFields.USER_ID);
+
+        StompSession session = stompClient.connect(CONNECT_ENDPOINT, new WebSocketHttpHeaders(), headers,
+                new StompSessionHandlerAdapter() {}, port).get(3, SECONDS);
+        session.setAutoReceipt(true);
+        return session;
+    }
+}
@@ -0,0 +1,146 @@
+package com.codejoust.main.socket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.codejoust.main.util.TestFields;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ConnectionRegistrarTests {
+
+    private static final long RETRY_MILLIS = 20;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private ConnectionRegistrar registrar;
+
+    @BeforeEach
+    public void setup() {
+        registrar = new ConnectionRegistrar(RETRY_MILLIS, MAX_ATTEMPTS);
+    }
+
+    @AfterEach
+    public void teardown() {
+        registrar.shutdown();
+    }
+
+    @Test
+    public void connectionIsRegisteredAtOnce() {
+        AtomicInteger attempts = new AtomicInteger();
+        registrar.connect(TestFields.SESSION_ID, () -> attempts.incrementAndGet() > 0);
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, registrar.getPending());
+    }
+
+    @Test
+    public void connectionIsRetriedUntilRegistered() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch registered = new CountDownLatch(1);
+
+        registrar.connect(TestFields.SESSION_ID, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                return false;
+            }
+            registered.countDown();
+            return true;
+        });
+        assertEquals(1, registrar.getPending());
+
+        assertTrue(registered.await(5, TimeUnit.SECONDS));
+        Thread.sleep(RETRY_MILLIS * 5);
+        assertEquals(3, attempts.get());
+        assertEquals(0, registrar.getPending());
+    }
+
+    @Test
+    public void connectionIsDroppedAfterMaxAttempts() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        registrar.connect(TestFields.SESSION_ID, () -> attempts.incrementAndGet() < 0);
+
+        Thread.sleep(RETRY_MILLIS * MAX_ATTEMPTS * 5);
+        assertEquals(MAX_ATTEMPTS, attempts.get());
+        assertEquals(0, registrar.getPending());
+    }
+
+    @Test
+    public void disconnectionStopsRetries() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        registrar.connect(TestFields.SESSION_ID, () -> !events.add("connect"));
+
+        CountDownLatch disconnected = new CountDownLatch(1);
+        registrar.disconnect(TestFields.SESSION_ID, () -> {
+            events.add("disconnect");
+            disconnected.countDown();
+        });
+        assertTrue(disconnected.await(5, TimeUnit.SECONDS));
+        assertEquals(0, registrar.getPending());
+
+        Thread.sleep(RETRY_MILLIS * 5);
+        assertEquals("disconnect", events.get(events.size() - 1));
+        assertTrue(events.size() < MAX_ATTEMPTS);
+    }
+
+    @Test
+    public void disconnectionWaitsForFirstAttempt() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        CountDownLatch attempting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread connecting = new Thread(() -> registrar.connect(TestFields.SESSION_ID, () -> {
+            attempting.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return !events.add("connect");
+        }));
+        connecting.start();
+        assertTrue(attempting.await(5, TimeUnit.SECONDS));
+
+        // The session is pending during its first attempt, so its disconnection runs after it.
+        Thread disconnecting = new Thread(() -> registrar.disconnect(TestFields.SESSION_ID, () -> events.add("disconnect")));
+        disconnecting.start();
+        Thread.sleep(RETRY_MILLIS);
+        release.countDown();
+        connecting.join(5000);
+        disconnecting.join(5000);
+
+        // Nor is the connection retried after.
+        Thread.sleep(RETRY_MILLIS * 5);
+        assertEquals(List.of("connect", "disconnect"), events);
+        assertEquals(0, registrar.getPending());
+    }
+
+    @Test
+    public void disconnectionRunsAtOnceWhenNothingIsPending() {
+        List<String> events = new CopyOnWriteArrayList<>();
+
+        registrar.connect(TestFields.SESSION_ID, () -> events.add("connect"));
+        registrar.disconnect(TestFields.SESSION_ID, () -> events.add("disconnect"));
+
+        assertEquals(List.of("connect", "disconnect"), events);
+    }
+
+    @Test
+    public void failedRegistrationIsNotRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        registrar.connect(TestFields.SESSION_ID, () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("The database is down.");
+        });
+
+        Thread.sleep(RETRY_MILLIS * 5);
+        assertEquals(1, attempts.get());
+        assertEquals(0, registrar.getPending());
+    }
+}
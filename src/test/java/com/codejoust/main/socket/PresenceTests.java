@@ -0,0 +1,202 @@
+package com.codejoust.main.socket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import com.codejoust.main.config.ClusterProperties;
+import com.codejoust.main.dao.PresenceRegistry;
+import com.codejoust.main.dao.PresenceRegistry.Connection;
+import com.codejoust.main.dao.RoomRepository;
+import com.codejoust.main.dto.room.RoomDto;
+import com.codejoust.main.model.Room;
+import com.codejoust.main.model.User;
+import com.codejoust.main.service.GameManagementService;
+import com.codejoust.main.service.RoomService;
+import com.codejoust.main.service.SocketService;
+import com.codejoust.main.util.TestFields;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PresenceTests {
+
+    private static final long WINDOW_MILLIS = 100;
+
+    @Mock
+    private RoomRepository repository;
+
+    @Mock
+    private RoomService roomService;
+
+    @Mock
+    private GameManagementService gameService;
+
+    @Mock
+    private SocketService socketService;
+
+    private PresenceRegistry presence;
+    private PresenceBroadcaster broadcaster;
+    private Room room;
+
+    @BeforeEach
+    public void setup() {
+        presence = new PresenceRegistry(true, new ClusterProperties());
+
+        room = new Room();
+        room.setRoomId(TestFields.ROOM_ID);
+        User host = new User();
+        host.setUserId(TestFields.USER_ID);
+        host.setNickname(TestFields.NICKNAME);
+        room.addUser(host);
+        room.setHost(host);
+
+        User user = new User();
+        user.setUserId(TestFields.USER_ID_2);
+        user.setNickname(TestFields.NICKNAME_2);
+        room.addUser(user);
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (broadcaster != null) {
+            broadcaster.shutdown();
+        }
+    }
+
+    // Read the room as the repository does, with who is connected now.
+    private void stubRoom() {
+        Mockito.when(repository.findRoomByRoomId(TestFields.ROOM_ID)).thenAnswer(invocation -> {
+            presence.apply(room);
+            return room;
+        });
+    }
+
+    @Test
+    public void connectedUsersAreApplied() {
+        room.getHost().setSessionId(TestFields.SESSION_ID);
+        presence.connect(TestFields.SESSION_ID_2, TestFields.USER_ID_2, TestFields.ROOM_ID);
+        presence.apply(room);
+
+        // The host's saved session is not read back, nor overwritten.
+        assertNull(room.getHost().getConnectedSessionId());
+        assertEquals(TestFields.SESSION_ID, room.getHost().getSessionId());
+        assertEquals(TestFields.SESSION_ID_2, room.getUsers().get(1).getConnectedSessionId());
+        assertNull(room.getUsers().get(1).getSessionId());
+        assertEquals(1, presence.getConnections());
+    }
+
+    @Test
+    public void disabledRegistryLeavesSessionsAsSaved() {
+        presence = new PresenceRegistry(false, new ClusterProperties());
+        room.getHost().setSessionId(TestFields.SESSION_ID);
+        presence.apply(room);
+
+        assertEquals(TestFields.SESSION_ID, room.getHost().getConnectedSessionId());
+    }
+
+    @Test
+    public void registryIsOffWhenClustered() {
+        ClusterProperties clusterProperties = new ClusterProperties();
+        clusterProperties.setNodes(List.of("http://node-1:8080", "http://node-2:8080"));
+
+        assertEquals(false, new PresenceRegistry(true, clusterProperties).isEnabled());
+    }
+
+    @Test
+    public void staleSessionDoesNotDisconnectReconnectedUser() {
+        presence.connect(TestFields.SESSION_ID, TestFields.USER_ID, TestFields.ROOM_ID);
+        presence.connect(TestFields.SESSION_ID_2, TestFields.USER_ID, TestFields.ROOM_ID);
+
+        assertNull(presence.disconnect(TestFields.SESSION_ID));
+        assertEquals(TestFields.SESSION_ID_2, presence.getSessionId(TestFields.USER_ID));
+
+        Connection connection = presence.disconnect(TestFields.SESSION_ID_2);
+        assertNotNull(connection);
+        assertEquals(TestFields.USER_ID, connection.getUserId());
+        assertEquals(TestFields.ROOM_ID, connection.getRoomId());
+        assertNull(presence.getSessionId(TestFields.USER_ID));
+        assertEquals(0, presence.getConnections());
+    }
+
+    @Test
+    public void disconnectedUserStaysDisconnectedUntilTheyConnectAgain() {
+        presence.connect(TestFields.SESSION_ID, TestFields.USER_ID, TestFields.ROOM_ID);
+        presence.disconnectUser(TestFields.USER_ID);
+        assertNull(presence.getSessionId(TestFields.USER_ID));
+
+        // Their old session closing changes nothing.
+        assertNull(presence.disconnect(TestFields.SESSION_ID));
+    }
+
+    @Test
+    public void flappingConnectionsSendOneUpdate() {
+        stubRoom();
+        broadcaster = new PresenceBroadcaster(repository, roomService, gameService, socketService, WINDOW_MILLIS);
+
+        for (int i = 0; i < 20; i++) {
+            String sessionId = TestFields.SESSION_ID + i;
+            presence.connect(sessionId, TestFields.USER_ID_2, TestFields.ROOM_ID);
+            broadcaster.requestUpdate(TestFields.ROOM_ID, TestFields.USER_ID_2);
+            presence.disconnect(sessionId);
+            broadcaster.requestUpdate(TestFields.ROOM_ID, TestFields.USER_ID_2);
+        }
+        presence.connect(TestFields.SESSION_ID_2, TestFields.USER_ID_2, TestFields.ROOM_ID);
+        broadcaster.requestUpdate(TestFields.ROOM_ID, TestFields.USER_ID_2);
+        assertEquals(1, broadcaster.getPending());
+
+        ArgumentCaptor<RoomDto> captor = ArgumentCaptor.forClass(RoomDto.class);
+        verify(socketService, timeout(1000)).sendSocketUpdate(captor.capture());
+        verify(socketService, after(3 * WINDOW_MILLIS).times(1)).sendSocketUpdate(Mockito.any(RoomDto.class));
+
+        assertEquals(1, captor.getValue().getActiveUsers().size());
+        assertEquals(TestFields.SESSION_ID_2, captor.getValue().getActiveUsers().get(0).getSessionId());
+        verify(gameService).conditionallyUpdateSocketInfo(room, List.of(room.getUsers().get(1)));
+        verify(roomService, never()).conditionallyUpdateRoomHost(Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        assertEquals(0, broadcaster.getPending());
+    }
+
+    @Test
+    public void disconnectedHostIsReplaced() {
+        stubRoom();
+        broadcaster = new PresenceBroadcaster(repository, roomService, gameService, socketService, 0);
+        RoomDto roomDto = new RoomDto();
+        Mockito.when(roomService.conditionallyUpdateRoomHost(room, room.getHost(), false)).thenReturn(roomDto);
+
+        presence.connect(TestFields.SESSION_ID, TestFields.USER_ID, TestFields.ROOM_ID);
+        presence.connect(TestFields.SESSION_ID_2, TestFields.USER_ID_2, TestFields.ROOM_ID);
+        presence.disconnect(TestFields.SESSION_ID);
+        broadcaster.requestUpdate(TestFields.ROOM_ID, TestFields.USER_ID);
+
+        verify(roomService).conditionallyUpdateRoomHost(room, room.getHost(), false);
+        verify(socketService).sendSocketUpdate(roomDto);
+    }
+
+    @Test
+    public void hostWhoReconnectsIsKept() {
+        stubRoom();
+        broadcaster = new PresenceBroadcaster(repository, roomService, gameService, socketService, WINDOW_MILLIS);
+
+        presence.connect(TestFields.SESSION_ID, TestFields.USER_ID, TestFields.ROOM_ID);
+        presence.disconnect(TestFields.SESSION_ID);
+        broadcaster.requestUpdate(TestFields.ROOM_ID, TestFields.USER_ID);
+        presence.connect(TestFields.SESSION_ID_2, TestFields.USER_ID, TestFields.ROOM_ID);
+        broadcaster.requestUpdate(TestFields.ROOM_ID, TestFields.USER_ID);
+
+        verify(socketService, timeout(1000)).sendSocketUpdate(Mockito.any(RoomDto.class));
+        verify(roomService, never()).conditionallyUpdateRoomHost(Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+    }
+}
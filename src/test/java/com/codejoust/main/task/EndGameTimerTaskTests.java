@@ -6,6 +6,8 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 
+import java.util.concurrent.TimeUnit;
+
 import com.codejoust.main.dto.game.GameDto;
 import com.codejoust.main.dto.game.GameMapper;
 import com.codejoust.main.exception.api.ApiException;
@@ -14,6 +16,7 @@ import com.codejoust.main.game_object.GameTimer;
 import com.codejoust.main.model.Room;
 import com.codejoust.main.model.User;
 import com.codejoust.main.model.problem.ProblemDifficulty;
+import com.codejoust.main.service.GameScheduler;
 import com.codejoust.main.service.SocketService;
 
 import com.codejoust.main.util.EndGameTimerTask;
@@ -131,7 +134,8 @@ public class EndGameTimerTaskTests {
         MockitoAnnotations.initMocks(this);
 
         EndGameTimerTask endGameTimerTask = new EndGameTimerTask(socketService, game);
-        gameTimer.getTimer().schedule(endGameTimerTask,  1000L);
+        GameScheduler scheduler = new GameScheduler(1, 10, 64);
+        gameTimer.setEndGameTask(scheduler.schedule(endGameTimerTask, 1L, TimeUnit.SECONDS));
 
         /**
          * Confirm that the socket update is not called immediately, 
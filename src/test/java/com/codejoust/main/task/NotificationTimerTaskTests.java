@@ -10,11 +10,12 @@ import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 
 import java.time.Instant;
-import java.util.Timer;
+import java.util.concurrent.TimeUnit;
 
 import com.codejoust.main.dto.game.GameNotificationDto;
 import com.codejoust.main.exception.api.ApiException;
 import com.codejoust.main.game_object.NotificationType;
+import com.codejoust.main.service.GameScheduler;
 import com.codejoust.main.service.SocketService;
 
 import com.codejoust.main.util.NotificationTimerTask;
@@ -61,9 +62,9 @@ public class NotificationTimerTaskTests {
     public void notificationTimerTaskSocketMessage() {
         MockitoAnnotations.initMocks(this);
 
-        Timer timer = new Timer();
+        GameScheduler scheduler = new GameScheduler(1, 10, 64);
         NotificationTimerTask notificationTimerTask = new NotificationTimerTask(socketService, ROOM_ID, TIME_LEFT);
-        timer.schedule(notificationTimerTask, (long) 1 * 1000);
+        scheduler.schedule(notificationTimerTask, 1L, TimeUnit.SECONDS);
 
         /**
          * Confirm that the socket update is not called immediately, 
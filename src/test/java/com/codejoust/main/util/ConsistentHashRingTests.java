@@ -0,0 +1,94 @@
+package com.codejoust.main.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class ConsistentHashRingTests {
+
+    private static final int NUM_KEYS = 30000;
+    private static final List<String> NODES = List.of("http://node-a", "http://node-b", "http://node-c");
+
+    private ConsistentHashRing<String> createRing() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(128);
+        NODES.forEach(ring::add);
+        return ring;
+    }
+
+    private Map<String, String> assign(ConsistentHashRing<String> ring) {
+        Map<String, String> owners = new HashMap<>();
+        for (int i = 0; i < NUM_KEYS; i++) {
+            String key = String.format("%06d", i);
+            owners.put(key, ring.get(key));
+        }
+        return owners;
+    }
+
+    @Test
+    public void emptyRingHasNoOwner() {
+        assertNull(new ConsistentHashRing<String>(16).get("012345"));
+    }
+
+    @Test
+    public void keysAreSpreadEvenlyAndStably() {
+        Map<String, String> owners = assign(createRing());
+
+        // Another ring with the same nodes agrees on every key.
+        assertEquals(owners, assign(createRing()));
+
+        Map<String, Integer> counts = new HashMap<>();
+        owners.values().forEach(node -> counts.merge(node, 1, Integer::sum));
+        assertEquals(Set.copyOf(NODES), counts.keySet());
+        for (int count : counts.values()) {
+            assertTrue(Math.abs(count - NUM_KEYS / NODES.size()) < NUM_KEYS / 10, "Uneven share: " + counts);
+        }
+    }
+
+    @Test
+    public void removingNodeOnlyMovesItsKeys() {
+        ConsistentHashRing<String> ring = createRing();
+        Map<String, String> before = assign(ring);
+
+        assertTrue(ring.remove("http://node-b"));
+        assertFalse(ring.remove("http://node-b"));
+        Map<String, String> after = assign(ring);
+
+        for (String key : before.keySet()) {
+            if (!before.get(key).equals("http://node-b")) {
+                assertEquals(before.get(key), after.get(key));
+            } else {
+                assertFalse(after.get(key).equals("http://node-b"));
+            }
+        }
+
+        // Adding it back restores the original owners.
+        assertTrue(ring.add("http://node-b"));
+        assertEquals(before, assign(ring));
+    }
+
+    @Test
+    public void addingNodeTakesAboutItsShare() {
+        ConsistentHashRing<String> ring = createRing();
+        Map<String, String> before = assign(ring);
+
+        ring.add("http://node-d");
+        Map<String, String> after = assign(ring);
+
+        int moved = 0;
+        for (String key : before.keySet()) {
+            if (!before.get(key).equals(after.get(key))) {
+                assertEquals("http://node-d", after.get(key));
+                moved++;
+            }
+        }
+        assertTrue(Math.abs(moved - NUM_KEYS / 4) < NUM_KEYS / 10, "Moved " + moved + " keys");
+    }
+}
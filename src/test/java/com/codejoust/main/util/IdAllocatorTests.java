@@ -0,0 +1,125 @@
+package com.codejoust.main.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class IdAllocatorTests {
+
+    private final Random random = new Random(0);
+
+    @Test
+    public void allocatesEveryIdOnceThenRunsOut() {
+        IdAllocator allocator = new IdAllocator(2);
+        Set<String> ids = new HashSet<>();
+
+        for (int i = 0; i < 100; i++) {
+            String id = allocator.allocate(random);
+            assertNotNull(id);
+            assertEquals(2, id.length());
+            assertTrue(ids.add(id));
+        }
+
+        assertTrue(ids.contains("00"));
+        assertEquals(0, allocator.getFree());
+        assertNull(allocator.allocate(random));
+    }
+
+    @Test
+    public void reservedIdsAreNotAllocated() {
+        IdAllocator allocator = new IdAllocator(2);
+        for (int i = 0; i < 99; i++) {
+            allocator.reserve(String.format("%02d", i));
+        }
+
+        assertEquals(1, allocator.getFree());
+        assertEquals("99", allocator.allocate(random));
+        assertTrue(allocator.isUsed("99"));
+    }
+
+    @Test
+    public void releasedIdIsAllocatedAgain() {
+        IdAllocator allocator = new IdAllocator(2);
+        for (int i = 0; i < 100; i++) {
+            allocator.allocate(random);
+        }
+
+        allocator.release("42");
+        assertFalse(allocator.isUsed("42"));
+        assertEquals("42", allocator.allocate(random));
+    }
+
+    @Test
+    public void cancelledIdIsFreedOnlyWhilePending() {
+        IdAllocator allocator = new IdAllocator(2);
+        String cancelled = allocator.allocate(random);
+        String saved = allocator.allocate(random);
+        assertTrue(allocator.isPending(cancelled));
+
+        allocator.cancel(cancelled);
+        assertFalse(allocator.isUsed(cancelled));
+        assertFalse(allocator.isPending(cancelled));
+
+        // An ID reserved once saved stays in use, however often it is cancelled.
+        allocator.reserve(saved);
+        allocator.cancel(saved);
+        assertTrue(allocator.isUsed(saved));
+        assertFalse(allocator.isPending(saved));
+        assertEquals(99, allocator.getFree());
+    }
+
+    @Test
+    public void idsOfOtherFormatsAreIgnored() {
+        IdAllocator allocator = new IdAllocator(2);
+        allocator.reserve("abc");
+        allocator.reserve("1a");
+        allocator.reserve("123");
+        allocator.reserve(null);
+        allocator.release("7");
+        allocator.cancel(null);
+
+        assertEquals(100, allocator.getFree());
+    }
+
+    @Test
+    public void nodesAllocateFromTheirOwnBlocks() {
+        int numNodes = 3;
+        Set<String> ids = new HashSet<>();
+
+        for (int node = 0; node < numNodes; node++) {
+            IdAllocator allocator = new IdAllocator(3, 10, node, numNodes);
+
+            // Blocks 0, 3, ..., 99 go to the first node, and 33 blocks to each other node.
+            int expected = node == 0 ? 340 : 330;
+            assertEquals(expected, allocator.getFree());
+
+            for (int i = 0; i < expected; i++) {
+                String id = allocator.allocate(random);
+                assertEquals(node, (Integer.parseInt(id) / 10) % numNodes);
+                assertTrue(ids.add(id));
+            }
+            assertNull(allocator.allocate(random));
+
+            // Another node's IDs are never freed here.
+            allocator.release(node == 0 ? "010" : "000");
+            assertNull(allocator.allocate(random));
+        }
+
+        assertEquals(1000, ids.size());
+    }
+
+    @Test
+    public void invalidNodeFails() {
+        assertThrows(IllegalArgumentException.class, () -> new IdAllocator(6, 1000, 2, 2));
+        assertThrows(IllegalArgumentException.class, () -> new IdAllocator(10));
+    }
+}
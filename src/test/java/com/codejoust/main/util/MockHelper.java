@@ -5,7 +5,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -17,6 +20,21 @@ import java.lang.reflect.Type;
 
 public class MockHelper {
 
+    private static final long ASYNC_TIMEOUT_MILLIS = 10000;
+
+    // Perform the request, dispatching again if it was handled asynchronously.
+    private static ResultActions perform(MockMvc mockMvc, RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+
+        if (result.getRequest().isAsyncStarted()) {
+            result.getAsyncResult(ASYNC_TIMEOUT_MILLIS);
+            return mockMvc.perform(asyncDispatch(result));
+        }
+
+        return actions;
+    }
+
     public static <T> T getRequest(MockMvc mockMvc, String url, Class<T> c, HttpStatus status) throws Exception {
         MvcResult result = mockMvc.perform(get(url)
                 .header(HttpHeaders.AUTHORIZATION, TestFields.TOKEN))
@@ -38,7 +56,7 @@ public class MockHelper {
     }
 
     public static <T> T postRequest(MockMvc mockMvc, String url, Object body, Class<T> c, HttpStatus status) throws Exception {
-        MvcResult result = mockMvc.perform(post(url)
+        MvcResult result = perform(mockMvc, post(url)
                 .header(HttpHeaders.AUTHORIZATION, TestFields.TOKEN)
                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                 .content(UtilityTestMethods.convertObjectToJsonString(body)))
@@ -50,7 +68,7 @@ public class MockHelper {
     }
 
     public static <T> T postRequestNoHeaders(MockMvc mockMvc, String url, Object body, Class<T> c, HttpStatus status) throws Exception {
-        MvcResult result = mockMvc.perform(post(url)
+        MvcResult result = perform(mockMvc, post(url)
                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                 .content(UtilityTestMethods.convertObjectToJsonString(body)))
                 .andDo(print()).andExpect(status().is(status.value()))
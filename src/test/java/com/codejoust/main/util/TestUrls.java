@@ -17,11 +17,13 @@ public class TestUrls {
     private static final String POST_RUN_CODE = "/api/v1/games/%s/run-code";
     private static final String POST_SUBMISSION = "/api/v1/games/%s/submission";
     private static final String POST_NOTIFICATION = "/api/v1/games/%s/notification";
+    private static final String GET_PROBLEM_STATISTICS = "/api/v1/games/%s/statistics?userId=%s";
 
     private static final String GET_PROBLEM = "/api/v1/problems/%s";
     private static final String GET_DEFAULT_CODE = "/api/v1/problems/%s/default-code";
     private static final String GET_PROBLEM_RANDOM = "/api/v1/problems/random";
     private static final String GET_PROBLEM_ALL = "/api/v1/problems";
+    private static final String GET_PROBLEM_PAGE = "/api/v1/problems/summaries?%s";
     private static final String POST_PROBLEM_CREATE = "/api/v1/problems";
     private static final String POST_TEST_CASE_CREATE = "/api/v1/problems/%s/test-case";
     private static final String PUT_PROBLEM_EDIT = "/api/v1/problems/%s";
@@ -33,6 +35,7 @@ public class TestUrls {
 
     private static final String USER = "/api/v1/user";
     private static final String GET_INSTANT = "/api/v1/get-instant";
+    private static final String GET_ROOM_CACHE_STATS = "/api/v1/cache/rooms";
 
     private static final String GET_ACCOUNT = "/api/v1/accounts/%s";
 
@@ -89,6 +92,10 @@ public class TestUrls {
         return String.format(POST_NOTIFICATION, roomId);
     }
 
+    public static String getProblemStatistics(String roomId, String userId) {
+        return String.format(GET_PROBLEM_STATISTICS, roomId, userId);
+    }
+
     public static String getProblem(String problemId) {
         return String.format(GET_PROBLEM, problemId);
     }
@@ -105,6 +112,10 @@ public class TestUrls {
         return GET_PROBLEM_ALL;
     }
 
+    public static String getProblemPage(String query) {
+        return String.format(GET_PROBLEM_PAGE, query);
+    }
+
     public static String createProblem() {
         return POST_PROBLEM_CREATE;
     }
@@ -145,6 +156,10 @@ public class TestUrls {
         return GET_INSTANT;
     }
 
+    public static String getRoomCacheStats() {
+        return GET_ROOM_CACHE_STATS;
+    }
+
     public static String getAccount(String uid) {
         return String.format(GET_ACCOUNT, uid);
     }
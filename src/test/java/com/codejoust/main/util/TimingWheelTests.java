@@ -0,0 +1,111 @@
+package com.codejoust.main.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelTests {
+
+    private static final long TICK_MILLIS = 10;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    // A small wheel, so longer delays take several rounds.
+    private final TimingWheel wheel = new TimingWheel("test-wheel", TICK_MILLIS, TimeUnit.MILLISECONDS, 8, executor);
+
+    @AfterEach
+    public void teardown() {
+        wheel.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void scheduledTaskRunsAfterDelay() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        long start = System.nanoTime();
+        TimingWheel.Timeout timeout = wheel.schedule(ran::countDown, 200, TimeUnit.MILLISECONDS);
+
+        // The delay spans more than two turns of the wheel.
+        assertTrue(ran.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertTrue(timeout.isExpired());
+        assertEquals(0, wheel.getPending());
+    }
+
+    @Test
+    public void tasksRunInDeadlineOrder() throws Exception {
+        List<Integer> order = new ArrayList<>();
+        CountDownLatch ran = new CountDownLatch(3);
+        wheel.schedule(() -> { order.add(3); ran.countDown(); }, 150, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> { order.add(1); ran.countDown(); }, 20, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> { order.add(2); ran.countDown(); }, 90, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2, 3), order);
+    }
+
+    @Test
+    public void cancelledTaskDoesNotRun() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        TimingWheel.Timeout timeout = wheel.schedule(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        assertEquals(1, wheel.getPending());
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        assertEquals(0, wheel.getPending());
+
+        Thread.sleep(150);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void failedTaskDoesNotStopLaterTasks() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        wheel.schedule(() -> {
+            throw new IllegalStateException();
+        }, 0, TimeUnit.MILLISECONDS);
+        wheel.schedule(ran::countDown, 30, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void holdsManyDeadlines() throws Exception {
+        int numTasks = 50000;
+        CountDownLatch ran = new CountDownLatch(numTasks / 2);
+        List<TimingWheel.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < numTasks; i++) {
+            TimingWheel.Timeout timeout = wheel.schedule(ran::countDown, 100 + i % 200, TimeUnit.MILLISECONDS);
+            timeouts.add(timeout);
+
+            // Cancel every other task before it is due.
+            if (i % 2 == 1) {
+                assertTrue(timeout.cancel());
+            }
+        }
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(0, wheel.getPending());
+        assertEquals(numTasks / 2, timeouts.stream().filter(TimingWheel.Timeout::isExpired).count());
+    }
+
+    @Test
+    public void scheduleAfterStopFails() {
+        wheel.stop();
+        assertThrows(IllegalStateException.class, () -> wheel.schedule(() -> { }, 0, TimeUnit.MILLISECONDS));
+    }
+}
@@ -14,12 +14,18 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.codejoust.main.config.ClusterProperties;
 import com.codejoust.main.dao.RoomRepository;
 import com.codejoust.main.dao.UserRepository;
-import com.codejoust.main.model.User;
 import com.codejoust.main.service.RoomService;
 import com.codejoust.main.service.UserService;
 
@@ -36,6 +42,9 @@ public class UtilityTests {
     @Mock
 	private RoomRepository roomRepository;
 
+    @Spy
+    private ClusterProperties clusterProperties = new ClusterProperties();
+
     @Test
     public void generateValidRoomId() {
         // Verify room ids are generated correctly
@@ -63,24 +72,23 @@ public class UtilityTests {
     }
 
     @Test
-    public void generateValidUserIdSecondTime() {
-        /**
-         * Simulate first user ID already existing in the database, and second 
-         * user ID not present in the database.
-         */
-        User nullUser = null;
-        Mockito.doReturn(new User(), nullUser).when(userRepository).findUserByUserId(Mockito.any(String.class));
-        String userId = utility.generateUniqueId(UserService.USER_ID_LENGTH, Utility.USER_ID_KEY);
-
-        // Confirm that the method was indeed called two times.
-        verify(userRepository, times(2)).findUserByUserId(Mockito.any(String.class));
-
-        assertEquals(UserService.USER_ID_LENGTH, userId.length());
+    public void generateUserIdReadsIdsInUseOnce() {
+        List<String> userIds = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            userIds.add("12345" + i);
+        }
+        Mockito.doReturn(userIds).when(userRepository).findAllUserIds();
 
-        for (char c : userId.toCharArray()) {
-            assertTrue(c >= '0');
-            assertTrue(c <= '9');
+        Set<String> generated = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            String userId = utility.generateUniqueId(UserService.USER_ID_LENGTH, Utility.USER_ID_KEY);
+            assertFalse(userIds.contains(userId));
+            assertTrue(generated.add(userId));
         }
+
+        // The IDs in use are read from the database once, and no candidate is checked against it.
+        verify(userRepository, times(1)).findAllUserIds();
+        verify(userRepository, never()).findUserByUserId(Mockito.any(String.class));
     }
 
     @Test
@@ -88,6 +96,14 @@ public class UtilityTests {
         assertThrows(IllegalArgumentException.class, () -> utility.generateUniqueId(UserService.USER_ID_LENGTH, "INVALID_KEY"));
     }
 
+    @Test
+    public void generateIdOnNodeMissingFromClusterFails() {
+        clusterProperties.setSelf("http://c");
+        clusterProperties.setNodes(List.of("http://a", "http://b"));
+
+        assertThrows(IllegalStateException.class, () -> utility.generateUniqueId(RoomService.ROOM_ID_LENGTH, Utility.ROOM_ID_KEY));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"await", "7del", "finally", "is", "elif"})
     public void validateIdentifierFalse(String inputName) {